@@ -0,0 +1,105 @@
+package com.heidelpay.payment.benchmark;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+import com.heidelpay.payment.communication.JsonBigDecimalConverter;
+import com.heidelpay.payment.util.DateUtil;
+
+/**
+ * Dates and amounts as written and read by the json converters: with a
+ * formatter created per call as before and with the {@code DateUtil} and
+ * {@code BigDecimal} based converters. The allocation rates are compared by
+ * the gc profiler of JMH ({@code -prof gc}), the allocations per call are
+ * guarded by the {@code DateUtilTest}.
+ * 
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=ConverterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+	private final Date date = new Date(1546300800000L);
+	private final String dateTime = "2019-01-01 12:34:56";
+	private final BigDecimal amount = new BigDecimal("49.99");
+	private final JsonBigDecimalConverter bigDecimalConverter = new JsonBigDecimalConverter();
+
+	@Benchmark
+	public String formatDateWithSimpleDateFormat() {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date);
+	}
+
+	@Benchmark
+	public String formatDate() {
+		return DateUtil.formatDateTime(date);
+	}
+
+	@Benchmark
+	public Date parseDateWithSimpleDateFormat() throws ParseException {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(dateTime);
+	}
+
+	@Benchmark
+	public Date parseDate() throws ParseException {
+		return DateUtil.parse(dateTime);
+	}
+
+	@Benchmark
+	public String formatAmountWithDecimalFormat() {
+		DecimalFormat df = new DecimalFormat();
+		df.setMaximumFractionDigits(4);
+		df.setMinimumFractionDigits(4);
+		DecimalFormatSymbols decimalFormatSymbols = new DecimalFormatSymbols(Locale.ENGLISH);
+		decimalFormatSymbols.setDecimalSeparator('.');
+		df.setDecimalFormatSymbols(decimalFormatSymbols);
+		df.setGroupingUsed(false);
+		return df.format(amount.setScale(4, BigDecimal.ROUND_HALF_UP));
+	}
+
+	@Benchmark
+	public JsonElement formatAmount() {
+		return bigDecimalConverter.serialize(amount, BigDecimal.class, null);
+	}
+}
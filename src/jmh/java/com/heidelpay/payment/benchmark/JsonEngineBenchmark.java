@@ -0,0 +1,129 @@
+package com.heidelpay.payment.benchmark;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.GsonBuilder;
+import com.heidelpay.payment.communication.GsonJsonEngine;
+import com.heidelpay.payment.communication.JsonBigDecimalConverter;
+import com.heidelpay.payment.communication.JsonCurrencyConverter;
+import com.heidelpay.payment.communication.JsonDateTimeConverter;
+import com.heidelpay.payment.communication.JsonEngine;
+import com.heidelpay.payment.communication.JsonFieldIgnoreStragegy;
+import com.heidelpay.payment.communication.JsonPayload;
+import com.heidelpay.payment.communication.JsonStringConverter;
+import com.heidelpay.payment.communication.JsonURLConverter;
+
+/**
+ * Compares the {@code JsonEngine} implementations on the api payloads of the
+ * test resources: parsing a response from a String and from a Reader, and
+ * writing the parsed object. Further engines on the classpath are compared by
+ * their class name:
+ * 
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark="JsonEngineBenchmark -p engine=gson,com.example.OtherJsonEngine"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonEngineBenchmark {
+
+	@Param({ "gson", "gson-reflective" })
+	private String engine;
+
+	@Param({ "charge.json", "payment.json", "paypage.json", "customer.json" })
+	private String payload;
+
+	private JsonEngine jsonEngine;
+	private Class<?> type;
+	private String json;
+	private Object value;
+
+	@Setup
+	public void setUp() throws IOException, ReflectiveOperationException {
+		jsonEngine = createEngine(engine);
+		for (JsonPayload candidate : JsonPayload.loadAll()) {
+			if (candidate.getName().equals(payload)) {
+				type = candidate.getType();
+				json = candidate.getJson();
+			}
+		}
+		if (json == null) {
+			throw new IllegalArgumentException("Unknown payload " + payload);
+		}
+		value = jsonEngine.fromJson(json, type);
+	}
+
+	private static JsonEngine createEngine(String name) throws ReflectiveOperationException {
+		if ("gson".equals(name)) {
+			return new GsonJsonEngine();
+		}
+		if ("gson-reflective".equals(name)) {
+			return new GsonJsonEngine(new GsonBuilder()
+					.addSerializationExclusionStrategy(new JsonFieldIgnoreStragegy())
+					.registerTypeAdapter(Date.class, new JsonDateTimeConverter())
+					.registerTypeAdapter(String.class, new JsonStringConverter())
+					.registerTypeAdapter(BigDecimal.class, new JsonBigDecimalConverter())
+					.registerTypeAdapter(URL.class, new JsonURLConverter())
+					.registerTypeAdapter(Currency.class, new JsonCurrencyConverter()).create());
+		}
+		return (JsonEngine) Class.forName(name).getDeclaredConstructor().newInstance();
+	}
+
+	@Benchmark
+	public Object parse() {
+		return jsonEngine.fromJson(json, type);
+	}
+
+	@Benchmark
+	public Object parseFromReader() {
+		return jsonEngine.fromJson(new StringReader(json), type);
+	}
+
+	@Benchmark
+	public String serialize() {
+		return jsonEngine.toJson(value);
+	}
+}
@@ -0,0 +1,135 @@
+package com.heidelpay.payment.benchmark;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.math.BigDecimal;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.communication.JsonBigDecimalConverter;
+import com.heidelpay.payment.communication.JsonCurrencyConverter;
+import com.heidelpay.payment.communication.JsonDateTimeConverter;
+import com.heidelpay.payment.communication.JsonFieldIgnoreStragegy;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.JsonStringConverter;
+import com.heidelpay.payment.communication.JsonURLConverter;
+import com.heidelpay.payment.communication.json.JsonCharge;
+import com.heidelpay.payment.communication.json.JsonObject;
+import com.heidelpay.payment.communication.mapper.JsonToBusinessClassMapper;
+
+/**
+ * Json handling of a charge request: serializing the request body and parsing
+ * the response, with a parser created per request as before and with the shared
+ * parser. The pretty printing variant shows the cost of the debug mode, the
+ * reflection variant the gain of the generated TypeAdapters.
+ * 
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=JsonParserBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParserBenchmark {
+
+	private JsonObject request;
+	private String response;
+	private Gson reflectiveGson;
+
+	@Setup
+	public void setUp() throws MalformedURLException {
+		Charge charge = new Charge();
+		charge.setAmount(new BigDecimal("49.99"))
+				.setCurrency(Currency.getInstance("EUR"))
+				.setTypeId("s-crd-fm7tifzkqewy")
+				.setCustomerId("s-cst-50c14d49e2fe")
+				.setBasketId("s-bsk-1254")
+				.setOrderId("order-4711")
+				.setReturnUrl(new URL("https://www.heidelpay.com"));
+		request = new JsonToBusinessClassMapper().map(charge);
+		response = JsonParser.getInstance().toJson(request);
+		reflectiveGson = new GsonBuilder()
+				.addSerializationExclusionStrategy(new JsonFieldIgnoreStragegy())
+				.registerTypeAdapter(Date.class, new JsonDateTimeConverter())
+				.registerTypeAdapter(String.class, new JsonStringConverter())
+				.registerTypeAdapter(BigDecimal.class, new JsonBigDecimalConverter())
+				.registerTypeAdapter(URL.class, new JsonURLConverter())
+				.registerTypeAdapter(Currency.class, new JsonCurrencyConverter()).create();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Benchmark
+	public String serializeWithParserPerRequest() {
+		return new JsonParser().toJson(request);
+	}
+
+	@Benchmark
+	public String serializeWithSharedParser() {
+		return JsonParser.getInstance().toJson(request);
+	}
+
+	@Benchmark
+	public String serializeWithReflection() {
+		return reflectiveGson.toJson(request);
+	}
+
+	@Benchmark
+	public String serializeWithPrettyPrinting() {
+		return JsonParser.getPrettyPrintingInstance().toJson(request);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Benchmark
+	public JsonCharge parseWithParserPerRequest() {
+		return new JsonParser().fromJson(response, JsonCharge.class);
+	}
+
+	@Benchmark
+	public JsonCharge parseWithSharedParser() {
+		return JsonParser.getInstance().fromJson(response, JsonCharge.class);
+	}
+
+	@Benchmark
+	public JsonCharge parseWithReflection() {
+		return reflectiveGson.fromJson(response, JsonCharge.class);
+	}
+}
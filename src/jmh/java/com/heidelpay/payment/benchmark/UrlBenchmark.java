@@ -0,0 +1,212 @@
+package com.heidelpay.payment.benchmark;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.Recurring;
+import com.heidelpay.payment.marketplace.MarketplaceCancel;
+import com.heidelpay.payment.paymenttypes.Card;
+import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.service.UrlUtil;
+import com.heidelpay.payment.util.DateUtil;
+
+/**
+ * The urls of all kinds of routes, built by searching and replacing the
+ * placeholders as before and by the compiled route table of the {@code UrlUtil}.
+ * The allocation rates are compared by the gc profiler of JMH ({@code -prof gc}).
+ * 
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=UrlBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+
+	private static final String END_POINT = "https://api.heidelpay.com/v1/";
+
+	@Param({ "restUrl", "paymentUrl", "httpGetUrl", "refund", "recurring", "hirePurchase", "marketplaceCancel" })
+	private String route;
+
+	private final UrlUtil urlUtil = new UrlUtil(END_POINT);
+	private final ReplacingUrlUtil replacingUrlUtil = new ReplacingUrlUtil(END_POINT);
+	private final Charge charge = new Charge();
+	private final Card card = new Card("4444333322221111", "03/20");
+	private final Recurring recurring = new Recurring();
+	private final MarketplaceCancel marketplaceCancel = new MarketplaceCancel();
+	private final BigDecimal amount = new BigDecimal("100.50");
+	private final BigDecimal effectiveInterestRate = new BigDecimal("5.99");
+	private final Currency currency = Currency.getInstance("EUR");
+	private final Date orderDate = new Date(1546300800000L);
+
+	@Setup
+	public void setUp() {
+		recurring.setTypeId("s-crd-fm7tifzkqewy");
+	}
+
+	@Benchmark
+	public String replacingPlaceholders() {
+		if ("restUrl".equals(route)) {
+			return replacingUrlUtil.getRestUrl(card);
+		} else if ("paymentUrl".equals(route)) {
+			return replacingUrlUtil.getPaymentUrl(charge, "s-pay-1", "s-chg-1");
+		} else if ("httpGetUrl".equals(route)) {
+			return replacingUrlUtil.getHttpGetUrl(card, "s-crd-fm7tifzkqewy");
+		} else if ("refund".equals(route)) {
+			return replacingUrlUtil.getRefundUrl("s-pay-1", "s-chg-1");
+		} else if ("recurring".equals(route)) {
+			return replacingUrlUtil.getRecurringUrl(recurring);
+		} else if ("hirePurchase".equals(route)) {
+			return replacingUrlUtil.getHirePurchaseRateUrl(amount, currency, effectiveInterestRate, orderDate);
+		}
+		return replacingUrlUtil.getRestUrl().concat(String.format("marketplace/payments/%1$s/charges/%2$s/cancels", "s-pay-1", "s-chg-1"));
+	}
+
+	@Benchmark
+	public String routeTable() {
+		if ("restUrl".equals(route)) {
+			return urlUtil.getRestUrl(card);
+		} else if ("paymentUrl".equals(route)) {
+			return urlUtil.getPaymentUrl(charge, "s-pay-1", "s-chg-1");
+		} else if ("httpGetUrl".equals(route)) {
+			return urlUtil.getHttpGetUrl(card, "s-crd-fm7tifzkqewy");
+		} else if ("refund".equals(route)) {
+			return urlUtil.getRefundUrl("s-pay-1", "s-chg-1");
+		} else if ("recurring".equals(route)) {
+			return urlUtil.getRecurringUrl(recurring);
+		} else if ("hirePurchase".equals(route)) {
+			return urlUtil.getHirePurchaseRateUrl(amount, currency, effectiveInterestRate, orderDate);
+		}
+		return urlUtil.getRestUrl().concat(marketplaceCancel.getPartialChargeCancelUrl("s-pay-1", "s-chg-1"));
+	}
+
+	/**
+	 * The urls as built before the route table, each with a new {@code StringBuilder}
+	 * and a search and replace of the placeholders.
+	 */
+	private static final class ReplacingUrlUtil {
+
+		private final String endPoint;
+
+		private ReplacingUrlUtil(String endPoint) {
+			this.endPoint = endPoint;
+		}
+
+		String getRefundUrl(String paymentId, String chargeId) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrl());
+			appendSlashIfNeeded(stringBuilder);
+			stringBuilder.append("payments/<paymentId>/charges/<chargeId>/cancels");
+			String result = stringBuilder.toString();
+			result = result.replace("<paymentId>", paymentId);
+			return result.replace("<chargeId>", chargeId);
+		}
+
+		String getPaymentUrl(PaymentType paymentType, String paymentId, String id) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrlInternal(paymentType));
+			appendSlashIfNeeded(stringBuilder);
+			stringBuilder.append(id);
+			String result = stringBuilder.toString();
+			return result.replace("<paymentId>", paymentId);
+		}
+
+		String getHttpGetUrl(PaymentType paymentType, String id) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrl(paymentType));
+			appendSlashIfNeeded(stringBuilder);
+			stringBuilder.append(id);
+			return stringBuilder.toString();
+		}
+
+		String getRecurringUrl(Recurring recurring) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrl());
+			appendSlashIfNeeded(stringBuilder);
+			stringBuilder.append("types/<typeId>/recurring");
+			return stringBuilder.toString().replace("<typeId>", recurring.getTypeId());
+		}
+
+		String getRestUrl(PaymentType paymentType) {
+			return getRestUrlInternal(paymentType).replace("<paymentId>/", "");
+		}
+
+		String getRestUrl() {
+			return endPoint;
+		}
+
+		String getHirePurchaseRateUrl(BigDecimal amount, Currency currency, BigDecimal effectiveInterestRate, Date orderDate) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrl());
+			stringBuilder.append("types/hire-purchase-direct-debit/plans?");
+			stringBuilder.append("amount=").append(getBigDecimal(amount)).append("&");
+			stringBuilder.append("currency=").append(currency.getCurrencyCode()).append("&");
+			stringBuilder.append("effectiveInterest=").append(getBigDecimal(effectiveInterestRate)).append("&");
+			stringBuilder.append("orderDate=").append(DateUtil.formatDate(orderDate));
+			return stringBuilder.toString();
+		}
+
+		private String getRestUrlInternal(PaymentType paymentType) {
+			StringBuilder stringBuilder = new StringBuilder();
+			stringBuilder.append(getRestUrl());
+			appendSlashIfNeeded(stringBuilder);
+			stringBuilder.append(paymentType.getTypeUrl());
+			return stringBuilder.toString();
+		}
+
+		private static void appendSlashIfNeeded(StringBuilder stringBuilder) {
+			if (stringBuilder.charAt(stringBuilder.length() - 1) != '/') {
+				stringBuilder.append("/");
+			}
+		}
+
+		private static String getBigDecimal(BigDecimal decimal) {
+			BigDecimal rounded = decimal.setScale(4, RoundingMode.HALF_EVEN);
+			if (rounded.signum() == 0) {
+				return decimal.signum() < 0 ? "-0" : "0";
+			}
+			return rounded.stripTrailingZeros().toPlainString();
+		}
+	}
+}
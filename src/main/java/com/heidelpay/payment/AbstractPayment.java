@@ -21,8 +21,10 @@ package com.heidelpay.payment;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.json.JsonTransaction;
 import com.heidelpay.payment.paymenttypes.PaymentType;
 
 public abstract class AbstractPayment implements PaymentType {
@@ -34,6 +36,13 @@ public abstract class AbstractPayment implements PaymentType {
 		COMPLETED, PENDING, CANCELED, PARTLY, PAYMENT_REVIEW, CHARGEBACK
 	}
 
+	/**
+	 * Fetches the transactions of a lazily loaded payment and sets them on the payment.
+	 */
+	public interface TransactionFetcher {
+		void fetchTransactions(List<JsonTransaction> transactions) throws HttpCommunicationException;
+	}
+
 	private State paymentState;
 	private BigDecimal amountTotal;
 	private BigDecimal amountCharged;
@@ -50,6 +59,9 @@ public abstract class AbstractPayment implements PaymentType {
 	private Basket basket;
 
 	private transient Heidelpay heidelpay;
+	private transient List<JsonTransaction> unresolvedTransactions;
+	private transient volatile TransactionFetcher transactionFetcher;
+	private transient boolean resolvingTransactions;
 
 	public AbstractPayment(Heidelpay heidelpay) {
 		super();
@@ -196,6 +208,54 @@ public abstract class AbstractPayment implements PaymentType {
 		this.orderId = orderId;
 	}
 
+	/**
+	 * Defers fetching the transactions of this payment until one of the transaction
+	 * accessors is called for the first time. All transactions are fetched at once then.
+	 * 
+	 * @param transactions - the transactions as listed by the payment resource
+	 * @param transactionFetcher - fetches the transactions and sets them on this payment
+	 */
+	public synchronized void setUnresolvedTransactions(List<JsonTransaction> transactions, TransactionFetcher transactionFetcher) {
+		this.unresolvedTransactions = transactions;
+		this.transactionFetcher = transactionFetcher;
+	}
+
+	/**
+	 * @return false in case the transactions of this payment have not been fetched yet
+	 */
+	public boolean isTransactionsResolved() {
+		return transactionFetcher == null;
+	}
+
+	/**
+	 * Fetches the transactions in case they have been deferred by {@link #setUnresolvedTransactions(List, TransactionFetcher)}.
+	 * 
+	 * @throws PaymentException in case the transactions could not be fetched
+	 */
+	protected void resolveTransactions() {
+		if (transactionFetcher == null) {
+			return;
+		}
+		synchronized (this) {
+			// the fetcher itself sets the transactions through the accessors of this payment
+			if (transactionFetcher == null || resolvingTransactions) {
+				return;
+			}
+			resolvingTransactions = true;
+			try {
+				transactionFetcher.fetchTransactions(unresolvedTransactions);
+				unresolvedTransactions = null;
+				transactionFetcher = null;
+			} catch (HttpCommunicationException e) {
+				PaymentException exception = new PaymentException("Transactions of payment '" + getId() + "' could not be fetched: " + e.getMessage());
+				exception.initCause(e);
+				throw exception;
+			} finally {
+				resolvingTransactions = false;
+			}
+		}
+	}
+
 	protected boolean isNotEmpty(String value) {
 		return value != null && !"".equalsIgnoreCase(value.trim());
 	}
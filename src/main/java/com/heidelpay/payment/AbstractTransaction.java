@@ -25,6 +25,7 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.JsonFieldIgnore;
 import com.heidelpay.payment.paymenttypes.PaymentType;
 
@@ -34,6 +35,13 @@ public abstract class AbstractTransaction<T extends AbstractPayment> implements
 		SUCCESS, PENDING, ERRROR
 	}
 
+	/**
+	 * Fetches the payment of a transaction that has been returned without its payment.
+	 */
+	public interface PaymentFetcher<T extends AbstractPayment> {
+		T fetchPayment(String paymentId) throws HttpCommunicationException;
+	}
+
 	private String id;
 	private BigDecimal amount;
 	private Currency currency;
@@ -58,6 +66,9 @@ public abstract class AbstractTransaction<T extends AbstractPayment> implements
 	@JsonFieldIgnore
 	private T payment;
 	
+	@JsonFieldIgnore
+	private volatile PaymentFetcher<T> paymentFetcher;
+	
 	@JsonFieldIgnore
 	private Heidelpay heidelpay;
 	
@@ -213,12 +224,61 @@ public abstract class AbstractTransaction<T extends AbstractPayment> implements
 		this.traceId = traceId;
 	}
 
+	/**
+	 * In case the transaction has been returned without its payment, the payment
+	 * is fetched on the first call.
+	 * 
+	 * @return the payment of this transaction
+	 * @throws PaymentException in case the payment could not be fetched
+	 */
 	public T getPayment() {
+		if (paymentFetcher != null) {
+			resolvePayment();
+		}
 		return payment;
 	}
 
 	public void setPayment(T payment) {
 		this.payment = payment;
+		this.paymentFetcher = null;
+	}
+
+	/**
+	 * Defers fetching the payment of this transaction until {@link #getPayment()} is called.
+	 * 
+	 * @param paymentFetcher - fetches the payment by the paymentId of this transaction
+	 */
+	public void setUnresolvedPayment(PaymentFetcher<T> paymentFetcher) {
+		this.payment = null;
+		this.paymentFetcher = paymentFetcher;
+	}
+
+	/**
+	 * @return false in case the payment of this transaction has not been fetched yet
+	 */
+	public boolean isPaymentResolved() {
+		return paymentFetcher == null;
+	}
+
+	/**
+	 * @return the id of the payment, without fetching a payment that has not been fetched yet
+	 */
+	protected String resolvePaymentId() {
+		return paymentId != null ? paymentId : getPayment().getId();
+	}
+
+	private synchronized void resolvePayment() {
+		if (paymentFetcher == null) {
+			return;
+		}
+		try {
+			payment = paymentFetcher.fetchPayment(getPaymentId());
+			paymentFetcher = null;
+		} catch (HttpCommunicationException e) {
+			PaymentException exception = new PaymentException("Payment '" + getPaymentId() + "' could not be fetched: " + e.getMessage());
+			exception.initCause(e);
+			throw exception;
+		}
 	}
 
 	public Heidelpay getHeidelpay() {
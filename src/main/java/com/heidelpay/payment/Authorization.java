@@ -21,6 +21,7 @@ package com.heidelpay.payment;
  */
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.heidelpay.payment.communication.HttpCommunicationException;
@@ -50,27 +51,27 @@ public class Authorization extends AbstractTransaction<Payment> {
 	}
 
 	public Charge charge() throws HttpCommunicationException {
-		return getHeidelpay().chargeAuthorization(getPayment().getId());
+		return getHeidelpay().chargeAuthorization(resolvePaymentId());
 	}
 
 	public Charge charge(BigDecimal amount) throws HttpCommunicationException {
-		return getHeidelpay().chargeAuthorization(getPayment().getId(), amount);
+		return getHeidelpay().chargeAuthorization(resolvePaymentId(), amount);
 	}
 
 	public Charge charge(BigDecimal amount, String paymentReference) throws HttpCommunicationException {
-		return getHeidelpay().chargeAuthorization(getPayment().getId(), amount, paymentReference);
+		return getHeidelpay().chargeAuthorization(resolvePaymentId(), amount, paymentReference);
 	}
 
 	public Cancel cancel() throws HttpCommunicationException {
-		return getHeidelpay().cancelAuthorization(getPayment().getId());
+		return getHeidelpay().cancelAuthorization(resolvePaymentId());
 	}
 
 	public Cancel cancel(BigDecimal amount) throws HttpCommunicationException {
-		return getHeidelpay().cancelAuthorization(getPayment().getId(), amount);
+		return getHeidelpay().cancelAuthorization(resolvePaymentId(), amount);
 	}
 
 	public Cancel cancel(Cancel cancel) throws HttpCommunicationException {
-		return getHeidelpay().cancelAuthorization(getPayment().getId(), cancel);
+		return getHeidelpay().cancelAuthorization(resolvePaymentId(), cancel);
 	}
 
 	@Override
@@ -92,7 +93,16 @@ public class Authorization extends AbstractTransaction<Payment> {
 		return this;
 	}
 	
+	/**
+	 * The cancels of a directly fetched authorization are taken from its payment on the first call.
+	 * 
+	 * @return the cancels of this authorization
+	 */
 	public List<Cancel> getCancelList() {
+		if (cancelList == null && !isPaymentResolved()) {
+			Authorization authorization = getPayment().getAuthorization();
+			cancelList = authorization != null ? authorization.getCancelList() : new ArrayList<Cancel>();
+		}
 		return cancelList;
 	}
 
@@ -101,8 +111,8 @@ public class Authorization extends AbstractTransaction<Payment> {
 	}
 
 	public Cancel getCancel(String cancelId) {
-		if (cancelList == null) return null;
-		for (Cancel cancel : cancelList) {
+		if (getCancelList() == null) return null;
+		for (Cancel cancel : getCancelList()) {
 			if (cancelId.equalsIgnoreCase(cancel.getId())) {
 				return cancel;
 			}
@@ -61,15 +61,15 @@ public class Charge extends AbstractTransaction<Payment> {
 	}
 
 	public Cancel cancel() throws HttpCommunicationException {
-		return getHeidelpay().cancelCharge(getPayment().getId(), getId());
+		return getHeidelpay().cancelCharge(resolvePaymentId(), getId());
 	}
 
 	public Cancel cancel(BigDecimal amount) throws HttpCommunicationException {
-		return getHeidelpay().cancelCharge(getPayment().getId(), getId(), amount);
+		return getHeidelpay().cancelCharge(resolvePaymentId(), getId(), amount);
 	}
 
 	public Cancel cancel(Cancel cancel) throws HttpCommunicationException {
-		return getHeidelpay().cancelCharge(getPayment().getId(), getId(), cancel);
+		return getHeidelpay().cancelCharge(resolvePaymentId(), getId(), cancel);
 	}
 
 	@Override
@@ -82,7 +82,16 @@ public class Charge extends AbstractTransaction<Payment> {
 		return null;
 	}
 
+	/**
+	 * The cancels of a directly fetched charge are taken from its payment on the first call.
+	 * 
+	 * @return the cancels of this charge
+	 */
 	public List<Cancel> getCancelList() {
+		if (cancelList == null && !isPaymentResolved()) {
+			Charge charge = getPayment().getCharge(getId());
+			cancelList = charge != null ? charge.getCancelList() : new ArrayList<Cancel>();
+		}
 		return cancelList;
 	}
 
@@ -91,8 +100,8 @@ public class Charge extends AbstractTransaction<Payment> {
 	}
 
 	public Cancel getCancel(String cancelId) {
-		if (cancelList == null) return null;
-		for (Cancel cancel : cancelList) {
+		if (getCancelList() == null) return null;
+		for (Cancel cancel : getCancelList()) {
 			if (cancelId.equalsIgnoreCase(cancel.getId())) {
 				return cancel;
 			}
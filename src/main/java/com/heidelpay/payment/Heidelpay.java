@@ -1,11 +1,15 @@
 package com.heidelpay.payment;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Currency;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 /*-
  * #%L
@@ -31,13 +35,16 @@ import com.heidelpay.payment.business.paymenttypes.HirePurchaseRatePlan;
 import com.heidelpay.payment.business.paymenttypes.InstallmentSecuredRatePlan;
 import com.heidelpay.payment.communication.HeidelpayRestCommunication;
 import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.JsonParser;
 import com.heidelpay.payment.communication.impl.HttpClientBasedRestCommunication;
 import com.heidelpay.payment.marketplace.MarketplaceAuthorization;
 import com.heidelpay.payment.marketplace.MarketplaceCancel;
 import com.heidelpay.payment.marketplace.MarketplaceCharge;
 import com.heidelpay.payment.marketplace.MarketplacePayment;
 import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.service.IdempotencyLedger;
 import com.heidelpay.payment.service.LinkpayService;
+import com.heidelpay.payment.service.ParallelFetcher;
 import com.heidelpay.payment.service.PaymentService;
 import com.heidelpay.payment.service.PaypageService;
 import com.heidelpay.payment.service.WebhookService;
@@ -52,11 +59,21 @@ import com.heidelpay.payment.webhook.WebhookList;
  * implementing the http-communication Layer. If you are fine with apache's
  * httpClient you can choose the {@code HttpClientBasedRestCommunication}.
  * 
+ * 
+ * The facade is thread-safe and should be reused for all calls with the same key.
+ * Call {@link #close()} when the facade is not needed anymore, to release the pooled
+ * http connections of the default communication.
+ * 
  * @see HeidelpayRestCommunication for details of the http-layer abstraction.
  */
-public class Heidelpay {
+public class Heidelpay implements Closeable {
 	private String privateKey;
 	private String endPoint;
+	private HeidelpayRestCommunication restCommunication;
+	private JsonParser jsonParser;
+	private boolean closeRestCommunication;
+	private boolean shallowResponses;
+	private ParallelFetcher parallelFetcher = new ParallelFetcher();
 	private PaymentService paymentService;
 	private MarketplacePaymentService marketplacePaymentService;
 	private PaypageService paypageService;
@@ -64,13 +81,14 @@ public class Heidelpay {
 	private WebhookService webhookService;
 
 	public Heidelpay(String privateKey) {
-		this(new HttpClientBasedRestCommunication(null), privateKey, null);
+		this(privateKey, null, null);
 	}
 	public Heidelpay(String privateKey, Locale locale) {
-		this(new HttpClientBasedRestCommunication(locale), privateKey, null);
+		this(privateKey, locale, null);
 	}
 	public Heidelpay(String privateKey, Locale locale, String endPoint) {
 		this(new HttpClientBasedRestCommunication(locale), privateKey, endPoint);
+		this.closeRestCommunication = true;
 	}
 
 	/**
@@ -79,14 +97,7 @@ public class Heidelpay {
 	 * @param privateKey - your private key as generated within the heidelpay Intelligence Platform (hIP)
 	 */
 	public Heidelpay(HeidelpayRestCommunication restCommunication, String privateKey) {
-		super();
-		this.privateKey = privateKey;
-		this.endPoint = null;
-		this.paymentService = new PaymentService(this, restCommunication);
-		this.marketplacePaymentService = new MarketplacePaymentService(this, restCommunication);
-		this.paypageService = new PaypageService(this, restCommunication);
-		this.linkpayService = new LinkpayService(this, restCommunication);
-		this.webhookService = new WebhookService(this, restCommunication);
+		this(restCommunication, privateKey, null);
 	}
 
 	/**
@@ -96,9 +107,25 @@ public class Heidelpay {
 	 * @param endPoint - the endPoint for the outgoing connection, in case of null, the value of heidelpay.properties will be considered
 	 */
 	public Heidelpay(HeidelpayRestCommunication restCommunication, String privateKey, String endPoint) {
+		this(restCommunication, privateKey, endPoint, JsonParser.getInstance());
+	}
+
+	/**
+	 * Creates an instance of the {@code Heidelpay}-facade with a custom json handling.
+	 * @param restCommunication - an appropriate implementation of {@code HeidelpayRestCommunication}. If you are fine with apache's httpCLient you might choose {@code HttpClientBasedRestCommunication}.
+	 * @param privateKey - your private key as generated within the heidelpay Intelligence Platform (hIP)
+	 * @param endPoint - the endPoint for the outgoing connection, in case of null, the value of heidelpay.properties will be considered
+	 * @param jsonParser - the {@code JsonParser} reading the responses, e.g. {@code new JsonParser(engine)} with another {@code JsonEngine}. The request bodies are written by the rest communication, see {@code AbstractHeidelpayRestCommunication#setJsonParser(JsonParser)}
+	 */
+	public Heidelpay(HeidelpayRestCommunication restCommunication, String privateKey, String endPoint, JsonParser jsonParser) {
 		super();
+		if (jsonParser == null) {
+			throw new IllegalArgumentException("JsonParser must not be null");
+		}
 		this.privateKey = privateKey;
 		this.endPoint = endPoint;
+		this.restCommunication = restCommunication;
+		this.jsonParser = jsonParser;
 		this.paymentService = new PaymentService(this, restCommunication);
 		this.marketplacePaymentService = new MarketplacePaymentService(this, restCommunication);
 		this.paypageService = new PaypageService(this, restCommunication);
@@ -304,7 +331,7 @@ public class Heidelpay {
 	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
 	 */
 	public Authorization authorize(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl, Customer customer) throws HttpCommunicationException {
-		return authorize(amount, currency, createPaymentType(paymentType).getId(), returnUrl, getCustomerId(createCustomerIfPresent(customer)), null);
+		return authorize(amount, currency, paymentType, returnUrl, customer, (Boolean) null);
 	}
 
 	/**
@@ -324,7 +351,33 @@ public class Heidelpay {
 	 */
 	public Authorization authorize(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
 			Customer customer, Boolean card3ds) throws HttpCommunicationException {
-		return authorize(amount, currency, createPaymentType(paymentType).getId(), returnUrl, getCustomerId(createCustomerIfPresent(customer)), card3ds);
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, null, null);
+		return authorize(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId(), card3ds);
+	}
+
+	/**
+	 * Authorize call for redirect payments with returnUrl. The paymentType, customer,
+	 * basket and metadata are created concurrently before executing authorization,
+	 * see {@link #setParallelFetch(Executor, int)}. Null values and resources having an id
+	 * already are skipped, except the customer which must be a new one.
+	 *
+	 * @param amount Amount used for the authorization
+	 * @param currency Currency used for the authorization
+	 * @param paymentType Payment type used for the authorization
+	 * @param returnUrl ReturnURL where after the payment was finished
+	 * @param customer used for the authorization
+	 * @param basket used for the authorization
+	 * @param metadata used for the authorization
+	 * @return Authorization with paymentId and authorize id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Authorization authorize(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
+			Customer customer, Basket basket, Metadata metadata) throws HttpCommunicationException {
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, basket, metadata);
+		Authorization authorization = getAuthorization(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId(), null);
+		authorization.setBasketId(prerequisites.getBasketId());
+		authorization.setMetadataId(prerequisites.getMetadataId());
+		return authorize(authorization);
 	}
 	
 	/**
@@ -374,6 +427,19 @@ public class Heidelpay {
 	public Authorization authorize(Authorization authorization) throws HttpCommunicationException {
 		return paymentService.authorize(authorization);
 	}
+
+	/**
+	 * Authorize call with an Authorization object, see {@link #authorize(Authorization)}.
+	 * 
+	 * @param authorization Authorization object.
+	 * @param loadPayment if false, the Authorization is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return Authorization with paymentId and authorize id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Authorization authorize(Authorization authorization, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.authorize(authorization, loadPayment);
+	}
 	
 	/**
 	 * Authorize call with an MarketplaceAuthorization object. The Authorization object must
@@ -387,6 +453,19 @@ public class Heidelpay {
 		return marketplacePaymentService.marketplaceAuthorize(authorization);
 	}
 
+	/**
+	 * Authorize call with an MarketplaceAuthorization object, see {@link #marketplaceAuthorize(MarketplaceAuthorization)}.
+	 * 
+	 * @param authorization MarketplaceAuthorization request model.
+	 * @param loadPayment if false, the MarketplaceAuthorization is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return MarketplaceAuthorization with paymentId and authorize id in pending status.
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public MarketplaceAuthorization marketplaceAuthorize(MarketplaceAuthorization authorization, boolean loadPayment) throws HttpCommunicationException {
+		return marketplacePaymentService.marketplaceAuthorize(authorization, loadPayment);
+	}
+
 	/**
 	 * Charge call with a typeId that was created using the Javascript or Mobile SDK
 	 *
@@ -564,8 +643,8 @@ public class Heidelpay {
 	 */
 	public Charge charge(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
 			Customer customer) throws HttpCommunicationException {
-		return charge(amount, currency, createPaymentType(paymentType).getId(), returnUrl,
-				getCustomerId(createCustomerIfPresent(customer)));
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, null, null);
+		return charge(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId());
 	}
 
 	/**
@@ -583,13 +662,34 @@ public class Heidelpay {
 	 */
 	public Charge charge(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
 			Customer customer, Basket basket) throws HttpCommunicationException {
-		return charge(amount, currency, createPaymentType(paymentType).getId(), returnUrl,
-				getCustomerId(createCustomerIfPresent(customer)), getBasketId(createBasket(basket)), null);
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, basket, null);
+		return charge(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId(),
+				prerequisites.getBasketId(), null);
 	}
-	
-	private String getBasketId(Basket basket) {
-		if (basket != null) return basket.getId();
-		else return null;
+
+	/**
+	 * Charge call for redirect payments. The paymentType, customer, basket and
+	 * metadata are created concurrently within this method, see
+	 * {@link #setParallelFetch(Executor, int)}. Null values and resources having an id
+	 * already are skipped, except the customer which must be a new one.
+	 *
+	 * @param amount Amount usd for the charge
+	 * @param currency Currency used for the charge
+	 * @param paymentType Payment type used for the charge
+	 * @param returnUrl ReturnURL where after the payment was finished
+	 * @param customer used for the charge
+	 * @param basket used for the charge
+	 * @param metadata used for the charge
+	 * @return Charge with paymentId and authorize id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Charge charge(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
+			Customer customer, Basket basket, Metadata metadata) throws HttpCommunicationException {
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, basket, metadata);
+		Charge charge = getCharge(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId(),
+				prerequisites.getBasketId(), null);
+		charge.setMetadataId(prerequisites.getMetadataId());
+		return charge(charge);
 	}
 
 	/**
@@ -607,8 +707,8 @@ public class Heidelpay {
 	 */
 	public Charge charge(BigDecimal amount, Currency currency, PaymentType paymentType, URL returnUrl,
 			Customer customer, Boolean card3ds) throws HttpCommunicationException {
-		return charge(amount, currency, createPaymentType(paymentType).getId(), returnUrl,
-				getCustomerId(createCustomerIfPresent(customer)), card3ds);
+		Prerequisites prerequisites = new Prerequisites(paymentType, customer, null, null);
+		return charge(amount, currency, prerequisites.getTypeId(), returnUrl, prerequisites.getCustomerId(), card3ds);
 	}
 
 	/**
@@ -622,6 +722,19 @@ public class Heidelpay {
 	public Charge charge(Charge charge) throws HttpCommunicationException {
 		return paymentService.charge(charge);
 	}
+
+	/**
+	 * Charge call with a Charge object, see {@link #charge(Charge)}.
+	 * 
+	 * @param charge Charge object
+	 * @param loadPayment if false, the Charge is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return Charge with paymentId and authorize id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Charge charge(Charge charge, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.charge(charge, loadPayment);
+	}
 	
 	/**
 	 * Charge call with an MarketplaceCharge object. The MarketplaceCharge object must
@@ -635,6 +748,19 @@ public class Heidelpay {
 	public MarketplaceCharge marketplaceCharge(MarketplaceCharge charge) throws HttpCommunicationException {
 		return marketplacePaymentService.marketplaceCharge(charge);
 	}
+
+	/**
+	 * Charge call with an MarketplaceCharge object, see {@link #marketplaceCharge(MarketplaceCharge)}.
+	 * 
+	 * @param charge refers to a MarketplaceCharge request model.
+	 * @param loadPayment if false, the MarketplaceCharge is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return MarketplaceCharge with paymentId and charge id in pending status.
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public MarketplaceCharge marketplaceCharge(MarketplaceCharge charge, boolean loadPayment) throws HttpCommunicationException {
+		return marketplacePaymentService.marketplaceCharge(charge, loadPayment);
+	}
 	
 	/**
 	 * Charge call with MarketplaceCharge for a MarketplaceAuthorization. The MarketplaceCharge object must
@@ -668,6 +794,17 @@ public class Heidelpay {
 		return paymentService.payout(payout);
 	}
 
+	/**
+	 * @param payout Payout object
+	 * @param loadPayment if false, the Payout is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return Payout object
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Payout payout(Payout payout, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.payout(payout, loadPayment);
+	}
+
 	private Payout getPayout(BigDecimal amount, Currency currency, String typeId, URL returnUrl) {
 		Payout payout = new Payout();
 		payout.setAmount(amount);
@@ -750,6 +887,20 @@ public class Heidelpay {
 		return paymentService.cancelAuthorization(paymentId, cancel);
 	}
 
+	/**
+	 * Cancel (Reverse) Authorize with Cancel object
+	 *
+	 * @param paymentId used for the cancel of an authorization
+	 * @param cancel object used for the cancelation
+	 * @param loadPayment if false, the Cancel is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return Cancel with id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Cancel cancelAuthorization(String paymentId, Cancel cancel, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.cancelAuthorization(paymentId, cancel, loadPayment);
+	}
+
 	/**
 	 * Cancel (Refund) full Charge
 	 *
@@ -852,6 +1003,21 @@ public class Heidelpay {
 		return paymentService.cancelCharge(paymentId, chargeId, cancel);
 	}
 
+	/**
+	 * Cancel (Refund) charge with Cancel object
+	 *
+	 * @param paymentId used for the cancel of a charge
+	 * @param chargeId used for the cancel of a charge
+	 * @param cancel used for the cancel of a charge
+	 * @param loadPayment if false, the Cancel is returned as mapped from the response
+	 *        and the payment is fetched on the first call to <code>getPayment()</code>
+	 * @return Cancel with id
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	public Cancel cancelCharge(String paymentId, String chargeId, Cancel cancel, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.cancelCharge(paymentId, chargeId, cancel, loadPayment);
+	}
+
 	/**
 	 * Inform about a shipment of goods. From this time the insurance start.
 	 * 
@@ -867,6 +1033,10 @@ public class Heidelpay {
 		return paymentService.doShipment(shipment, paymentId);
 	}
 
+	public Shipment shipment(Shipment shipment, String paymentId, boolean loadPayment) throws HttpCommunicationException {
+		return paymentService.doShipment(shipment, paymentId, loadPayment);
+	}
+
 	/**
 	 * Inform about a shipment of goods and provide invoiceId. From this time the insurance start.
 	 *
@@ -1078,6 +1248,130 @@ public class Heidelpay {
 		return endPoint;
 	}
 
+	/**
+	 * @return the {@code JsonParser} reading the responses
+	 */
+	public JsonParser getJsonParser() {
+		return jsonParser;
+	}
+
+	PaymentService getPaymentService() {
+		return paymentService;
+	}
+
+	/**
+	 * Fetches the transactions of a payment concurrently when a payment is loaded,
+	 * e.g. by {@code fetchPayment} or after a transaction. The payment type, customer,
+	 * basket and metadata passed to a charge or an authorization are created
+	 * concurrently as well, before the transaction is sent. By default all requests
+	 * run one after another on the calling thread.
+	 * 
+	 * <pre>
+	 * heidelpay.setParallelFetch(Executors.newFixedThreadPool(8), 4);
+	 * </pre>
+	 * 
+	 * @param executor - the {@code Executor} running the fetches, null to fetch sequentially
+	 * @param parallelism - maximum number of concurrent fetches for one payment or
+	 *        transaction, the calling thread included
+	 */
+	public void setParallelFetch(Executor executor, int parallelism) {
+		this.parallelFetcher = new ParallelFetcher(executor, parallelism);
+		paymentService.setParallelFetch(executor, parallelism);
+		marketplacePaymentService.setParallelFetch(executor, parallelism);
+	}
+
+	/**
+	 * Loads payments without their transactions. The authorization, charges, cancels
+	 * and payouts of a payment are fetched together on the first call to one of their
+	 * accessors, so checking the state or the amounts of a payment takes a single request.
+	 * A failed deferred fetch is thrown as {@code PaymentException}.
+	 * 
+	 * @param lazyLoading - true to fetch the transactions of a payment on first access
+	 */
+	public void setLazyLoading(boolean lazyLoading) {
+		paymentService.setLazyLoading(lazyLoading);
+		marketplacePaymentService.setLazyLoading(lazyLoading);
+	}
+
+	/**
+	 * Returns transactions as mapped from the response of the transaction call, without
+	 * fetching their payment afterwards. The payment is fetched on the first call to
+	 * <code>getPayment()</code> of the transaction, so a charge takes a single request.
+	 * Single calls can choose with the <code>loadPayment</code> overloads instead.
+	 * 
+	 * @param shallowResponses - true to skip fetching the payment after a transaction
+	 */
+	public void setShallowResponses(boolean shallowResponses) {
+		this.shallowResponses = shallowResponses;
+		paymentService.setShallowResponses(shallowResponses);
+		marketplacePaymentService.setShallowResponses(shallowResponses);
+	}
+
+	public boolean isShallowResponses() {
+		return shallowResponses;
+	}
+
+	/**
+	 * Returns created and updated payment types, customers and baskets as mapped from the
+	 * response of the call instead of fetching them afterwards, so creating them
+	 * takes a single request. A response holding the id only is merged into the
+	 * submitted object, an updated customer or basket then holds the submitted
+	 * values only. A payment type is still fetched in case the response lacks its
+	 * fields.
+	 *
+	 * @param shallowResources - true to skip fetching resources after creating or updating them
+	 */
+	public void setShallowResources(boolean shallowResources) {
+		paymentService.setShallowResources(shallowResources);
+		marketplacePaymentService.setShallowResources(shallowResources);
+	}
+
+	/**
+	 * Reads the responses of payments, transactions, paypages, linkpays and of the
+	 * card and the payment types without own fields straight into the business
+	 * objects, without creating the json objects of the communication in between.
+	 * The business objects are mapped as by default.
+	 * 
+	 * @param directMapping - true to read responses straight into the business objects
+	 */
+	public void setDirectMapping(boolean directMapping) {
+		paymentService.setDirectMapping(directMapping);
+		marketplacePaymentService.setDirectMapping(directMapping);
+		paypageService.setDirectMapping(directMapping);
+		linkpayService.setDirectMapping(directMapping);
+	}
+
+	/**
+	 * Records authorizations, charges, payouts and cancels of charges by their
+	 * orderId in the given ledger, so a call repeated with the same orderId, e.g.
+	 * after a timeout, returns the transaction created before instead of creating
+	 * another one. Transactions without orderId get a random one.
+	 * 
+	 * <pre>
+	 * heidelpay.setIdempotencyLedger(new FileIdempotencyLedger(new File("heidelpay-ledger.log")));
+	 * </pre>
+	 * 
+	 * @param idempotencyLedger - the ledger, null to send every call
+	 */
+	public void setIdempotencyLedger(IdempotencyLedger idempotencyLedger) {
+		paymentService.setIdempotencyLedger(idempotencyLedger);
+		marketplacePaymentService.setIdempotencyLedger(idempotencyLedger);
+	}
+
+	/**
+	 * Releases the http connections of the {@code HttpClientBasedRestCommunication} created by this facade.
+	 * An injected {@code HeidelpayRestCommunication} is owned by the caller and will not be closed, as it
+	 * might be shared with other facades.
+	 * 
+	 * @throws IOException in case the communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closeRestCommunication && restCommunication instanceof Closeable) {
+			((Closeable) restCommunication).close();
+		}
+	}
+
 	private Charge getCharge(BigDecimal amount, Currency currency, String typeId, URL returnUrl, String customerId, String basketId, Boolean card3ds) {
 		Charge charge = new Charge();
 		charge
@@ -1097,6 +1391,71 @@ public class Heidelpay {
 		return customer.getId();
 	}
 
+	/**
+	 * The resources a transaction refers to, created concurrently by the
+	 * {@code ParallelFetcher} of the facade before the transaction is sent. In case
+	 * of failures no transaction is sent, the first failure is thrown with the
+	 * failures of the other creations as suppressed exceptions.
+	 */
+	private final class Prerequisites {
+		private PaymentType paymentType;
+		private Customer customer;
+		private Basket basket;
+		private Metadata metadata;
+
+		private Prerequisites(final PaymentType paymentType, final Customer customer, final Basket basket,
+				final Metadata metadata) throws HttpCommunicationException {
+			List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					Prerequisites.this.paymentType = createPaymentType(paymentType);
+				}
+			});
+			if (customer != null) {
+				tasks.add(new ParallelFetcher.Task() {
+					@Override
+					public void run() throws HttpCommunicationException {
+						Prerequisites.this.customer = createCustomer(customer);
+					}
+				});
+			}
+			if (basket != null) {
+				tasks.add(new ParallelFetcher.Task() {
+					@Override
+					public void run() throws HttpCommunicationException {
+						Prerequisites.this.basket = basket.getId() == null ? createBasket(basket) : basket;
+					}
+				});
+			}
+			if (metadata != null) {
+				tasks.add(new ParallelFetcher.Task() {
+					@Override
+					public void run() throws HttpCommunicationException {
+						Prerequisites.this.metadata = metadata.getId() == null ? createMetadata(metadata) : metadata;
+					}
+				});
+			}
+			parallelFetcher.runAll(tasks);
+		}
+
+		private String getTypeId() {
+			return paymentType.getId();
+		}
+
+		private String getCustomerId() {
+			return customer == null ? null : customer.getId();
+		}
+
+		private String getBasketId() {
+			return basket == null ? null : basket.getId();
+		}
+
+		private String getMetadataId() {
+			return metadata == null ? null : metadata.getId();
+		}
+	}
+
 	private Authorization getAuthorization(BigDecimal amount, Currency currency, String paymentTypeId, URL returnUrl, String customerId, Boolean card3ds) {
 		Authorization authorization = new Authorization(this);
 		authorization
@@ -0,0 +1,441 @@
+package com.heidelpay.payment;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.service.PaymentService;
+import com.heidelpay.payment.webhook.Webhook;
+import com.heidelpay.payment.webhook.WebhookList;
+
+/**
+ * Asynchronous twin of the {@code Heidelpay} facade. Every operation returns
+ * immediately with a {@code CompletableFuture}, the http calls are executed on
+ * the {@code Executor} given to the constructor.
+ * 
+ * Transactions (authorize, charge, cancel, payout, shipment) are split into two
+ * stages: the transaction itself and the subsequent fetch of the payment are
+ * scheduled as separate tasks, so no executor thread waits for the other
+ * call.
+ * 
+ * A failed call completes the future exceptionally with a
+ * {@code HttpCommunicationException} for communication problems or with a
+ * {@code PaymentException} for errors reported by the api.
+ * 
+ * <pre>
+ * ExecutorService executor = Executors.newFixedThreadPool(20);
+ * HeidelpayAsync heidelpay = new HeidelpayAsync(new Heidelpay("s-priv-xxxxxxxxxx"), executor);
+ * heidelpay.charge(BigDecimal.ONE, Currency.getInstance("EUR"), "s-crd-fm7tifzkqewy", returnUrl)
+ * 		.thenAccept(charge -&gt; ...);
+ * </pre>
+ */
+public class HeidelpayAsync implements Closeable {
+
+	private final Heidelpay heidelpay;
+	private final Executor executor;
+	private final boolean closeHeidelpay;
+
+	/**
+	 * Creates the {@code HeidelpayAsync} facade with its own {@code Heidelpay}
+	 * facade for the given private key.
+	 * 
+	 * @param privateKey - your private key as generated within the heidelpay Intelligence Platform (hIP)
+	 * @param executor - the {@code Executor} running the http calls
+	 */
+	public HeidelpayAsync(String privateKey, Executor executor) {
+		this(new Heidelpay(privateKey), executor, true);
+	}
+
+	/**
+	 * Creates the {@code HeidelpayAsync} facade delegating to the given
+	 * {@code Heidelpay} facade, which stays owned by the caller.
+	 * 
+	 * @param heidelpay - the {@code Heidelpay} facade used for the calls
+	 * @param executor - the {@code Executor} running the http calls
+	 */
+	public HeidelpayAsync(Heidelpay heidelpay, Executor executor) {
+		this(heidelpay, executor, false);
+	}
+
+	private HeidelpayAsync(Heidelpay heidelpay, Executor executor, boolean closeHeidelpay) {
+		if (heidelpay == null) {
+			throw new IllegalArgumentException("Heidelpay must not be null");
+		}
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor must not be null");
+		}
+		this.heidelpay = heidelpay;
+		this.executor = executor;
+		this.closeHeidelpay = closeHeidelpay;
+	}
+
+	public CompletableFuture<Customer> createCustomer(final Customer customer) {
+		return supply(new HeidelpayCall<Customer>() {
+			@Override
+			public Customer call() throws HttpCommunicationException {
+				return heidelpay.createCustomer(customer);
+			}
+		});
+	}
+
+	public CompletableFuture<Customer> fetchCustomer(final String customerId) {
+		return supply(new HeidelpayCall<Customer>() {
+			@Override
+			public Customer call() throws HttpCommunicationException {
+				return heidelpay.fetchCustomer(customerId);
+			}
+		});
+	}
+
+	public CompletableFuture<Basket> createBasket(final Basket basket) {
+		return supply(new HeidelpayCall<Basket>() {
+			@Override
+			public Basket call() throws HttpCommunicationException {
+				return heidelpay.createBasket(basket);
+			}
+		});
+	}
+
+	public CompletableFuture<Basket> fetchBasket(final String basketId) {
+		return supply(new HeidelpayCall<Basket>() {
+			@Override
+			public Basket call() throws HttpCommunicationException {
+				return heidelpay.fetchBasket(basketId);
+			}
+		});
+	}
+
+	public <T extends PaymentType> CompletableFuture<T> createPaymentType(final T paymentType) {
+		return supply(new HeidelpayCall<T>() {
+			@Override
+			public T call() throws HttpCommunicationException {
+				return heidelpay.createPaymentType(paymentType);
+			}
+		});
+	}
+
+	public CompletableFuture<PaymentType> fetchPaymentType(final String typeId) {
+		return supply(new HeidelpayCall<PaymentType>() {
+			@Override
+			public PaymentType call() throws HttpCommunicationException {
+				return heidelpay.fetchPaymentType(typeId);
+			}
+		});
+	}
+
+	/**
+	 * Authorize call for redirect payments with a returnUrl and existing payment type.
+	 *
+	 * @param amount Amount used for the authorization
+	 * @param currency Currency used for the authorization
+	 * @param typeId Payment type id used for the authorization
+	 * @param returnUrl ReturnURL where after the payment was finished
+	 * @return future Authorization with paymentId and authorize id
+	 */
+	public CompletableFuture<Authorization> authorize(BigDecimal amount, Currency currency, String typeId, URL returnUrl) {
+		Authorization authorization = new Authorization(heidelpay);
+		authorization
+		.setAmount(amount)
+		.setCurrency(currency)
+		.setTypeId(typeId)
+		.setReturnUrl(returnUrl);
+		return authorize(authorization);
+	}
+
+	public CompletableFuture<Authorization> authorize(final Authorization authorization) {
+		return withPayment(supply(new HeidelpayCall<Authorization>() {
+			@Override
+			public Authorization call() throws HttpCommunicationException {
+				return getPaymentService().authorize(authorization, false);
+			}
+		}));
+	}
+
+	/**
+	 * Charge call for redirect payments with a returnUrl and existing payment type.
+	 *
+	 * @param amount Amount used for the charge
+	 * @param currency Currency used for the charge
+	 * @param typeId Payment type id used for the charge
+	 * @param returnUrl ReturnURL where after the payment was finished
+	 * @return future Charge with paymentId and charge id
+	 */
+	public CompletableFuture<Charge> charge(BigDecimal amount, Currency currency, String typeId, URL returnUrl) {
+		Charge charge = new Charge();
+		charge
+		.setAmount(amount)
+		.setCurrency(currency)
+		.setTypeId(typeId)
+		.setReturnUrl(returnUrl);
+		return charge(charge);
+	}
+
+	public CompletableFuture<Charge> charge(final Charge charge) {
+		return withPayment(supply(new HeidelpayCall<Charge>() {
+			@Override
+			public Charge call() throws HttpCommunicationException {
+				return getPaymentService().charge(charge, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Payout> payout(final Payout payout) {
+		return withPayment(supply(new HeidelpayCall<Payout>() {
+			@Override
+			public Payout call() throws HttpCommunicationException {
+				return getPaymentService().payout(payout, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Charge> chargeAuthorization(String paymentId) {
+		return chargeAuthorization(paymentId, null);
+	}
+
+	public CompletableFuture<Charge> chargeAuthorization(final String paymentId, BigDecimal amount) {
+		final Charge charge = new Charge();
+		charge.setAmount(amount);
+		return withPayment(supply(new HeidelpayCall<Charge>() {
+			@Override
+			public Charge call() throws HttpCommunicationException {
+				return getPaymentService().chargeAuthorization(paymentId, charge, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Cancel> cancelAuthorization(String paymentId) {
+		return cancelAuthorization(paymentId, (BigDecimal) null);
+	}
+
+	public CompletableFuture<Cancel> cancelAuthorization(String paymentId, BigDecimal amount) {
+		Cancel cancel = new Cancel();
+		cancel.setAmount(amount);
+		return cancelAuthorization(paymentId, cancel);
+	}
+
+	public CompletableFuture<Cancel> cancelAuthorization(final String paymentId, final Cancel cancel) {
+		return withPayment(supply(new HeidelpayCall<Cancel>() {
+			@Override
+			public Cancel call() throws HttpCommunicationException {
+				return getPaymentService().cancelAuthorization(paymentId, cancel, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Cancel> cancelCharge(String paymentId, String chargeId) {
+		return cancelCharge(paymentId, chargeId, (BigDecimal) null);
+	}
+
+	public CompletableFuture<Cancel> cancelCharge(String paymentId, String chargeId, BigDecimal amount) {
+		Cancel cancel = new Cancel();
+		cancel.setAmount(amount);
+		return cancelCharge(paymentId, chargeId, cancel);
+	}
+
+	public CompletableFuture<Cancel> cancelCharge(final String paymentId, final String chargeId, final Cancel cancel) {
+		return withPayment(supply(new HeidelpayCall<Cancel>() {
+			@Override
+			public Cancel call() throws HttpCommunicationException {
+				return getPaymentService().cancelCharge(paymentId, chargeId, cancel, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Shipment> shipment(String paymentId) {
+		return shipment(paymentId, null, null);
+	}
+
+	public CompletableFuture<Shipment> shipment(String paymentId, String invoiceId, String orderId) {
+		return shipment(new Shipment(invoiceId, orderId), paymentId);
+	}
+
+	public CompletableFuture<Shipment> shipment(final Shipment shipment, final String paymentId) {
+		return withPayment(supply(new HeidelpayCall<Shipment>() {
+			@Override
+			public Shipment call() throws HttpCommunicationException {
+				return getPaymentService().doShipment(shipment, paymentId, false);
+			}
+		}));
+	}
+
+	public CompletableFuture<Payment> fetchPayment(final String paymentId) {
+		return supply(new HeidelpayCall<Payment>() {
+			@Override
+			public Payment call() throws HttpCommunicationException {
+				return heidelpay.fetchPayment(paymentId);
+			}
+		});
+	}
+
+	public CompletableFuture<Paypage> paypage(final Paypage paypage) {
+		return supply(new HeidelpayCall<Paypage>() {
+			@Override
+			public Paypage call() throws HttpCommunicationException {
+				return heidelpay.paypage(paypage);
+			}
+		});
+	}
+
+	public CompletableFuture<Linkpay> linkpay(final Linkpay linkpay) {
+		return supply(new HeidelpayCall<Linkpay>() {
+			@Override
+			public Linkpay call() throws HttpCommunicationException {
+				return heidelpay.linkpay(linkpay);
+			}
+		});
+	}
+
+	public CompletableFuture<Webhook> registerSingleWebhook(final Webhook webhookRequest) {
+		return supply(new HeidelpayCall<Webhook>() {
+			@Override
+			public Webhook call() throws HttpCommunicationException {
+				return heidelpay.registerSingleWebhook(webhookRequest);
+			}
+		});
+	}
+
+	public CompletableFuture<WebhookList> registerMultiWebhooks(final Webhook webhookRequest) {
+		return supply(new HeidelpayCall<WebhookList>() {
+			@Override
+			public WebhookList call() throws HttpCommunicationException {
+				return heidelpay.registerMultiWebhooks(webhookRequest);
+			}
+		});
+	}
+
+	public CompletableFuture<Webhook> updateSingleWebhook(final String updateId, final Webhook updateWebhook) {
+		return supply(new HeidelpayCall<Webhook>() {
+			@Override
+			public Webhook call() throws HttpCommunicationException {
+				return heidelpay.updateSingleWebhook(updateId, updateWebhook);
+			}
+		});
+	}
+
+	public CompletableFuture<Webhook> deleteSingleWebhook(final String webhookId) {
+		return supply(new HeidelpayCall<Webhook>() {
+			@Override
+			public Webhook call() throws HttpCommunicationException {
+				return heidelpay.deleteSingleWebhook(webhookId);
+			}
+		});
+	}
+
+	public CompletableFuture<WebhookList> deleteMultiWebhook() {
+		return supply(new HeidelpayCall<WebhookList>() {
+			@Override
+			public WebhookList call() throws HttpCommunicationException {
+				return heidelpay.deleteMultiWebhook();
+			}
+		});
+	}
+
+	public CompletableFuture<WebhookList> getWebhooks() {
+		return supply(new HeidelpayCall<WebhookList>() {
+			@Override
+			public WebhookList call() throws HttpCommunicationException {
+				return heidelpay.getWebhooks();
+			}
+		});
+	}
+
+	public Heidelpay getHeidelpay() {
+		return heidelpay;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Closes the {@code Heidelpay} facade, if it has been created by this
+	 * instance. The {@code Executor} is owned by the caller and not shut down.
+	 * 
+	 * @throws IOException in case the communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closeHeidelpay) {
+			heidelpay.close();
+		}
+	}
+
+	private PaymentService getPaymentService() {
+		return heidelpay.getPaymentService();
+	}
+
+	/**
+	 * Schedules the fetch of the payment once the transaction is done and sets
+	 * the payment into the transaction. With shallow responses the payment is
+	 * left to be fetched on the first call to getPayment().
+	 */
+	private <T extends AbstractTransaction<Payment>> CompletableFuture<T> withPayment(CompletableFuture<T> transaction) {
+		if (heidelpay.isShallowResponses()) {
+			return transaction;
+		}
+		return transaction.thenCompose(new Function<T, CompletionStage<T>>() {
+			@Override
+			public CompletionStage<T> apply(final T executedTransaction) {
+				return fetchPayment(executedTransaction.getPaymentId()).thenApply(new Function<Payment, T>() {
+					@Override
+					public T apply(Payment payment) {
+						executedTransaction.setPayment(payment);
+						return executedTransaction;
+					}
+				});
+			}
+		});
+	}
+
+	private <T> CompletableFuture<T> supply(final HeidelpayCall<T> call) {
+		final CompletableFuture<T> result = new CompletableFuture<T>();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						result.complete(call.call());
+					} catch (Exception e) {
+						result.completeExceptionally(e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	private interface HeidelpayCall<T> {
+		T call() throws HttpCommunicationException;
+	}
+}
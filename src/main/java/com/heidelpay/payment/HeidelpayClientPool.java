@@ -0,0 +1,307 @@
+package com.heidelpay.payment;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.TypeAdapter;
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HeidelpayStreamingRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.impl.HttpClientBasedRestCommunication;
+
+/**
+ * Hands out the {@code Heidelpay} facades of many private keys, e.g. of the
+ * sub-merchants of a platform. All facades share one rest communication with its
+ * connection pool, one {@code JsonParser} and the endpoint, a facade of a key is
+ * created on first use and reused afterwards.
+ * 
+ * Each key may run a limited number of concurrent requests, further requests of
+ * the key wait in order of arrival for a free slot. So a merchant sending many
+ * requests cannot take all connections of the pool, the requests of the other
+ * merchants still get through.
+ * 
+ * <pre>
+ * HeidelpayClientPool pool = new HeidelpayClientPool();
+ * Charge charge = pool.get(merchant.getPrivateKey()).charge(amount, currency, typeId, returnUrl);
+ * </pre>
+ * 
+ * The pool is thread-safe. Call {@link #close()} when the pool is not needed
+ * anymore, to release the connections of the default communication.
+ */
+public class HeidelpayClientPool implements Closeable {
+
+	public static final int DEFAULT_MAX_CONCURRENT_PER_KEY = 4;
+	public static final long DEFAULT_MAX_WAIT = 10000;
+
+	private final HeidelpayRestCommunication restCommunication;
+	private final String endPoint;
+	private final JsonParser jsonParser;
+	private final int maxConcurrentPerKey;
+	private final ConcurrentMap<String, KeyRestCommunication> keys = new ConcurrentHashMap<String, KeyRestCommunication>();
+	private volatile long maxWait = DEFAULT_MAX_WAIT;
+	private boolean closeRestCommunication;
+
+	public HeidelpayClientPool() {
+		this(new HttpClientBasedRestCommunication());
+		this.closeRestCommunication = true;
+	}
+
+	public HeidelpayClientPool(HeidelpayRestCommunication restCommunication) {
+		this(restCommunication, null, JsonParser.getInstance(), DEFAULT_MAX_CONCURRENT_PER_KEY);
+	}
+
+	/**
+	 * Creates a {@code HeidelpayClientPool} sharing the given communication.
+	 * 
+	 * @param restCommunication - the communication executing the requests of all keys
+	 * @param endPoint - the endPoint for the outgoing connection, in case of null, the value of heidelpay.properties will be considered
+	 * @param jsonParser - the {@code JsonParser} reading the responses of all keys
+	 * @param maxConcurrentPerKey - maximum number of concurrent requests of one private key
+	 */
+	public HeidelpayClientPool(HeidelpayRestCommunication restCommunication, String endPoint, JsonParser jsonParser, int maxConcurrentPerKey) {
+		if (restCommunication == null) {
+			throw new IllegalArgumentException("HeidelpayRestCommunication must not be null");
+		}
+		if (jsonParser == null) {
+			throw new IllegalArgumentException("JsonParser must not be null");
+		}
+		if (maxConcurrentPerKey < 1) {
+			throw new IllegalArgumentException("maxConcurrentPerKey must be positive");
+		}
+		this.restCommunication = restCommunication;
+		this.endPoint = endPoint;
+		this.jsonParser = jsonParser;
+		this.maxConcurrentPerKey = maxConcurrentPerKey;
+	}
+
+	/**
+	 * Returns the facade of the given private key, created on the first call for the key.
+	 * 
+	 * @param privateKey - the private key of the merchant
+	 * @return the facade of the key
+	 */
+	public Heidelpay get(String privateKey) {
+		if (privateKey == null) {
+			throw new IllegalArgumentException("PrivateKey must not be null");
+		}
+		KeyRestCommunication key = keys.get(privateKey);
+		if (key == null) {
+			KeyRestCommunication created = newKeyCommunication(privateKey);
+			key = keys.putIfAbsent(privateKey, created);
+			if (key == null) {
+				key = created;
+			}
+		}
+		return key.facade;
+	}
+
+	/**
+	 * Removes the facade of the given private key, e.g. of a merchant leaving the
+	 * platform. Requests running on the facade are not affected.
+	 * 
+	 * @param privateKey - the private key of the merchant
+	 * @return true if the pool held a facade of the key
+	 */
+	public boolean remove(String privateKey) {
+		return keys.remove(privateKey) != null;
+	}
+
+	/**
+	 * @return the number of keys having a facade
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * @param privateKey - the private key of the merchant
+	 * @return the number of requests of the key running now, 0 if the pool holds no facade of the key
+	 */
+	public int getActiveRequests(String privateKey) {
+		KeyRestCommunication key = keys.get(privateKey);
+		if (key == null) {
+			return 0;
+		}
+		return maxConcurrentPerKey - key.slots.availablePermits();
+	}
+
+	public HeidelpayRestCommunication getRestCommunication() {
+		return restCommunication;
+	}
+
+	public int getMaxConcurrentPerKey() {
+		return maxConcurrentPerKey;
+	}
+
+	/**
+	 * Sets how long a request waits for a free slot of its key before it fails with
+	 * an {@code HttpCommunicationException}, by default {@value #DEFAULT_MAX_WAIT} ms.
+	 * 
+	 * @param maxWait - the maximum wait in milliseconds, 0 to fail without waiting
+	 * @return this pool
+	 */
+	public HeidelpayClientPool setMaxWait(long maxWait) {
+		if (maxWait < 0) {
+			throw new IllegalArgumentException("maxWait must not be negative");
+		}
+		this.maxWait = maxWait;
+		return this;
+	}
+
+	public long getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * Removes all facades and releases the http connections of the
+	 * {@code HttpClientBasedRestCommunication} created by this pool. An injected
+	 * {@code HeidelpayRestCommunication} is owned by the caller and will not be closed.
+	 * 
+	 * @throws IOException in case the communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		keys.clear();
+		if (closeRestCommunication && restCommunication instanceof Closeable) {
+			((Closeable) restCommunication).close();
+		}
+	}
+
+	private KeyRestCommunication newKeyCommunication(String privateKey) {
+		if (restCommunication instanceof HeidelpayStreamingRestCommunication) {
+			return new KeyStreamingRestCommunication(privateKey);
+		}
+		return new KeyRestCommunication(privateKey);
+	}
+
+	/**
+	 * The communication of a single key and its facade, passing the requests to the
+	 * shared communication once the key has a free slot.
+	 */
+	private class KeyRestCommunication implements HeidelpayRestCommunication {
+
+		private final String privateKey;
+		private final Semaphore slots = new Semaphore(maxConcurrentPerKey, true);
+		private final Heidelpay facade;
+
+		private KeyRestCommunication(String privateKey) {
+			this.privateKey = privateKey;
+			this.facade = new Heidelpay(this, privateKey, endPoint, jsonParser);
+		}
+
+		@Override
+		public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return restCommunication.httpGet(url, privateKey);
+			} finally {
+				releaseSlot();
+			}
+		}
+
+		@Override
+		public String httpPost(String url, String privateKey, Object data) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return restCommunication.httpPost(url, privateKey, data);
+			} finally {
+				releaseSlot();
+			}
+		}
+
+		@Override
+		public String httpPut(String url, String privateKey, Object data) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return restCommunication.httpPut(url, privateKey, data);
+			} finally {
+				releaseSlot();
+			}
+		}
+
+		@Override
+		public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return restCommunication.httpDelete(url, privateKey);
+			} finally {
+				releaseSlot();
+			}
+		}
+
+		protected void acquireSlot() throws HttpCommunicationException {
+			boolean acquired;
+			try {
+				acquired = slots.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HttpCommunicationException("Interrupted while waiting for a free slot of key " + maskedKey());
+			}
+			if (!acquired) {
+				throw new HttpCommunicationException("Key " + maskedKey() + " has " + maxConcurrentPerKey
+						+ " requests running, no slot got free within " + maxWait + " ms");
+			}
+		}
+
+		protected void releaseSlot() {
+			slots.release();
+		}
+
+		private String maskedKey() {
+			return privateKey.length() > 10 ? privateKey.substring(0, 10) + "..." : privateKey;
+		}
+	}
+
+	private class KeyStreamingRestCommunication extends KeyRestCommunication implements HeidelpayStreamingRestCommunication {
+
+		private KeyStreamingRestCommunication(String privateKey) {
+			super(privateKey);
+		}
+
+		@Override
+		public <T> T httpGet(String url, String privateKey, Class<T> clazz) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return ((HeidelpayStreamingRestCommunication) restCommunication).httpGet(url, privateKey, clazz);
+			} finally {
+				releaseSlot();
+			}
+		}
+
+		@Override
+		public <T> T httpGet(String url, String privateKey, TypeAdapter<T> adapter) throws HttpCommunicationException {
+			acquireSlot();
+			try {
+				return ((HeidelpayStreamingRestCommunication) restCommunication).httpGet(url, privateKey, adapter);
+			} finally {
+				releaseSlot();
+			}
+		}
+	}
+}
@@ -125,12 +125,13 @@ public class Payment extends AbstractPayment {
 	}
 	
 	public Authorization getAuthorization() {
+		resolveTransactions();
 		return authorization;
 	}
 
 	public Charge getCharge(String chargeId) {
-		if (chargesList == null) return null;
-		for (Charge charge : chargesList) {
+		if (getChargesList() == null) return null;
+		for (Charge charge : getChargesList()) {
 			if (chargeId.equalsIgnoreCase(charge.getId())) {
 				return charge;
 			}
@@ -143,8 +144,8 @@ public class Payment extends AbstractPayment {
 	}
 
 	public Payout getPayout(String payoutId) {
-		if (payoutList == null) return null;
-		for (Payout payout : payoutList) {
+		if (getPayoutList() == null) return null;
+		for (Payout payout : getPayoutList()) {
 			if (payoutId.equalsIgnoreCase(payout.getId())) {
 				return payout;
 			}
@@ -153,6 +154,7 @@ public class Payment extends AbstractPayment {
 	}
 
 	public List<Cancel> getCancelList() {
+		resolveTransactions();
 		return cancelList;
 	}
 
@@ -182,6 +184,7 @@ public class Payment extends AbstractPayment {
 	}
 
 	public List<Charge> getChargesList() {
+		resolveTransactions();
 		return chargesList;
 	}
 
@@ -198,6 +201,7 @@ public class Payment extends AbstractPayment {
 	}
 
 	public List<Payout> getPayoutList() {
+		resolveTransactions();
 		return payoutList;
 	}
 
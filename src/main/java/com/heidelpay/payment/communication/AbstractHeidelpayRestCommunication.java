@@ -22,8 +22,15 @@ package com.heidelpay.payment.communication;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.client.utils.DateUtils;
 
 import com.heidelpay.payment.PaymentError;
 import com.heidelpay.payment.PaymentException;
@@ -51,6 +58,8 @@ import static org.apache.http.HttpHeaders.*;
  * <li>fix the content-type to application/json</li>
  * <li>sets the user-agent, so we could identify the sdk</li>
  * <li>business errors, such as validation exceptions, at Api level, are translated into {@code PaymentException}s.</li>
+ * <li>transient failures are retried as defined by the {@code RetryPolicy}.</li>
+ * <li>requests are limited per private key by an optional {@code RateLimiter}.</li>
  * </ul>
  *
  * @see HttpClientBasedRestCommunication for a reference implementation
@@ -60,11 +69,100 @@ public abstract class AbstractHeidelpayRestCommunication implements HeidelpayRes
 	public static final String BASIC = "Basic ";
 	static final String USER_AGENT_PREFIX = "HeidelpayJava";
 	private static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
-
-	private Locale locale;
+	private static final String RETRY_AFTER = "Retry-After";
+	private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+	private static final int MAX_CACHED_REQUEST_TEMPLATES = 10000;
+
+	private final String acceptLanguage;
+	private volatile boolean prettyPrinting;
+	private volatile JsonParser jsonParser = JsonParser.getInstance();
+	private volatile JsonParser prettyPrintingJsonParser = JsonParser.getPrettyPrintingInstance();
+	private volatile RetryPolicy retryPolicy;
+	private volatile RetryBudget retryBudget;
+	private volatile RateLimiter rateLimiter;
+	private final ConcurrentMap<String, RequestTemplate> requestTemplates = new ConcurrentHashMap<String, RequestTemplate>();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong retryCount = new AtomicLong();
+	private final AtomicLong exhaustedCount = new AtomicLong();
+	private final AtomicLong budgetRejectedCount = new AtomicLong();
 
 	public AbstractHeidelpayRestCommunication(Locale locale) {
-		this.locale = locale;
+		this.acceptLanguage = locale == null ? null : locale.getLanguage();
+		setRetryPolicy(new RetryPolicy());
+	}
+
+	/**
+	 * Debug mode sending indented json, which is easier to read in the request
+	 * log but larger on the wire. By default the json is sent compact.
+	 * 
+	 * @param prettyPrinting - true to indent the json of POST and PUT requests
+	 */
+	public void setPrettyPrinting(boolean prettyPrinting) {
+		this.prettyPrinting = prettyPrinting;
+	}
+
+	public boolean isPrettyPrinting() {
+		return prettyPrinting;
+	}
+
+	/**
+	 * Sets the {@code JsonParser} writing the request bodies and reading the
+	 * responses, by default the shared {@code JsonParser#getInstance()}.
+	 * 
+	 * @param jsonParser - the parser, e.g. {@code new JsonParser(engine)} with another {@code JsonEngine}
+	 */
+	public void setJsonParser(JsonParser jsonParser) {
+		if (jsonParser == null) {
+			throw new IllegalArgumentException("JsonParser must not be null");
+		}
+		this.prettyPrintingJsonParser = new JsonParser(jsonParser.getEngine().withPrettyPrinting());
+		this.jsonParser = jsonParser;
+	}
+
+	public JsonParser getJsonParser() {
+		return jsonParser;
+	}
+
+	/**
+	 * Sets the retries of transient failures, by default GET and DELETE requests
+	 * are executed up to three times. Configure the policy before setting it, the
+	 * retry budget is created from it here.
+	 * 
+	 * @param retryPolicy - the policy, {@code RetryPolicy#none()} disables retries
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		if (retryPolicy == null) {
+			throw new IllegalArgumentException("RetryPolicy must not be null");
+		}
+		this.retryBudget = new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getBudgetBurst());
+		this.retryPolicy = retryPolicy;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Limits the requests per private key, every attempt of a request takes a
+	 * permit. Requests wait up to the maximum wait of the limiter for their permit
+	 * and fail with a {@code RateLimitExceededException} without one. By default
+	 * requests are not limited.
+	 * 
+	 * @param rateLimiter - the limiter, null to send requests without limit
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * @return the number of requests, retries and retries not done since the creation
+	 */
+	public RetryStats getRetryStats() {
+		return new RetryStats(requestCount.get(), retryCount.get(), exhaustedCount.get(), budgetRejectedCount.get());
 	}
 
 	/**
@@ -116,6 +214,18 @@ public abstract class AbstractHeidelpayRestCommunication implements HeidelpayRes
 	 */
 	protected abstract void logRequestBody(String body);
 
+	/**
+	 * Extension point to skip the json representation of the data to be sent, in
+	 * case it would not be logged anyway. Without it requests implementing
+	 * {@code HeidelpayStreamingHttpRequest} write the data straight into the
+	 * request, {@code #logRequestBody(String)} is not called then.
+	 * 
+	 * @return true if {@code #logRequestBody(String)} logs the body, true by default
+	 */
+	protected boolean isRequestBodyLogged() {
+		return true;
+	}
+
 	/**
 	 * Extension point for logging the response comming from the api.
 	 * @param response - the response as {@code HeidelpayHttpResponse}
@@ -124,59 +234,107 @@ public abstract class AbstractHeidelpayRestCommunication implements HeidelpayRes
 
 	public String httpGet(String url, String privateKey) throws HttpCommunicationException {
 
-		return this.execute(createRequest(url, HeidelpayHttpMethod.GET), privateKey);
+		return this.execute(buildRequest(url, HeidelpayHttpMethod.GET, null), privateKey);
 	}
 
 	public String httpPost(String url, String privateKey, Object data)
 			throws HttpCommunicationException {
-		if (url == null) {
-			throw new IllegalArgumentException("Cannot post to a null URL");
-		}
-		return sendPutOrPost(createRequest(url, HeidelpayHttpMethod.POST), privateKey, data);
+		return this.execute(buildRequest(url, HeidelpayHttpMethod.POST, data), privateKey);
 	}
 
 	public String httpPut(String url, String privateKey, Object data)
 			throws HttpCommunicationException {
-		if (url == null) {
-			throw new IllegalArgumentException("Cannot put to a null URL");
-		}
-		return sendPutOrPost(createRequest(url, HeidelpayHttpMethod.PUT), privateKey, data);
+		return this.execute(buildRequest(url, HeidelpayHttpMethod.PUT, data), privateKey);
 	}
 
 	public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
 		
-		return this.execute(createRequest(url, HeidelpayHttpMethod.DELETE), privateKey);
+		return this.execute(buildRequest(url, HeidelpayHttpMethod.DELETE, null), privateKey);
 	}
 
-	private String sendPutOrPost(HeidelpayHttpRequest request, String privateKey, Object data)
-			throws HttpCommunicationException {
-		if (data == null) {
-			throw new IllegalArgumentException("Cannot create a http post request with null params");
+	/**
+	 * Creates the {@code HeidelpayHttpRequest} by
+	 * {@code #createRequest(String, HeidelpayHttpMethod)} and, for POST and PUT,
+	 * sets the json representation of the given data as content.
+	 * 
+	 * @param url - the url to be called
+	 * @param method - the http-method as defined by {@code HeidelpayHttpMethod}
+	 * @param data - the object to be sent, ignored for GET and DELETE
+	 * @return the request, ready to be passed into {@code #prepareRequest(HeidelpayHttpRequest, String)}
+	 */
+	protected HeidelpayHttpRequest buildRequest(String url, HeidelpayHttpMethod method, Object data) {
+		if (HeidelpayHttpMethod.POST.equals(method) || HeidelpayHttpMethod.PUT.equals(method)) {
+			if (url == null) {
+				throw new IllegalArgumentException("Cannot " + method.name().toLowerCase() + " to a null URL");
+			}
+			if (data == null) {
+				throw new IllegalArgumentException("Cannot create a http post request with null params");
+			}
+			HeidelpayHttpRequest request = createRequest(url, method);
+			JsonParser parser = prettyPrinting ? prettyPrintingJsonParser : jsonParser;
+			if (request instanceof HeidelpayStreamingHttpRequest && !isRequestBodyLogged()) {
+				((HeidelpayStreamingHttpRequest) request).setContent(data, parser);
+				return request;
+			}
+			String json = parser.toJson(data);
+			logRequestBody(json);
+			request.setContent(json, "UTF-8");
+			return request;
 		}
-
-		String json = new JsonParser().toJson(data);
-		logRequestBody(json);
-		request.setContent(new JsonParser().toJson(data), "UTF-8");
-
-		return this.execute(request, privateKey);
-
+		return createRequest(url, method);
 	}
 
 	/**
-	 * sets the content-type header of the given {@code HeidelpayHttpRequest} to application/json,UTF-8.
-	 * This method is called from the {@code #execute(HeidelpayHttpRequest)} method, you do not need to call it explicettely.
-	 * @param request the request the content type 
+	 * Returns the headers of the requests of the given key: user-agent,
+	 * authorization, accept-language and content-type. The template of a key is
+	 * created once and reused, as a communication shared by many facades, e.g. of a
+	 * {@code HeidelpayClientPool}, sends them with every request. Beyond the first
+	 * 10000 keys the templates are created per request.
+	 * 
+	 * @param privateKey - the private key used for authentication
+	 * @return the template of the key
 	 */
-	private void setContentType(HeidelpayHttpRequest request) {
-		request.addHeader(CONTENT_TYPE, CONTENT_TYPE_JSON);
+	protected RequestTemplate getRequestTemplate(String privateKey) {
+		if (privateKey == null) {
+			return createRequestTemplate(privateKey);
+		}
+		RequestTemplate template = requestTemplates.get(privateKey);
+		if (template == null) {
+			template = createRequestTemplate(privateKey);
+			if (requestTemplates.size() < MAX_CACHED_REQUEST_TEMPLATES) {
+				requestTemplates.putIfAbsent(privateKey, template);
+			}
+		}
+		return template;
 	}
 
-	private void addUserAgent(HeidelpayHttpRequest request) {
-		request.addHeader(USER_AGENT, USER_AGENT_PREFIX + " - " + SDKInfo.getVersion());
+	private RequestTemplate createRequestTemplate(String privateKey) {
+		String authorization = BASIC + addAuthentication(privateKey);
+		if (acceptLanguage == null) {
+			return new RequestTemplate(USER_AGENT, getUserAgent(), AUTHORIZATION, authorization, CONTENT_TYPE, CONTENT_TYPE_JSON);
+		}
+		return new RequestTemplate(USER_AGENT, getUserAgent(), AUTHORIZATION, authorization, ACCEPT_LANGUAGE, acceptLanguage,
+				CONTENT_TYPE, CONTENT_TYPE_JSON);
 	}
 
-	private void addHeidelpayAuthentication(String privateKey, HeidelpayHttpRequest request) {
-		request.addHeader(AUTHORIZATION, BASIC + addAuthentication(privateKey));
+	private static String getUserAgent() {
+		return UserAgentHolder.USER_AGENT;
+	}
+
+	private static final class UserAgentHolder {
+		private static final String USER_AGENT = USER_AGENT_PREFIX + " - " + SDKInfo.getVersion();
+	}
+
+	/**
+	 * Adds the headers of the template to the request. Implementations may
+	 * override it to add the shared headers of the template to their native
+	 * request, instead of adding each header by name and value.
+	 * 
+	 * @param request - the {@code HeidelpayHttpRequest} to be sent
+	 * @param template - the template of the private key of the request
+	 */
+	protected void applyRequestTemplate(HeidelpayHttpRequest request, RequestTemplate template) {
+		template.applyTo(request);
 	}
 
 	public static String addAuthentication(String privateKey) {
@@ -202,22 +360,203 @@ public abstract class AbstractHeidelpayRestCommunication implements HeidelpayRes
 		return privateKeyBase64;
 	}
 
-	private void addAcceptLanguageHeader(HeidelpayHttpRequest request) {
-		if(this.locale != null) {
-			request.addHeader(ACCEPT_LANGUAGE, this.locale.getLanguage());
+	String execute(HeidelpayHttpRequest request, String privateKey) throws HttpCommunicationException {
+		prepareRequest(request, privateKey);
+
+		Retry retry = newRetry(request);
+		while (true) {
+			acquirePermit(privateKey);
+			HeidelpayHttpResponse response;
+			try {
+				response = doExecute(request);
+			} catch (HttpCommunicationException e) {
+				if (retry.awaitRetry(null)) {
+					continue;
+				}
+				throw e;
+			}
+			adaptRateLimit(privateKey, response);
+			if (retry.awaitRetry(response)) {
+				logResponse(response);
+				continue;
+			}
+			return handleResponse(response);
 		}
 	}
 
-	String execute(HeidelpayHttpRequest request, String privateKey) throws HttpCommunicationException {
-		addUserAgent(request);
-		addHeidelpayAuthentication(privateKey, request);
-		addAcceptLanguageHeader(request);
-		setContentType(request);
+	/**
+	 * Starts the retries of a request as defined by the {@code RetryPolicy}.
+	 * Implementations executing the request themselves, e.g. by streaming the
+	 * response, call {@code Retry#awaitRetry(HeidelpayHttpResponse)} after every
+	 * failed attempt.
+	 * 
+	 * @param request - the {@code HeidelpayHttpRequest} to be sent
+	 * @return the retries of this request
+	 */
+	protected Retry newRetry(HeidelpayHttpRequest request) {
+		requestCount.incrementAndGet();
+		RetryBudget budget = retryBudget;
+		budget.deposit();
+		return new Retry(request.getMethod(), retryPolicy, budget);
+	}
+
+	/**
+	 * Takes a permit of the {@code RateLimiter} for the private key, if one is set.
+	 * Implementations executing the request themselves call it before every attempt.
+	 * 
+	 * @param privateKey - the key the request is authenticated with
+	 * @throws HttpCommunicationException if there is no permit within the maximum
+	 *         wait of the limiter
+	 */
+	protected void acquirePermit(String privateKey) throws HttpCommunicationException {
+		RateLimiter limiter = rateLimiter;
+		if (limiter == null) {
+			return;
+		}
+		boolean permitted;
+		try {
+			permitted = limiter.tryAcquire(privateKey, limiter.getMaxWait());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new HttpCommunicationException("Interrupted while waiting for the rate limit: " + e.getMessage());
+		}
+		if (!permitted) {
+			throw new RateLimitExceededException(
+					"No request permitted within " + limiter.getMaxWait() + "ms by the rate limit");
+		}
+	}
+
+	/**
+	 * Passes the outcome of a request to the {@code RateLimiter}: a 429 response
+	 * slows the private key down for its Retry-After, any other speeds it up.
+	 * 
+	 * @param privateKey - the key the request is authenticated with
+	 * @param response - the response of the request
+	 */
+	protected void adaptRateLimit(String privateKey, HeidelpayHttpResponse response) {
+		RateLimiter limiter = rateLimiter;
+		if (limiter == null) {
+			return;
+		}
+		if (response.getStatusCode() == HTTP_STATUS_TOO_MANY_REQUESTS) {
+			limiter.onThrottled(privateKey, Math.max(0, getRetryAfter(response)));
+		} else {
+			limiter.onSuccess(privateKey);
+		}
+	}
+
+	/**
+	 * Extension point for the wait before a retry, e.g. for tests.
+	 * 
+	 * @param millis - the time to wait in milliseconds
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	protected void waitBeforeRetry(long millis) throws InterruptedException {
+		if (millis > 0) {
+			Thread.sleep(millis);
+		}
+	}
+
+	/**
+	 * The retries of a single request.
+	 */
+	protected class Retry {
+
+		private final HeidelpayHttpMethod method;
+		private final RetryPolicy policy;
+		private final RetryBudget budget;
+		private int attempt = 1;
+
+		Retry(HeidelpayHttpMethod method, RetryPolicy policy, RetryBudget budget) {
+			this.method = method;
+			this.policy = policy;
+			this.budget = budget;
+		}
+
+		/**
+		 * Decides whether the last attempt is to be repeated and waits before the
+		 * repetition.
+		 * 
+		 * @param response - the response of the last attempt, null if it failed
+		 *        with an {@code HttpCommunicationException}
+		 * @return true if the request is to be sent again
+		 */
+		public boolean awaitRetry(HeidelpayHttpResponse response) {
+			if (response != null && !policy.isRetryableStatus(response.getStatusCode())) {
+				return false;
+			}
+			if (!policy.isRetryable(method)) {
+				return false;
+			}
+			if (attempt >= policy.getMaxAttempts()) {
+				exhaustedCount.incrementAndGet();
+				return false;
+			}
+			long wait = policy.getBackoff(attempt, ThreadLocalRandom.current().nextDouble());
+			long retryAfter = response == null ? -1 : getRetryAfter(response);
+			if (retryAfter > policy.getMaxRetryAfter()) {
+				return false;
+			}
+			if (retryAfter >= 0) {
+				wait = retryAfter;
+			}
+			if (!budget.withdraw()) {
+				budgetRejectedCount.incrementAndGet();
+				return false;
+			}
+			try {
+				waitBeforeRetry(wait);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			attempt++;
+			retryCount.incrementAndGet();
+			return true;
+		}
+	}
+
+	/**
+	 * @return the wait in milliseconds requested by the Retry-After header in
+	 *         seconds or as http-date, -1 if there is none
+	 */
+	private static long getRetryAfter(HeidelpayHttpResponse response) {
+		String retryAfter = response.getHeader(RETRY_AFTER);
+		if (retryAfter == null) {
+			return -1;
+		}
+		try {
+			return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+		} catch (NumberFormatException e) {
+			Date date = DateUtils.parseDate(retryAfter);
+			return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Adds the user-agent, authentication, accept-language and content-type
+	 * headers to the request and logs it. Implementations executing the request
+	 * themselves, e.g. asynchronously, must call this method before sending the
+	 * request.
+	 * 
+	 * @param request - the {@code HeidelpayHttpRequest} to be sent
+	 * @param privateKey - the private key used for authentication
+	 */
+	protected void prepareRequest(HeidelpayHttpRequest request, String privateKey) {
+		applyRequestTemplate(request, getRequestTemplate(privateKey));
 
 		logRequest(request);
-		
-		HeidelpayHttpResponse response = doExecute(request);
-		
+	}
+
+	/**
+	 * Logs the response and translates api errors into a {@code PaymentException}.
+	 * Implementations executing the request themselves, e.g. asynchronously, must
+	 * pass every response through this method.
+	 * 
+	 * @param response - the response as {@code HeidelpayHttpResponse}
+	 * @return the content of the response
+	 */
+	protected String handleResponse(HeidelpayHttpResponse response) {
 		logResponse(response);
 
 		if (isError(response)) {
@@ -225,16 +564,23 @@ public abstract class AbstractHeidelpayRestCommunication implements HeidelpayRes
 		}
 
 		return response.getContent();
-
 	}
 
 	private void throwPaymentException(HeidelpayHttpResponse response) {
-		JsonErrorObject error = new JsonParser().fromJson(response.getContent(), JsonErrorObject.class);
+		JsonErrorObject error = jsonParser.fromJson(response.getContent(), JsonErrorObject.class);
 		throw new PaymentException(error.getUrl(), response.getStatusCode(), error.getTimestamp(), error.getId(), error.getErrors(), "");
 	}
 
 	private boolean isError(HeidelpayHttpResponse response) {
-		return response.getStatusCode() > 201 || response.getStatusCode() < 200;
+		return isError(response.getStatusCode());
+	}
+
+	/**
+	 * @param statusCode - the http status of a response
+	 * @return true if the api reports an error with this status
+	 */
+	protected static boolean isError(int statusCode) {
+		return statusCode > 201 || statusCode < 200;
 	}
 
 }
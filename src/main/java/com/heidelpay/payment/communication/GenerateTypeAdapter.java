@@ -0,0 +1,41 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a json class for which a {@code TypeAdapter} is generated at build
+ * time, see {@code com.heidelpay.payment.communication.processor.TypeAdapterProcessor}.
+ * The generated adapter reads and writes the fields through their getters and
+ * setters, which must be accessible from the package of the class. It behaves
+ * like the reflection based adapter of Gson: fields of the class come first,
+ * then those of the superclasses, {@code SerializedName}, {@code JsonAdapter}
+ * and {@code JsonFieldIgnore} are respected.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface GenerateTypeAdapter {
+
+}
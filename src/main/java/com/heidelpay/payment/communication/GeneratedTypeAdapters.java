@@ -0,0 +1,136 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Support for the {@code TypeAdapter}s generated for classes annotated with
+ * {@code GenerateTypeAdapter}, not meant to be used otherwise.
+ */
+public final class GeneratedTypeAdapters {
+
+	private GeneratedTypeAdapters() {
+	}
+
+	/**
+	 * Writes a field value with the adapter of its runtime type, if it is a
+	 * subclass of the declared type, as Gson does for reflectively mapped fields.
+	 * 
+	 * @param <T> the declared type of the field
+	 * @param gson - the {@code Gson} providing the adapter of the runtime type
+	 * @param adapter - the adapter of the declared type
+	 * @param declaredType - the declared type of the field
+	 * @param out - the writer
+	 * @param value - the value of the field
+	 * @throws IOException if writing fails
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> void write(Gson gson, TypeAdapter<T> adapter, Class<?> declaredType, JsonWriter out, T value)
+			throws IOException {
+		if (value != null && value.getClass() != declaredType) {
+			((TypeAdapter<T>) gson.getAdapter(value.getClass())).write(out, value);
+		} else {
+			adapter.write(out, value);
+		}
+	}
+
+	/**
+	 * Creates the adapter of a field annotated with {@code JsonAdapter} naming a
+	 * {@code JsonSerializer} and/or {@code JsonDeserializer}, as Gson does.
+	 * 
+	 * @param <T> the declared type of the field
+	 * @param gson - the {@code Gson} used for the json tree and the context
+	 * @param converter - the instance of the class named by the annotation
+	 * @param type - the declared type of the field
+	 * @param nullSafe - the nullSafe value of the annotation
+	 * @return the adapter
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> TypeAdapter<T> treeAdapter(final Gson gson, Object converter, final TypeToken<T> type,
+			final boolean nullSafe) {
+		final JsonSerializer<T> serializer = converter instanceof JsonSerializer ? (JsonSerializer<T>) converter : null;
+		final JsonDeserializer<T> deserializer = converter instanceof JsonDeserializer ? (JsonDeserializer<T>) converter : null;
+		final TypeAdapter<JsonElement> treeAdapter = gson.getAdapter(JsonElement.class);
+		final Context context = new Context(gson);
+		return new TypeAdapter<T>() {
+			@Override
+			public void write(JsonWriter out, T value) throws IOException {
+				if (serializer == null) {
+					gson.getAdapter(type).write(out, value);
+				} else if (nullSafe && value == null) {
+					out.nullValue();
+				} else {
+					treeAdapter.write(out, serializer.serialize(value, type.getType(), context));
+				}
+			}
+
+			@Override
+			public T read(JsonReader in) throws IOException {
+				if (deserializer == null) {
+					return gson.getAdapter(type).read(in);
+				}
+				JsonElement value = treeAdapter.read(in);
+				if (nullSafe && value.isJsonNull()) {
+					return null;
+				}
+				return deserializer.deserialize(value, type.getType(), context);
+			}
+		};
+	}
+
+	private static final class Context implements JsonSerializationContext, JsonDeserializationContext {
+		private final Gson gson;
+
+		Context(Gson gson) {
+			this.gson = gson;
+		}
+
+		@Override
+		public JsonElement serialize(Object src) {
+			return gson.toJsonTree(src);
+		}
+
+		@Override
+		public JsonElement serialize(Object src, Type typeOfSrc) {
+			return gson.toJsonTree(src, typeOfSrc);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <R> R deserialize(JsonElement json, Type typeOfT) throws JsonParseException {
+			return (R) gson.fromJson(json, typeOfT);
+		}
+	}
+}
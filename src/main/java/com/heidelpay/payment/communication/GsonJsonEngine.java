@@ -0,0 +1,105 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Currency;
+import java.util.Date;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.heidelpay.payment.communication.json.GeneratedTypeAdapterFactory;
+
+/**
+ * The default {@code JsonEngine} based on Gson. The classes annotated with
+ * {@code GenerateTypeAdapter} are mapped by the TypeAdapters generated at build
+ * time, all other classes by reflection.
+ */
+public class GsonJsonEngine implements JsonEngine {
+
+	private final Gson gson;
+
+	public GsonJsonEngine() {
+		this(newGsonBuilder(true).create());
+	}
+
+	/**
+	 * @param gson - a {@code Gson} configured like the one of the default
+	 *             constructor, e.g. derived from it by {@code newBuilder()}
+	 */
+	public GsonJsonEngine(Gson gson) {
+		if (gson == null) {
+			throw new IllegalArgumentException("Gson must not be null");
+		}
+		this.gson = gson;
+	}
+
+	static GsonBuilder newGsonBuilder(boolean generatedTypeAdapters) {
+		GsonBuilder builder = new GsonBuilder()
+				.addSerializationExclusionStrategy(new JsonFieldIgnoreStragegy())
+				.registerTypeAdapter(Date.class, new JsonDateTimeConverter())
+				.registerTypeAdapter(String.class, new JsonStringConverter())
+				.registerTypeAdapter(BigDecimal.class, new JsonBigDecimalConverter())
+				.registerTypeAdapter(URL.class, new JsonURLConverter())
+				.registerTypeAdapter(Currency.class, new JsonCurrencyConverter());
+		if (generatedTypeAdapters) {
+			builder.registerTypeAdapterFactory(new GeneratedTypeAdapterFactory());
+		}
+		return builder;
+	}
+
+	/**
+	 * @return the underlying {@code Gson}, e.g. to obtain its TypeAdapters
+	 */
+	public Gson getGson() {
+		return gson;
+	}
+
+	@Override
+	public String toJson(Object model) {
+		return gson.toJson(model);
+	}
+
+	@Override
+	public void toJson(Object model, Writer writer) {
+		gson.toJson(model, writer);
+	}
+
+	@Override
+	public <T> T fromJson(String json, Class<T> clazz) {
+		return gson.fromJson(json, clazz);
+	}
+
+	@Override
+	public <T> T fromJson(Reader json, Class<T> clazz) {
+		return gson.fromJson(json, clazz);
+	}
+
+	@Override
+	public JsonEngine withPrettyPrinting() {
+		return new GsonJsonEngine(gson.newBuilder().setPrettyPrinting().create());
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 - 2021 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking extension of the {@code HeidelpayRestCommunication}. The
+ * returned {@code CompletableFuture} is completed by the I/O threads of the
+ * implementation, so the calling thread is never parked during the round trip.
+ * 
+ * A failed call completes the future exceptionally with a
+ * {@code HttpCommunicationException} for any communication problems or with a
+ * {@code PaymentException} for errors reported by the api.
+ * 
+ * Dependent stages without an explicit executor run on the I/O threads. Use
+ * the {@code xxxAsync(..., Executor)} methods of the {@code CompletableFuture}
+ * for expensive follow-up work.
+ *
+ * @see com.heidelpay.payment.communication.impl.HttpAsyncClientBasedRestCommunication for a reference implementation
+ */
+public interface HeidelpayAsyncRestCommunication extends HeidelpayRestCommunication {
+
+	/**
+	 * Executes a GET Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} without blocking the calling thread.
+	 * 
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @return - the future Response as application/json, UTF-8
+	 */
+	CompletableFuture<String> httpGetAsync(String url, String privateKey);
+
+	/**
+	 * Executes a POST Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} without blocking the calling thread.
+	 * 
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @param data - any data object as defined in the com.heidelpay.payment package
+	 * @return - the future Response as application/json, UTF-8
+	 */
+	CompletableFuture<String> httpPostAsync(String url, String privateKey, Object data);
+
+	/**
+	 * Executes a PUT Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} without blocking the calling thread.
+	 * 
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @param data - any data object as defined in the com.heidelpay.payment package
+	 * @return - the future Response as application/json, UTF-8
+	 */
+	CompletableFuture<String> httpPutAsync(String url, String privateKey, Object data);
+
+	/**
+	 * Executes a DELETE Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} without blocking the calling thread.
+	 * 
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @return - the future Response as application/json, UTF-8
+	 */
+	CompletableFuture<String> httpDeleteAsync(String url, String privateKey);
+}
@@ -20,6 +20,10 @@ package com.heidelpay.payment.communication;
  * #L%
  */
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * Minimal represenation of a http-response.
  */
@@ -27,6 +31,7 @@ public class HeidelpayHttpResponse {
 
 	private String content;
 	private int code;
+	private Map<String, String> headers;
 	
 	/**
 	 * Creates the {@code HeidelpayHttpResponse} with the given content ond http-status code.
@@ -36,6 +41,20 @@ public class HeidelpayHttpResponse {
 	public  HeidelpayHttpResponse(String content, int code) {
 		this.content = content;
 		this.code = code;
+		this.headers = Collections.emptyMap();
+	}
+
+	/**
+	 * Creates the {@code HeidelpayHttpResponse} with the given content, http-status code and headers.
+	 * @param content - the content of the response. will be application/son, UTF-8 in any cases
+	 * @param code - the http-status code
+	 * @param headers - the headers of the response, e.g. Retry-After
+	 */
+	public HeidelpayHttpResponse(String content, int code, Map<String, String> headers) {
+		this.content = content;
+		this.code = code;
+		this.headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+		this.headers.putAll(headers);
 	}
 	
 	/**
@@ -51,5 +70,13 @@ public class HeidelpayHttpResponse {
 	public String getContent() {
 		return this.content;
 	}
-	
+
+	/**
+	 * @param name - the name of the header, case-insensitive
+	 * @return the value of the header, null if the response does not have it
+	 */
+	public String getHeader(String name) {
+		return headers.get(name);
+	}
+
 }
@@ -0,0 +1,41 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Extension of the {@code HeidelpayHttpRequest} writing the json
+ * representation of the content straight into the request entity, instead of
+ * passing it as a String. This saves the intermediate copies of large
+ * payloads, e.g. baskets with many items or paypages.
+ *
+ * @see com.heidelpay.payment.communication.impl.HttpClientBasedHttpRequest for a reference implementation
+ */
+public interface HeidelpayStreamingHttpRequest extends HeidelpayHttpRequest {
+
+	/**
+	 * Sets the object to be sent as content. Its json representation is written
+	 * UTF-8 encoded, when the request is sent.
+	 * 
+	 * @param data - the object to be sent
+	 * @param jsonParser - the {@code JsonParser} writing the json representation
+	 */
+	void setContent(Object data, JsonParser jsonParser);
+}
@@ -0,0 +1,74 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 - 2021 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.gson.TypeAdapter;
+
+/**
+ * Extension of the {@code HeidelpayRestCommunication} mapping GET responses
+ * straight from the http stream, without materializing the response as a
+ * String first. This saves the intermediate copies of large responses, e.g.
+ * payments with many transactions or installment rate plans.
+ * 
+ * Errors are detected by the http status of the response and thrown as
+ * {@code PaymentException}, the body of a successful response is not scanned
+ * for error objects.
+ *
+ * @see com.heidelpay.payment.communication.impl.HttpClientBasedRestCommunication for a reference implementation
+ */
+public interface HeidelpayStreamingRestCommunication extends HeidelpayRestCommunication {
+
+	/**
+	 * Executes a GET Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} and maps the json response to the given class.
+	 * 
+	 * @param <T> type of the json object
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @param clazz
+	 *            - class of the json object, as defined in the com.heidelpay.payment.communication.json package
+	 * @return - the json object
+	 * 
+	 * @throws HttpCommunicationException
+	 *             - thrown for any problems occurring in http-communication
+	 */
+	<T> T httpGet(String url, String privateKey, Class<T> clazz) throws HttpCommunicationException;
+
+	/**
+	 * Executes a GET Request to the given {@code url} authenticated with the given
+	 * {@code privateKey} and reads the json response with the given adapter.
+	 * 
+	 * @param <T> type of the object read by the adapter
+	 * @param url
+	 *            - the url to be called
+	 * @param privateKey
+	 *            - the private key of the key-pair to used
+	 * @param adapter
+	 *            - the adapter reading the json, e.g. straight into a business object
+	 * @return - the object read by the adapter
+	 * 
+	 * @throws HttpCommunicationException
+	 *             - thrown for any problems occurring in http-communication
+	 */
+	<T> T httpGet(String url, String privateKey, TypeAdapter<T> adapter) throws HttpCommunicationException;
+}
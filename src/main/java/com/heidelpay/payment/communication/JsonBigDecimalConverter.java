@@ -22,9 +22,6 @@ package com.heidelpay.payment.communication;
 
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Locale;
 
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -45,16 +42,13 @@ public class JsonBigDecimalConverter implements JsonDeserializer<BigDecimal>, Js
 		return number.setScale(4, BigDecimal.ROUND_HALF_UP);
 	}
 
+	/**
+	 * Writes the amount with four decimal places, as a {@code DecimalFormat} with
+	 * four fraction digits, english symbols and no grouping would do.
+	 */
 	@Override
 	public JsonElement serialize(BigDecimal src, Type typeOfSrc, JsonSerializationContext context) {
-		DecimalFormat df = new DecimalFormat();
-		df.setMaximumFractionDigits(4);
-		df.setMinimumFractionDigits(4);
-		DecimalFormatSymbols decimalFormatSymbols = new DecimalFormatSymbols(Locale.ENGLISH);
-		decimalFormatSymbols.setDecimalSeparator('.');
-		df.setDecimalFormatSymbols(decimalFormatSymbols);
-		df.setGroupingUsed(false);
-		return new JsonPrimitive(df.format(src.setScale(4, BigDecimal.ROUND_HALF_UP)));
+		return new JsonPrimitive(src.setScale(4, BigDecimal.ROUND_HALF_UP).toPlainString());
 	}
 
 }
@@ -22,7 +22,6 @@ package com.heidelpay.payment.communication;
 
 import java.lang.reflect.Type;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import com.google.gson.JsonDeserializationContext;
@@ -32,6 +31,7 @@ import com.google.gson.JsonParseException;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.heidelpay.payment.util.DateUtil;
 
 public class JsonDateConverter
 		implements JsonDeserializer<Date>, JsonSerializer<Date> {
@@ -43,7 +43,7 @@ public class JsonDateConverter
 
 	@Override
 	public JsonElement serialize(Date src, Type typeOfSrc, JsonSerializationContext context) {
-		return new JsonPrimitive(new SimpleDateFormat("yyyy-MM-dd").format(src));
+		return new JsonPrimitive(DateUtil.formatDate(src));
 	}
 
 	Date getDate(JsonElement json) {
@@ -52,11 +52,7 @@ public class JsonDateConverter
 			return null;
 		}
 		try {
-			if (jsonValue.length() == 10) {
-				return new SimpleDateFormat("yyyy-MM-dd").parse(jsonValue);
-			} else {
-				return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(jsonValue);
-			}
+			return DateUtil.parse(jsonValue);
 		} catch (ParseException e) {
 			throw new JsonParseException("Cannot parse date " + json.getAsJsonPrimitive().getAsString() + ". Date must be in format 'yyyy-MM-dd HH:mm:ss");
 		}
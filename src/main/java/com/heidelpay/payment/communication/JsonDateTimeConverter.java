@@ -21,7 +21,6 @@ package com.heidelpay.payment.communication;
  */
 
 import java.lang.reflect.Type;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import com.google.gson.JsonDeserializationContext;
@@ -30,6 +29,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.heidelpay.payment.util.DateUtil;
 
 public class JsonDateTimeConverter extends JsonDateConverter
 		implements JsonDeserializer<Date>, JsonSerializer<Date> {
@@ -41,7 +41,7 @@ public class JsonDateTimeConverter extends JsonDateConverter
 
 	@Override
 	public JsonElement serialize(Date src, Type typeOfSrc, JsonSerializationContext context) {
-		return new JsonPrimitive(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(src));
+		return new JsonPrimitive(DateUtil.formatDateTime(src));
 	}
 
 }
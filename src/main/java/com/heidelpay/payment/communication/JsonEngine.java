@@ -0,0 +1,88 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Reader;
+import java.io.Writer;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+
+/**
+ * Service provider interface of the json (de-)serialization used by the
+ * {@code JsonParser}. The {@link GsonJsonEngine} is used by default, another
+ * engine is chosen by passing it into {@link JsonParser#JsonParser(JsonEngine)}
+ * or by registering it in
+ * {@code META-INF/services/com.heidelpay.payment.communication.JsonEngine},
+ * the first registered engine is used by {@link JsonParser#getInstance()}.
+ * 
+ * Engines must be thread-safe and map the json like the default engine: fields
+ * instead of getters and setters, names as in {@code SerializedName}, fields
+ * annotated with {@code JsonFieldIgnore} are not written, nulls are omitted and
+ * dates, amounts, urls and currencies are converted like the {@code Json*Converter}
+ * classes of this package. The conformance test of the sdk checks this for the
+ * api payloads.
+ * 
+ * Malformed json is thrown as {@code JsonParseException}, failures of the reader
+ * or writer as {@code JsonIOException}, the api errors are detected by the
+ * {@code JsonParser}.
+ */
+public interface JsonEngine {
+
+	/**
+	 * @param model - the object to be serialized, not null
+	 * @return the json representation of the object
+	 */
+	String toJson(Object model);
+
+	/**
+	 * @param model - the object to be serialized, not null
+	 * @param writer - the writer the json is written into, it is not flushed or closed
+	 * @throws JsonIOException if the writer fails
+	 */
+	void toJson(Object model, Writer writer);
+
+	/**
+	 * @param <T> - type of the class to be parsed
+	 * @param json - the json to be parsed, not null
+	 * @param clazz - the class to be used for the parsing
+	 * @return an object of type T
+	 * @throws JsonParseException if the json cannot be parsed into the class
+	 */
+	<T> T fromJson(String json, Class<T> clazz);
+
+	/**
+	 * @param <T> - type of the class to be parsed
+	 * @param json - reader of the json to be parsed, it is not closed
+	 * @param clazz - the class to be used for the parsing
+	 * @return an object of type T
+	 * @throws JsonParseException if the json cannot be parsed into the class
+	 */
+	<T> T fromJson(Reader json, Class<T> clazz);
+
+	/**
+	 * @return an engine writing indented json, or this engine if it does not
+	 *         support pretty printing
+	 */
+	JsonEngine withPrettyPrinting();
+
+}
@@ -31,35 +31,114 @@ package com.heidelpay.payment.communication;
  * #L%
  */
 
-import java.math.BigDecimal;
-import java.net.URL;
-import java.util.Currency;
-import java.util.Date;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import com.heidelpay.payment.PaymentException;
 import com.heidelpay.payment.communication.json.JsonErrorObject;
 
 /**
  * Provides functions which is interact with json
+ * 
+ * The parser is immutable and thread-safe, use the shared {@link #getInstance()}
+ * instead of creating a new parser for every call: building the underlying
+ * {@code JsonEngine} with its type adapters is far more expensive than a single
+ * (de-)serialization.
+ * 
+ * The shared parser uses the first {@code JsonEngine} registered in
+ * {@code META-INF/services/com.heidelpay.payment.communication.JsonEngine}, or
+ * the {@code GsonJsonEngine} if there is none.
  */
 public class JsonParser {
 
+	private static final Logger logger = LogManager.getLogger(JsonParser.class);
+
 	private static final String ERRORS = "errors";
 	private static final String ERROR_CODE = "code";
 
-	private Gson gson;
+	private static final JsonParser INSTANCE = new JsonParser(loadEngine());
+	private static final JsonParser PRETTY_PRINTING_INSTANCE = new JsonParser(INSTANCE.getEngine().withPrettyPrinting());
+
+	private final JsonEngine engine;
+	// reads with TypeAdapters, e.g. the direct mapping, are Gson specific
+	private final Gson gson;
 
+	/**
+	 * @deprecated use the shared {@link #getInstance()}
+	 */
+	@Deprecated
 	public JsonParser() {
-		gson = new GsonBuilder().setPrettyPrinting()
-				.addSerializationExclusionStrategy(new JsonFieldIgnoreStragegy())
-				.registerTypeAdapter(Date.class, new JsonDateTimeConverter())
-				.registerTypeAdapter(String.class, new JsonStringConverter())
-				.registerTypeAdapter(BigDecimal.class, new JsonBigDecimalConverter())
-				.registerTypeAdapter(URL.class, new JsonURLConverter())
-				.registerTypeAdapter(Currency.class, new JsonCurrencyConverter()).create();
+		this(loadEngine());
+	}
+
+	/**
+	 * Creates a parser using the given engine, share it like the
+	 * {@link #getInstance()}. Reads with TypeAdapters use the Gson of a
+	 * {@code GsonJsonEngine}, or a default one for other engines.
+	 * 
+	 * @param engine - the {@code JsonEngine} doing the (de-)serialization
+	 */
+	public JsonParser(JsonEngine engine) {
+		if (engine == null) {
+			throw new IllegalArgumentException("JsonEngine must not be null");
+		}
+		this.engine = engine;
+		this.gson = engine instanceof GsonJsonEngine ? ((GsonJsonEngine) engine).getGson() : DefaultGson.GSON;
+	}
+
+	// created on first use only, i.e. by a parser with another engine
+	private static final class DefaultGson {
+		private static final Gson GSON = new GsonJsonEngine().getGson();
+	}
+
+	private static JsonEngine loadEngine() {
+		try {
+			Iterator<JsonEngine> engines = ServiceLoader.load(JsonEngine.class, JsonParser.class.getClassLoader()).iterator();
+			if (engines.hasNext()) {
+				return engines.next();
+			}
+		} catch (ServiceConfigurationError e) {
+			logger.warn("Cannot load the registered JsonEngine, using Gson: " + e.getMessage(), e);
+		}
+		return new GsonJsonEngine();
+	}
+
+	/**
+	 * @return the shared parser, writing compact json
+	 */
+	public static JsonParser getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Pretty printed json is more readable in logs but larger on the wire,
+	 * use it for debugging only.
+	 * 
+	 * @return the shared parser, writing indented json
+	 */
+	public static JsonParser getPrettyPrintingInstance() {
+		return PRETTY_PRINTING_INSTANCE;
+	}
+
+	/**
+	 * @return the {@code JsonEngine} doing the (de-)serialization
+	 */
+	public JsonEngine getEngine() {
+		return engine;
 	}
 
 	/**
@@ -73,7 +152,22 @@ public class JsonParser {
 		if (Objects.isNull(model)) {
 			throw new IllegalArgumentException("Null object cannot be parsed!");
 		}
-		return gson.toJson(model);
+		return engine.toJson(model);
+	}
+
+	/**
+	 * Writes the json representation of the object into the given writer, without
+	 * creating a String first.
+	 * 
+	 * @param model refers to object to be parsed
+	 * @param writer the writer the json is written into, it is not flushed or closed
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public void toJson(Object model, Writer writer) {
+		if (Objects.isNull(model)) {
+			throw new IllegalArgumentException("Null object cannot be parsed!");
+		}
+		engine.toJson(model, writer);
 	}
 
 	/**
@@ -92,11 +186,95 @@ public class JsonParser {
 		if (isError(json) && !clazz.isAssignableFrom(JsonErrorObject.class)) {
 			throw toPaymentException(json);
 		}
-		return gson.fromJson(json, clazz);
+		return engine.fromJson(json, clazz);
+	}
+
+	/**
+	 * Provides a streaming parser method to get object from json, without reading
+	 * the json into a String first. Unlike {@link #fromJson(String, Class)} the json
+	 * is not checked for api errors, these must be detected by the http status.
+	 *
+	 * @param <T> type of used class to be parsed
+	 * @param json reader of the json to be parsed
+	 * @param clazz class to be used for the parsing
+	 * @return an object of type T
+	 */
+	@SuppressWarnings("hiding")
+	public <T> T fromJson(Reader json, Class<T> clazz) {
+		if (Objects.isNull(json) || Objects.isNull(clazz)) {
+			throw new IllegalArgumentException("Null object cannot be parsed!");
+		}
+		return engine.fromJson(json, clazz);
+	}
+
+	/**
+	 * Provides a simple parser method reading json with the given adapter, e.g.
+	 * one mapping the json straight into a business object.
+	 *
+	 * @param <T> type of the object read by the adapter
+	 * @param json json to be parsed
+	 * @param adapter the adapter reading the json
+	 * @return an object of type T
+	 */
+	public <T> T fromJson(String json, TypeAdapter<T> adapter) {
+		if (Objects.isNull(json) || Objects.isNull(adapter)) {
+			throw new IllegalArgumentException("Null object cannot be parsed!");
+		}
+		if (isError(json)) {
+			throw toPaymentException(json);
+		}
+		return read(new StringReader(json), adapter);
+	}
+
+	/**
+	 * Provides a streaming parser method reading json with the given adapter. Like
+	 * {@link #fromJson(Reader, Class)} the json is not checked for api errors.
+	 *
+	 * @param <T> type of the object read by the adapter
+	 * @param json reader of the json to be parsed
+	 * @param adapter the adapter reading the json
+	 * @return an object of type T
+	 */
+	public <T> T fromJson(Reader json, TypeAdapter<T> adapter) {
+		if (Objects.isNull(json) || Objects.isNull(adapter)) {
+			throw new IllegalArgumentException("Null object cannot be parsed!");
+		}
+		return read(json, adapter);
+	}
+
+	/**
+	 * @param <T> type of the adapted class
+	 * @param clazz the class to be adapted
+	 * @return the Gson TypeAdapter for the given class
+	 */
+	public <T> TypeAdapter<T> getAdapter(Class<T> clazz) {
+		return gson.getAdapter(clazz);
+	}
+
+	/**
+	 * @param <T> type of the adapted type
+	 * @param type the type to be adapted, e.g. a parameterized collection
+	 * @return the Gson TypeAdapter for the given type
+	 */
+	public <T> TypeAdapter<T> getAdapter(TypeToken<T> type) {
+		return gson.getAdapter(type);
+	}
+
+	private <T> T read(Reader json, TypeAdapter<T> adapter) {
+		// lenient like Gson.fromJson, failures are thrown as JsonSyntaxException as well
+		JsonReader reader = gson.newJsonReader(json);
+		reader.setLenient(true);
+		try {
+			return adapter.read(reader);
+		} catch (IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		} catch (IOException e) {
+			throw new JsonSyntaxException(e);
+		}
 	}
 
 	private PaymentException toPaymentException(String json) {
-		JsonErrorObject error = gson.fromJson(json, JsonErrorObject.class);
+		JsonErrorObject error = engine.fromJson(json, JsonErrorObject.class);
 
 		return new PaymentException(error.getId(), error.getUrl(), error.getTimestamp(), error.getErrors(), "");
 	}
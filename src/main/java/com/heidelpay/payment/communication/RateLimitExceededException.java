@@ -0,0 +1,35 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Thrown when a request gets no permit of the {@code RateLimiter} within its
+ * maximum wait, the request was not sent.
+ */
+public class RateLimitExceededException extends HttpCommunicationException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RateLimitExceededException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,240 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter with a bucket per key, the
+ * {@code AbstractHeidelpayRestCommunication} keys it by private key. A bucket
+ * holds up to <code>burst</code> permits and is refilled at the rate.
+ * 
+ * The rate adapts to the throttling of the api: a 429 response halves the rate
+ * of the key and empties its bucket for the Retry-After duration, every later
+ * permitted request raises the rate by a hundredth of the configured rate, up to
+ * the configured rate.
+ * 
+ * <pre>
+ * RateLimiter rateLimiter = new RateLimiter(20, 40).setMaxWait(30000);
+ * rest.setRateLimiter(rateLimiter);
+ * </pre>
+ */
+public class RateLimiter {
+
+	public static final long DEFAULT_MAX_WAIT = 10000;
+
+	private static final double MIN_RATE_RATIO = 1.0 / 64;
+	private static final double RECOVERY_RATIO = 0.01;
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final double permitsPerSecond;
+	private final int burst;
+	private volatile long maxWait = DEFAULT_MAX_WAIT;
+	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	/**
+	 * @param permitsPerSecond - the sustained rate of requests per key
+	 * @param burst - the number of requests per key which may be sent at once
+	 */
+	public RateLimiter(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond must be positive");
+		}
+		if (burst < 1) {
+			throw new IllegalArgumentException("burst must be at least 1");
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+	}
+
+	public double getPermitsPerSecond() {
+		return permitsPerSecond;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	public long getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * @param maxWait - the longest time in milliseconds a request of the
+	 *        communication waits for a permit before it fails, 0 to fail without
+	 *        waiting
+	 * @return this rate limiter
+	 */
+	public RateLimiter setMaxWait(long maxWait) {
+		if (maxWait < 0) {
+			throw new IllegalArgumentException("maxWait must not be negative");
+		}
+		this.maxWait = maxWait;
+		return this;
+	}
+
+	/**
+	 * Takes a permit, waiting as long as needed.
+	 * 
+	 * @param key - the key of the bucket
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public void acquire(String key) throws InterruptedException {
+		sleep(getBucket(key).reserve(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Takes a permit if one is available without waiting.
+	 * 
+	 * @param key - the key of the bucket
+	 * @return true if the permit was taken
+	 */
+	public boolean tryAcquire(String key) {
+		return getBucket(key).reserve(0) == 0;
+	}
+
+	/**
+	 * Takes a permit if one is available within the timeout. Without a chance to
+	 * get the permit in time it returns false at once.
+	 * 
+	 * @param key - the key of the bucket
+	 * @param timeout - the longest time to wait in milliseconds
+	 * @return true if the permit was taken
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public boolean tryAcquire(String key, long timeout) throws InterruptedException {
+		long wait = getBucket(key).reserve(TimeUnit.MILLISECONDS.toNanos(timeout));
+		if (wait < 0) {
+			return false;
+		}
+		sleep(wait);
+		return true;
+	}
+
+	/**
+	 * Slows the key down after the api throttled a request.
+	 * 
+	 * @param key - the key of the bucket
+	 * @param retryAfter - the wait requested by the api in milliseconds, 0 if it
+	 *        did not request one
+	 */
+	public void onThrottled(String key, long retryAfter) {
+		getBucket(key).throttle(TimeUnit.MILLISECONDS.toNanos(retryAfter));
+	}
+
+	/**
+	 * Speeds the key up again after a request passed without throttling.
+	 * 
+	 * @param key - the key of the bucket
+	 */
+	public void onSuccess(String key) {
+		Bucket bucket = buckets.get(key);
+		if (bucket != null) {
+			bucket.recover();
+		}
+	}
+
+	/**
+	 * @param key - the key of the bucket
+	 * @return the current rate of the key in permits per second
+	 */
+	public double getRate(String key) {
+		Bucket bucket = buckets.get(key);
+		return bucket == null ? permitsPerSecond : bucket.getRate();
+	}
+
+	long nanoTime() {
+		return System.nanoTime();
+	}
+
+	void sleep(long nanos) throws InterruptedException {
+		if (nanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		}
+	}
+
+	private Bucket getBucket(String key) {
+		Bucket bucket = buckets.get(key);
+		if (bucket == null) {
+			Bucket created = new Bucket(nanoTime());
+			bucket = buckets.putIfAbsent(key, created);
+			if (bucket == null) {
+				bucket = created;
+			}
+		}
+		return bucket;
+	}
+
+	/**
+	 * Permits of a key. Reserved permits drive the count below zero, so waiting
+	 * requests are served in order of their reservation.
+	 */
+	private final class Bucket {
+
+		private double permits = burst;
+		private double rate = permitsPerSecond;
+		private long refilledAt;
+
+		Bucket(long now) {
+			this.refilledAt = now;
+		}
+
+		/**
+		 * @return the wait in nanoseconds for the reserved permit, -1 if it
+		 *         exceeds the maximum wait and nothing was reserved
+		 */
+		synchronized long reserve(long maxWaitNanos) {
+			refill();
+			long wait = permits >= 1 ? 0 : (long) Math.ceil((1 - permits) / rate * NANOS_PER_SECOND);
+			if (wait > maxWaitNanos) {
+				return -1;
+			}
+			permits--;
+			return wait;
+		}
+
+		synchronized void throttle(long retryAfterNanos) {
+			refill();
+			rate = Math.max(rate / 2, permitsPerSecond * MIN_RATE_RATIO);
+			permits = Math.min(permits, 0) - rate * retryAfterNanos / NANOS_PER_SECOND;
+		}
+
+		synchronized void recover() {
+			if (rate < permitsPerSecond) {
+				refill();
+				rate = Math.min(permitsPerSecond, rate + permitsPerSecond * RECOVERY_RATIO);
+			}
+		}
+
+		synchronized double getRate() {
+			return rate;
+		}
+
+		private void refill() {
+			long now = nanoTime();
+			permits = Math.min(burst, permits + rate * (now - refilledAt) / NANOS_PER_SECOND);
+			refilledAt = now;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+
+/**
+ * The headers sent with every request of a private key: user-agent,
+ * authorization, accept-language and content-type. The values are encoded once
+ * when the template of a key is created by the rest communication, requests copy
+ * the shared {@code Header} instances.
+ * 
+ * Custom implementations of the {@code AbstractHeidelpayRestCommunication} get the
+ * template of a key by {@code getRequestTemplate(String)} and may add its headers
+ * to their native requests in {@code applyRequestTemplate(HeidelpayHttpRequest, RequestTemplate)}.
+ * 
+ * Instances are immutable and thread-safe.
+ */
+public final class RequestTemplate {
+
+	private final List<Header> headers;
+
+	/**
+	 * Creates a {@code RequestTemplate} of the given headers.
+	 * 
+	 * @param headers - the headers in order of sending
+	 */
+	public RequestTemplate(List<? extends Header> headers) {
+		this.headers = Collections.unmodifiableList(new ArrayList<Header>(headers));
+	}
+
+	RequestTemplate(String... namesAndValues) {
+		List<Header> list = new ArrayList<Header>(namesAndValues.length / 2);
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			list.add(new BasicHeader(namesAndValues[i], namesAndValues[i + 1]));
+		}
+		this.headers = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * @return the headers, unmodifiable
+	 */
+	public List<Header> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * @param name - the name of the header
+	 * @return the value of the header, null if the template has no such header
+	 */
+	public String getHeader(String name) {
+		for (Header header : headers) {
+			if (header.getName().equalsIgnoreCase(name)) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the headers to the given request by {@code HeidelpayHttpRequest#addHeader(String, String)}.
+	 * 
+	 * @param request - the request to be sent
+	 */
+	public void applyTo(HeidelpayHttpRequest request) {
+		for (Header header : headers) {
+			request.addHeader(header.getName(), header.getValue());
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Token bucket limiting the retries of a communication: every request deposits
+ * the ratio, every retry withdraws a whole token. The bucket starts full.
+ */
+class RetryBudget {
+
+	private final double ratio;
+	private final double capacity;
+	private double balance;
+
+	RetryBudget(double ratio, int capacity) {
+		this.ratio = ratio;
+		this.capacity = capacity;
+		this.balance = capacity;
+	}
+
+	synchronized void deposit() {
+		balance = Math.min(capacity, balance + ratio);
+	}
+
+	synchronized boolean withdraw() {
+		if (balance < 1) {
+			return false;
+		}
+		balance -= 1;
+		return true;
+	}
+}
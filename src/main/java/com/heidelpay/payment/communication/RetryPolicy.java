@@ -0,0 +1,224 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+
+/**
+ * Retry settings of the {@code AbstractHeidelpayRestCommunication}. Requests
+ * failing with an {@code HttpCommunicationException} or a status of 429, 500,
+ * 502, 503 or 504 are repeated with an exponential backoff and full jitter, a
+ * Retry-After header of the response is honoured instead. All times are given in
+ * milliseconds.
+ * 
+ * Only GET and DELETE requests are retried by default. POST and PUT requests
+ * create or change resources, e.g. a charge, and may have been processed by the
+ * api although the response got lost, so retry them only if a duplicate is
+ * harmless:
+ * 
+ * <pre>
+ * RetryPolicy retryPolicy = new RetryPolicy()
+ * 		.setMaxAttempts(4)
+ * 		.setRetryableMethods(HeidelpayHttpMethod.GET, HeidelpayHttpMethod.DELETE, HeidelpayHttpMethod.PUT);
+ * </pre>
+ * 
+ * Retries are limited by a budget shared by all requests of a communication:
+ * every request adds {@code budgetRatio} to it, every retry takes one, up to
+ * {@code budgetBurst}. An outage therefore increases the load on the api by
+ * {@code budgetRatio} at most, instead of multiplying it by the attempts.
+ */
+public class RetryPolicy {
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final long DEFAULT_INITIAL_BACKOFF = 100;
+	public static final long DEFAULT_MAX_BACKOFF = 2000;
+	public static final long DEFAULT_MAX_RETRY_AFTER = 10000;
+	public static final double DEFAULT_BUDGET_RATIO = 0.1;
+	public static final int DEFAULT_BUDGET_BURST = 10;
+
+	private static final Set<Integer> RETRYABLE_STATUS_CODES = Collections.unmodifiableSet(
+			new HashSet<Integer>(Arrays.asList(429, 500, 502, 503, 504)));
+
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+	private long maxBackoff = DEFAULT_MAX_BACKOFF;
+	private long maxRetryAfter = DEFAULT_MAX_RETRY_AFTER;
+	private double budgetRatio = DEFAULT_BUDGET_RATIO;
+	private int budgetBurst = DEFAULT_BUDGET_BURST;
+	private Set<HeidelpayHttpMethod> retryableMethods = EnumSet.of(HeidelpayHttpMethod.GET, HeidelpayHttpMethod.DELETE);
+
+	/**
+	 * @return a policy executing every request once
+	 */
+	public static RetryPolicy none() {
+		return new RetryPolicy().setMaxAttempts(1);
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @param maxAttempts - the number of executions of a request including the first one, 1 disables retries
+	 * @return this policy
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be at least 1");
+		}
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	/**
+	 * @param initialBackoff - the upper bound of the wait before the first retry,
+	 *        it doubles with every further retry
+	 * @return this policy
+	 */
+	public RetryPolicy setInitialBackoff(long initialBackoff) {
+		if (initialBackoff < 0) {
+			throw new IllegalArgumentException("initialBackoff must not be negative");
+		}
+		this.initialBackoff = initialBackoff;
+		return this;
+	}
+
+	public long getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * @param maxBackoff - the upper bound of the wait before any retry
+	 * @return this policy
+	 */
+	public RetryPolicy setMaxBackoff(long maxBackoff) {
+		if (maxBackoff < 0) {
+			throw new IllegalArgumentException("maxBackoff must not be negative");
+		}
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+
+	public long getMaxRetryAfter() {
+		return maxRetryAfter;
+	}
+
+	/**
+	 * @param maxRetryAfter - the longest wait requested by a Retry-After header
+	 *        which is honoured, a response asking for a longer wait is not retried
+	 * @return this policy
+	 */
+	public RetryPolicy setMaxRetryAfter(long maxRetryAfter) {
+		if (maxRetryAfter < 0) {
+			throw new IllegalArgumentException("maxRetryAfter must not be negative");
+		}
+		this.maxRetryAfter = maxRetryAfter;
+		return this;
+	}
+
+	public double getBudgetRatio() {
+		return budgetRatio;
+	}
+
+	/**
+	 * @param budgetRatio - the retries allowed per request in the long run, e.g. 0.1
+	 *        for one retry per ten requests
+	 * @return this policy
+	 */
+	public RetryPolicy setBudgetRatio(double budgetRatio) {
+		if (budgetRatio < 0) {
+			throw new IllegalArgumentException("budgetRatio must not be negative");
+		}
+		this.budgetRatio = budgetRatio;
+		return this;
+	}
+
+	public int getBudgetBurst() {
+		return budgetBurst;
+	}
+
+	/**
+	 * @param budgetBurst - the retries allowed in a row, e.g. after a quiet period
+	 * @return this policy
+	 */
+	public RetryPolicy setBudgetBurst(int budgetBurst) {
+		if (budgetBurst < 0) {
+			throw new IllegalArgumentException("budgetBurst must not be negative");
+		}
+		this.budgetBurst = budgetBurst;
+		return this;
+	}
+
+	public Set<HeidelpayHttpMethod> getRetryableMethods() {
+		return Collections.unmodifiableSet(retryableMethods);
+	}
+
+	/**
+	 * @param methods - the http-methods whose requests are retried, GET and DELETE by default
+	 * @return this policy
+	 */
+	public RetryPolicy setRetryableMethods(HeidelpayHttpMethod... methods) {
+		Set<HeidelpayHttpMethod> retryable = EnumSet.noneOf(HeidelpayHttpMethod.class);
+		retryable.addAll(Arrays.asList(methods));
+		this.retryableMethods = retryable;
+		return this;
+	}
+
+	/**
+	 * @param method - the http-method of a request
+	 * @return true if requests of this method are retried
+	 */
+	public boolean isRetryable(HeidelpayHttpMethod method) {
+		return maxAttempts > 1 && retryableMethods.contains(method);
+	}
+
+	/**
+	 * @param statusCode - the http status of a response
+	 * @return true if the status reports a transient failure
+	 */
+	public boolean isRetryableStatus(int statusCode) {
+		return RETRYABLE_STATUS_CODES.contains(statusCode);
+	}
+
+	/**
+	 * @param retry - the number of the retry, starting with 1
+	 * @param random - a random value between 0 (inclusive) and 1 (exclusive)
+	 * @return the wait before the retry, a random share of the exponential backoff
+	 */
+	long getBackoff(int retry, double random) {
+		long backoff = initialBackoff;
+		for (int i = 1; i < retry && backoff < maxBackoff; i++) {
+			backoff *= 2;
+		}
+		return (long) (Math.min(backoff, maxBackoff) * random);
+	}
+}
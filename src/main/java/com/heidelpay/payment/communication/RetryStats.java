@@ -0,0 +1,81 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Snapshot of the retry counters of an {@code AbstractHeidelpayRestCommunication}.
+ */
+public class RetryStats {
+
+	private final long requestCount;
+	private final long retryCount;
+	private final long exhaustedCount;
+	private final long budgetRejectedCount;
+
+	public RetryStats(long requestCount, long retryCount, long exhaustedCount, long budgetRejectedCount) {
+		this.requestCount = requestCount;
+		this.retryCount = retryCount;
+		this.exhaustedCount = exhaustedCount;
+		this.budgetRejectedCount = budgetRejectedCount;
+	}
+
+	/**
+	 * @return number of requests, without their retries
+	 */
+	public long getRequestCount() {
+		return requestCount;
+	}
+
+	/**
+	 * @return number of retries
+	 */
+	public long getRetryCount() {
+		return retryCount;
+	}
+
+	/**
+	 * @return number of requests failing transiently at their last attempt
+	 */
+	public long getExhaustedCount() {
+		return exhaustedCount;
+	}
+
+	/**
+	 * @return number of retries denied because the retry budget was used up
+	 */
+	public long getBudgetRejectedCount() {
+		return budgetRejectedCount;
+	}
+
+	/**
+	 * @return ratio of retries to requests, 0 if there were none
+	 */
+	public double getRetryRate() {
+		return requestCount == 0 ? 0 : (double) retryCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "[requests: " + requestCount + "; retries: " + retryCount + "; exhausted: " + exhaustedCount
+				+ "; budget rejected: " + budgetRejectedCount + "]";
+	}
+}
@@ -0,0 +1,96 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.ContentBufferEntity;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.util.HeapByteBufferAllocator;
+import org.apache.http.nio.util.SimpleInputBuffer;
+import org.apache.http.protocol.HttpContext;
+
+import com.heidelpay.payment.communication.impl.BoundedEntityUtils.ResponseTooLargeException;
+
+/**
+ * Buffers the response like the {@code BasicAsyncResponseConsumer} of the
+ * {@code HttpAsyncClient}, but aborts the exchange with a
+ * {@code ResponseTooLargeException} as soon as the Content-Length or the bytes
+ * received exceed the maximum response size, so a large response is never held
+ * in memory completely.
+ */
+final class BoundedAsyncResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+	private static final int DEFAULT_BUFFER_SIZE = 4096;
+
+	private final long maxResponseSize;
+	private volatile HttpResponse response;
+	private volatile SimpleInputBuffer buffer;
+	private long received;
+
+	BoundedAsyncResponseConsumer(long maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+	}
+
+	@Override
+	protected void onResponseReceived(HttpResponse response) {
+		this.response = response;
+	}
+
+	@Override
+	protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+		long contentLength = entity.getContentLength();
+		if (contentLength > maxResponseSize) {
+			throw new ResponseTooLargeException(maxResponseSize);
+		}
+		int bufferSize = contentLength < 0 ? (int) Math.min(DEFAULT_BUFFER_SIZE, maxResponseSize) : (int) contentLength;
+		this.buffer = new SimpleInputBuffer(bufferSize, new HeapByteBufferAllocator());
+		this.response.setEntity(new ContentBufferEntity(entity, buffer));
+	}
+
+	@Override
+	protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+		int read = buffer.consumeContent(decoder);
+		if (read > 0) {
+			received += read;
+			if (received > maxResponseSize) {
+				throw new ResponseTooLargeException(maxResponseSize);
+			}
+		}
+	}
+
+	@Override
+	protected HttpResponse buildResult(HttpContext context) {
+		return response;
+	}
+
+	@Override
+	protected void releaseResources() {
+		this.response = null;
+		this.buffer = null;
+	}
+}
@@ -0,0 +1,140 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Reads response entities like {@code EntityUtils}, but fails with an
+ * {@code IOException} once an entity exceeds the maximum response size,
+ * instead of buffering it completely.
+ */
+final class BoundedEntityUtils {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private BoundedEntityUtils() {
+	}
+
+	static String toString(HttpEntity entity, long maxResponseSize) throws IOException {
+		if (entity == null) {
+			return null;
+		}
+		checkContentLength(entity, maxResponseSize);
+		if (maxResponseSize <= 0) {
+			return EntityUtils.toString(entity, UTF_8);
+		}
+		Reader reader = toReader(entity, maxResponseSize);
+		try {
+			StringBuilder content = new StringBuilder(entity.getContentLength() > 0 ? (int) entity.getContentLength() : 4096);
+			char[] buffer = new char[4096];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				content.append(buffer, 0, read);
+			}
+			return content.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+	static Reader toReader(HttpEntity entity, long maxResponseSize) throws IOException {
+		checkContentLength(entity, maxResponseSize);
+		InputStream content = entity.getContent();
+		if (maxResponseSize > 0) {
+			content = new LimitedInputStream(content, maxResponseSize);
+		}
+		return new InputStreamReader(content, getCharset(entity));
+	}
+
+	private static void checkContentLength(HttpEntity entity, long maxResponseSize) throws IOException {
+		if (maxResponseSize > 0 && entity.getContentLength() > maxResponseSize) {
+			throw new ResponseTooLargeException(maxResponseSize);
+		}
+	}
+
+	private static Charset getCharset(HttpEntity entity) {
+		ContentType contentType = ContentType.get(entity);
+		if (contentType == null || contentType.getCharset() == null) {
+			return UTF_8;
+		}
+		return contentType.getCharset();
+	}
+
+	static class ResponseTooLargeException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		ResponseTooLargeException(long maxResponseSize) {
+			super("Response exceeds the maximum response size of " + maxResponseSize + " bytes");
+		}
+	}
+
+	private static class LimitedInputStream extends FilterInputStream {
+		private final long maxResponseSize;
+		private long count;
+
+		LimitedInputStream(InputStream in, long maxResponseSize) {
+			super(in);
+			this.maxResponseSize = maxResponseSize;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				count(read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count(skipped);
+			return skipped;
+		}
+
+		private void count(long read) throws IOException {
+			count += read;
+			if (count > maxResponseSize) {
+				throw new ResponseTooLargeException(maxResponseSize);
+			}
+		}
+	}
+}
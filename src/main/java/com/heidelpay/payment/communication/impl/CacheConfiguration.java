@@ -0,0 +1,149 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Size and time-to-live settings of the {@code CachingRestCommunication}.
+ * All times are given in milliseconds, a time-to-live of 0 disables caching
+ * of the resource.
+ *
+ * <pre>
+ * CacheConfiguration configuration = new CacheConfiguration()
+ * 		.setMaxSize(5000)
+ * 		.setPaymentTtl(5000)
+ * 		.setCustomerTtl(0);
+ * </pre>
+ */
+public class CacheConfiguration {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+	public static final long DEFAULT_PAYMENT_TTL = 10000;
+	public static final long DEFAULT_PAYMENT_TYPE_TTL = 600000;
+	public static final long DEFAULT_CUSTOMER_TTL = 60000;
+	public static final long DEFAULT_BASKET_TTL = 60000;
+	public static final long DEFAULT_METADATA_TTL = 600000;
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private long paymentTtl = DEFAULT_PAYMENT_TTL;
+	private long paymentTypeTtl = DEFAULT_PAYMENT_TYPE_TTL;
+	private long customerTtl = DEFAULT_CUSTOMER_TTL;
+	private long basketTtl = DEFAULT_BASKET_TTL;
+	private long metadataTtl = DEFAULT_METADATA_TTL;
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @param maxSize - the maximum number of cached responses, the least recently
+	 *        used response is evicted beyond this size
+	 * @return this configuration
+	 */
+	public CacheConfiguration setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		return this;
+	}
+
+	public long getPaymentTtl() {
+		return paymentTtl;
+	}
+
+	/**
+	 * @param paymentTtl - time-to-live of payments and their transactions. The state
+	 *        of a payment changes outside of the own calls, e.g. when the customer
+	 *        finishes a redirect, so keep this short or invalidate on webhook events.
+	 * @return this configuration
+	 */
+	public CacheConfiguration setPaymentTtl(long paymentTtl) {
+		this.paymentTtl = paymentTtl;
+		return this;
+	}
+
+	public long getPaymentTypeTtl() {
+		return paymentTypeTtl;
+	}
+
+	/**
+	 * @param paymentTypeTtl - time-to-live of payment types
+	 * @return this configuration
+	 */
+	public CacheConfiguration setPaymentTypeTtl(long paymentTypeTtl) {
+		this.paymentTypeTtl = paymentTypeTtl;
+		return this;
+	}
+
+	public long getCustomerTtl() {
+		return customerTtl;
+	}
+
+	/**
+	 * @param customerTtl - time-to-live of customers
+	 * @return this configuration
+	 */
+	public CacheConfiguration setCustomerTtl(long customerTtl) {
+		this.customerTtl = customerTtl;
+		return this;
+	}
+
+	public long getBasketTtl() {
+		return basketTtl;
+	}
+
+	/**
+	 * @param basketTtl - time-to-live of baskets
+	 * @return this configuration
+	 */
+	public CacheConfiguration setBasketTtl(long basketTtl) {
+		this.basketTtl = basketTtl;
+		return this;
+	}
+
+	public long getMetadataTtl() {
+		return metadataTtl;
+	}
+
+	/**
+	 * @param metadataTtl - time-to-live of metadata
+	 * @return this configuration
+	 */
+	public CacheConfiguration setMetadataTtl(long metadataTtl) {
+		this.metadataTtl = metadataTtl;
+		return this;
+	}
+
+	long getTtl(CachingRestCommunication.Resource resource) {
+		switch (resource) {
+		case PAYMENT:
+			return paymentTtl;
+		case PAYMENT_TYPE:
+			return paymentTypeTtl;
+		case CUSTOMER:
+			return customerTtl;
+		case BASKET:
+			return basketTtl;
+		case METADATA:
+			return metadataTtl;
+		default:
+			return 0;
+		}
+	}
+}
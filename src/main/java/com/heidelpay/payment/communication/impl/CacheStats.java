@@ -0,0 +1,91 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Snapshot of the counters of a {@code CachingRestCommunication}.
+ */
+public class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long invalidationCount;
+	private final int size;
+
+	public CacheStats(long hitCount, long missCount, long evictionCount, long invalidationCount, int size) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.invalidationCount = invalidationCount;
+		this.size = size;
+	}
+
+	/**
+	 * @return number of GET requests answered from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return number of cacheable GET requests passed to the api
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return number of responses removed because they expired or the cache was full
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return number of responses removed by writes or webhook events
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	/**
+	 * @return number of currently cached responses
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return ratio of hits to all cacheable GET requests, 0 if there were none
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "[hits: " + hitCount + "; misses: " + missCount + "; evictions: " + evictionCount
+				+ "; invalidations: " + invalidationCount + "; size: " + size + "]";
+	}
+}
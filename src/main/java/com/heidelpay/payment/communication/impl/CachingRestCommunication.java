@@ -0,0 +1,341 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.webhook.WebhookEventEnum;
+
+/**
+ * Caching decorator of a {@code HeidelpayRestCommunication}. Responses of GET
+ * requests to payments (including their transactions), payment types, customers,
+ * baskets and metadata are kept for the time-to-live configured per resource, the
+ * least recently used response is evicted once the configured size is reached.
+ * All other requests are passed to the decorated communication.
+ * 
+ * Responses are cached per private key and url and identified by the id of the
+ * resource in the url, e.g. <code>s-pay-1</code> for
+ * <code>/payments/s-pay-1/charges/s-chg-1</code>. A POST, PUT or DELETE through this
+ * communication invalidates all cached responses of the resource it addresses,
+ * so a charge, cancel or shipment invalidates its payment and an
+ * <code>updateCustomer</code> its customer. Changes made outside of the own calls
+ * are announced by webhooks, pass their event to
+ * {@link #invalidate(WebhookEventEnum, String)}.
+ * 
+ * <pre>
+ * CachingRestCommunication cache = new CachingRestCommunication(new HttpClientBasedRestCommunication(), new CacheConfiguration());
+ * Heidelpay heidelpay = new Heidelpay(cache, "s-priv-xxxxxxxxxx");
+ * </pre>
+ * 
+ * The instance is thread-safe and can be shared by several {@code Heidelpay} facades.
+ */
+public class CachingRestCommunication implements HeidelpayRestCommunication, Closeable {
+
+	enum Resource {
+		PAYMENT, PAYMENT_TYPE, CUSTOMER, BASKET, METADATA
+	}
+
+	private static final Map<String, Resource> RESOURCES_BY_PATH = new HashMap<String, Resource>();
+	private static final Map<String, Resource> RESOURCES_BY_EVENT = new HashMap<String, Resource>();
+
+	static {
+		RESOURCES_BY_PATH.put("payments", Resource.PAYMENT);
+		RESOURCES_BY_PATH.put("types", Resource.PAYMENT_TYPE);
+		RESOURCES_BY_PATH.put("customers", Resource.CUSTOMER);
+		RESOURCES_BY_PATH.put("baskets", Resource.BASKET);
+		RESOURCES_BY_PATH.put("metadata", Resource.METADATA);
+
+		RESOURCES_BY_EVENT.put("authorize", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("charge", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("chargeback", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("payout", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("payment", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("shipment", Resource.PAYMENT);
+		RESOURCES_BY_EVENT.put("types", Resource.PAYMENT_TYPE);
+		RESOURCES_BY_EVENT.put("customer", Resource.CUSTOMER);
+		RESOURCES_BY_EVENT.put("basket", Resource.BASKET);
+	}
+
+	private final HeidelpayRestCommunication restCommunication;
+	private final CacheConfiguration configuration;
+	private final LinkedHashMap<String, CacheEntry> entries;
+
+	private long generation;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	public CachingRestCommunication(HeidelpayRestCommunication restCommunication) {
+		this(restCommunication, new CacheConfiguration());
+	}
+
+	/**
+	 * Creates a {@code CachingRestCommunication} decorating the given communication.
+	 * 
+	 * @param restCommunication - the communication executing the requests
+	 * @param configuration - size and time-to-live settings
+	 */
+	public CachingRestCommunication(HeidelpayRestCommunication restCommunication, final CacheConfiguration configuration) {
+		if (restCommunication == null) {
+			throw new IllegalArgumentException("HeidelpayRestCommunication must not be null");
+		}
+		if (configuration == null) {
+			throw new IllegalArgumentException("CacheConfiguration must not be null");
+		}
+		this.restCommunication = restCommunication;
+		this.configuration = configuration;
+		this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				if (size() > configuration.getMaxSize()) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	@Override
+	public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+		String[] path = getPath(url);
+		Resource resource = getResource(path);
+		String resourceId = getResourceId(path);
+		long ttl = resource == null ? 0 : configuration.getTtl(resource);
+		if (resourceId == null || ttl <= 0) {
+			return restCommunication.httpGet(url, privateKey);
+		}
+
+		String key = privateKey + " " + url;
+		long requestGeneration;
+		synchronized (entries) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null && entry.expiresAt > currentTimeMillis()) {
+				hitCount++;
+				return entry.response;
+			}
+			if (entry != null) {
+				entries.remove(key);
+				evictionCount++;
+			}
+			missCount++;
+			requestGeneration = generation;
+		}
+
+		String response = restCommunication.httpGet(url, privateKey);
+		synchronized (entries) {
+			// a response read while the resource was written might be stale already
+			if (requestGeneration == generation) {
+				entries.put(key, new CacheEntry(response, resource, resourceId, currentTimeMillis() + ttl));
+			}
+		}
+		return response;
+	}
+
+	@Override
+	public String httpPost(String url, String privateKey, Object data) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpPost(url, privateKey, data);
+		} finally {
+			invalidateUrl(url);
+		}
+	}
+
+	@Override
+	public String httpPut(String url, String privateKey, Object data) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpPut(url, privateKey, data);
+		} finally {
+			invalidateUrl(url);
+		}
+	}
+
+	@Override
+	public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpDelete(url, privateKey);
+		} finally {
+			invalidateUrl(url);
+		}
+	}
+
+	/**
+	 * Removes all cached responses of the resource with the given id, e.g. a payment
+	 * together with its transactions.
+	 * 
+	 * @param resourceId - id of the payment, payment type, customer, basket or metadata
+	 */
+	public void invalidate(String resourceId) {
+		if (resourceId != null) {
+			remove(null, resourceId);
+		}
+	}
+
+	/**
+	 * Removes the cached responses affected by a webhook event. With the
+	 * <code>retrieveUrl</code> of the event only the addressed resource is removed,
+	 * without it all resources of the kind of the event, e.g. all payments for
+	 * <code>charge.succeeded</code>.
+	 * 
+	 * @param event - the event of the webhook, <code>ALL</code> clears the cache
+	 * @param retrieveUrl - the url of the resource of the event, might be null
+	 */
+	public void invalidate(WebhookEventEnum event, String retrieveUrl) {
+		String resourceId = retrieveUrl == null ? null : getResourceId(getPath(retrieveUrl));
+		if (resourceId != null) {
+			remove(null, resourceId);
+		} else if (event == null || event == WebhookEventEnum.ALL) {
+			invalidateAll();
+		} else {
+			Resource resource = RESOURCES_BY_EVENT.get(event.getEventName().split("\\.")[0]);
+			if (resource != null) {
+				remove(resource, null);
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached responses.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			generation++;
+			invalidationCount += entries.size();
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return a snapshot of the hit, miss, eviction and invalidation counters
+	 */
+	public CacheStats getStats() {
+		synchronized (entries) {
+			return new CacheStats(hitCount, missCount, evictionCount, invalidationCount, entries.size());
+		}
+	}
+
+	/**
+	 * Closes the decorated communication, if it is {@code Closeable}.
+	 * 
+	 * @throws IOException in case the decorated communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		invalidateAll();
+		if (restCommunication instanceof Closeable) {
+			((Closeable) restCommunication).close();
+		}
+	}
+
+	long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private void invalidateUrl(String url) {
+		String resourceId = getResourceId(getPath(url));
+		if (resourceId != null) {
+			remove(null, resourceId);
+		}
+	}
+
+	private void remove(Resource resource, String resourceId) {
+		synchronized (entries) {
+			generation++;
+			Iterator<CacheEntry> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				CacheEntry entry = iterator.next();
+				if ((resource == null || resource == entry.resource)
+						&& (resourceId == null || resourceId.equals(entry.resourceId))) {
+					iterator.remove();
+					invalidationCount++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the id of the resource addressed by the url, null if it has none
+	 */
+	static String getResourceId(String url) {
+		return getResourceId(getPath(url));
+	}
+
+	private static String[] getPath(String url) {
+		int start = url.indexOf("://");
+		start = start < 0 ? 0 : url.indexOf('/', start + 3);
+		if (start < 0) {
+			return new String[0];
+		}
+		int end = url.indexOf('?');
+		return url.substring(start, end < 0 ? url.length() : end).split("/");
+	}
+
+	private static Resource getResource(String[] path) {
+		for (String segment : path) {
+			Resource resource = RESOURCES_BY_PATH.get(segment);
+			if (resource != null) {
+				return resource;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Ids of the api are prefixed with s- (sandbox) or p- (production) and
+	 * a short resource code, e.g. s-pay-1 or p-crd-xxxxxxxx.
+	 */
+	private static String getResourceId(String[] path) {
+		boolean afterResource = false;
+		for (String segment : path) {
+			afterResource |= RESOURCES_BY_PATH.containsKey(segment);
+			if (afterResource && segment.length() > 2 && segment.charAt(1) == '-'
+					&& (segment.charAt(0) == 's' || segment.charAt(0) == 'p')) {
+				return segment;
+			}
+		}
+		return null;
+	}
+
+	private static final class CacheEntry {
+		private final String response;
+		private final Resource resource;
+		private final String resourceId;
+		private final long expiresAt;
+
+		CacheEntry(String response, Resource resource, String resourceId, long expiresAt) {
+			this.response = response;
+			this.resource = resource;
+			this.resourceId = resourceId;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
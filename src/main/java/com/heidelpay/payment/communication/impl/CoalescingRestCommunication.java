@@ -0,0 +1,190 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+/**
+ * Coalescing decorator of a {@code HeidelpayRestCommunication}. Concurrent GET
+ * requests to the same url with the same private key share one in-flight request:
+ * the first caller executes it, the others wait for its response or its exception.
+ * A request started after the shared one has completed is executed again, so no
+ * response is kept beyond the round trip. POST, PUT and DELETE requests are never
+ * coalesced. A GET started once such a write to a resource has completed is not
+ * joined to a GET of the resource that was started before, so a caller fetching
+ * a payment after a charge or cancel reads its own write. Resources are identified
+ * by the id in the url as by the {@code CachingRestCommunication}.
+ * 
+ * As the payment and its transactions are read with GET requests, concurrent
+ * <code>fetchPayment</code>, <code>fetchPaymentType</code> or <code>fetchCustomer</code>
+ * calls for the same id, e.g. from a burst of webhooks, cost a single round trip
+ * per resource. Every caller maps its own instance of the business objects from the
+ * shared response.
+ * 
+ * <pre>
+ * Heidelpay heidelpay = new Heidelpay(new CoalescingRestCommunication(new HttpClientBasedRestCommunication()), "s-priv-xxxxxxxxxx");
+ * </pre>
+ */
+public class CoalescingRestCommunication implements HeidelpayRestCommunication, Closeable {
+
+	private final HeidelpayRestCommunication restCommunication;
+	private final ConcurrentMap<String, InFlightRequest> inFlightRequests = new ConcurrentHashMap<String, InFlightRequest>();
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	public CoalescingRestCommunication(HeidelpayRestCommunication restCommunication) {
+		if (restCommunication == null) {
+			throw new IllegalArgumentException("HeidelpayRestCommunication must not be null");
+		}
+		this.restCommunication = restCommunication;
+	}
+
+	@Override
+	public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+		String key = privateKey + " " + url;
+		InFlightRequest request = new InFlightRequest(CachingRestCommunication.getResourceId(url));
+		InFlightRequest inFlightRequest = inFlightRequests.putIfAbsent(key, request);
+		if (inFlightRequest != null) {
+			coalescedCount.incrementAndGet();
+			return inFlightRequest.await();
+		}
+
+		try {
+			request.response = restCommunication.httpGet(url, privateKey);
+			return request.response;
+		} catch (HttpCommunicationException e) {
+			request.failure = e;
+			throw e;
+		} catch (RuntimeException e) {
+			request.failure = e;
+			throw e;
+		} catch (Error e) {
+			request.failure = e;
+			throw e;
+		} finally {
+			inFlightRequests.remove(key, request);
+			request.done.countDown();
+		}
+	}
+
+	@Override
+	public String httpPost(String url, String privateKey, Object data) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpPost(url, privateKey, data);
+		} finally {
+			forgetInFlightRequests(url);
+		}
+	}
+
+	@Override
+	public String httpPut(String url, String privateKey, Object data) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpPut(url, privateKey, data);
+		} finally {
+			forgetInFlightRequests(url);
+		}
+	}
+
+	@Override
+	public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
+		try {
+			return restCommunication.httpDelete(url, privateKey);
+		} finally {
+			forgetInFlightRequests(url);
+		}
+	}
+
+	/**
+	 * @return number of GET requests answered by the response of a concurrent request
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * Removes the GET requests of the resource written to, their callers still get
+	 * their response but later GETs are executed again. Writes without id in the url
+	 * create a new resource, which no GET in flight can have read.
+	 */
+	private void forgetInFlightRequests(String url) {
+		String resourceId = CachingRestCommunication.getResourceId(url);
+		if (resourceId == null) {
+			return;
+		}
+		for (Map.Entry<String, InFlightRequest> entry : inFlightRequests.entrySet()) {
+			if (resourceId.equals(entry.getValue().resourceId)) {
+				inFlightRequests.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Closes the decorated communication, if it is {@code Closeable}.
+	 * 
+	 * @throws IOException in case the decorated communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (restCommunication instanceof Closeable) {
+			((Closeable) restCommunication).close();
+		}
+	}
+
+	/**
+	 * The outcome of a GET request, published to the waiting callers by the latch.
+	 */
+	private static final class InFlightRequest {
+		private final CountDownLatch done = new CountDownLatch(1);
+		private final String resourceId;
+		private String response;
+		private Throwable failure;
+
+		InFlightRequest(String resourceId) {
+			this.resourceId = resourceId;
+		}
+
+		String await() throws HttpCommunicationException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HttpCommunicationException("Interrupted while waiting for a concurrent request: " + e.getMessage());
+			}
+			if (failure instanceof HttpCommunicationException) {
+				throw (HttpCommunicationException) failure;
+			} else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			return response;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.ParseException;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.heidelpay.payment.communication.AbstractHeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HeidelpayAsyncRestCommunication;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+import com.heidelpay.payment.communication.HeidelpayHttpResponse;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.RateLimitExceededException;
+import com.heidelpay.payment.communication.RateLimiter;
+import com.heidelpay.payment.communication.RequestTemplate;
+
+/**
+ * Non-blocking implementation of the {@code HeidelpayAsyncRestCommunication},
+ * based on apaches {@code HttpAsyncClient}. A small, fixed number of I/O
+ * threads serves all in-flight requests, the calling thread is released as soon
+ * as the request is handed over to the client.
+ * 
+ * Requests pass the same header, authentication, logging and error-mapping
+ * steps of the {@code AbstractHeidelpayRestCommunication} as the blocking
+ * {@code HttpClientBasedRestCommunication}. The blocking
+ * {@code httpGet/httpPost/httpPut/httpDelete} methods are supported as well, so
+ * an instance can be passed to the {@code Heidelpay} facade. Only the blocking
+ * methods retry transient failures as defined by the {@code RetryPolicy}, the
+ * futures complete with the result of the first attempt. They do not wait for
+ * a permit of the {@code RateLimiter} either, without one they fail with a
+ * {@code RateLimitExceededException}.
+ * 
+ * The instance is thread-safe and should be shared; call {@link #close()} once
+ * it is not needed anymore to stop the I/O threads and release the pooled
+ * connections.
+ *
+ * @see HttpClientConfiguration for the pool, timeout and I/O thread settings
+ */
+public class HttpAsyncClientBasedRestCommunication extends AbstractHeidelpayRestCommunication
+		implements HeidelpayAsyncRestCommunication, Closeable {
+
+	private static final Logger logger = LogManager.getLogger(HttpAsyncClientBasedRestCommunication.class);
+
+	private final PoolingNHttpClientConnectionManager connectionManager;
+	private final CloseableHttpAsyncClient httpAsyncClient;
+	private final long maxResponseSize;
+
+	public HttpAsyncClientBasedRestCommunication() {
+		this(null);
+	}
+
+	public HttpAsyncClientBasedRestCommunication(Locale locale) {
+		this(locale, new HttpClientConfiguration());
+	}
+
+	/**
+	 * Creates the {@code HttpAsyncClientBasedRestCommunication} and starts its I/O threads.
+	 * 
+	 * @param locale - the locale sent as Accept-Language header, might be null
+	 * @param configuration - pool, timeout and I/O thread settings
+	 */
+	public HttpAsyncClientBasedRestCommunication(Locale locale, HttpClientConfiguration configuration) {
+		super(locale);
+		if (configuration == null) {
+			throw new IllegalArgumentException("HttpClientConfiguration must not be null");
+		}
+		try {
+			this.connectionManager = configuration.createAsyncConnectionManager();
+		} catch (IOReactorException e) {
+			throw new IllegalStateException("Cannot start the I/O reactor: " + e.getMessage(), e);
+		}
+		this.httpAsyncClient = configuration.createHttpAsyncClient(connectionManager);
+		this.maxResponseSize = configuration.getMaxResponseSize();
+		this.httpAsyncClient.start();
+	}
+
+	@Override
+	public CompletableFuture<String> httpGetAsync(String url, String privateKey) {
+		return executeAsync(url, HeidelpayHttpMethod.GET, privateKey, null);
+	}
+
+	@Override
+	public CompletableFuture<String> httpPostAsync(String url, String privateKey, Object data) {
+		return executeAsync(url, HeidelpayHttpMethod.POST, privateKey, data);
+	}
+
+	@Override
+	public CompletableFuture<String> httpPutAsync(String url, String privateKey, Object data) {
+		return executeAsync(url, HeidelpayHttpMethod.PUT, privateKey, data);
+	}
+
+	@Override
+	public CompletableFuture<String> httpDeleteAsync(String url, String privateKey) {
+		return executeAsync(url, HeidelpayHttpMethod.DELETE, privateKey, null);
+	}
+
+	private CompletableFuture<String> executeAsync(String url, HeidelpayHttpMethod method, final String privateKey, Object data) {
+		final CompletableFuture<String> result = new CompletableFuture<String>();
+		HeidelpayHttpRequest request;
+		try {
+			request = buildRequest(url, method, data);
+			prepareRequest(request, privateKey);
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+			return result;
+		}
+		RateLimiter rateLimiter = getRateLimiter();
+		if (rateLimiter != null && !rateLimiter.tryAcquire(privateKey)) {
+			result.completeExceptionally(new RateLimitExceededException("No request permitted by the rate limit"));
+			return result;
+		}
+
+		doExecuteAsync(request).whenComplete(new BiConsumer<HeidelpayHttpResponse, Throwable>() {
+			@Override
+			public void accept(HeidelpayHttpResponse response, Throwable error) {
+				if (error != null) {
+					result.completeExceptionally(error);
+					return;
+				}
+				try {
+					adaptRateLimit(privateKey, response);
+					result.complete(handleResponse(response));
+				} catch (RuntimeException e) {
+					result.completeExceptionally(e);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Sends the request without blocking. The returned future completes on one of
+	 * the I/O threads, exceptionally with a {@code HttpCommunicationException} for
+	 * any communication errors.
+	 * 
+	 * @param request - the {@code HeidelpayHttpRequest} as created by the {@code #createRequest(String, HeidelpayHttpMethod)}
+	 * @return the future content and status-code of the response
+	 */
+	protected CompletableFuture<HeidelpayHttpResponse> doExecuteAsync(final HeidelpayHttpRequest request) {
+		if (!(request instanceof HttpClientBasedHttpRequest)) {
+			throw new IllegalArgumentException("Request is not an instance of HttpClientBasedHttpRequest");
+		}
+		final CompletableFuture<HeidelpayHttpResponse> result = new CompletableFuture<HeidelpayHttpResponse>();
+		try {
+			HttpUriRequest httpRequest = ((HttpClientBasedHttpRequest) request).getRequest();
+			FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+				@Override
+				public void completed(HttpResponse response) {
+					try {
+						result.complete(HttpClientBasedRestCommunication.createResponse(
+								BoundedEntityUtils.toString(response.getEntity(), maxResponseSize), response));
+					} catch (IOException e) {
+						result.completeExceptionally(communicationException(request, e));
+					} catch (ParseException e) {
+						result.completeExceptionally(communicationException(request, e));
+					}
+				}
+
+				@Override
+				public void failed(Exception e) {
+					result.completeExceptionally(communicationException(request, e));
+				}
+
+				@Override
+				public void cancelled() {
+					result.cancel(false);
+				}
+			};
+			if (maxResponseSize > 0) {
+				httpAsyncClient.execute(HttpAsyncMethods.create(httpRequest),
+						new BoundedAsyncResponseConsumer(maxResponseSize), callback);
+			} else {
+				httpAsyncClient.execute(httpRequest, callback);
+			}
+		} catch (IllegalStateException e) {
+			// thrown by the client once it has been closed
+			result.completeExceptionally(communicationException(request, e));
+		}
+		return result;
+	}
+
+	@Override
+	protected HeidelpayHttpResponse doExecute(HeidelpayHttpRequest request) throws HttpCommunicationException {
+		try {
+			return doExecuteAsync(request).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw communicationException(request, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof HttpCommunicationException) {
+				throw (HttpCommunicationException) e.getCause();
+			}
+			throw communicationException(request, e.getCause());
+		}
+	}
+
+	private HttpCommunicationException communicationException(HeidelpayHttpRequest request, Throwable e) {
+		return new HttpCommunicationException(
+				"Error communicating to " + request.getURI() + ": Detail: " + e.getMessage());
+	}
+
+	@Override
+	protected HeidelpayHttpRequest createRequest(String url, HeidelpayHttpMethod method) {
+		return new HttpClientBasedHttpRequest(url, method);
+	}
+
+	@Override
+	protected void applyRequestTemplate(HeidelpayHttpRequest request, RequestTemplate template) {
+		if (request instanceof HttpClientBasedHttpRequest) {
+			((HttpClientBasedHttpRequest) request).addHeaders(template);
+		} else {
+			super.applyRequestTemplate(request, template);
+		}
+	}
+
+	@Override
+	protected void logRequestBody(String body) {
+		logger.debug(body);
+	}
+
+	@Override
+	protected boolean isRequestBodyLogged() {
+		return logger.isDebugEnabled();
+	}
+
+	@Override
+	protected void logRequest(HeidelpayHttpRequest request) {
+		logger.debug(request.toString());
+	}
+
+	@Override
+	protected void logResponse(HeidelpayHttpResponse response) {
+		logger.debug(response.getStatusCode());
+		logger.debug(response.getContent());
+	}
+
+	/**
+	 * Returns a snapshot of the connection pool for monitoring purposes.
+	 * 
+	 * @return the number of leased, available and pending connections as well as the pool limit.
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	/**
+	 * Stops the I/O threads and closes all pooled connections. Requests still in
+	 * flight are failed. The instance cannot be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		httpAsyncClient.close();
+	}
+
+}
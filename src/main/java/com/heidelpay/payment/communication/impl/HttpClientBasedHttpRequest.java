@@ -22,6 +22,7 @@ package com.heidelpay.payment.communication.impl;
 
 import java.net.URI;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.client.methods.HttpDelete;
@@ -31,7 +32,9 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.StringEntity;
 
-import com.heidelpay.payment.communication.HeidelpayHttpRequest;
+import com.heidelpay.payment.communication.HeidelpayStreamingHttpRequest;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.RequestTemplate;
 
 /**
  * Implementation of the {@code HeidelpayHttpRequest} wrapping an apache
@@ -42,11 +45,14 @@ import com.heidelpay.payment.communication.HeidelpayHttpRequest;
  * <li>PUT: mapped by {@code HttpPut}</li>
  * <li>DELETE: mapped by {@code HttpDelete}</li>
  * </ul>
+ * Content set as object is serialized by a {@code JsonEntity}, into a buffer sent
+ * with its Content-Length or, for chunked requests, straight into the connection.
  */
-public class HttpClientBasedHttpRequest implements HeidelpayHttpRequest {
+public class HttpClientBasedHttpRequest implements HeidelpayStreamingHttpRequest {
 
 	protected HttpUriRequest request;
 	protected HeidelpayHttpMethod method;
+	private final boolean chunked;
 
 	/**
 	 * Creates a {@code HttpClientBasedHttpRequest} wrapping a
@@ -60,7 +66,21 @@ public class HttpClientBasedHttpRequest implements HeidelpayHttpRequest {
 	 *            {@code HttpDelete}
 	 */
 	public HttpClientBasedHttpRequest(String uri, HeidelpayHttpMethod method) {
+		this(uri, method, false);
+	}
+
+	/**
+	 * Creates a {@code HttpClientBasedHttpRequest} wrapping a
+	 * {@code HttpUriRequest} defined by the given {@code HeidelpayHttpMethod}.
+	 * 
+	 * @param uri - the RUI of the request
+	 * @param method - the {@code HeidelpayHttpMethod} of the request
+	 * @param chunked - true to write content set as object with chunked transfer
+	 *        encoding, instead of buffering it for the Content-Length
+	 */
+	public HttpClientBasedHttpRequest(String uri, HeidelpayHttpMethod method, boolean chunked) {
 		this.method = method;
+		this.chunked = chunked;
 		request = createRequestForMethod(uri, method);
 	}
 
@@ -82,6 +102,17 @@ public class HttpClientBasedHttpRequest implements HeidelpayHttpRequest {
 	public void addHeader(String header, String value) {
 		this.request.addHeader(header, value);
 	}
+
+	/**
+	 * Adds the shared headers of the template to the wrapped request.
+	 * 
+	 * @param template - the template of the private key of the request
+	 */
+	public void addHeaders(RequestTemplate template) {
+		for (Header header : template.getHeaders()) {
+			this.request.addHeader(header);
+		}
+	}
 	
 	/**
 	 * Returns the wrapped {@code HttpUriRequest} to be passed to the {@code HttpClient} within the {@code HttpClientBasedRestCommunication} implementation. 
@@ -104,6 +135,13 @@ public class HttpClientBasedHttpRequest implements HeidelpayHttpRequest {
 		}
 	}
 
+	@Override
+	public void setContent(Object data, JsonParser jsonParser) {
+		if (request instanceof HttpEntityEnclosingRequest) {
+			((HttpEntityEnclosingRequest) request).setEntity(new JsonEntity(data, jsonParser, chunked));
+		}
+	}
+
 	@Override
 	public HeidelpayHttpMethod getMethod() {
 		return this.method;
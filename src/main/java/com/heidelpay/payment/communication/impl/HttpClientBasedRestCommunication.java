@@ -20,43 +20,95 @@ package com.heidelpay.payment.communication.impl;
  * #L%
  */
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
 import org.apache.http.ParseException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 import com.heidelpay.payment.communication.AbstractHeidelpayRestCommunication;
 import com.heidelpay.payment.communication.HeidelpayHttpRequest;
 import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
 import com.heidelpay.payment.communication.HeidelpayHttpResponse;
+import com.heidelpay.payment.communication.HeidelpayStreamingRestCommunication;
 import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.RequestTemplate;
 
 /**
  * Reference implementation of the {@code HeidelpayRestCommunication}, based on apaches {@code HttpClient}. 
+ * 
+ * All requests share one {@code CloseableHttpClient} backed by a pooling connection manager,
+ * so connections (and their TLS sessions) are reused between calls. The instance is thread-safe
+ * and should be shared; call {@link #close()} once it is not needed anymore to release the pooled connections.
+ * 
+ * GET responses are mapped straight from the http stream, see {@code HeidelpayStreamingRestCommunication}.
+ * Responses exceeding the maximum response size of the {@code HttpClientConfiguration} are rejected.
+ * Streamed GET requests are retried like all others, see {@code RetryPolicy}.
  *
+ * @see HttpClientConfiguration for the pool and timeout settings
  */
-public class HttpClientBasedRestCommunication extends AbstractHeidelpayRestCommunication {
+public class HttpClientBasedRestCommunication extends AbstractHeidelpayRestCommunication
+		implements HeidelpayStreamingRestCommunication, Closeable {
 
 	private static final Logger logger = LogManager.getLogger(HttpClientBasedRestCommunication.class);
 
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final CloseableHttpClient httpClient;
+	private final long maxResponseSize;
+	private final boolean chunkedRequests;
+
 	public HttpClientBasedRestCommunication() {
-		super(null);
+		this(null);
 	}
 
 	public HttpClientBasedRestCommunication(Locale locale) {
+		this(locale, new HttpClientConfiguration());
+	}
+
+	/**
+	 * Creates the {@code HttpClientBasedRestCommunication} with a connection pool configured by the given {@code HttpClientConfiguration}.
+	 * 
+	 * @param locale - the locale sent as Accept-Language header, might be null
+	 * @param configuration - pool and timeout settings
+	 */
+	public HttpClientBasedRestCommunication(Locale locale, HttpClientConfiguration configuration) {
 		super(locale);
+		if (configuration == null) {
+			throw new IllegalArgumentException("HttpClientConfiguration must not be null");
+		}
+		this.connectionManager = configuration.createConnectionManager();
+		this.httpClient = configuration.createHttpClient(connectionManager);
+		this.maxResponseSize = configuration.getMaxResponseSize();
+		this.chunkedRequests = configuration.isChunkedRequests();
 	}
 
 	@Override
 	protected HeidelpayHttpRequest createRequest(String url, HeidelpayHttpMethod method) {
-		return new HttpClientBasedHttpRequest(url, method);
+		return new HttpClientBasedHttpRequest(url, method, chunkedRequests);
+	}
+
+	@Override
+	protected void applyRequestTemplate(HeidelpayHttpRequest request, RequestTemplate template) {
+		if (request instanceof HttpClientBasedHttpRequest) {
+			((HttpClientBasedHttpRequest) request).addHeaders(template);
+		} else {
+			super.applyRequestTemplate(request, template);
+		}
 	}
 
 	@Override
@@ -64,6 +116,11 @@ public class HttpClientBasedRestCommunication extends AbstractHeidelpayRestCommu
 		logger.debug(body);
 	}
 
+	@Override
+	protected boolean isRequestBodyLogged() {
+		return logger.isDebugEnabled();
+	}
+
 	@Override
 	protected void logRequest(HeidelpayHttpRequest request) {
 		logger.debug(request.toString());
@@ -83,8 +140,7 @@ public class HttpClientBasedRestCommunication extends AbstractHeidelpayRestCommu
 		CloseableHttpResponse response = null;
 		try {
 			response = getHttpClient().execute(((HttpClientBasedHttpRequest) request).getRequest());
-			return new HeidelpayHttpResponse(EntityUtils.toString(response.getEntity()),
-					response.getStatusLine().getStatusCode());
+			return createResponse(BoundedEntityUtils.toString(response.getEntity(), maxResponseSize), response);
 		} catch (IOException e) {
 			throw new HttpCommunicationException(
 					"Error communicating to " + request.getURI() + ": Detail: " + e.getMessage());
@@ -102,9 +158,148 @@ public class HttpClientBasedRestCommunication extends AbstractHeidelpayRestCommu
 		}
 	}
 
+	@Override
+	public <T> T httpGet(String url, String privateKey, final Class<T> clazz) throws HttpCommunicationException {
+		return httpGet(url, privateKey, new EntityReader<T>() {
+			@Override
+			public T read(Reader json) {
+				return getJsonParser().fromJson(json, clazz);
+			}
+		});
+	}
+
+	@Override
+	public <T> T httpGet(String url, String privateKey, final TypeAdapter<T> adapter) throws HttpCommunicationException {
+		return httpGet(url, privateKey, new EntityReader<T>() {
+			@Override
+			public T read(Reader json) {
+				return getJsonParser().fromJson(json, adapter);
+			}
+		});
+	}
+
+	private <T> T httpGet(String url, String privateKey, EntityReader<T> entityReader) throws HttpCommunicationException {
+		HeidelpayHttpRequest request = buildRequest(url, HeidelpayHttpMethod.GET, null);
+		prepareRequest(request, privateKey);
+		Retry retry = newRetry(request);
+		while (true) {
+			acquirePermit(privateKey);
+			CloseableHttpResponse response = null;
+			try {
+				response = getHttpClient().execute(((HttpClientBasedHttpRequest) request).getRequest());
+				int statusCode = response.getStatusLine().getStatusCode();
+				if (isError(statusCode)) {
+					// error responses are small, read them completely for logging and the PaymentException
+					String content = BoundedEntityUtils.toString(response.getEntity(), maxResponseSize);
+					HeidelpayHttpResponse errorResponse = createResponse(content, response);
+					adaptRateLimit(privateKey, errorResponse);
+					if (retry.awaitRetry(errorResponse)) {
+						logResponse(errorResponse);
+						continue;
+					}
+					handleResponse(errorResponse);
+				}
+				if (getRateLimiter() != null) {
+					adaptRateLimit(privateKey, new HeidelpayHttpResponse(null, statusCode));
+				}
+				if (isResponseBodyLogged()) {
+					// the body is read into memory for the log, as by the String based requests
+					String content = response.getEntity() == null ? null
+							: BoundedEntityUtils.toString(response.getEntity(), maxResponseSize);
+					logResponse(createResponse(content, response));
+					return content == null ? null : entityReader.read(new StringReader(content));
+				}
+				if (response.getEntity() == null) {
+					return null;
+				}
+				T entity = entityReader.read(BoundedEntityUtils.toReader(response.getEntity(), maxResponseSize));
+				// the json may end before the body, the rest is read so that close() returns the connection to the pool
+				EntityUtils.consume(response.getEntity());
+				return entity;
+			} catch (IOException e) {
+				if (isTransient(e) && retry.awaitRetry(null)) {
+					continue;
+				}
+				throw new HttpCommunicationException(
+						"Error communicating to " + request.getURI() + ": Detail: " + e.getMessage());
+			} catch (JsonParseException e) {
+				// gson wraps errors reading the stream, e.g. an exceeded response size
+				if (e.getCause() instanceof IOException) {
+					if (isTransient((IOException) e.getCause()) && retry.awaitRetry(null)) {
+						continue;
+					}
+					throw new HttpCommunicationException(
+							"Error communicating to " + request.getURI() + ": Detail: " + e.getCause().getMessage());
+				}
+				throw e;
+			} finally {
+				if (response != null) {
+					try {
+						response.close();
+					} catch (IOException e) {
+						logger.debug("Closing the http stream threw an error: " + e.getMessage(), e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Successful responses of the streaming <code>httpGet</code> methods are mapped
+	 * straight from the http stream, unless their body is logged.
+	 * 
+	 * @return true to read the body into memory and pass it to {@link #logResponse(HeidelpayHttpResponse)}
+	 */
+	protected boolean isResponseBodyLogged() {
+		return logger.isDebugEnabled();
+	}
+
+	// an exceeded response size fails again on every attempt
+	private static boolean isTransient(IOException e) {
+		return !(e instanceof BoundedEntityUtils.ResponseTooLargeException);
+	}
+
+	/**
+	 * Creates the {@code HeidelpayHttpResponse}, the headers are kept for error
+	 * responses only, e.g. for the Retry-After of a 503.
+	 */
+	static HeidelpayHttpResponse createResponse(String content, HttpResponse response) {
+		int statusCode = response.getStatusLine().getStatusCode();
+		if (statusCode < 400) {
+			return new HeidelpayHttpResponse(content, statusCode);
+		}
+		Map<String, String> headers = new HashMap<String, String>();
+		for (Header header : response.getAllHeaders()) {
+			headers.put(header.getName(), header.getValue());
+		}
+		return new HeidelpayHttpResponse(content, statusCode, headers);
+	}
+
+	// maps the json of a successful response, by class or by TypeAdapter
+	private interface EntityReader<T> {
+		T read(Reader json);
+	}
+
 	private CloseableHttpClient getHttpClient() {
-		HttpClientBuilder builder = HttpClients.custom().useSystemProperties();
-		return builder.build();
+		return httpClient;
+	}
+
+	/**
+	 * Returns a snapshot of the connection pool for monitoring purposes.
+	 * 
+	 * @return the number of leased, available and pending connections as well as the pool limit.
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	/**
+	 * Closes the underlying {@code HttpClient}, shuts down the connection pool and stops the idle connection eviction.
+	 * The instance cannot be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
 	}
 
 }
@@ -0,0 +1,318 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Connection-pool and timeout settings of the {@code HttpClientBasedRestCommunication}
+ * and the {@code HttpAsyncClientBasedRestCommunication}.
+ * All times are given in milliseconds, the defaults are suitable for most
+ * shops and only need to be raised for high-throughput integrations.
+ *
+ * <pre>
+ * HttpClientConfiguration configuration = new HttpClientConfiguration()
+ * 		.setMaxTotal(100)
+ * 		.setMaxPerRoute(100)
+ * 		.setSocketTimeout(30000);
+ * Heidelpay heidelpay = new Heidelpay(new HttpClientBasedRestCommunication(Locale.GERMANY, configuration), "s-priv-xxxxxxxxxx");
+ * </pre>
+ */
+public class HttpClientConfiguration {
+
+	public static final int DEFAULT_MAX_TOTAL = 50;
+	public static final int DEFAULT_MAX_PER_ROUTE = 20;
+	public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+	public static final int DEFAULT_SOCKET_TIMEOUT = 60000;
+	public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 10000;
+	public static final long DEFAULT_KEEP_ALIVE = 30000;
+	public static final long DEFAULT_MAX_IDLE_TIME = 30000;
+	public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+	public static final int DEFAULT_IO_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+	public static final long DEFAULT_MAX_RESPONSE_SIZE = 10L * 1024 * 1024;
+
+	private int maxTotal = DEFAULT_MAX_TOTAL;
+	private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+	private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+	private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+	private int connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+	private long keepAlive = DEFAULT_KEEP_ALIVE;
+	private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+	private int validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+	private int ioThreadCount = DEFAULT_IO_THREAD_COUNT;
+	private long maxResponseSize = DEFAULT_MAX_RESPONSE_SIZE;
+	private boolean chunkedRequests;
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	/**
+	 * @param maxTotal - the maximum number of pooled connections over all routes
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+		return this;
+	}
+
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	/**
+	 * @param maxPerRoute - the maximum number of pooled connections to one host.
+	 *        As all calls go to the same api host, this is the effective limit
+	 *        of concurrent requests.
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setMaxPerRoute(int maxPerRoute) {
+		this.maxPerRoute = maxPerRoute;
+		return this;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * @param connectTimeout - timeout until a connection is established
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+		return this;
+	}
+
+	public int getSocketTimeout() {
+		return socketTimeout;
+	}
+
+	/**
+	 * @param socketTimeout - maximum period of inactivity while waiting for data
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setSocketTimeout(int socketTimeout) {
+		this.socketTimeout = socketTimeout;
+		return this;
+	}
+
+	public int getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+
+	/**
+	 * @param connectionRequestTimeout - timeout for leasing a connection from the pool
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setConnectionRequestTimeout(int connectionRequestTimeout) {
+		this.connectionRequestTimeout = connectionRequestTimeout;
+		return this;
+	}
+
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * @param keepAlive - how long an idle connection is kept alive, in case the
+	 *        server does not send a Keep-Alive header. A value lower than the
+	 *        server's Keep-Alive header wins over the header.
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setKeepAlive(long keepAlive) {
+		this.keepAlive = keepAlive;
+		return this;
+	}
+
+	public long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	/**
+	 * @param maxIdleTime - idle connections are evicted from the pool by a
+	 *        background thread after this period
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setMaxIdleTime(long maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+		return this;
+	}
+
+	public int getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+
+	/**
+	 * @param validateAfterInactivity - pooled connections inactive for longer than
+	 *        this period are validated before they are leased again
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setValidateAfterInactivity(int validateAfterInactivity) {
+		this.validateAfterInactivity = validateAfterInactivity;
+		return this;
+	}
+
+	public int getIoThreadCount() {
+		return ioThreadCount;
+	}
+
+	/**
+	 * Only used by the {@code HttpAsyncClientBasedRestCommunication}.
+	 * 
+	 * @param ioThreadCount - number of I/O dispatcher threads serving all in-flight requests
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setIoThreadCount(int ioThreadCount) {
+		this.ioThreadCount = ioThreadCount;
+		return this;
+	}
+
+	public long getMaxResponseSize() {
+		return maxResponseSize;
+	}
+
+	/**
+	 * Responses larger than this size fail with a {@code HttpCommunicationException}
+	 * instead of being read into memory. Both transports stop reading a response as
+	 * soon as its Content-Length or the bytes received exceed the size.
+	 * 
+	 * @param maxResponseSize - maximum size of a response body in bytes, 0 for no limit
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setMaxResponseSize(long maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+		return this;
+	}
+
+	public boolean isChunkedRequests() {
+		return chunkedRequests;
+	}
+
+	/**
+	 * Only used by the {@code HttpClientBasedRestCommunication}. By default request
+	 * bodies are serialized into a buffer and sent with a Content-Length. Chunked
+	 * requests write the body straight into the connection with chunked transfer
+	 * encoding, which saves the buffer for large payloads, e.g. baskets with many
+	 * items, but is rejected by some proxies.
+	 * 
+	 * @param chunkedRequests - true to send request bodies with chunked transfer encoding
+	 * @return this configuration
+	 */
+	public HttpClientConfiguration setChunkedRequests(boolean chunkedRequests) {
+		this.chunkedRequests = chunkedRequests;
+		return this;
+	}
+
+	PoolingHttpClientConnectionManager createConnectionManager() {
+		Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+				.build();
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+		return connectionManager;
+	}
+
+	CloseableHttpClient createHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+		return HttpClients.custom()
+				.useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(createRequestConfig())
+				.setKeepAliveStrategy(new MaxKeepAliveStrategy(keepAlive))
+				.evictExpiredConnections()
+				.evictIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	PoolingNHttpClientConnectionManager createAsyncConnectionManager() throws IOReactorException {
+		IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+				.setIoThreadCount(ioThreadCount)
+				.setConnectTimeout(connectTimeout)
+				.setSoTimeout(socketTimeout)
+				.build();
+		PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+				new DefaultConnectingIOReactor(ioReactorConfig));
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		return connectionManager;
+	}
+
+	CloseableHttpAsyncClient createHttpAsyncClient(PoolingNHttpClientConnectionManager connectionManager) {
+		return HttpAsyncClients.custom()
+				.useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(createRequestConfig())
+				.setKeepAliveStrategy(new MaxKeepAliveStrategy(keepAlive))
+				.build();
+	}
+
+	private RequestConfig createRequestConfig() {
+		return RequestConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setSocketTimeout(socketTimeout)
+				.setConnectionRequestTimeout(connectionRequestTimeout)
+				.build();
+	}
+
+	/**
+	 * Honours the Keep-Alive header of the server but never keeps a connection
+	 * longer than the configured keep alive.
+	 */
+	private static class MaxKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+		private final long keepAlive;
+
+		MaxKeepAliveStrategy(long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			if (duration < 0 || duration > keepAlive) {
+				return keepAlive;
+			}
+			return duration;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import com.google.gson.JsonIOException;
+import com.heidelpay.payment.communication.JsonParser;
+
+/**
+ * {@code HttpEntity} of the json representation of an object, serialized
+ * without creating a String of the whole content.
+ * 
+ * By default the json is written once into a byte buffer, the request is sent
+ * with the Content-Length of the buffer. A chunked entity writes the json
+ * straight into the output stream of the connection instead, the content length
+ * is not known in advance, so the request is sent with chunked transfer encoding.
+ * 
+ * The entity is repeatable, a chunked entity serializes the object again for
+ * every write.
+ */
+class JsonEntity extends AbstractHttpEntity {
+
+	private final Object data;
+	private final JsonParser jsonParser;
+	private final ContentBuffer content;
+
+	JsonEntity(Object data, JsonParser jsonParser) {
+		this(data, jsonParser, false);
+	}
+
+	JsonEntity(Object data, JsonParser jsonParser, boolean chunked) {
+		if (data == null || jsonParser == null) {
+			throw new IllegalArgumentException("Cannot create a json entity with null params");
+		}
+		this.data = data;
+		this.jsonParser = jsonParser;
+		setContentType(ContentType.APPLICATION_JSON.toString());
+		setChunked(chunked);
+		if (chunked) {
+			this.content = null;
+		} else {
+			this.content = new ContentBuffer();
+			try {
+				writeJson(content);
+			} catch (IOException e) {
+				// not thrown by the in-memory buffer
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return content == null ? -1 : content.size();
+	}
+
+	/**
+	 * Only used by clients reading the content instead of writing it, e.g. the
+	 * async client, a chunked content is buffered for these.
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		if (content != null) {
+			return content.toInputStream();
+		}
+		ContentBuffer buffer = new ContentBuffer();
+		writeJson(buffer);
+		return buffer.toInputStream();
+	}
+
+	@Override
+	public void writeTo(OutputStream outstream) throws IOException {
+		if (outstream == null) {
+			throw new IllegalArgumentException("Output stream may not be null");
+		}
+		if (content != null) {
+			content.writeTo(outstream);
+		} else {
+			writeJson(outstream);
+		}
+	}
+
+	private void writeJson(OutputStream outstream) throws IOException {
+		Writer writer = new OutputStreamWriter(outstream, "UTF-8");
+		try {
+			jsonParser.toJson(data, writer);
+		} catch (JsonIOException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		}
+		writer.flush();
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+
+	// reads the written bytes without copying them into another array
+	private static final class ContentBuffer extends ByteArrayOutputStream {
+		ContentBuffer() {
+			super(1024);
+		}
+
+		InputStream toInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+}
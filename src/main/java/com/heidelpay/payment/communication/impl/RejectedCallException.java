@@ -0,0 +1,52 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+/**
+ * Thrown by the {@code ResilientRestCommunication} for calls rejected without
+ * contacting the api, because the circuit of the endpoint family is open or its
+ * bulkhead is full.
+ */
+public class RejectedCallException extends HttpCommunicationException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ResilientRestCommunication.Endpoint endpoint;
+	private final ResilientRestCommunication.Rejection rejection;
+
+	public RejectedCallException(ResilientRestCommunication.Endpoint endpoint,
+			ResilientRestCommunication.Rejection rejection, String url) {
+		super("Call to " + url + " rejected: " + rejection + " for " + endpoint);
+		this.endpoint = endpoint;
+		this.rejection = rejection;
+	}
+
+	public ResilientRestCommunication.Endpoint getEndpoint() {
+		return endpoint;
+	}
+
+	public ResilientRestCommunication.Rejection getRejection() {
+		return rejection;
+	}
+}
@@ -0,0 +1,164 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Circuit breaker and bulkhead settings of the {@code ResilientRestCommunication},
+ * applied to each endpoint family separately. All times are given in milliseconds,
+ * rates as ratio between 0 and 1.
+ *
+ * <pre>
+ * ResilienceConfiguration configuration = new ResilienceConfiguration()
+ * 		.setFailureRateThreshold(0.3)
+ * 		.setSlowCallDuration(2000)
+ * 		.setMaxConcurrentCalls(10);
+ * </pre>
+ */
+public class ResilienceConfiguration {
+
+	public static final int DEFAULT_WINDOW_SIZE = 20;
+	public static final int DEFAULT_MINIMUM_CALLS = 10;
+	public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+	public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+	public static final long DEFAULT_SLOW_CALL_DURATION = 5000;
+	public static final long DEFAULT_OPEN_DURATION = 30000;
+	public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+	public static final int DEFAULT_MAX_CONCURRENT_CALLS = 25;
+
+	private int windowSize = DEFAULT_WINDOW_SIZE;
+	private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+	private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+	private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+	private long slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+	private long openDuration = DEFAULT_OPEN_DURATION;
+	private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+	private int maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * @param windowSize - the number of most recent calls the failure and slow
+	 *        call rates are computed of
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+		return this;
+	}
+
+	public int getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	/**
+	 * @param minimumCalls - the number of calls in the window before the circuit may open
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setMinimumCalls(int minimumCalls) {
+		this.minimumCalls = minimumCalls;
+		return this;
+	}
+
+	public double getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	/**
+	 * @param failureRateThreshold - the circuit opens at this share of failed calls.
+	 *        Communication errors and server errors (5xx) count as failures.
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setFailureRateThreshold(double failureRateThreshold) {
+		this.failureRateThreshold = failureRateThreshold;
+		return this;
+	}
+
+	public double getSlowCallRateThreshold() {
+		return slowCallRateThreshold;
+	}
+
+	/**
+	 * @param slowCallRateThreshold - the circuit opens at this share of slow calls
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setSlowCallRateThreshold(double slowCallRateThreshold) {
+		this.slowCallRateThreshold = slowCallRateThreshold;
+		return this;
+	}
+
+	public long getSlowCallDuration() {
+		return slowCallDuration;
+	}
+
+	/**
+	 * @param slowCallDuration - calls taking at least this long count as slow
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setSlowCallDuration(long slowCallDuration) {
+		this.slowCallDuration = slowCallDuration;
+		return this;
+	}
+
+	public long getOpenDuration() {
+		return openDuration;
+	}
+
+	/**
+	 * @param openDuration - time an open circuit rejects all calls before it lets
+	 *        trial calls pass half-open
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setOpenDuration(long openDuration) {
+		this.openDuration = openDuration;
+		return this;
+	}
+
+	public int getHalfOpenCalls() {
+		return halfOpenCalls;
+	}
+
+	/**
+	 * @param halfOpenCalls - the number of trial calls of a half-open circuit, their
+	 *        rates decide whether it closes or opens again
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setHalfOpenCalls(int halfOpenCalls) {
+		this.halfOpenCalls = halfOpenCalls;
+		return this;
+	}
+
+	public int getMaxConcurrentCalls() {
+		return maxConcurrentCalls;
+	}
+
+	/**
+	 * @param maxConcurrentCalls - the bulkhead, calls beyond this number of
+	 *        concurrent calls to an endpoint family are rejected immediately
+	 * @return this configuration
+	 */
+	public ResilienceConfiguration setMaxConcurrentCalls(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		return this;
+	}
+}
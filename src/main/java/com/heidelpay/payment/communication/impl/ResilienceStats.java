@@ -0,0 +1,94 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Snapshot of the counters of a {@code ResilientRestCommunication}, summed up
+ * over all endpoint families.
+ */
+public class ResilienceStats {
+
+	private final long callCount;
+	private final long failureCount;
+	private final long slowCallCount;
+	private final long circuitRejectedCount;
+	private final long bulkheadRejectedCount;
+
+	public ResilienceStats(long callCount, long failureCount, long slowCallCount, long circuitRejectedCount,
+			long bulkheadRejectedCount) {
+		this.callCount = callCount;
+		this.failureCount = failureCount;
+		this.slowCallCount = slowCallCount;
+		this.circuitRejectedCount = circuitRejectedCount;
+		this.bulkheadRejectedCount = bulkheadRejectedCount;
+	}
+
+	/**
+	 * @return number of calls passed to the api
+	 */
+	public long getCallCount() {
+		return callCount;
+	}
+
+	/**
+	 * @return number of calls failing with a communication or server error
+	 */
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * @return number of calls taking at least the slow call duration
+	 */
+	public long getSlowCallCount() {
+		return slowCallCount;
+	}
+
+	/**
+	 * @return number of calls rejected by an open circuit
+	 */
+	public long getCircuitRejectedCount() {
+		return circuitRejectedCount;
+	}
+
+	/**
+	 * @return number of calls rejected by a full bulkhead
+	 */
+	public long getBulkheadRejectedCount() {
+		return bulkheadRejectedCount;
+	}
+
+	/**
+	 * @return ratio of rejected calls to all calls, 0 if there were none
+	 */
+	public double getRejectionRate() {
+		long rejected = circuitRejectedCount + bulkheadRejectedCount;
+		long total = callCount + rejected;
+		return total == 0 ? 0 : (double) rejected / total;
+	}
+
+	@Override
+	public String toString() {
+		return "[calls: " + callCount + "; failures: " + failureCount + "; slow calls: " + slowCallCount
+				+ "; circuit rejected: " + circuitRejectedCount + "; bulkhead rejected: " + bulkheadRejectedCount + "]";
+	}
+}
@@ -0,0 +1,420 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.RateLimitExceededException;
+
+/**
+ * Decorator of a {@code HeidelpayRestCommunication} with a circuit breaker and a
+ * bulkhead per endpoint family (payment types, payments, customers, webhooks and
+ * all others), so a degraded api rejects calls immediately instead of blocking
+ * the calling threads until their timeout.
+ * 
+ * <ul>
+ * <li>The bulkhead limits the concurrent calls per family, calls beyond the limit
+ * are rejected without waiting.</li>
+ * <li>The circuit breaker of a family opens once the share of failed or slow calls
+ * among the recent calls exceeds its threshold. An open circuit rejects all calls
+ * for the open duration, then it lets a few trial calls pass (half-open). Their
+ * outcome closes the circuit or opens it again.</li>
+ * </ul>
+ * Communication errors and server errors (5xx) count as failures, other
+ * {@code PaymentException}s are valid answers of the api. Calls rejected by the
+ * decorated communication before reaching the api, i.e. a
+ * {@code RateLimitExceededException} or a {@code RejectedCallException} of a
+ * nested instance, have no outcome. Rejected calls throw a
+ * {@code RejectedCallException}.
+ * 
+ * <pre>
+ * ResilientRestCommunication rest = new ResilientRestCommunication(new HttpClientBasedRestCommunication(), new ResilienceConfiguration());
+ * rest.addListener(listener);
+ * Heidelpay heidelpay = new Heidelpay(rest, "s-priv-xxxxxxxxxx");
+ * </pre>
+ * 
+ * The instance is thread-safe and can be shared by several {@code Heidelpay} facades.
+ */
+public class ResilientRestCommunication implements HeidelpayRestCommunication, Closeable {
+
+	private static final Logger logger = LogManager.getLogger(ResilientRestCommunication.class);
+	private static final int HTTP_STATUS_SERVER_ERROR = 500;
+
+	/**
+	 * The endpoint families having a circuit and a bulkhead of their own.
+	 */
+	public enum Endpoint {
+		TYPES, PAYMENTS, CUSTOMERS, WEBHOOKS, OTHER
+	}
+
+	public enum CircuitState {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	public enum Rejection {
+		CIRCUIT_OPEN, BULKHEAD_FULL
+	}
+
+	/**
+	 * Receives the state transitions of the circuits and the rejected calls. The
+	 * methods are called by the thread causing the event, transitions while
+	 * holding the lock of the circuit, so they must return quickly.
+	 */
+	public interface Listener {
+
+		void onStateTransition(Endpoint endpoint, CircuitState from, CircuitState to);
+
+		void onRejected(Endpoint endpoint, Rejection rejection);
+	}
+
+	private static final Map<String, Endpoint> ENDPOINTS_BY_PATH = new HashMap<String, Endpoint>();
+
+	static {
+		ENDPOINTS_BY_PATH.put("types", Endpoint.TYPES);
+		ENDPOINTS_BY_PATH.put("payments", Endpoint.PAYMENTS);
+		ENDPOINTS_BY_PATH.put("customers", Endpoint.CUSTOMERS);
+		ENDPOINTS_BY_PATH.put("webhooks", Endpoint.WEBHOOKS);
+	}
+
+	private final HeidelpayRestCommunication restCommunication;
+	private final ResilienceConfiguration configuration;
+	private final Map<Endpoint, Circuit> circuits = new EnumMap<Endpoint, Circuit>(Endpoint.class);
+	private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+	private final AtomicLong callCount = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+	private final AtomicLong slowCallCount = new AtomicLong();
+	private final AtomicLong circuitRejectedCount = new AtomicLong();
+	private final AtomicLong bulkheadRejectedCount = new AtomicLong();
+
+	public ResilientRestCommunication(HeidelpayRestCommunication restCommunication) {
+		this(restCommunication, new ResilienceConfiguration());
+	}
+
+	/**
+	 * Creates a {@code ResilientRestCommunication} decorating the given communication.
+	 * 
+	 * @param restCommunication - the communication executing the requests
+	 * @param configuration - circuit breaker and bulkhead settings
+	 */
+	public ResilientRestCommunication(HeidelpayRestCommunication restCommunication, ResilienceConfiguration configuration) {
+		if (restCommunication == null) {
+			throw new IllegalArgumentException("HeidelpayRestCommunication must not be null");
+		}
+		if (configuration == null) {
+			throw new IllegalArgumentException("ResilienceConfiguration must not be null");
+		}
+		this.restCommunication = restCommunication;
+		this.configuration = configuration;
+		for (Endpoint endpoint : Endpoint.values()) {
+			circuits.put(endpoint, new Circuit(endpoint));
+		}
+	}
+
+	@Override
+	public String httpGet(final String url, final String privateKey) throws HttpCommunicationException {
+		return execute(url, new Call() {
+			@Override
+			public String execute() throws HttpCommunicationException {
+				return restCommunication.httpGet(url, privateKey);
+			}
+		});
+	}
+
+	@Override
+	public String httpPost(final String url, final String privateKey, final Object data) throws HttpCommunicationException {
+		return execute(url, new Call() {
+			@Override
+			public String execute() throws HttpCommunicationException {
+				return restCommunication.httpPost(url, privateKey, data);
+			}
+		});
+	}
+
+	@Override
+	public String httpPut(final String url, final String privateKey, final Object data) throws HttpCommunicationException {
+		return execute(url, new Call() {
+			@Override
+			public String execute() throws HttpCommunicationException {
+				return restCommunication.httpPut(url, privateKey, data);
+			}
+		});
+	}
+
+	@Override
+	public String httpDelete(final String url, final String privateKey) throws HttpCommunicationException {
+		return execute(url, new Call() {
+			@Override
+			public String execute() throws HttpCommunicationException {
+				return restCommunication.httpDelete(url, privateKey);
+			}
+		});
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @param endpoint - the endpoint family
+	 * @return the state of its circuit. An open circuit turns half-open with the
+	 *         first call after the open duration.
+	 */
+	public CircuitState getState(Endpoint endpoint) {
+		return circuits.get(endpoint).getState();
+	}
+
+	/**
+	 * @param endpoint - the endpoint family
+	 * @return the number of calls its bulkhead admits at the moment
+	 */
+	public int getAvailableCalls(Endpoint endpoint) {
+		return circuits.get(endpoint).bulkhead.availablePermits();
+	}
+
+	/**
+	 * @return a snapshot of the call, failure and rejection counters
+	 */
+	public ResilienceStats getStats() {
+		return new ResilienceStats(callCount.get(), failureCount.get(), slowCallCount.get(),
+				circuitRejectedCount.get(), bulkheadRejectedCount.get());
+	}
+
+	/**
+	 * Closes the decorated communication, if it is {@code Closeable}.
+	 * 
+	 * @throws IOException in case the decorated communication could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (restCommunication instanceof Closeable) {
+			((Closeable) restCommunication).close();
+		}
+	}
+
+	long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private String execute(String url, Call call) throws HttpCommunicationException {
+		Circuit circuit = circuits.get(getEndpoint(url));
+		if (!circuit.bulkhead.tryAcquire()) {
+			bulkheadRejectedCount.incrementAndGet();
+			throw reject(circuit.endpoint, Rejection.BULKHEAD_FULL, url);
+		}
+		try {
+			long generation = circuit.permit();
+			if (generation < 0) {
+				circuitRejectedCount.incrementAndGet();
+				throw reject(circuit.endpoint, Rejection.CIRCUIT_OPEN, url);
+			}
+			callCount.incrementAndGet();
+			long start = currentTimeMillis();
+			boolean failed = false;
+			boolean rejected = false;
+			try {
+				return call.execute();
+			} catch (HttpCommunicationException e) {
+				// calls rejected before reaching the api, e.g. by the RateLimiter, tell nothing about its health
+				rejected = e instanceof RateLimitExceededException || e instanceof RejectedCallException;
+				failed = !rejected;
+				throw e;
+			} catch (PaymentException e) {
+				failed = e.getStatusCode() != null && e.getStatusCode() >= HTTP_STATUS_SERVER_ERROR;
+				throw e;
+			} finally {
+				if (rejected) {
+					circuit.release(generation);
+				} else {
+					circuit.record(generation, failed, currentTimeMillis() - start);
+				}
+			}
+		} finally {
+			circuit.bulkhead.release();
+		}
+	}
+
+	private RejectedCallException reject(Endpoint endpoint, Rejection rejection, String url) {
+		for (Listener listener : listeners) {
+			try {
+				listener.onRejected(endpoint, rejection);
+			} catch (RuntimeException e) {
+				logger.warn("Listener failed on a rejected call: " + e.getMessage(), e);
+			}
+		}
+		return new RejectedCallException(endpoint, rejection, url);
+	}
+
+	static Endpoint getEndpoint(String url) {
+		int start = url.indexOf("://");
+		start = start < 0 ? 0 : url.indexOf('/', start + 3);
+		if (start >= 0) {
+			int end = url.indexOf('?');
+			for (String segment : url.substring(start, end < 0 ? url.length() : end).split("/")) {
+				Endpoint endpoint = ENDPOINTS_BY_PATH.get(segment);
+				if (endpoint != null) {
+					return endpoint;
+				}
+			}
+		}
+		return Endpoint.OTHER;
+	}
+
+	private interface Call {
+		String execute() throws HttpCommunicationException;
+	}
+
+	/**
+	 * Circuit breaker and bulkhead of an endpoint family. The outcomes of the
+	 * recent calls are kept in a ring buffer, outcomes of calls started before
+	 * the last transition are ignored.
+	 */
+	private final class Circuit {
+
+		private final Endpoint endpoint;
+		private final Semaphore bulkhead;
+		private final boolean[] failures;
+		private final boolean[] slowCalls;
+		private CircuitState state = CircuitState.CLOSED;
+		private long generation;
+		private long openedAt;
+		private int next;
+		private int size;
+		private int failureSum;
+		private int slowCallSum;
+		private int trialCalls;
+
+		Circuit(Endpoint endpoint) {
+			this.endpoint = endpoint;
+			this.bulkhead = new Semaphore(configuration.getMaxConcurrentCalls());
+			this.failures = new boolean[configuration.getWindowSize()];
+			this.slowCalls = new boolean[configuration.getWindowSize()];
+		}
+
+		synchronized CircuitState getState() {
+			return state;
+		}
+
+		/**
+		 * @return the generation of the state admitting the call, -1 if it is rejected
+		 */
+		synchronized long permit() {
+			if (state == CircuitState.OPEN) {
+				if (currentTimeMillis() - openedAt < configuration.getOpenDuration()) {
+					return -1;
+				}
+				transition(CircuitState.HALF_OPEN);
+			}
+			if (state == CircuitState.HALF_OPEN) {
+				if (trialCalls >= configuration.getHalfOpenCalls()) {
+					return -1;
+				}
+				trialCalls++;
+			}
+			return generation;
+		}
+
+		/**
+		 * Returns the permit of a call without outcome, so a half open circuit
+		 * admits another trial call instead.
+		 */
+		synchronized void release(long callGeneration) {
+			if (callGeneration == generation && state == CircuitState.HALF_OPEN) {
+				trialCalls--;
+			}
+		}
+
+		synchronized void record(long callGeneration, boolean failed, long duration) {
+			boolean slow = duration >= configuration.getSlowCallDuration();
+			if (failed) {
+				failureCount.incrementAndGet();
+			}
+			if (slow) {
+				slowCallCount.incrementAndGet();
+			}
+			if (callGeneration != generation) {
+				return;
+			}
+			if (size == failures.length) {
+				failureSum -= failures[next] ? 1 : 0;
+				slowCallSum -= slowCalls[next] ? 1 : 0;
+			} else {
+				size++;
+			}
+			failures[next] = failed;
+			slowCalls[next] = slow;
+			failureSum += failed ? 1 : 0;
+			slowCallSum += slow ? 1 : 0;
+			next = (next + 1) % failures.length;
+
+			if (state == CircuitState.HALF_OPEN) {
+				if (size >= Math.min(configuration.getHalfOpenCalls(), failures.length)) {
+					transition(isAboveThreshold() ? CircuitState.OPEN : CircuitState.CLOSED);
+				}
+			} else if (size >= Math.min(configuration.getMinimumCalls(), failures.length) && isAboveThreshold()) {
+				transition(CircuitState.OPEN);
+			}
+		}
+
+		private boolean isAboveThreshold() {
+			return failureSum >= configuration.getFailureRateThreshold() * size
+					|| slowCallSum >= configuration.getSlowCallRateThreshold() * size;
+		}
+
+		private void transition(CircuitState to) {
+			CircuitState from = state;
+			state = to;
+			generation++;
+			openedAt = currentTimeMillis();
+			next = 0;
+			size = 0;
+			failureSum = 0;
+			slowCallSum = 0;
+			trialCalls = 0;
+			for (Listener listener : listeners) {
+				try {
+					listener.onStateTransition(endpoint, from, to);
+				} catch (RuntimeException e) {
+					logger.warn("Listener failed on a state transition: " + e.getMessage(), e);
+				}
+			}
+		}
+	}
+}
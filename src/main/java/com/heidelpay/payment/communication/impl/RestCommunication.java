@@ -24,6 +24,7 @@ import static org.apache.http.HttpHeaders.USER_AGENT;
  * #L%
  */
 
+import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.http.HttpEntity;
@@ -38,8 +39,6 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -58,11 +57,13 @@ import com.heidelpay.payment.util.SDKInfo;
  *
  */
 @Deprecated
-public class RestCommunication implements HeidelpayRestCommunication {
+public class RestCommunication implements HeidelpayRestCommunication, Closeable {
 
 	private static final Logger logger = LogManager.getLogger(RestCommunication.class);
 	public static final String BASIC = "Basic ";
 
+	private CloseableHttpClient httpClient;
+
 	public String httpGet(String url, String privateKey) throws HttpCommunicationException {
 		HttpGet httpGet = getHttpGet(url);
 		httpGet.addHeader(AUTHORIZATION, BASIC + AbstractHeidelpayRestCommunication.addAuthentication(privateKey));
@@ -91,7 +92,7 @@ public class RestCommunication implements HeidelpayRestCommunication {
 	}
 
 	private String makeRequest(HttpEntityEnclosingRequestBase request, Object data) throws HttpCommunicationException {
-		String json = new JsonParser().toJson(data);
+		String json = JsonParser.getInstance().toJson(data);
 		logger.debug("Request: '%s'", json);
 		HttpEntity entity = new StringEntity(json, "UTF-8");
 		request.setEntity(entity);
@@ -113,7 +114,7 @@ public class RestCommunication implements HeidelpayRestCommunication {
 			logger.debug(content);
 
 			if (status.getStatusCode() > 201 || status.getStatusCode() < 200) {
-				JsonErrorObject error = new JsonParser().fromJson(content, JsonErrorObject.class);
+				JsonErrorObject error = JsonParser.getInstance().fromJson(content, JsonErrorObject.class);
 				throw new PaymentException(error.getUrl(), status.getStatusCode(), error.getTimestamp(), error.getId(), error.getErrors(), "");
 			}
 			return content;
@@ -134,9 +135,20 @@ public class RestCommunication implements HeidelpayRestCommunication {
 		}
 	}
 
-	private CloseableHttpClient getHttpClient() {
-		HttpClientBuilder builder = HttpClients.custom().useSystemProperties();
-		return builder.build();
+	private synchronized CloseableHttpClient getHttpClient() {
+		if (httpClient == null) {
+			HttpClientConfiguration configuration = new HttpClientConfiguration();
+			httpClient = configuration.createHttpClient(configuration.createConnectionManager());
+		}
+		return httpClient;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (httpClient != null) {
+			httpClient.close();
+			httpClient = null;
+		}
 	}
 
 	private void setUserAgent(HttpUriRequest httpRequest) {
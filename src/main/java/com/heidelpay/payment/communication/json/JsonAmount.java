@@ -22,6 +22,9 @@ package com.heidelpay.payment.communication.json;
 
 import java.math.BigDecimal;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonAmount {
 	private BigDecimal total;
 	private BigDecimal charged;
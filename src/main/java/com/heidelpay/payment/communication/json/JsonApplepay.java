@@ -20,12 +20,15 @@ package com.heidelpay.payment.communication.json;
  * #L%
  */
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
 /**
  * Alipay business object 
  * 
  * @author rene.felder
  *
  */
+@GenerateTypeAdapter
 public class JsonApplepay extends JsonIdObject implements JsonObject  {
 	private String version;
 	private String data;
@@ -20,6 +20,9 @@ package com.heidelpay.payment.communication.json;
  * #L%
  */
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonApplepayHeader {
 	private String ephemeralPublicKey;
 	private String publicKeyHash;
@@ -22,12 +22,15 @@ package com.heidelpay.payment.communication.json;
 
 import java.math.BigDecimal;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
 /**
  * Alipay business object 
  * 
  * @author rene.felder
  *
  */
+@GenerateTypeAdapter
 public class JsonApplepayResponse extends JsonIdObject implements JsonObject  {
 	private String applicationPrimaryAccountNumber;
 	private String applicationExpirationDate;
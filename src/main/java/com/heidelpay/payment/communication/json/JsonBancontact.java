@@ -20,9 +20,16 @@ package com.heidelpay.payment.communication.json;
  * #L%
  */
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonBancontact extends JsonIdObject implements JsonObject {
 	private String holder;
 	public String getHolder() {
 		return holder;
 	}
+
+	public void setHolder(String holder) {
+		this.holder = holder;
+	}
 }
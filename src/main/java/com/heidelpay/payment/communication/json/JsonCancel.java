@@ -25,8 +25,10 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 import com.heidelpay.payment.marketplace.MarketplaceCancelBasket;
 
+@GenerateTypeAdapter
 public class JsonCancel extends JsonIdObject implements JsonObject {
 	private Boolean isSuccess;
 	private Boolean isPending;
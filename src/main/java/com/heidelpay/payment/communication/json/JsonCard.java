@@ -2,6 +2,8 @@ package com.heidelpay.payment.communication.json;
 
 import com.google.gson.annotations.SerializedName;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
 /*-
  * #%L
  * Heidelpay Java SDK
@@ -22,6 +24,7 @@ import com.google.gson.annotations.SerializedName;
  * #L%
  */
 
+@GenerateTypeAdapter
 public class JsonCard extends JsonIdObject implements JsonObject {
 	private String number;
 	private String cvc;
@@ -20,6 +20,9 @@ package com.heidelpay.payment.communication.json;
  * #L%
  */
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonCharge extends JsonInitPayment implements JsonObject {
 	
 	private String invoiceId;
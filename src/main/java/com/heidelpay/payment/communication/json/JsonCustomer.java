@@ -25,8 +25,10 @@ import java.util.Date;
 import com.google.gson.annotations.JsonAdapter;
 import com.heidelpay.payment.Address;
 import com.heidelpay.payment.Customer.Salutation;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 import com.heidelpay.payment.communication.JsonDateConverter;
 
+@GenerateTypeAdapter
 public class JsonCustomer extends JsonIdObject implements JsonObject {
 	private String firstname;
 	private String lastname;
@@ -23,7 +23,9 @@ package com.heidelpay.payment.communication.json;
 import java.util.List;
 
 import com.heidelpay.payment.PaymentError;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 
+@GenerateTypeAdapter
 public class JsonErrorObject {
 	private String url;
 	private String timestamp;
@@ -28,12 +28,14 @@ import java.util.List;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import com.heidelpay.payment.business.paymenttypes.HirePurchaseRate;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 import com.heidelpay.payment.communication.JsonDateConverter;
 
 /**
  * @deprecated @deprecated use {@code JsonInstallmentSecuredRatePlan} as a default implementation.
  */
 @Deprecated
+@GenerateTypeAdapter
 public class JsonHirePurchaseRatePlan extends JsonIdObject implements JsonObject {
 
 	
@@ -24,11 +24,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.heidelpay.payment.business.paymenttypes.HirePurchaseRatePlan;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 
 /**
  * @deprecated @deprecated use {@code JsonInstallmentSecuredRatePlanList} as a default implementation.
  */
 @Deprecated
+@GenerateTypeAdapter
 public class JsonHirePurchaseRatePlanList {
 	private String code;
 	private List<HirePurchaseRatePlan> entity = new ArrayList<HirePurchaseRatePlan>();
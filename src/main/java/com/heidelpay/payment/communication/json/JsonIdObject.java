@@ -20,6 +20,9 @@ package com.heidelpay.payment.communication.json;
  * #L%
  */
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonIdObject implements JsonObject {
 	private String id;
 	private Boolean recurring;
@@ -37,7 +40,15 @@ public class JsonIdObject implements JsonObject {
 		return recurring;
 	}
 
+	public void setRecurring(Boolean recurring) {
+		this.recurring = recurring;
+	}
+
 	public JsonGeoLocation getGeoLocation() {
 		return geoLocation;
 	}
+
+	public void setGeoLocation(JsonGeoLocation geoLocation) {
+		this.geoLocation = geoLocation;
+	}
 }
@@ -25,6 +25,9 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonInitPayment extends JsonIdObject implements JsonObject {
 	private Boolean isSuccess;
 	private Boolean isPending;
@@ -23,6 +23,7 @@ package com.heidelpay.payment.communication.json;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import com.heidelpay.payment.business.paymenttypes.InstallmentSecuredRate;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 import com.heidelpay.payment.communication.JsonDateConverter;
 
 import java.math.BigDecimal;
@@ -30,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+@GenerateTypeAdapter
 public class JsonInstallmentSecuredRatePlan extends JsonIdObject implements JsonObject {
 
 	
@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.heidelpay.payment.business.paymenttypes.InstallmentSecuredRatePlan;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 
+@GenerateTypeAdapter
 public class JsonInstallmentSecuredRatePlanList {
 	private String code;
 	private List<InstallmentSecuredRatePlan> entity = new ArrayList<InstallmentSecuredRatePlan>();
@@ -1,6 +1,7 @@
 package com.heidelpay.payment.communication.json;
 
 import com.heidelpay.payment.Message;
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
 
 /*-
  * #%L
@@ -22,6 +23,7 @@ import com.heidelpay.payment.Message;
  * #L%
  */
 
+@GenerateTypeAdapter
 public class JsonMessage implements Message {
 	private String code;
 	private String customer;
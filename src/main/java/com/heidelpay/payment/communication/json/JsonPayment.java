@@ -23,6 +23,9 @@ package com.heidelpay.payment.communication.json;
 import java.util.Currency;
 import java.util.List;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonPayment extends JsonIdObject {
 
 	private JsonState state;
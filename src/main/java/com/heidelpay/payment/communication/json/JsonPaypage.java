@@ -5,6 +5,8 @@ import java.net.URL;
 import java.util.Currency;
 import java.util.Map;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
 /*-
  * #%L
  * Heidelpay Java SDK
@@ -25,6 +27,7 @@ import java.util.Map;
  * #L%
  */
 
+@GenerateTypeAdapter
 public class JsonPaypage implements JsonObject {
 	private String id;
 	
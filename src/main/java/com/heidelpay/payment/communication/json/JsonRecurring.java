@@ -23,6 +23,9 @@ package com.heidelpay.payment.communication.json;
 import java.net.URL;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonRecurring extends JsonIdObject implements JsonObject {
 	private Boolean isSuccess;
 	private Boolean isPending;
@@ -24,6 +24,9 @@ import java.math.BigDecimal;
 import java.util.Currency;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonShipment extends JsonIdObject implements JsonObject {
 	private String isSuccess;
 	private String isPending;
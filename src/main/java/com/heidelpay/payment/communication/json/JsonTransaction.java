@@ -24,6 +24,9 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.util.Date;
 
+import com.heidelpay.payment.communication.GenerateTypeAdapter;
+
+@GenerateTypeAdapter
 public class JsonTransaction {
 	private Date date;
 	private String type;
@@ -408,7 +408,7 @@ public class JsonToBusinessClassMapper {
 		return json.getRegistrationType() == null;
 	}
 	
-	private <T extends AbstractPayment> void setStatus(AbstractTransaction<T> transaction, boolean isSuccess, boolean isPending, boolean isError) {
+	static <T extends AbstractPayment> void setStatus(AbstractTransaction<T> transaction, boolean isSuccess, boolean isPending, boolean isError) {
 		if (isSuccess) {
 			transaction.setStatus(AbstractTransaction.Status.SUCCESS);
 		} else if (isPending) {
@@ -474,17 +474,21 @@ public class JsonToBusinessClassMapper {
 	private AbstractPayment.State getPaymentState(JsonState state) {
 		if (state == null)
 			return null;
-		if (state.getId() == 0)
+		return getPaymentState(state.getId());
+	}
+
+	static AbstractPayment.State getPaymentState(int stateId) {
+		if (stateId == 0)
 			return AbstractPayment.State.PENDING;
-		if (state.getId() == 1)
+		if (stateId == 1)
 			return AbstractPayment.State.COMPLETED;
-		if (state.getId() == 2)
+		if (stateId == 2)
 			return AbstractPayment.State.CANCELED;
-		if (state.getId() == 3)
+		if (stateId == 3)
 			return AbstractPayment.State.PARTLY;
-		if (state.getId() == 4)
+		if (stateId == 4)
 			return AbstractPayment.State.PAYMENT_REVIEW;
-		if (state.getId() == 5)
+		if (stateId == 5)
 			return AbstractPayment.State.CHARGEBACK;
 		return null;
 	}
@@ -0,0 +1,1079 @@
+package com.heidelpay.payment.communication.mapper;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.heidelpay.payment.AbstractPayment;
+import com.heidelpay.payment.AbstractTransaction;
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.GeoLocation;
+import com.heidelpay.payment.Linkpay;
+import com.heidelpay.payment.Paypage;
+import com.heidelpay.payment.Processing;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.json.JsonMessage;
+import com.heidelpay.payment.communication.json.JsonTransaction;
+import com.heidelpay.payment.paymenttypes.AbstractPaymentType;
+import com.heidelpay.payment.paymenttypes.Alipay;
+import com.heidelpay.payment.paymenttypes.Card;
+import com.heidelpay.payment.paymenttypes.CardDetails;
+import com.heidelpay.payment.paymenttypes.Eps;
+import com.heidelpay.payment.paymenttypes.Giropay;
+import com.heidelpay.payment.paymenttypes.Invoice;
+import com.heidelpay.payment.paymenttypes.InvoiceFactoring;
+import com.heidelpay.payment.paymenttypes.InvoiceGuaranteed;
+import com.heidelpay.payment.paymenttypes.InvoiceSecured;
+import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.paymenttypes.PostFinanceCard;
+import com.heidelpay.payment.paymenttypes.PostFinanceEFinance;
+import com.heidelpay.payment.paymenttypes.Prepayment;
+import com.heidelpay.payment.paymenttypes.Przelewy24;
+import com.heidelpay.payment.paymenttypes.Sofort;
+import com.heidelpay.payment.paymenttypes.Wechatpay;
+
+/**
+ * Reads responses straight from the json tokens into the business objects,
+ * without the {@code Json*} objects of the communication.json package in
+ * between. The mapping is the one of the {@link JsonToBusinessClassMapper}:
+ * every field it maps is reset and set from the json, so fields missing in the
+ * response are null afterwards. Values are read with the adapters of the
+ * {@code JsonParser}, e.g. an empty String is read as null.
+ * 
+ * Unlike the mapper, missing nested objects such as the processing, the amount
+ * of a payment or the geolocation of a payment type are read as empty instead
+ * of failing with a NullPointerException.
+ * 
+ * The adapters returned by this reader fill the given object, they are meant
+ * for a single response and cannot write json.
+ */
+public class JsonToBusinessClassReader {
+
+	// payment types mapped from a JsonIdObject, the Invoice, InvoiceSecured and Wechatpay do not map the geolocation
+	private static final Set<Class<?>> ID_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(Eps.class,
+			Giropay.class, InvoiceFactoring.class, InvoiceGuaranteed.class, Prepayment.class, Przelewy24.class,
+			Sofort.class, Alipay.class, PostFinanceCard.class, PostFinanceEFinance.class));
+	private static final Set<Class<?>> ID_TYPES_WITHOUT_GEO_LOCATION = new HashSet<Class<?>>(
+			Arrays.<Class<?>>asList(Invoice.class, InvoiceSecured.class, Wechatpay.class));
+
+	private final TypeAdapter<String> stringAdapter;
+	private final TypeAdapter<Boolean> booleanAdapter;
+	private final TypeAdapter<Integer> integerAdapter;
+	private final TypeAdapter<BigDecimal> bigDecimalAdapter;
+	private final TypeAdapter<Currency> currencyAdapter;
+	private final TypeAdapter<URL> urlAdapter;
+	private final TypeAdapter<Date> dateAdapter;
+	private final TypeAdapter<JsonMessage> messageAdapter;
+	private final TypeAdapter<Map<String, String>> mapAdapter;
+	private final TypeAdapter<String[]> stringArrayAdapter;
+	private final TypeAdapter<List<JsonTransaction>> transactionListAdapter;
+
+	public JsonToBusinessClassReader(JsonParser jsonParser) {
+		this.stringAdapter = jsonParser.getAdapter(String.class);
+		this.booleanAdapter = jsonParser.getAdapter(Boolean.class);
+		this.integerAdapter = jsonParser.getAdapter(Integer.class);
+		this.bigDecimalAdapter = jsonParser.getAdapter(BigDecimal.class);
+		this.currencyAdapter = jsonParser.getAdapter(Currency.class);
+		this.urlAdapter = jsonParser.getAdapter(URL.class);
+		this.dateAdapter = jsonParser.getAdapter(Date.class);
+		this.messageAdapter = jsonParser.getAdapter(JsonMessage.class);
+		this.mapAdapter = jsonParser.getAdapter(new TypeToken<Map<String, String>>() {});
+		this.stringArrayAdapter = jsonParser.getAdapter(String[].class);
+		this.transactionListAdapter = jsonParser.getAdapter(new TypeToken<List<JsonTransaction>>() {});
+	}
+
+	/**
+	 * Reads an authorization, charge or payout like
+	 * {@code JsonToBusinessClassMapper.mapToBusinessObject(AbstractTransaction, JsonInitPayment)},
+	 * the invoiceId of a charge is read as well.
+	 * 
+	 * @param <T> type of the payment of the transaction
+	 * @param transaction - the transaction to be filled
+	 * @return the adapter filling the transaction
+	 */
+	public <T extends AbstractPayment> TypeAdapter<AbstractTransaction<T>> transaction(final AbstractTransaction<T> transaction) {
+		return new BusinessObjectAdapter<AbstractTransaction<T>>() {
+			@Override
+			AbstractTransaction<T> readObject(JsonReader in) throws IOException {
+				return readTransaction(in, transaction);
+			}
+		};
+	}
+
+	/**
+	 * Reads a cancel like
+	 * {@code JsonToBusinessClassMapper.mapToBusinessObject(AbstractTransaction, JsonCancel)},
+	 * the paymentId is read from the resources as well.
+	 * 
+	 * @param <T> type of the payment of the cancel
+	 * @param cancel - the cancel to be filled
+	 * @return the adapter filling the cancel
+	 */
+	public <T extends AbstractPayment> TypeAdapter<AbstractTransaction<T>> cancel(final AbstractTransaction<T> cancel) {
+		return new BusinessObjectAdapter<AbstractTransaction<T>>() {
+			@Override
+			AbstractTransaction<T> readObject(JsonReader in) throws IOException {
+				return readCancel(in, cancel);
+			}
+		};
+	}
+
+	/**
+	 * Reads a payment like
+	 * {@code JsonToBusinessClassMapper.mapToBusinessObject(AbstractPayment, JsonPayment)}.
+	 * 
+	 * @param <T> type of the payment
+	 * @param payment - the payment to be filled
+	 * @param transactions - the list the transactions of the payment are added to
+	 * @return the adapter filling the payment
+	 */
+	public <T extends AbstractPayment> TypeAdapter<T> payment(final T payment, final List<JsonTransaction> transactions) {
+		return new BusinessObjectAdapter<T>() {
+			@Override
+			T readObject(JsonReader in) throws IOException {
+				return readPayment(in, payment, transactions);
+			}
+		};
+	}
+
+	/**
+	 * Reads a paypage like
+	 * {@code JsonToBusinessClassMapper.mapToBusinessObject(Paypage, JsonPaypage)}.
+	 * 
+	 * @param paypage - the paypage to be filled
+	 * @return the adapter filling the paypage
+	 */
+	public TypeAdapter<Paypage> paypage(final Paypage paypage) {
+		return new BusinessObjectAdapter<Paypage>() {
+			@Override
+			Paypage readObject(JsonReader in) throws IOException {
+				return readPaypage(in, paypage);
+			}
+		};
+	}
+
+	/**
+	 * Reads a linkpay like
+	 * {@code JsonToBusinessClassMapper.mapToBusinessObject(Linkpay, JsonLinkpay)}.
+	 * 
+	 * @param linkpay - the linkpay to be filled
+	 * @return the adapter filling the linkpay
+	 */
+	public TypeAdapter<Linkpay> linkpay(final Linkpay linkpay) {
+		return new BusinessObjectAdapter<Linkpay>() {
+			@Override
+			Linkpay readObject(JsonReader in) throws IOException {
+				return readLinkpay(in, linkpay);
+			}
+		};
+	}
+
+	/**
+	 * @param paymentType - the payment type to be read
+	 * @return true if the payment type can be read by {@link #paymentType(PaymentType)}:
+	 *         the card and the types without any fields of their own
+	 */
+	public boolean isSupported(PaymentType paymentType) {
+		return paymentType != null && (paymentType.getClass() == Card.class
+				|| ID_TYPES.contains(paymentType.getClass())
+				|| ID_TYPES_WITHOUT_GEO_LOCATION.contains(paymentType.getClass()));
+	}
+
+	/**
+	 * Reads a payment type like its {@code PaymentType.map} method.
+	 * 
+	 * @param paymentType - the payment type to be filled, see {@link #isSupported(PaymentType)}
+	 * @return the adapter filling the payment type
+	 * @throws IllegalArgumentException if the payment type is not supported
+	 */
+	public TypeAdapter<PaymentType> paymentType(final PaymentType paymentType) {
+		if (!isSupported(paymentType)) {
+			throw new IllegalArgumentException("Payment type " + paymentType + " cannot be read directly");
+		}
+		return new BusinessObjectAdapter<PaymentType>() {
+			@Override
+			PaymentType readObject(JsonReader in) throws IOException {
+				return readPaymentType(in, (AbstractPaymentType) paymentType);
+			}
+		};
+	}
+
+	private <T extends AbstractPayment> AbstractTransaction<T> readTransaction(JsonReader in, AbstractTransaction<T> transaction)
+			throws IOException {
+		Charge charge = transaction instanceof Charge ? (Charge) transaction : null;
+		transaction.setId(null);
+		transaction.setAmount(null);
+		transaction.setCurrency(null);
+		transaction.setOrderId(null);
+		transaction.setCard3ds(null);
+		transaction.setPaymentReference(null);
+		transaction.setReturnUrl(null);
+		transaction.setRedirectUrl(null);
+		transaction.setMessage(null);
+		transaction.setDate(null);
+		transaction.setProcessing(new Processing());
+		if (charge != null) {
+			charge.setInvoiceId(null);
+		}
+		boolean isSuccess = false;
+		boolean isPending = false;
+		boolean isError = false;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				transaction.setId(stringAdapter.read(in));
+				break;
+			case "amount":
+				transaction.setAmount(bigDecimalAdapter.read(in));
+				break;
+			case "currency":
+				transaction.setCurrency(currencyAdapter.read(in));
+				break;
+			case "orderId":
+				transaction.setOrderId(stringAdapter.read(in));
+				break;
+			case "card3ds":
+				transaction.setCard3ds(booleanAdapter.read(in));
+				break;
+			case "paymentReference":
+				transaction.setPaymentReference(stringAdapter.read(in));
+				break;
+			case "returnUrl":
+				transaction.setReturnUrl(urlAdapter.read(in));
+				break;
+			case "redirectUrl":
+				transaction.setRedirectUrl(urlAdapter.read(in));
+				break;
+			case "message":
+				transaction.setMessage(messageAdapter.read(in));
+				break;
+			case "date":
+				transaction.setDate(dateAdapter.read(in));
+				break;
+			case "processing":
+				readProcessing(in, transaction.getProcessing());
+				break;
+			case "resources":
+				readTransactionResources(in, transaction);
+				break;
+			case "isSuccess":
+				isSuccess = readFlag(in);
+				break;
+			case "isPending":
+				isPending = readFlag(in);
+				break;
+			case "isError":
+				isError = readFlag(in);
+				break;
+			case "invoiceId":
+				if (charge != null) {
+					charge.setInvoiceId(stringAdapter.read(in));
+				} else {
+					in.skipValue();
+				}
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		JsonToBusinessClassMapper.setStatus(transaction, isSuccess, isPending, isError);
+		return transaction;
+	}
+
+	private <T extends AbstractPayment> AbstractTransaction<T> readCancel(JsonReader in, AbstractTransaction<T> cancel)
+			throws IOException {
+		cancel.setId(null);
+		cancel.setAmount(null);
+		cancel.setMessage(null);
+		cancel.setDate(null);
+		cancel.setPaymentReference(null);
+		cancel.setProcessing(new Processing());
+		boolean isSuccess = false;
+		boolean isPending = false;
+		boolean isError = false;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				cancel.setId(stringAdapter.read(in));
+				break;
+			case "amount":
+				cancel.setAmount(bigDecimalAdapter.read(in));
+				break;
+			case "message":
+				cancel.setMessage(messageAdapter.read(in));
+				break;
+			case "date":
+				cancel.setDate(dateAdapter.read(in));
+				break;
+			case "paymentReference":
+				cancel.setPaymentReference(stringAdapter.read(in));
+				break;
+			case "processing":
+				readProcessing(in, cancel.getProcessing());
+				break;
+			case "resources":
+				readCancelResources(in, cancel);
+				break;
+			case "isSuccess":
+				isSuccess = readFlag(in);
+				break;
+			case "isPending":
+				isPending = readFlag(in);
+				break;
+			case "isError":
+				isError = readFlag(in);
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		JsonToBusinessClassMapper.setStatus(cancel, isSuccess, isPending, isError);
+		return cancel;
+	}
+
+	private <T extends AbstractPayment> T readPayment(JsonReader in, T payment, List<JsonTransaction> transactions)
+			throws IOException {
+		payment.setId(null);
+		payment.setOrderId(null);
+		payment.setPaymentState(null);
+		payment.setAmountTotal(null);
+		payment.setAmountCanceled(null);
+		payment.setAmountCharged(null);
+		payment.setAmountRemaining(null);
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				payment.setId(stringAdapter.read(in));
+				break;
+			case "orderId":
+				payment.setOrderId(stringAdapter.read(in));
+				break;
+			case "state":
+				readPaymentState(in, payment);
+				break;
+			case "amount":
+				readPaymentAmount(in, payment);
+				break;
+			case "resources":
+				readPaymentResources(in, payment);
+				break;
+			case "transactions":
+				List<JsonTransaction> list = transactionListAdapter.read(in);
+				if (list != null) {
+					transactions.addAll(list);
+				}
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return payment;
+	}
+
+	private Paypage readPaypage(JsonReader in, Paypage paypage) throws IOException {
+		paypage.setId(null);
+		paypage.setAmount(null);
+		paypage.setCurrency(null);
+		paypage.setReturnUrl(null);
+		paypage.setLogoImage(null);
+		paypage.setFullPageImage(null);
+		paypage.setShopName(null);
+		paypage.setShopDescription(null);
+		paypage.setTagline(null);
+		paypage.setCss(null);
+		paypage.setTermsAndConditionUrl(null);
+		paypage.setPrivacyPolicyUrl(null);
+		paypage.setImpressumUrl(null);
+		paypage.setImprintUrl(null);
+		paypage.setHelpUrl(null);
+		paypage.setContactUrl(null);
+		paypage.setInvoiceId(null);
+		paypage.setOrderId(null);
+		paypage.setCard3ds(null);
+		// defaults of the JsonPaypage
+		paypage.setBillingAddressRequired("false");
+		paypage.setShippingAddressRequired("false");
+		paypage.setAdditionalAttributes(null);
+		paypage.setExcludeTypes(null);
+		paypage.setRedirectUrl(null);
+		paypage.setAction(null);
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				paypage.setId(stringAdapter.read(in));
+				break;
+			case "amount":
+				paypage.setAmount(bigDecimalAdapter.read(in));
+				break;
+			case "currency":
+				paypage.setCurrency(currencyAdapter.read(in));
+				break;
+			case "returnUrl":
+				paypage.setReturnUrl(urlAdapter.read(in));
+				break;
+			case "logoImage":
+				paypage.setLogoImage(stringAdapter.read(in));
+				break;
+			case "fullPageImage":
+				paypage.setFullPageImage(stringAdapter.read(in));
+				break;
+			case "shopName":
+				paypage.setShopName(stringAdapter.read(in));
+				break;
+			case "shopDescription":
+				paypage.setShopDescription(stringAdapter.read(in));
+				break;
+			case "tagline":
+				paypage.setTagline(stringAdapter.read(in));
+				break;
+			case "css":
+				paypage.setCss(mapAdapter.read(in));
+				break;
+			case "termsAndConditionUrl":
+				paypage.setTermsAndConditionUrl(urlAdapter.read(in));
+				break;
+			case "privacyPolicyUrl":
+				paypage.setPrivacyPolicyUrl(urlAdapter.read(in));
+				break;
+			case "impressumUrl":
+				paypage.setImpressumUrl(urlAdapter.read(in));
+				break;
+			case "imprintUrl":
+				paypage.setImprintUrl(urlAdapter.read(in));
+				break;
+			case "helpUrl":
+				paypage.setHelpUrl(urlAdapter.read(in));
+				break;
+			case "contactUrl":
+				paypage.setContactUrl(urlAdapter.read(in));
+				break;
+			case "invoiceId":
+				paypage.setInvoiceId(stringAdapter.read(in));
+				break;
+			case "orderId":
+				paypage.setOrderId(stringAdapter.read(in));
+				break;
+			case "card3ds":
+				paypage.setCard3ds(stringAdapter.read(in));
+				break;
+			case "billingAddressRequired":
+				paypage.setBillingAddressRequired(stringAdapter.read(in));
+				break;
+			case "shippingAddressRequired":
+				paypage.setShippingAddressRequired(stringAdapter.read(in));
+				break;
+			case "additionalAttributes":
+				paypage.setAdditionalAttributes(mapAdapter.read(in));
+				break;
+			case "excludeTypes":
+				paypage.setExcludeTypes(stringArrayAdapter.read(in));
+				break;
+			case "redirectUrl":
+				paypage.setRedirectUrl(stringAdapter.read(in));
+				break;
+			case "action":
+				paypage.setAction(stringAdapter.read(in));
+				break;
+			case "resources":
+				readPaypageResources(in, paypage);
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return paypage;
+	}
+
+	private Linkpay readLinkpay(JsonReader in, Linkpay linkpay) throws IOException {
+		linkpay.setId(null);
+		linkpay.setAmount(null);
+		linkpay.setCurrency(null);
+		linkpay.setReturnUrl(null);
+		linkpay.setLogoImage(null);
+		linkpay.setFullPageImage(null);
+		linkpay.setShopName(null);
+		linkpay.setShopDescription(null);
+		linkpay.setTagline(null);
+		linkpay.setCss(null);
+		linkpay.setAlias(null);
+		linkpay.setTermsAndConditionUrl(null);
+		linkpay.setPrivacyPolicyUrl(null);
+		linkpay.setImprintUrl(null);
+		linkpay.setHelpUrl(null);
+		linkpay.setContactUrl(null);
+		linkpay.setVersion(null);
+		linkpay.setRedirectUrl(null);
+		linkpay.setAction(null);
+		linkpay.setCard3ds(null);
+		linkpay.setExpires(null);
+		linkpay.setOrderId(null);
+		linkpay.setInvoiceId(null);
+		linkpay.setBillingAddressRequired(null);
+		linkpay.setShippingAddressRequired(null);
+		linkpay.setAdditionalAttributes(null);
+		linkpay.setIntention(null);
+		linkpay.setOrderIdRequired(null);
+		linkpay.setInvoiceIdRequired(null);
+		linkpay.setOneTimeUse(null);
+		linkpay.setSuccessfullyProcessed(null);
+		linkpay.setExcludeTypes(null);
+		linkpay.setPaymentReference(null);
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				linkpay.setId(stringAdapter.read(in));
+				break;
+			case "amount":
+				linkpay.setAmount(bigDecimalAdapter.read(in));
+				break;
+			case "currency":
+				linkpay.setCurrency(currencyAdapter.read(in));
+				break;
+			case "returnUrl":
+				linkpay.setReturnUrl(urlAdapter.read(in));
+				break;
+			case "logoImage":
+				linkpay.setLogoImage(stringAdapter.read(in));
+				break;
+			case "fullPageImage":
+				linkpay.setFullPageImage(stringAdapter.read(in));
+				break;
+			case "shopName":
+				linkpay.setShopName(stringAdapter.read(in));
+				break;
+			case "shopDescription":
+				linkpay.setShopDescription(stringAdapter.read(in));
+				break;
+			case "tagline":
+				linkpay.setTagline(stringAdapter.read(in));
+				break;
+			case "css":
+				linkpay.setCss(mapAdapter.read(in));
+				break;
+			case "alias":
+				linkpay.setAlias(stringAdapter.read(in));
+				break;
+			case "termsAndConditionUrl":
+				linkpay.setTermsAndConditionUrl(urlAdapter.read(in));
+				break;
+			case "privacyPolicyUrl":
+				linkpay.setPrivacyPolicyUrl(urlAdapter.read(in));
+				break;
+			case "imprintUrl":
+				linkpay.setImprintUrl(urlAdapter.read(in));
+				break;
+			case "helpUrl":
+				linkpay.setHelpUrl(urlAdapter.read(in));
+				break;
+			case "contactUrl":
+				linkpay.setContactUrl(urlAdapter.read(in));
+				break;
+			case "version":
+				linkpay.setVersion(stringAdapter.read(in));
+				break;
+			case "redirectUrl":
+				linkpay.setRedirectUrl(stringAdapter.read(in));
+				break;
+			case "action":
+				linkpay.setAction(stringAdapter.read(in));
+				break;
+			case "card3ds":
+				linkpay.setCard3ds(stringAdapter.read(in));
+				break;
+			case "expires":
+				linkpay.setExpires(stringAdapter.read(in));
+				break;
+			case "orderId":
+				linkpay.setOrderId(stringAdapter.read(in));
+				break;
+			case "invoiceId":
+				linkpay.setInvoiceId(stringAdapter.read(in));
+				break;
+			case "billingAddressRequired":
+				linkpay.setBillingAddressRequired(stringAdapter.read(in));
+				break;
+			case "shippingAddressRequired":
+				linkpay.setShippingAddressRequired(stringAdapter.read(in));
+				break;
+			case "additionalAttributes":
+				linkpay.setAdditionalAttributes(mapAdapter.read(in));
+				break;
+			case "intention":
+				linkpay.setIntention(stringAdapter.read(in));
+				break;
+			case "orderIdRequired":
+				linkpay.setOrderIdRequired(stringAdapter.read(in));
+				break;
+			case "invoiceIdRequired":
+				linkpay.setInvoiceIdRequired(stringAdapter.read(in));
+				break;
+			case "oneTimeUse":
+				linkpay.setOneTimeUse(stringAdapter.read(in));
+				break;
+			case "successfullyProcessed":
+				linkpay.setSuccessfullyProcessed(stringAdapter.read(in));
+				break;
+			case "excludeTypes":
+				linkpay.setExcludeTypes(stringArrayAdapter.read(in));
+				break;
+			case "paymentReference":
+				linkpay.setPaymentReference(stringAdapter.read(in));
+				break;
+			case "resources":
+				readLinkpayResources(in, linkpay);
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return linkpay;
+	}
+
+	private PaymentType readPaymentType(JsonReader in, AbstractPaymentType paymentType) throws IOException {
+		Card card = paymentType instanceof Card ? (Card) paymentType : null;
+		boolean geoLocation = !ID_TYPES_WITHOUT_GEO_LOCATION.contains(paymentType.getClass());
+		paymentType.setId(null);
+		paymentType.setRecurring(null);
+		if (geoLocation) {
+			paymentType.setGeoLocation(null);
+		}
+		if (card != null) {
+			card.setNumber(null);
+			card.setCvc(null);
+			card.setExpiryDate(null);
+			card.set3ds(null);
+			card.setBrand(null);
+			card.setMethod(null);
+			card.setCardHolder(null);
+			card.setCardDetails(null);
+		}
+
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if ("id".equals(name)) {
+				paymentType.setId(stringAdapter.read(in));
+			} else if ("recurring".equals(name)) {
+				paymentType.setRecurring(booleanAdapter.read(in));
+			} else if ("geoLocation".equals(name) && geoLocation) {
+				paymentType.setGeoLocation(readGeoLocation(in));
+			} else if (card == null || !readCardField(in, name, card)) {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return paymentType;
+	}
+
+	private boolean readCardField(JsonReader in, String name, Card card) throws IOException {
+		switch (name) {
+		case "number":
+			card.setNumber(stringAdapter.read(in));
+			return true;
+		case "cvc":
+			card.setCvc(stringAdapter.read(in));
+			return true;
+		case "expiryDate":
+			card.setExpiryDate(stringAdapter.read(in));
+			return true;
+		case "3ds":
+			card.set3ds(booleanAdapter.read(in));
+			return true;
+		case "brand":
+			card.setBrand(stringAdapter.read(in));
+			return true;
+		case "method":
+			card.setMethod(stringAdapter.read(in));
+			return true;
+		case "cardHolder":
+			card.setCardHolder(stringAdapter.read(in));
+			return true;
+		case "cardDetails":
+			card.setCardDetails(readCardDetails(in));
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private CardDetails readCardDetails(JsonReader in) throws IOException {
+		if (isNull(in)) {
+			return null;
+		}
+		CardDetails cardDetails = new CardDetails();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "cardType":
+				cardDetails.setCardType(stringAdapter.read(in));
+				break;
+			case "account":
+				cardDetails.setAccount(stringAdapter.read(in));
+				break;
+			case "countryIsoA2":
+				cardDetails.setCountryIsoA2(stringAdapter.read(in));
+				break;
+			case "countryName":
+				cardDetails.setCountryName(stringAdapter.read(in));
+				break;
+			case "issuerName":
+				cardDetails.setIssuerName(stringAdapter.read(in));
+				break;
+			case "issuerUrl":
+				cardDetails.setIssuerUrl(stringAdapter.read(in));
+				break;
+			case "issuerPhoneNumber":
+				cardDetails.setIssuerPhoneNumber(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return cardDetails;
+	}
+
+	private GeoLocation readGeoLocation(JsonReader in) throws IOException {
+		if (isNull(in)) {
+			return null;
+		}
+		String clientIp = null;
+		String countryIsoA2 = null;
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if ("clientIp".equals(name)) {
+				clientIp = stringAdapter.read(in);
+			} else if ("countryIsoA2".equals(name)) {
+				countryIsoA2 = stringAdapter.read(in);
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return new GeoLocation(clientIp, countryIsoA2);
+	}
+
+	private void readProcessing(JsonReader in, Processing processing) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "uniqueId":
+				processing.setUniqueId(stringAdapter.read(in));
+				break;
+			case "shortId":
+				processing.setShortId(stringAdapter.read(in));
+				break;
+			case "descriptor":
+				processing.setDescriptor(stringAdapter.read(in));
+				break;
+			case "bic":
+				processing.setBic(stringAdapter.read(in));
+				break;
+			case "iban":
+				processing.setIban(stringAdapter.read(in));
+				break;
+			case "holder":
+				processing.setHolder(stringAdapter.read(in));
+				break;
+			case "PDFLink":
+				processing.setPdfLink(stringAdapter.read(in));
+				break;
+			case "externalOrderId":
+				processing.setExternalOrderId(stringAdapter.read(in));
+				break;
+			case "zgReferenceId":
+				processing.setZgReferenceId(stringAdapter.read(in));
+				break;
+			case "creatorId":
+				processing.setCreatorId(stringAdapter.read(in));
+				break;
+			case "identification":
+				processing.setIdentification(stringAdapter.read(in));
+				break;
+			case "traceId":
+				processing.setTraceId(stringAdapter.read(in));
+				break;
+			case "participantId":
+				processing.setParticipantId(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readTransactionResources(JsonReader in, AbstractTransaction<?> transaction) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		transaction.setCustomerId(null);
+		transaction.setMetadataId(null);
+		transaction.setPaymentId(null);
+		transaction.setRiskId(null);
+		transaction.setTypeId(null);
+		transaction.setTraceId(null);
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "customerId":
+				transaction.setCustomerId(stringAdapter.read(in));
+				break;
+			case "metadataId":
+				transaction.setMetadataId(stringAdapter.read(in));
+				break;
+			case "paymentId":
+				transaction.setPaymentId(stringAdapter.read(in));
+				break;
+			case "riskId":
+				transaction.setRiskId(stringAdapter.read(in));
+				break;
+			case "typeId":
+				transaction.setTypeId(stringAdapter.read(in));
+				break;
+			case "traceId":
+				transaction.setTraceId(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readCancelResources(JsonReader in, AbstractTransaction<?> cancel) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		cancel.setPaymentId(null);
+		in.beginObject();
+		while (in.hasNext()) {
+			if ("paymentId".equals(in.nextName())) {
+				cancel.setPaymentId(stringAdapter.read(in));
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readPaymentResources(JsonReader in, AbstractPayment payment) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		payment.setPaymentTypeId(null);
+		payment.setCustomerId(null);
+		payment.setMetadataId(null);
+		payment.setBasketId(null);
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "typeId":
+				payment.setPaymentTypeId(stringAdapter.read(in));
+				break;
+			case "customerId":
+				payment.setCustomerId(stringAdapter.read(in));
+				break;
+			case "metadataId":
+				payment.setMetadataId(stringAdapter.read(in));
+				break;
+			case "basketId":
+				payment.setBasketId(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readPaypageResources(JsonReader in, Paypage paypage) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		paypage.setBasketId(null);
+		paypage.setCustomerId(null);
+		paypage.setMetadataId(null);
+		paypage.setPaymentId(null);
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "basketId":
+				paypage.setBasketId(stringAdapter.read(in));
+				break;
+			case "customerId":
+				paypage.setCustomerId(stringAdapter.read(in));
+				break;
+			case "metadataId":
+				paypage.setMetadataId(stringAdapter.read(in));
+				break;
+			case "paymentId":
+				paypage.setPaymentId(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readLinkpayResources(JsonReader in, Linkpay linkpay) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		linkpay.setBasketId(null);
+		linkpay.setCustomerId(null);
+		linkpay.setMetadataId(null);
+		linkpay.setPaymentId(null);
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "basketId":
+				linkpay.setBasketId(stringAdapter.read(in));
+				break;
+			case "customerId":
+				linkpay.setCustomerId(stringAdapter.read(in));
+				break;
+			case "metadataId":
+				linkpay.setMetadataId(stringAdapter.read(in));
+				break;
+			case "paymentId":
+				linkpay.setPaymentId(stringAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private void readPaymentState(JsonReader in, AbstractPayment payment) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		// the id of the JsonState is a primitive, a state without id is pending
+		int stateId = 0;
+		in.beginObject();
+		while (in.hasNext()) {
+			if ("id".equals(in.nextName())) {
+				Integer id = integerAdapter.read(in);
+				stateId = id == null ? 0 : id;
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		payment.setPaymentState(JsonToBusinessClassMapper.getPaymentState(stateId));
+	}
+
+	private void readPaymentAmount(JsonReader in, AbstractPayment payment) throws IOException {
+		if (isNull(in)) {
+			return;
+		}
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "total":
+				payment.setAmountTotal(bigDecimalAdapter.read(in));
+				break;
+			case "charged":
+				payment.setAmountCharged(bigDecimalAdapter.read(in));
+				break;
+			case "canceled":
+				payment.setAmountCanceled(bigDecimalAdapter.read(in));
+				break;
+			case "remaining":
+				payment.setAmountRemaining(bigDecimalAdapter.read(in));
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private boolean readFlag(JsonReader in) throws IOException {
+		return Boolean.TRUE.equals(booleanAdapter.read(in));
+	}
+
+	private static boolean isNull(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Fills a given business object instead of creating one, a null json value
+	 * is read as null.
+	 */
+	private abstract static class BusinessObjectAdapter<T> extends TypeAdapter<T> {
+
+		@Override
+		public void write(JsonWriter out, T value) throws IOException {
+			throw new UnsupportedOperationException("Business objects are written by the JsonToBusinessClassMapper");
+		}
+
+		@Override
+		public T read(JsonReader in) throws IOException {
+			if (isNull(in)) {
+				return null;
+			}
+			return readObject(in);
+		}
+
+		abstract T readObject(JsonReader in) throws IOException;
+	}
+}
@@ -0,0 +1,574 @@
+package com.heidelpay.payment.communication.processor;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a reflection free Gson {@code TypeAdapter} for every class annotated
+ * with {@code com.heidelpay.payment.communication.GenerateTypeAdapter}, and one
+ * {@code GeneratedTypeAdapterFactory} per package registering them. The
+ * adapters map the same json as the reflection based adapter of Gson, they
+ * access the fields by their getters and setters, named after the field or its
+ * json name, so the fields stay private.
+ * 
+ * The processor is configured in the maven build, it is not registered as a
+ * service to keep it out of the builds of applications using the SDK.
+ */
+@SupportedAnnotationTypes(TypeAdapterProcessor.GENERATE_TYPE_ADAPTER)
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+	static final String GENERATE_TYPE_ADAPTER = "com.heidelpay.payment.communication.GenerateTypeAdapter";
+	static final String FACTORY_NAME = "GeneratedTypeAdapterFactory";
+
+	private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+	private static final String JSON_ADAPTER = "com.google.gson.annotations.JsonAdapter";
+	private static final String JSON_FIELD_IGNORE = "com.heidelpay.payment.communication.JsonFieldIgnore";
+	private static final String SUPPORT = "com.heidelpay.payment.communication.GeneratedTypeAdapters";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_TYPE_ADAPTER);
+		if (annotation == null) {
+			return false;
+		}
+		Map<String, List<TypeElement>> typesByPackage = new LinkedHashMap<String, List<TypeElement>>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+			TypeElement type = (TypeElement) element;
+			List<Property> properties = getProperties(type);
+			if (properties == null) {
+				continue;
+			}
+			try {
+				writeAdapter(type, properties);
+			} catch (IOException e) {
+				error(type, "Cannot write the TypeAdapter: " + e.getMessage());
+				continue;
+			}
+			String packageName = getPackageName(type);
+			if (!typesByPackage.containsKey(packageName)) {
+				typesByPackage.put(packageName, new ArrayList<TypeElement>());
+			}
+			typesByPackage.get(packageName).add(type);
+		}
+		for (Map.Entry<String, List<TypeElement>> entry : typesByPackage.entrySet()) {
+			try {
+				writeFactory(entry.getKey(), entry.getValue());
+			} catch (IOException e) {
+				error(entry.getValue().get(0), "Cannot write the " + FACTORY_NAME + ": " + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	private List<Property> getProperties(TypeElement type) {
+		if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+				|| type.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+			error(type, "TypeAdapters are generated for top level, non abstract classes only");
+			return null;
+		}
+		if (!hasNoArgsConstructor(type)) {
+			error(type, "TypeAdapters are generated for classes with a non private constructor without arguments only");
+			return null;
+		}
+		List<Property> properties = new ArrayList<Property>();
+		Set<String> names = new HashSet<String>();
+		boolean valid = true;
+		// the fields of the class first, then those of the superclasses, as Gson does
+		for (TypeElement current = type; current != null && !Object.class.getName().equals(current.getQualifiedName().toString());
+				current = getSuperclass(current)) {
+			for (Element member : current.getEnclosedElements()) {
+				if (member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC)
+						|| member.getModifiers().contains(Modifier.TRANSIENT)) {
+					continue;
+				}
+				VariableElement field = (VariableElement) member;
+				Property property = new Property(field);
+				property.getter = getAccessor(type, field, property.getGetterNames(), 0);
+				property.setter = getAccessor(type, field, property.getSetterNames(), 1);
+				if ((property.serialized && property.getter == null) || property.setter == null) {
+					error(field, "Fields mapped by a generated TypeAdapter need a getter and a setter of the field type accessible from its package");
+					valid = false;
+					continue;
+				}
+				for (String name : property.getNames()) {
+					if (!names.add(name)) {
+						error(field, type.getSimpleName() + " declares multiple json fields named " + name);
+						valid = false;
+					}
+				}
+				if (property.typeToken == null) {
+					error(field, "Unsupported type of a field mapped by a generated TypeAdapter: " + field.asType());
+					valid = false;
+				}
+				properties.add(property);
+			}
+		}
+		return valid ? properties : null;
+	}
+
+	private boolean hasNoArgsConstructor(TypeElement type) {
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.CONSTRUCTOR && ((ExecutableElement) member).getParameters().isEmpty()
+					&& !member.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the name of the first method of the type or its superclasses
+	 *         with one of the given names, the given number of parameters of
+	 *         the field type and that is accessible from the package of the
+	 *         type, or null
+	 */
+	private String getAccessor(TypeElement type, VariableElement field, List<String> names, int parameters) {
+		String packageName = getPackageName(type);
+		for (String name : names) {
+			for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+				if (member.getKind() != ElementKind.METHOD || !member.getSimpleName().contentEquals(name)
+						|| member.getModifiers().contains(Modifier.STATIC) || member.getModifiers().contains(Modifier.PRIVATE)
+						|| (!packageName.equals(getPackageName(member)) && !member.getModifiers().contains(Modifier.PUBLIC))) {
+					continue;
+				}
+				ExecutableElement method = (ExecutableElement) member;
+				if (method.getParameters().size() != parameters) {
+					continue;
+				}
+				TypeMirror accessorType = parameters == 0 ? method.getReturnType() : method.getParameters().get(0).asType();
+				if (processingEnv.getTypeUtils().isSameType(accessorType, field.asType())) {
+					return name;
+				}
+			}
+		}
+		return null;
+	}
+
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+
+	private void writeAdapter(TypeElement type, List<Property> properties) throws IOException {
+		String packageName = getPackageName(type);
+		String typeName = type.getQualifiedName().toString();
+		String adapterName = type.getSimpleName() + "TypeAdapter";
+
+		// one adapter per field type, fields with a JsonAdapter annotation get their own
+		Map<String, String> adapterFields = new LinkedHashMap<String, String>();
+		Map<String, String> adapterTypes = new LinkedHashMap<String, String>();
+		for (Property property : properties) {
+			String init = property.getAdapterInitializer();
+			String fieldName = null;
+			for (Map.Entry<String, String> adapterField : adapterFields.entrySet()) {
+				if (adapterField.getValue().equals(init)) {
+					fieldName = adapterField.getKey();
+				}
+			}
+			if (fieldName == null) {
+				fieldName = uniqueName(property.getAdapterFieldName(), adapterFields.keySet());
+				adapterFields.put(fieldName, init);
+				adapterTypes.put(fieldName, property.boxedType);
+			}
+			property.adapterField = fieldName;
+		}
+
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import java.io.IOException;\n\n");
+		source.append("import com.google.gson.Gson;\n");
+		source.append("import com.google.gson.JsonSyntaxException;\n");
+		source.append("import com.google.gson.TypeAdapter;\n");
+		source.append("import com.google.gson.reflect.TypeToken;\n");
+		source.append("import com.google.gson.stream.JsonReader;\n");
+		source.append("import com.google.gson.stream.JsonToken;\n");
+		source.append("import com.google.gson.stream.JsonWriter;\n\n");
+		source.append("/**\n * Generated by ").append(getClass().getName()).append(", do not edit.\n */\n");
+		source.append("final class ").append(adapterName).append(" extends TypeAdapter<").append(typeName).append("> {\n\n");
+		source.append("\tprivate final Gson gson;\n");
+		for (Map.Entry<String, String> adapterField : adapterTypes.entrySet()) {
+			source.append("\tprivate final TypeAdapter<").append(adapterField.getValue()).append("> ")
+					.append(adapterField.getKey()).append(";\n");
+		}
+		source.append("\n\t").append(adapterName).append("(Gson gson) {\n");
+		source.append("\t\tthis.gson = gson;\n");
+		for (Map.Entry<String, String> adapterField : adapterFields.entrySet()) {
+			source.append("\t\tthis.").append(adapterField.getKey()).append(" = ").append(adapterField.getValue()).append(";\n");
+		}
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic void write(JsonWriter out, ").append(typeName).append(" value) throws IOException {\n");
+		source.append("\t\tif (value == null) {\n\t\t\tout.nullValue();\n\t\t\treturn;\n\t\t}\n");
+		source.append("\t\tout.beginObject();\n");
+		for (Property property : properties) {
+			if (!property.serialized) {
+				continue;
+			}
+			source.append("\t\tout.name(").append(quote(property.name)).append(");\n");
+			if (property.runtimeTypeClass != null) {
+				source.append("\t\t").append(SUPPORT).append(".write(gson, ").append(property.adapterField).append(", ")
+						.append(property.runtimeTypeClass).append(", out, value.").append(property.getter).append("());\n");
+			} else {
+				source.append("\t\t").append(property.adapterField).append(".write(out, value.").append(property.getter).append("());\n");
+			}
+		}
+		source.append("\t\tout.endObject();\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic ").append(typeName).append(" read(JsonReader in) throws IOException {\n");
+		source.append("\t\tif (in.peek() == JsonToken.NULL) {\n\t\t\tin.nextNull();\n\t\t\treturn null;\n\t\t}\n");
+		source.append("\t\t").append(typeName).append(" instance = new ").append(typeName).append("();\n");
+		source.append("\t\ttry {\n");
+		source.append("\t\t\tin.beginObject();\n");
+		source.append("\t\t\twhile (in.hasNext()) {\n");
+		source.append("\t\t\t\tswitch (in.nextName()) {\n");
+		for (Property property : properties) {
+			List<String> names = property.getNames();
+			for (int i = 0; i < names.size(); i++) {
+				source.append("\t\t\t\tcase ").append(quote(names.get(i))).append(i == names.size() - 1 && property.primitive ? ": {\n" : ":\n");
+			}
+			if (property.primitive) {
+				// a json null keeps the default value of a primitive field
+				source.append("\t\t\t\t\t").append(property.boxedType).append(" value = ").append(property.adapterField)
+						.append(".read(in);\n");
+				source.append("\t\t\t\t\tif (value != null) {\n");
+				source.append("\t\t\t\t\t\tinstance.").append(property.setter).append("(value);\n");
+				source.append("\t\t\t\t\t}\n");
+			} else {
+				source.append("\t\t\t\t\tinstance.").append(property.setter).append("(").append(property.adapterField)
+						.append(".read(in));\n");
+			}
+			source.append("\t\t\t\t\tbreak;\n");
+			if (property.primitive) {
+				source.append("\t\t\t\t}\n");
+			}
+		}
+		source.append("\t\t\t\tdefault:\n\t\t\t\t\tin.skipValue();\n");
+		source.append("\t\t\t\t}\n");
+		source.append("\t\t\t}\n");
+		source.append("\t\t} catch (IllegalStateException e) {\n\t\t\tthrow new JsonSyntaxException(e);\n\t\t}\n");
+		source.append("\t\tin.endObject();\n");
+		source.append("\t\treturn instance;\n");
+		source.append("\t}\n");
+		source.append("}\n");
+
+		write(packageName + "." + adapterName, source, type);
+	}
+
+	private void writeFactory(String packageName, List<TypeElement> types) throws IOException {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import com.google.gson.Gson;\n");
+		source.append("import com.google.gson.TypeAdapter;\n");
+		source.append("import com.google.gson.TypeAdapterFactory;\n");
+		source.append("import com.google.gson.reflect.TypeToken;\n\n");
+		source.append("/**\n * Provides the TypeAdapters generated for the classes of this package.\n * \n");
+		source.append(" * Generated by ").append(getClass().getName()).append(", do not edit.\n */\n");
+		source.append("public final class ").append(FACTORY_NAME).append(" implements TypeAdapterFactory {\n\n");
+		source.append("\t@SuppressWarnings(\"unchecked\")\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {\n");
+		source.append("\t\tClass<? super T> rawType = type.getRawType();\n");
+		for (TypeElement type : types) {
+			source.append("\t\tif (rawType == ").append(type.getQualifiedName()).append(".class) {\n");
+			source.append("\t\t\treturn (TypeAdapter<T>) new ").append(type.getSimpleName()).append("TypeAdapter(gson);\n");
+			source.append("\t\t}\n");
+		}
+		source.append("\t\treturn null;\n");
+		source.append("\t}\n");
+		source.append("}\n");
+
+		write(packageName + "." + FACTORY_NAME, source, types.toArray(new Element[types.size()]));
+	}
+
+	private void write(String name, CharSequence source, Element... originatingElements) throws IOException {
+		Writer writer = processingEnv.getFiler().createSourceFile(name, originatingElements).openWriter();
+		try {
+			writer.write(source.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	private String getPackageName(Element element) {
+		return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+	private static String uniqueName(String name, Set<String> names) {
+		String result = name;
+		for (int i = 2; names.contains(result); i++) {
+			result = name + i;
+		}
+		return result;
+	}
+
+	private static String quote(String value) {
+		StringBuilder result = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				result.append('\\');
+			}
+			result.append(c);
+		}
+		return result.append('"').toString();
+	}
+
+	private AnnotationMirror getAnnotation(Element element, String annotationType) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (annotationType.equals(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString())) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	private Object getAnnotationValue(AnnotationMirror annotation, String name) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils()
+				.getElementValuesWithDefaults(annotation).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	private boolean isAssignable(TypeMirror type, String to) {
+		TypeElement toElement = processingEnv.getElementUtils().getTypeElement(to);
+		return toElement != null && processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type),
+				processingEnv.getTypeUtils().erasure(toElement.asType()));
+	}
+
+	/**
+	 * A mapped field with its json names and the code creating its adapter.
+	 */
+	private class Property {
+		final String fieldName;
+		final String name;
+		final List<String> alternates = new ArrayList<String>();
+		final boolean serialized;
+		final boolean primitive;
+		final String boxedType;
+		final String typeToken;
+		final String runtimeTypeClass;
+		final AnnotationMirror jsonAdapter;
+		String getter;
+		String setter;
+		String adapterField;
+
+		Property(VariableElement field) {
+			TypeMirror type = field.asType();
+			this.fieldName = field.getSimpleName().toString();
+			AnnotationMirror serializedName = getAnnotation(field, SERIALIZED_NAME);
+			if (serializedName == null) {
+				this.name = fieldName;
+			} else {
+				this.name = (String) getAnnotationValue(serializedName, "value");
+				Object alternate = getAnnotationValue(serializedName, "alternate");
+				if (alternate instanceof List) {
+					for (Object value : (List<?>) alternate) {
+						alternates.add((String) ((AnnotationValue) value).getValue());
+					}
+				}
+			}
+			this.serialized = getAnnotation(field, JSON_FIELD_IGNORE) == null;
+			this.primitive = type.getKind().isPrimitive();
+			this.boxedType = primitive
+					? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString()
+					: type.toString();
+			this.typeToken = getTypeToken(type);
+			this.jsonAdapter = getAnnotation(field, JSON_ADAPTER);
+			this.runtimeTypeClass = jsonAdapter == null && isRuntimeTypeDependent(type)
+					? processingEnv.getTypeUtils().erasure(type) + ".class"
+					: null;
+		}
+
+		List<String> getNames() {
+			List<String> names = new ArrayList<String>(Collections.singletonList(name));
+			names.addAll(alternates);
+			return names;
+		}
+
+		List<String> getGetterNames() {
+			List<String> names = new ArrayList<String>();
+			names.add("get" + capitalize(fieldName));
+			if (isAccessorSuffix(name)) {
+				// threeDs mapped to 3ds is read by get3ds()
+				names.add("get" + capitalize(name));
+			}
+			if (boxedType.equals(Boolean.class.getName())) {
+				names.add("is" + capitalize(fieldName));
+				if (isPrefixed(fieldName)) {
+					// isSuccess is read by isSuccess() or getSuccess()
+					names.add(fieldName);
+					names.add("get" + fieldName.substring(2));
+				}
+			}
+			return names;
+		}
+
+		List<String> getSetterNames() {
+			List<String> names = new ArrayList<String>();
+			names.add("set" + capitalize(fieldName));
+			if (isAccessorSuffix(name)) {
+				names.add("set" + capitalize(name));
+			}
+			if (boxedType.equals(Boolean.class.getName()) && isPrefixed(fieldName)) {
+				names.add("set" + fieldName.substring(2));
+			}
+			return names;
+		}
+
+		private boolean isAccessorSuffix(String name) {
+			if (name.equals(fieldName)) {
+				return false;
+			}
+			for (char c : name.toCharArray()) {
+				if (!Character.isJavaIdentifierPart(c)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isPrefixed(String name) {
+			return name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2));
+		}
+
+		private String capitalize(String name) {
+			return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		}
+
+		String getAdapterFieldName() {
+			if (jsonAdapter != null) {
+				return fieldName + "Adapter";
+			}
+			String typeName = primitive ? typeToken.replace(".class", "") : boxedType;
+			String simpleName = typeName.replace("[]", "Array").replaceAll("\\b[a-z]\\w*\\.", "").replaceAll("\\W", "");
+			return Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1) + "Adapter";
+		}
+
+		/**
+		 * @return the expression creating the adapter in the constructor of the generated adapter
+		 */
+		String getAdapterInitializer() {
+			if (jsonAdapter == null) {
+				return "gson.getAdapter(" + typeToken + ")";
+			}
+			TypeMirror adapterType = (TypeMirror) getAnnotationValue(jsonAdapter, "value");
+			boolean nullSafe = !Boolean.FALSE.equals(getAnnotationValue(jsonAdapter, "nullSafe"));
+			String instance = "new " + processingEnv.getTypeUtils().erasure(adapterType) + "()";
+			String cast = "(TypeAdapter<" + boxedType + ">) (TypeAdapter<?>) ";
+			String adapter;
+			if (isAssignable(adapterType, "com.google.gson.TypeAdapter")) {
+				adapter = cast + instance;
+			} else if (isAssignable(adapterType, "com.google.gson.TypeAdapterFactory")) {
+				adapter = instance + ".create(gson, " + getTypeTokenInstance() + ")";
+			} else {
+				return SUPPORT + ".treeAdapter(gson, " + instance + ", " + getTypeTokenInstance() + ", " + nullSafe + ")";
+			}
+			return nullSafe ? "(" + adapter + ").nullSafe()" : adapter;
+		}
+
+		private String getTypeTokenInstance() {
+			return typeToken.startsWith("new ") ? typeToken : "TypeToken.get(" + typeToken + ")";
+		}
+
+		private String getTypeToken(TypeMirror type) {
+			if (type.getKind().isPrimitive()) {
+				return type + ".class";
+			}
+			if (type.getKind() == TypeKind.ARRAY) {
+				String component = getTypeToken(((ArrayType) type).getComponentType());
+				if (component == null) {
+					return null;
+				}
+				return component.startsWith("new ") ? "new TypeToken<" + type + ">() {}" : type + ".class";
+			}
+			if (type.getKind() != TypeKind.DECLARED) {
+				return null;
+			}
+			for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+				if (argument.getKind() != TypeKind.DECLARED && argument.getKind() != TypeKind.ARRAY) {
+					return null;
+				}
+			}
+			if (((DeclaredType) type).getTypeArguments().isEmpty()) {
+				return processingEnv.getTypeUtils().erasure(type) + ".class";
+			}
+			return "new TypeToken<" + type + ">() {}";
+		}
+
+		/**
+		 * Gson writes values of fields declared with a non final class or an
+		 * interface by the adapter of their runtime type.
+		 */
+		private boolean isRuntimeTypeDependent(TypeMirror type) {
+			if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+				return false;
+			}
+			Element element = ((DeclaredType) type).asElement();
+			return element.getKind() == ElementKind.INTERFACE
+					|| (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.FINAL));
+		}
+	}
+}
@@ -26,13 +26,14 @@ import com.heidelpay.payment.AbstractTransaction;
 import com.heidelpay.payment.Heidelpay;
 import com.heidelpay.payment.communication.json.JsonObject;
 import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.service.UrlTemplate;
 
 public class MarketplaceCancel extends AbstractTransaction<MarketplacePayment> {
 	
-	private static final String FULL_AUTHORIZE_CANCEL_URL = "marketplace/payments/%1$s/authorize/cancels";
-	private static final String FULL_CHARGES_CANCEL_URL = "marketplace/payments/%1$s/charges/cancels";
-	private static final String PARTIAL_AUTHORIZE_CANCEL_URL = "marketplace/payments/%1$s/authorize/%2$s/cancels";
-	private static final String PARTIAL_CHARGE_CANCEL_URL = "marketplace/payments/%1$s/charges/%2$s/cancels";
+	private static final UrlTemplate FULL_AUTHORIZE_CANCEL_URL = new UrlTemplate("marketplace/payments/<paymentId>/authorize/cancels", "<paymentId>");
+	private static final UrlTemplate FULL_CHARGES_CANCEL_URL = new UrlTemplate("marketplace/payments/<paymentId>/charges/cancels", "<paymentId>");
+	private static final UrlTemplate PARTIAL_AUTHORIZE_CANCEL_URL = new UrlTemplate("marketplace/payments/<paymentId>/authorize/<authorizeId>/cancels", "<paymentId>", "<authorizeId>");
+	private static final UrlTemplate PARTIAL_CHARGE_CANCEL_URL = new UrlTemplate("marketplace/payments/<paymentId>/charges/<chargeId>/cancels", "<paymentId>", "<chargeId>");
 	
 	private BigDecimal amountGross;
 	private BigDecimal amountNet;
@@ -48,19 +49,19 @@ public class MarketplaceCancel extends AbstractTransaction<MarketplacePayment> {
 	}
 	
 	public String getFullAuthorizeCancelUrl(String paymentId) {
-		return String.format(FULL_AUTHORIZE_CANCEL_URL, paymentId);
+		return FULL_AUTHORIZE_CANCEL_URL.expand(paymentId);
 	}
 	
 	public String getFullChargesCancelUrl(String paymentId) {
-		return String.format(FULL_CHARGES_CANCEL_URL, paymentId);
+		return FULL_CHARGES_CANCEL_URL.expand(paymentId);
 	}
 	
 	public String getPartialAuthorizeCancelUrl(String paymentId, String authorizeId) {
-		return String.format(PARTIAL_AUTHORIZE_CANCEL_URL, paymentId, authorizeId);
+		return PARTIAL_AUTHORIZE_CANCEL_URL.expand(paymentId, authorizeId);
 	}
 	
 	public String getPartialChargeCancelUrl(String paymentId, String chargeId) {
-		return String.format(PARTIAL_CHARGE_CANCEL_URL, paymentId, chargeId);
+		return PARTIAL_CHARGE_CANCEL_URL.expand(paymentId, chargeId);
 	}
 
 	@Override
@@ -28,12 +28,13 @@ import com.heidelpay.payment.Heidelpay;
 import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.json.JsonObject;
 import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.service.UrlTemplate;
 
 public class MarketplaceCharge extends AbstractTransaction<MarketplacePayment> {
 	
-	private static final String MARKETPLACE_AUTHORIZATION_CHARGES = "marketplace/payments/%1$s/authorize/%2$s/charges";
+	private static final UrlTemplate MARKETPLACE_AUTHORIZATION_CHARGES = new UrlTemplate("marketplace/payments/<paymentId>/authorize/<authorizeId>/charges", "<paymentId>", "<authorizeId>");
 
-	private static final String MARKETPLACE_FULL_AUTHORIZATIONS_CHARGES = "marketplace/payments/%1$s/authorize/charges";
+	private static final UrlTemplate MARKETPLACE_FULL_AUTHORIZATIONS_CHARGES = new UrlTemplate("marketplace/payments/<paymentId>/authorize/charges", "<paymentId>");
 
 	private static final String MARKETPLACE_DIRECT_CHARGES = "marketplace/payments/<paymentId>/charges";
 
@@ -56,11 +57,11 @@ public class MarketplaceCharge extends AbstractTransaction<MarketplacePayment> {
 	}
 	
 	public String getFullChargeAuthorizationsUrl(String paymentId) {
-		return String.format(MARKETPLACE_FULL_AUTHORIZATIONS_CHARGES, paymentId);
+		return MARKETPLACE_FULL_AUTHORIZATIONS_CHARGES.expand(paymentId);
 	}
 	
 	public String getChargeAuthorizationUrl(String paymentId, String authorizeId) {
-		return String.format(MARKETPLACE_AUTHORIZATION_CHARGES, paymentId, authorizeId);
+		return MARKETPLACE_AUTHORIZATION_CHARGES.expand(paymentId, authorizeId);
 	}
 	
 	@Override
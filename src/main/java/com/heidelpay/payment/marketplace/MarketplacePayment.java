@@ -48,13 +48,14 @@ public class MarketplacePayment extends AbstractPayment {
 	}
 
 	public List<MarketplaceCharge> getChargesList() {
+		resolveTransactions();
 		return chargesList;
 	}
 
 	public MarketplaceCharge getCharge(String chargeId) {
-		if (chargesList == null)
+		if (getChargesList() == null)
 			return null;
-		for (MarketplaceCharge charge : chargesList) {
+		for (MarketplaceCharge charge : getChargesList()) {
 			if (chargeId.equalsIgnoreCase(charge.getId())) {
 				return charge;
 			}
@@ -71,6 +72,7 @@ public class MarketplacePayment extends AbstractPayment {
 	}
 
 	public List<MarketplaceCancel> getCancelList() {
+		resolveTransactions();
 		return cancelList;
 	}
 
@@ -90,13 +92,14 @@ public class MarketplacePayment extends AbstractPayment {
 	}
 
 	public List<MarketplaceAuthorization> getAuthorizationsList() {
+		resolveTransactions();
 		return authorizationsList;
 	}
 
 	public MarketplaceAuthorization getAuthorization(String authorizeId) {
-		if (authorizationsList == null)
+		if (getAuthorizationsList() == null)
 			return null;
-		for (MarketplaceAuthorization charge : authorizationsList) {
+		for (MarketplaceAuthorization charge : getAuthorizationsList()) {
 			if (authorizeId.equalsIgnoreCase(charge.getId())) {
 				return charge;
 			}
@@ -0,0 +1,184 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.heidelpay.payment.service.IdempotencyRecord.State;
+
+/**
+ * {@code IdempotencyLedger} keeping the records in memory and in an append-only
+ * file, so keys in flight during a crash are known after a restart, as abandoned
+ * keys. Every change is appended as a line and flushed; the file is compacted to
+ * the records not expired when it is opened. A file must not be shared by
+ * several instances.
+ */
+public class FileIdempotencyLedger extends InMemoryIdempotencyLedger implements Closeable {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String REMOVED = "REMOVED";
+	private static final String SEPARATOR = "\t";
+
+	private final File file;
+	private Writer writer;
+
+	/**
+	 * @param file - the file of the ledger, created if it does not exist
+	 * @throws IOException in case the file cannot be read or written
+	 */
+	public FileIdempotencyLedger(File file) throws IOException {
+		this(file, DEFAULT_TTL);
+	}
+
+	/**
+	 * @param file - the file of the ledger, created if it does not exist
+	 * @param ttl - time-to-live of the records in milliseconds
+	 * @throws IOException in case the file cannot be read or written
+	 */
+	public FileIdempotencyLedger(File file, long ttl) throws IOException {
+		super(ttl);
+		this.file = file;
+		if (file.exists()) {
+			replay();
+		}
+		compact();
+	}
+
+	@Override
+	public synchronized IdempotencyRecord begin(String key) {
+		IdempotencyRecord record = super.begin(key);
+		if (record == null || record.getState() == State.ABANDONED) {
+			append(format(get(key)));
+		}
+		return record;
+	}
+
+	@Override
+	public synchronized void abandon(String key) {
+		IdempotencyRecord record = get(key);
+		super.abandon(key);
+		if (record != null && record.getState() == State.IN_FLIGHT) {
+			append(format(get(key)));
+		}
+	}
+
+	@Override
+	public synchronized void complete(String key, String paymentId, String transactionId) {
+		super.complete(key, paymentId, transactionId);
+		append(format(get(key)));
+	}
+
+	@Override
+	public synchronized void remove(String key) {
+		super.remove(key);
+		append(REMOVED + SEPARATOR + encode(key));
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+
+	private void replay() throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split(SEPARATOR, -1);
+				if (fields.length == 2 && REMOVED.equals(fields[0])) {
+					super.remove(decode(fields[1]));
+				} else if (fields.length == 5) {
+					// keys in flight were abandoned by the crash or the shutdown of their sender
+					State state = State.valueOf(fields[0]) == State.IN_FLIGHT ? State.ABANDONED : State.valueOf(fields[0]);
+					restore(new IdempotencyRecord(decode(fields[1]), state, decode(fields[2]), decode(fields[3]),
+							Long.parseLong(fields[4])));
+				}
+				// other lines were not written completely before a crash
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	// rewrites the file with the current records and opens it for appending
+	private void compact() throws IOException {
+		File compacted = new File(file.getPath() + ".tmp");
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(compacted), UTF_8));
+		try {
+			for (IdempotencyRecord record : getRecords()) {
+				out.write(format(record));
+				out.write('\n');
+			}
+		} finally {
+			out.close();
+		}
+		Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+	}
+
+	private void append(String line) {
+		try {
+			writer.write(line);
+			writer.write('\n');
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write the idempotency ledger " + file, e);
+		}
+	}
+
+	private static String format(IdempotencyRecord record) {
+		return record.getState() + SEPARATOR + encode(record.getKey()) + SEPARATOR + encode(record.getPaymentId())
+				+ SEPARATOR + encode(record.getTransactionId()) + SEPARATOR + record.getCreated();
+	}
+
+	private static String encode(String value) {
+		try {
+			return value == null ? "" : URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decode(String value) {
+		try {
+			return value.isEmpty() ? null : URLDecoder.decode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Records the idempotency keys of transactional POST requests, so a repeated
+ * call resolves to the transaction created by the first one instead of
+ * creating a second one. Implementations must be thread-safe.
+ * 
+ * @see InMemoryIdempotencyLedger
+ * @see FileIdempotencyLedger
+ */
+public interface IdempotencyLedger {
+
+	/**
+	 * Records the key as in flight, unless it is recorded already. An abandoned
+	 * key is recorded as in flight again, so only one caller takes it over.
+	 * 
+	 * @param key - the idempotency key of the transaction
+	 * @return the existing record of the key, the abandoned record if the key was
+	 *         taken over, null if the key was recorded now
+	 */
+	IdempotencyRecord begin(String key);
+
+	/**
+	 * Records that the outcome of the key in flight stays unknown, e.g. after a
+	 * timeout, so the next {@link #begin(String)} of the key takes it over.
+	 * Completed keys are left unchanged.
+	 * 
+	 * @param key - the idempotency key of the transaction
+	 */
+	void abandon(String key);
+
+	/**
+	 * Records the transaction created for the key.
+	 * 
+	 * @param key - the idempotency key of the transaction
+	 * @param paymentId - the id of the payment
+	 * @param transactionId - the id of the created transaction
+	 */
+	void complete(String key, String paymentId, String transactionId);
+
+	/**
+	 * Forgets the key, e.g. because the api rejected the transaction.
+	 * 
+	 * @param key - the idempotency key of the transaction
+	 */
+	void remove(String key);
+
+	/**
+	 * @param key - the idempotency key of the transaction
+	 * @return the record of the key, null if there is none
+	 */
+	IdempotencyRecord get(String key);
+}
@@ -0,0 +1,86 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Entry of an {@code IdempotencyLedger}: the state of the transaction sent with
+ * an idempotency key and, once completed, the ids of the created transaction.
+ */
+public class IdempotencyRecord {
+
+	public enum State {
+		/** the request is being sent, its outcome is unknown */
+		IN_FLIGHT,
+		/** the request failed or its sender stopped, its outcome is unknown */
+		ABANDONED,
+		/** the transaction was created */
+		COMPLETED
+	}
+
+	private final String key;
+	private final State state;
+	private final String paymentId;
+	private final String transactionId;
+	private final long created;
+
+	public IdempotencyRecord(String key, State state, String paymentId, String transactionId, long created) {
+		this.key = key;
+		this.state = state;
+		this.paymentId = paymentId;
+		this.transactionId = transactionId;
+		this.created = created;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return the id of the payment, null while in flight
+	 */
+	public String getPaymentId() {
+		return paymentId;
+	}
+
+	/**
+	 * @return the id of the created transaction, null while in flight
+	 */
+	public String getTransactionId() {
+		return transactionId;
+	}
+
+	/**
+	 * @return the time the key was recorded first, in milliseconds since the epoch
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + key + ": " + state + ", payment: " + paymentId + ", transaction: " + transactionId + "]";
+	}
+}
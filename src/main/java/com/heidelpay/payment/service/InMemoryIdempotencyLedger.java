@@ -0,0 +1,121 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.heidelpay.payment.service.IdempotencyRecord.State;
+
+/**
+ * {@code IdempotencyLedger} keeping the records in memory. Records expire after
+ * a time-to-live, by default after 24 hours, counted from their first recording.
+ */
+public class InMemoryIdempotencyLedger implements IdempotencyLedger {
+
+	public static final long DEFAULT_TTL = 24L * 60 * 60 * 1000;
+
+	private final long ttl;
+	// in order of creation, so expired records are found at the head
+	private final LinkedHashMap<String, IdempotencyRecord> records = new LinkedHashMap<String, IdempotencyRecord>();
+
+	public InMemoryIdempotencyLedger() {
+		this(DEFAULT_TTL);
+	}
+
+	/**
+	 * @param ttl - time-to-live of the records in milliseconds
+	 */
+	public InMemoryIdempotencyLedger(long ttl) {
+		if (ttl <= 0) {
+			throw new IllegalArgumentException("ttl must be positive");
+		}
+		this.ttl = ttl;
+	}
+
+	@Override
+	public synchronized IdempotencyRecord begin(String key) {
+		IdempotencyRecord record = get(key);
+		if (record == null) {
+			records.put(key, new IdempotencyRecord(key, State.IN_FLIGHT, null, null, currentTimeMillis()));
+		} else if (record.getState() == State.ABANDONED) {
+			records.put(key, new IdempotencyRecord(key, State.IN_FLIGHT, null, null, record.getCreated()));
+		}
+		return record;
+	}
+
+	@Override
+	public synchronized void abandon(String key) {
+		IdempotencyRecord record = get(key);
+		if (record != null && record.getState() == State.IN_FLIGHT) {
+			records.put(key, new IdempotencyRecord(key, State.ABANDONED, null, null, record.getCreated()));
+		}
+	}
+
+	@Override
+	public synchronized void complete(String key, String paymentId, String transactionId) {
+		IdempotencyRecord record = records.get(key);
+		long created = record == null ? currentTimeMillis() : record.getCreated();
+		records.put(key, new IdempotencyRecord(key, State.COMPLETED, paymentId, transactionId, created));
+	}
+
+	@Override
+	public synchronized void remove(String key) {
+		records.remove(key);
+	}
+
+	@Override
+	public synchronized IdempotencyRecord get(String key) {
+		evictExpired();
+		return records.get(key);
+	}
+
+	/**
+	 * @return the number of records
+	 */
+	public synchronized int size() {
+		evictExpired();
+		return records.size();
+	}
+
+	// a restored record keeps its time of creation
+	synchronized void restore(IdempotencyRecord record) {
+		records.put(record.getKey(), record);
+	}
+
+	synchronized Iterable<IdempotencyRecord> getRecords() {
+		evictExpired();
+		return records.values();
+	}
+
+	private void evictExpired() {
+		long expired = currentTimeMillis() - ttl;
+		Iterator<IdempotencyRecord> iterator = records.values().iterator();
+		while (iterator.hasNext() && iterator.next().getCreated() <= expired) {
+			iterator.remove();
+		}
+	}
+
+	long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+}
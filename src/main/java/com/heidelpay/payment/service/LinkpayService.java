@@ -27,13 +27,17 @@ import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.JsonParser;
 import com.heidelpay.payment.communication.json.JsonLinkpay;
 import com.heidelpay.payment.communication.mapper.JsonToBusinessClassMapper;
+import com.heidelpay.payment.communication.mapper.JsonToBusinessClassReader;
 
 public class LinkpayService {
 	private HeidelpayRestCommunication restCommunication;
 
 	private UrlUtil urlUtil;
 	private JsonToBusinessClassMapper jsonToBusinessClassMapper = new JsonToBusinessClassMapper();
+	private JsonParser jsonParser;
+	private JsonToBusinessClassReader jsonToBusinessClassReader;
 	private Heidelpay heidelpay;
+	private boolean directMapping;
 
 	/**
 	 * Creates the {@code PaymentService} with the given {@code Heidelpay} facade,
@@ -48,6 +52,8 @@ public class LinkpayService {
 		this.heidelpay = heidelpay;
 		this.urlUtil = new UrlUtil(heidelpay.getEndPoint());
 		this.restCommunication = restCommunication;
+		this.jsonParser = heidelpay.getJsonParser();
+		this.jsonToBusinessClassReader = new JsonToBusinessClassReader(jsonParser);
 	}
 
 	public Linkpay initialize(Linkpay linkpay) throws HttpCommunicationException {
@@ -56,9 +62,19 @@ public class LinkpayService {
 
 	public Linkpay initialize(Linkpay linkpay, String url) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(linkpay));
-		JsonLinkpay jsonLinkpay = new JsonParser().fromJson(response, JsonLinkpay.class);
+		if (directMapping) {
+			return jsonParser.fromJson(response, jsonToBusinessClassReader.linkpay(linkpay));
+		}
+		JsonLinkpay jsonLinkpay = jsonParser.fromJson(response, JsonLinkpay.class);
 		linkpay = jsonToBusinessClassMapper.mapToBusinessObject(linkpay, jsonLinkpay);
 		return linkpay;
 	}
 
+	/**
+	 * @param directMapping - true to read the response straight into the {@code Linkpay}
+	 */
+	public void setDirectMapping(boolean directMapping) {
+		this.directMapping = directMapping;
+	}
+
 }
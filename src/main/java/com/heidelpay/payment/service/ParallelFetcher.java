@@ -0,0 +1,161 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+/**
+ * Runs independent fetches of sub-resources, e.g. the transactions of a
+ * payment, concurrently on the configured {@code Executor}. At most
+ * {@code parallelism} tasks run at the same time, the calling thread is one of
+ * them. Without an executor, or with a parallelism of 1, all tasks run one after
+ * another on the calling thread.
+ * 
+ * As the calling thread takes part in the work, all tasks complete even if the
+ * executor is saturated or rejects tasks, so the executor may safely be the one
+ * the calling thread belongs to.
+ */
+public class ParallelFetcher {
+
+	/**
+	 * A single fetch, storing its result on its own.
+	 */
+	public interface Task {
+		void run() throws HttpCommunicationException;
+	}
+
+	private final Executor executor;
+	private final int parallelism;
+
+	/**
+	 * Creates a {@code ParallelFetcher} running all tasks sequentially on the calling thread.
+	 */
+	public ParallelFetcher() {
+		this(null, 1);
+	}
+
+	/**
+	 * @param executor - the {@code Executor} for the additional threads, null for sequential fetches
+	 * @param parallelism - maximum number of concurrent fetches, including the calling thread
+	 */
+	public ParallelFetcher(Executor executor, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Runs all tasks and returns once all of them are done. In case of failures
+	 * the remaining tasks are skipped and the first failure is thrown, the
+	 * failures of the tasks running at that time are added to it as suppressed
+	 * exceptions.
+	 * 
+	 * @param tasks - the tasks to be run
+	 * @throws HttpCommunicationException - the first failure of a task
+	 */
+	public void runAll(List<Task> tasks) throws HttpCommunicationException {
+		if (executor == null || parallelism == 1 || tasks.size() < 2) {
+			for (Task task : tasks) {
+				task.run();
+			}
+			return;
+		}
+
+		Worker worker = new Worker(tasks);
+		int helpers = Math.min(parallelism, tasks.size()) - 1;
+		for (int i = 0; i < helpers; i++) {
+			try {
+				executor.execute(worker);
+			} catch (RejectedExecutionException e) {
+				// the calling thread runs the remaining tasks
+				break;
+			}
+		}
+		worker.run();
+		worker.await();
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	private static class Worker implements Runnable {
+		private final List<Task> tasks;
+		private final AtomicInteger next = new AtomicInteger();
+		private final CountDownLatch done;
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Worker(List<Task> tasks) {
+			this.tasks = tasks;
+			this.done = new CountDownLatch(tasks.size());
+		}
+
+		@Override
+		public void run() {
+			int index;
+			while ((index = next.getAndIncrement()) < tasks.size()) {
+				try {
+					if (failure.get() == null) {
+						tasks.get(index).run();
+					}
+				} catch (Throwable e) {
+					if (!failure.compareAndSet(null, e)) {
+						failure.get().addSuppressed(e);
+					}
+				} finally {
+					done.countDown();
+				}
+			}
+		}
+
+		void await() throws HttpCommunicationException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HttpCommunicationException("Interrupted while fetching: " + e.getMessage());
+			}
+			Throwable e = failure.get();
+			if (e instanceof HttpCommunicationException) {
+				throw (HttpCommunicationException) e;
+			} else if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			} else if (e instanceof Error) {
+				throw (Error) e;
+			} else if (e != null) {
+				throw new HttpCommunicationException(e.getMessage());
+			}
+		}
+	}
+}
@@ -3,13 +3,19 @@ package com.heidelpay.payment.service;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
+import com.google.gson.TypeAdapter;
 import com.heidelpay.payment.AbstractPayment;
+import com.heidelpay.payment.AbstractTransaction;
 
 /*-
  * #%L
@@ -39,6 +45,7 @@ import com.heidelpay.payment.Customer;
 import com.heidelpay.payment.Heidelpay;
 import com.heidelpay.payment.Metadata;
 import com.heidelpay.payment.Payment;
+import com.heidelpay.payment.PaymentError;
 import com.heidelpay.payment.PaymentException;
 import com.heidelpay.payment.Payout;
 import com.heidelpay.payment.Recurring;
@@ -46,6 +53,7 @@ import com.heidelpay.payment.Shipment;
 import com.heidelpay.payment.business.paymenttypes.HirePurchaseRatePlan;
 import com.heidelpay.payment.business.paymenttypes.InstallmentSecuredRatePlan;
 import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HeidelpayStreamingRestCommunication;
 import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.JsonParser;
 import com.heidelpay.payment.communication.json.JsonApplepayResponse;
@@ -59,6 +67,7 @@ import com.heidelpay.payment.communication.json.JsonHirePurchaseRatePlan;
 import com.heidelpay.payment.communication.json.JsonHirePurchaseRatePlanList;
 import com.heidelpay.payment.communication.json.JsonIdObject;
 import com.heidelpay.payment.communication.json.JsonIdeal;
+import com.heidelpay.payment.communication.json.JsonInitPayment;
 import com.heidelpay.payment.communication.json.JsonInstallmentSecuredRatePlan;
 import com.heidelpay.payment.communication.json.JsonInstallmentSecuredRatePlanList;
 import com.heidelpay.payment.communication.json.JsonPayment;
@@ -70,6 +79,7 @@ import com.heidelpay.payment.communication.json.JsonSepaDirectDebit;
 import com.heidelpay.payment.communication.json.JsonShipment;
 import com.heidelpay.payment.communication.json.JsonTransaction;
 import com.heidelpay.payment.communication.mapper.JsonToBusinessClassMapper;
+import com.heidelpay.payment.communication.mapper.JsonToBusinessClassReader;
 import com.heidelpay.payment.paymenttypes.AbstractPaymentType;
 import com.heidelpay.payment.paymenttypes.Alipay;
 import com.heidelpay.payment.paymenttypes.Applepay;
@@ -102,6 +112,12 @@ public class PaymentService {
 	protected static final String TRANSACTION_TYPE_PAYOUT = "payout";
 	protected static final String TRANSACTION_TYPE_CANCEL_AUTHORIZE = "cancel-authorize";
 	protected static final String TRANSACTION_TYPE_CANCEL_CHARGE = "cancel-charge";
+	// a payment has a single authorization, which the api always identifies by aut-1
+	// behind the prefix of the environment, s- (sandbox) or p- (production)
+	private static final String AUTHORIZATION_ID = "aut-1";
+	private static final String SANDBOX_PREFIX = "s-";
+	private static final String PRODUCTION_PREFIX = "p-";
+	private static final int HTTP_STATUS_NOT_FOUND = 404;
 
 	protected HeidelpayRestCommunication restCommunication;
 
@@ -109,6 +125,13 @@ public class PaymentService {
 	protected JsonToBusinessClassMapper jsonToBusinessClassMapper = new JsonToBusinessClassMapper();
 	protected Heidelpay heidelpay;
 	protected JsonParser jsonParser;
+	protected ParallelFetcher parallelFetcher = new ParallelFetcher();
+	protected boolean lazyLoading;
+	protected boolean shallowResponses;
+	protected boolean shallowResources;
+	protected JsonToBusinessClassReader jsonToBusinessClassReader;
+	protected boolean directMapping;
+	protected IdempotencyLedger idempotencyLedger;
 
 	/**
 	 * Creates the {@code PaymentService} with the given {@code Heidelpay} facade,
@@ -125,7 +148,74 @@ public class PaymentService {
 		this.heidelpay = heidelpay;
 		this.urlUtil = new UrlUtil(heidelpay.getEndPoint());
 		this.restCommunication = restCommunication;
-		this.jsonParser = new JsonParser();
+		this.jsonParser = heidelpay.getJsonParser();
+		this.jsonToBusinessClassReader = new JsonToBusinessClassReader(jsonParser);
+	}
+
+	/**
+	 * Fetches the transactions of a payment concurrently on the given
+	 * {@code Executor}. By default the transactions are fetched one after another.
+	 * 
+	 * @param executor    - the {@code Executor} for the fetches, null for sequential fetches
+	 * @param parallelism - maximum number of concurrent fetches per payment
+	 */
+	public void setParallelFetch(Executor executor, int parallelism) {
+		this.parallelFetcher = new ParallelFetcher(executor, parallelism);
+	}
+
+	/**
+	 * Defers fetching the transactions of a loaded payment until they are accessed.
+	 * 
+	 * @param lazyLoading - true to fetch the transactions on first access
+	 */
+	public void setLazyLoading(boolean lazyLoading) {
+		this.lazyLoading = lazyLoading;
+	}
+
+	/**
+	 * Returns transactions mapped from the response of the transaction call alone,
+	 * the payment is fetched on the first call to {@code getPayment()}.
+	 * 
+	 * @param shallowResponses - true to skip fetching the payment after a transaction
+	 */
+	public void setShallowResponses(boolean shallowResponses) {
+		this.shallowResponses = shallowResponses;
+	}
+
+	/**
+	 * Returns created and updated payment types, customers and baskets as mapped
+	 * from the response of the call, or as the submitted object with the returned
+	 * id, instead of fetching them afterwards. A payment type is fetched in case
+	 * the response lacks its fields.
+	 * 
+	 * @param shallowResources - true to skip fetching resources after creating or updating them
+	 */
+	public void setShallowResources(boolean shallowResources) {
+		this.shallowResources = shallowResources;
+	}
+
+	/**
+	 * Reads payments, transactions and payment types straight from the json
+	 * response into the business objects, see {@code JsonToBusinessClassReader}.
+	 * 
+	 * @param directMapping - true to skip the json objects between response and business object
+	 */
+	public void setDirectMapping(boolean directMapping) {
+		this.directMapping = directMapping;
+	}
+
+	/**
+	 * Records authorizations, charges, payouts and cancels of charges in the given
+	 * ledger by their orderId, a random orderId is set on transactions without one.
+	 * A call repeated with the same orderId, e.g. after a timeout, returns the
+	 * transaction created by the first call instead of creating another one. A
+	 * call repeated while the first one is in flight fails with a PaymentException.
+	 * With a ledger the orderId of each of these transactions must be unique.
+	 * 
+	 * @param idempotencyLedger - the ledger, null to send every call
+	 */
+	public void setIdempotencyLedger(IdempotencyLedger idempotencyLedger) {
+		this.idempotencyLedger = idempotencyLedger;
 	}
 
 	/**
@@ -134,19 +224,16 @@ public class PaymentService {
 	@Deprecated
 	public List<HirePurchaseRatePlan> hirePurchasePlan(BigDecimal amount, Currency currency,
 			BigDecimal effectiveInterestRate, Date orderDate) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(
+		JsonHirePurchaseRatePlanList json = httpGet(
 				urlUtil.getHirePurchaseRateUrl(amount, currency, effectiveInterestRate, orderDate),
-				heidelpay.getPrivateKey());
-		JsonHirePurchaseRatePlanList json = jsonParser.fromJson(response, JsonHirePurchaseRatePlanList.class);
+				JsonHirePurchaseRatePlanList.class);
 		return json.getEntity();
 	}
 
 	public List<InstallmentSecuredRatePlan> installmentSecuredPlan(BigDecimal amount, Currency currency,
 			BigDecimal effectiveInterestRate, Date orderDate) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(
+		JsonInstallmentSecuredRatePlanList json = httpGet(
 				urlUtil.getHirePurchaseRateUrl(amount, currency, effectiveInterestRate, orderDate),
-				heidelpay.getPrivateKey());
-		JsonInstallmentSecuredRatePlanList json = jsonParser.fromJson(response,
 				JsonInstallmentSecuredRatePlanList.class);
 		return json.getEntity();
 	}
@@ -154,15 +241,27 @@ public class PaymentService {
 	public <T extends PaymentType> T createPaymentType(T paymentType) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(urlUtil.getRestUrl(paymentType), heidelpay.getPrivateKey(),
 				paymentType);
-		JsonIdObject jsonResponse = jsonParser.fromJson(response, JsonIdObject.class);
-		return fetchPaymentType(jsonResponse.getId());
+		return getPaymentType(response);
 	}
 
 	public <T extends PaymentType> T updatePaymentType(T paymentType) throws HttpCommunicationException {
 		String url = urlUtil.getRestUrl(paymentType);
 		url = addId(url, paymentType.getId());
 		String response = restCommunication.httpPut(url, heidelpay.getPrivateKey(), paymentType);
+		return getPaymentType(response);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends PaymentType> T getPaymentType(String response) throws HttpCommunicationException {
 		JsonIdObject jsonResponse = jsonParser.fromJson(response, JsonIdObject.class);
+		// the payment types map the geolocation, which is only part of a complete response
+		if (shallowResources && jsonResponse.getId() != null && jsonResponse.getGeoLocation() != null) {
+			AbstractPaymentType paymentType = getPaymentTypeFromTypeId(jsonResponse.getId());
+			paymentType.setHeidelpay(heidelpay);
+			JsonIdObject jsonPaymentType = jsonParser.fromJson(response,
+					getJsonObjectFromTypeId(jsonResponse.getId()).getClass());
+			return (T) jsonToBusinessClassMapper.mapToBusinessObject(paymentType, jsonPaymentType);
+		}
 		return fetchPaymentType(jsonResponse.getId());
 	}
 
@@ -175,27 +274,46 @@ public class PaymentService {
 	public Customer createCustomer(Customer customer) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(urlUtil.getRestUrl(customer), heidelpay.getPrivateKey(),
 				jsonToBusinessClassMapper.map(customer));
+		if (shallowResources) {
+			return getCustomer(response, customer);
+		}
 		JsonIdObject jsonId = jsonParser.fromJson(response, JsonIdObject.class);
 		return fetchCustomer(jsonId.getId());
 	}
 
+	private Customer getCustomer(String response, Customer customer) {
+		JsonCustomer json = jsonParser.fromJson(response, JsonCustomer.class);
+		if (json.getLastname() != null || json.getCompany() != null) {
+			return jsonToBusinessClassMapper.mapToBusinessObject(new Customer("", ""), json);
+		}
+		if (json.getId() != null) {
+			customer.setId(json.getId());
+		}
+		return customer;
+	}
+
 	public Customer fetchCustomer(String customerId) throws HttpCommunicationException, PaymentException {
 		Customer customer = new Customer("", "");
 		customer.setId(customerId);
-		String response = restCommunication.httpGet(urlUtil.getHttpGetUrl(customer, customer.getId()),
-				heidelpay.getPrivateKey());
-		JsonCustomer json = jsonParser.fromJson(response, JsonCustomer.class);
+		JsonCustomer json = httpGet(urlUtil.getHttpGetUrl(customer, customer.getId()), JsonCustomer.class);
 		return jsonToBusinessClassMapper.mapToBusinessObject(new Customer("", ""), json);
 	}
 
 	public Customer updateCustomer(String id, Customer customer) throws HttpCommunicationException {
-		restCommunication.httpPut(urlUtil.getHttpGetUrl(customer, id), heidelpay.getPrivateKey(),
+		String response = restCommunication.httpPut(urlUtil.getHttpGetUrl(customer, id), heidelpay.getPrivateKey(),
 				jsonToBusinessClassMapper.map(customer));
+		if (shallowResources) {
+			customer.setId(id);
+			return getCustomer(response, customer);
+		}
 		return fetchCustomer(id);
 	}
 
 	public Basket updateBasket(String id, Basket basket) throws HttpCommunicationException {
 		restCommunication.httpPut(urlUtil.getHttpGetUrl(basket, id), heidelpay.getPrivateKey(), basket);
+		if (shallowResources) {
+			return basket.setId(id);
+		}
 		return fetchBasket(id);
 	}
 
@@ -211,9 +329,7 @@ public class PaymentService {
 	public Metadata fetchMetadata(String id) throws HttpCommunicationException {
 		Metadata metadata = new Metadata();
 		metadata.setId(id);
-		String response = restCommunication.httpGet(urlUtil.getHttpGetUrl(metadata, metadata.getId()),
-				heidelpay.getPrivateKey());
-		Map<String, String> metadataMap = jsonParser.fromJson(response, HashMap.class);
+		Map<String, String> metadataMap = httpGet(urlUtil.getHttpGetUrl(metadata, metadata.getId()), HashMap.class);
 		metadata.setMetadataMap(metadataMap);
 		return metadata;
 	}
@@ -228,9 +344,7 @@ public class PaymentService {
 	public Basket fetchBasket(String id) throws HttpCommunicationException {
 		Basket basket = new Basket();
 		basket.setId(id);
-		String response = restCommunication.httpGet(urlUtil.getHttpGetUrl(basket, basket.getId()),
-				heidelpay.getPrivateKey());
-		basket = jsonParser.fromJson(response, Basket.class);
+		basket = httpGet(urlUtil.getHttpGetUrl(basket, basket.getId()), Basket.class);
 		basket.setId(id);
 		return basket;
 	}
@@ -246,21 +360,64 @@ public class PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public Authorization authorize(Authorization authorization) throws HttpCommunicationException {
-		String response = restCommunication.httpPost(urlUtil.getRestUrl(authorization), heidelpay.getPrivateKey(),
-				jsonToBusinessClassMapper.map(authorization));
-		JsonAuthorization jsonAuthorization = jsonParser.fromJson(response, JsonAuthorization.class);
-		authorization = (Authorization) jsonToBusinessClassMapper.mapToBusinessObject(authorization, jsonAuthorization);
-		authorization.setPayment(fetchPayment(jsonAuthorization.getResources().getPaymentId()));
+		return authorize(authorization, !shallowResponses);
+	}
+
+	/**
+	 * Execute an normal authorization.
+	 * 
+	 * @param authorization refers to normal authorization request.
+	 * @param loadPayment - if false, the payment is not fetched after the
+	 *                    authorization but on the first call to getPayment().
+	 * 
+	 * @return Authorization refers to an authorization response with id, paymentId,
+	 *         etc.
+	 * 
+	 * @throws HttpCommunicationException
+	 */
+	public Authorization authorize(Authorization authorization, boolean loadPayment) throws HttpCommunicationException {
+		final String url = urlUtil.getRestUrl(authorization);
+		authorization = post(TRANSACTION_TYPE_AUTHORIZATION, authorization, null, new TransactionPost<Authorization>() {
+			@Override
+			Authorization post(Authorization authorization) throws HttpCommunicationException {
+				String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(),
+						jsonToBusinessClassMapper.map(authorization));
+				return readTransaction(response, authorization, JsonAuthorization.class);
+			}
+
+			@Override
+			List<Authorization> find(Payment payment) {
+				Authorization authorization = payment.getAuthorization();
+				return authorization == null ? Collections.<Authorization>emptyList()
+						: Collections.singletonList(authorization);
+			}
+		});
+		setPaymentIfLoaded(authorization, loadPayment);
 		authorization.setHeidelpay(heidelpay);
 		return authorization;
 	}
 
 	public Charge charge(Charge charge) throws HttpCommunicationException {
-		return charge(charge, urlUtil.getRestUrl(charge));
+		return charge(charge, !shallowResponses);
+	}
+
+	/**
+	 * @param charge - the charge to be executed
+	 * @param loadPayment - if false, the payment is not fetched after the charge
+	 *                    but on the first call to getPayment().
+	 * @return the executed charge
+	 * @throws HttpCommunicationException
+	 */
+	public Charge charge(Charge charge, boolean loadPayment) throws HttpCommunicationException {
+		return charge(charge, urlUtil.getRestUrl(charge), null, loadPayment);
 	}
 
 	public Payout payout(Payout payout) throws HttpCommunicationException {
-		return payout(payout, urlUtil.getRestUrl(payout));
+		return payout(payout, !shallowResponses);
+	}
+
+	public Payout payout(Payout payout, boolean loadPayment) throws HttpCommunicationException {
+		return payout(payout, urlUtil.getRestUrl(payout), loadPayment);
 	}
 
 	public Charge chargeAuthorization(String paymentId) throws HttpCommunicationException {
@@ -283,7 +440,12 @@ public class PaymentService {
 	}
 
 	private Charge chargeAuthorization(String paymentId, Charge charge) throws HttpCommunicationException {
-		return charge(charge, urlUtil.getPaymentUrl(charge, paymentId));
+		return chargeAuthorization(paymentId, charge, !shallowResponses);
+	}
+
+	public Charge chargeAuthorization(String paymentId, Charge charge, boolean loadPayment)
+			throws HttpCommunicationException {
+		return charge(charge, urlUtil.getPaymentUrl(charge, paymentId), paymentId, loadPayment);
 	}
 
 	public Cancel cancelAuthorization(String paymentId) throws HttpCommunicationException {
@@ -298,7 +460,12 @@ public class PaymentService {
 	}
 
 	public Cancel cancelAuthorization(String paymentId, Cancel cancel) throws HttpCommunicationException {
-		return cancel(cancel, urlUtil.getPaymentUrl(cancel, paymentId));
+		return cancelAuthorization(paymentId, cancel, !shallowResponses);
+	}
+
+	public Cancel cancelAuthorization(String paymentId, Cancel cancel, boolean loadPayment)
+			throws HttpCommunicationException {
+		return cancel(cancel, urlUtil.getPaymentUrl(cancel, paymentId), loadPayment);
 	}
 
 	public Cancel cancelCharge(String paymentId, String chargeId) throws HttpCommunicationException {
@@ -313,59 +480,299 @@ public class PaymentService {
 	}
 
 	public Cancel cancelCharge(String paymentId, String chargeId, Cancel cancel) throws HttpCommunicationException {
-		return cancel(cancel, urlUtil.getRefundUrl(paymentId, chargeId));
+		return cancelCharge(paymentId, chargeId, cancel, !shallowResponses);
+	}
+
+	public Cancel cancelCharge(String paymentId, final String chargeId, Cancel cancel, boolean loadPayment)
+			throws HttpCommunicationException {
+		final String url = urlUtil.getRefundUrl(paymentId, chargeId);
+		cancel = post(TRANSACTION_TYPE_CANCEL_CHARGE, cancel, paymentId, new TransactionPost<Cancel>() {
+			@Override
+			Cancel post(Cancel cancel) throws HttpCommunicationException {
+				return postCancel(cancel, url);
+			}
+
+			@Override
+			List<Cancel> find(Payment payment) {
+				Charge charge = payment.getCharge(chargeId);
+				return charge == null ? Collections.<Cancel>emptyList() : charge.getCancelList();
+			}
+
+			@Override
+			boolean isSentWithOrderId() {
+				return false;
+			}
+		});
+		setPaymentIfLoaded(cancel, loadPayment);
+		cancel.setHeidelpay(heidelpay);
+		return cancel;
 	}
 
 	public Shipment shipment(String paymentId, String invoiceId, String orderId) throws HttpCommunicationException {
-		return shipment(new Shipment(invoiceId, orderId), urlUtil.getPaymentUrl(new Shipment(), paymentId));
+		return doShipment(new Shipment(invoiceId, orderId), paymentId);
 	}
 
 	public Shipment doShipment(Shipment shipment, String paymentId) throws HttpCommunicationException {
-		return shipment(shipment, urlUtil.getPaymentUrl(new Shipment(), paymentId));
+		return doShipment(shipment, paymentId, !shallowResponses);
+	}
+
+	public Shipment doShipment(Shipment shipment, String paymentId, boolean loadPayment)
+			throws HttpCommunicationException {
+		return shipment(shipment, urlUtil.getPaymentUrl(new Shipment(), paymentId), loadPayment);
 	}
 
-	private Shipment shipment(Shipment shipment, String url) throws HttpCommunicationException {
+	private Shipment shipment(Shipment shipment, String url, boolean loadPayment) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), shipment);
 		JsonShipment jsonShipment = jsonParser.fromJson(response, JsonShipment.class);
 		shipment = jsonToBusinessClassMapper.mapToBusinessObject(shipment, jsonShipment);
-		shipment.setPayment(fetchPayment(jsonShipment.getResources().getPaymentId()));
+		shipment.setPaymentId(jsonShipment.getResources().getPaymentId());
+		setPaymentIfLoaded(shipment, loadPayment);
 		shipment.setHeidelpay(heidelpay);
 		return shipment;
 	}
 
-	private Cancel cancel(Cancel cancel, String url) throws HttpCommunicationException {
-		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(),
-				jsonToBusinessClassMapper.map(cancel));
-		JsonCancel jsonCancel = jsonParser.fromJson(response, JsonCancel.class);
-		cancel = (Cancel) jsonToBusinessClassMapper.mapToBusinessObject(cancel, jsonCancel);
-		cancel.setPayment(fetchPayment(jsonCancel.getResources().getPaymentId()));
+	private Cancel cancel(Cancel cancel, String url, boolean loadPayment) throws HttpCommunicationException {
+		cancel = postCancel(cancel, url);
+		setPaymentIfLoaded(cancel, loadPayment);
 		cancel.setHeidelpay(heidelpay);
 		return cancel;
 	}
 
-	private Charge charge(Charge charge, String url) throws HttpCommunicationException {
+	private Cancel postCancel(Cancel cancel, String url) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(),
-				jsonToBusinessClassMapper.map(charge));
-		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
-		charge = (Charge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
-		charge.setInvoiceId(jsonCharge.getInvoiceId());
-		charge.setPayment(fetchPayment(jsonCharge.getResources().getPaymentId()));
-		charge.setPaymentId(jsonCharge.getResources().getPaymentId());
+				jsonToBusinessClassMapper.map(cancel));
+		return readCancel(response, cancel);
+	}
+
+	private Charge charge(Charge charge, final String url, String paymentId, boolean loadPayment)
+			throws HttpCommunicationException {
+		charge = post(TRANSACTION_TYPE_CHARGE, charge, paymentId, new TransactionPost<Charge>() {
+			@Override
+			Charge post(Charge charge) throws HttpCommunicationException {
+				String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(),
+						jsonToBusinessClassMapper.map(charge));
+				return readTransaction(response, charge, JsonCharge.class);
+			}
+
+			@Override
+			List<Charge> find(Payment payment) {
+				return payment.getChargesList();
+			}
+		});
+		setPaymentIfLoaded(charge, loadPayment);
 		charge.setHeidelpay(heidelpay);
 		return charge;
 	}
 
-	private Payout payout(Payout payout, String url) throws HttpCommunicationException {
-		com.heidelpay.payment.communication.json.JsonObject json = jsonToBusinessClassMapper.map(payout);
-		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), json);
-		JsonPayout jsonPayout = jsonParser.fromJson(response, JsonPayout.class);
-		payout = (Payout) jsonToBusinessClassMapper.mapToBusinessObject(payout, jsonPayout);
-		payout.setPayment(fetchPayment(jsonPayout.getResources().getPaymentId()));
-		payout.setPaymentId(jsonPayout.getResources().getPaymentId());
+	private Payout payout(Payout payout, final String url, boolean loadPayment) throws HttpCommunicationException {
+		payout = post(TRANSACTION_TYPE_PAYOUT, payout, null, new TransactionPost<Payout>() {
+			@Override
+			Payout post(Payout payout) throws HttpCommunicationException {
+				com.heidelpay.payment.communication.json.JsonObject json = jsonToBusinessClassMapper.map(payout);
+				String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), json);
+				return readTransaction(response, payout, JsonPayout.class);
+			}
+
+			@Override
+			List<Payout> find(Payment payment) {
+				return payment.getPayoutList();
+			}
+		});
+		setPaymentIfLoaded(payout, loadPayment);
 		payout.setHeidelpay(heidelpay);
 		return payout;
 	}
 
+	/**
+	 * The POST of a transaction recorded in the {@code IdempotencyLedger}.
+	 */
+	private abstract static class TransactionPost<T extends AbstractTransaction<Payment>> {
+
+		/**
+		 * Sends the transaction and maps the response.
+		 */
+		abstract T post(T transaction) throws HttpCommunicationException;
+
+		/**
+		 * @return the transactions of this type in the payment
+		 */
+		abstract List<T> find(Payment payment);
+
+		/**
+		 * @return false if the api does not store the orderId of the transaction,
+		 *         so a request in flight cannot be found
+		 */
+		boolean isSentWithOrderId() {
+			return true;
+		}
+	}
+
+	/**
+	 * Sends the transaction, unless its orderId is recorded in the
+	 * {@code IdempotencyLedger} already. A transaction still in flight fails with
+	 * a PaymentException, as its outcome is unknown. A recorded transaction is
+	 * looked up in its payment: a completed one by its id, an abandoned one by its
+	 * orderId. An abandoned transaction, which is not found, is sent again.
+	 * 
+	 * @param type - the transaction type, scoping the orderId
+	 * @param transaction - the transaction to be sent
+	 * @param paymentId - the id of the payment the transaction belongs to, null if
+	 *        the transaction creates the payment
+	 * @param post - sends the transaction and finds it in its payment
+	 */
+	private <T extends AbstractTransaction<Payment>> T post(String type, T transaction, String paymentId,
+			TransactionPost<T> post) throws HttpCommunicationException {
+		IdempotencyLedger ledger = idempotencyLedger;
+		if (ledger == null) {
+			return post.post(transaction);
+		}
+		if (transaction.getOrderId() == null) {
+			transaction.setOrderId(UUID.randomUUID().toString());
+		}
+		String key = type + ":" + transaction.getOrderId();
+		IdempotencyRecord record = ledger.begin(key);
+		if (record != null && record.getState() == IdempotencyRecord.State.IN_FLIGHT) {
+			// sending it again while the first call is waiting for the api could create a second transaction
+			throw ledgerException("The outcome of " + key + " is unknown, it is in flight");
+		}
+		boolean settled = false;
+		try {
+			T result = record == null ? null : findRecordedTransaction(record, transaction.getOrderId(), paymentId, post);
+			if (result != null) {
+				result.setHeidelpay(heidelpay);
+			} else {
+				try {
+					result = post.post(transaction);
+				} catch (PaymentException e) {
+					// the api rejected the transaction, a server error leaves its outcome unknown
+					if (e.getStatusCode() != null && e.getStatusCode() >= 400 && e.getStatusCode() < 500) {
+						ledger.remove(key);
+						settled = true;
+					}
+					throw e;
+				}
+			}
+			ledger.complete(key, result.getPaymentId(), result.getId());
+			settled = true;
+			return result;
+		} finally {
+			if (!settled) {
+				// the next call with the orderId takes the key over
+				ledger.abandon(key);
+			}
+		}
+	}
+
+	private <T extends AbstractTransaction<Payment>> T findRecordedTransaction(IdempotencyRecord record,
+			String orderId, String paymentId, TransactionPost<T> post) throws HttpCommunicationException {
+		boolean completed = record.getState() == IdempotencyRecord.State.COMPLETED;
+		if (!completed && !post.isSentWithOrderId()) {
+			throw ledgerException("The outcome of " + record.getKey()
+					+ " is unknown, check the transactions of the payment " + paymentId);
+		}
+		String id = completed ? record.getPaymentId() : paymentId;
+		Payment payment = fetchPaymentIfExists(id != null ? id : orderId);
+		List<T> transactions = payment == null ? null : post.find(payment);
+		if (transactions != null) {
+			for (T transaction : transactions) {
+				if (completed ? record.getTransactionId().equals(transaction.getId())
+						: orderId.equals(transaction.getOrderId())) {
+					return transaction;
+				}
+			}
+		}
+		if (completed) {
+			throw ledgerException("The transaction " + record.getTransactionId() + " recorded for "
+					+ record.getKey() + " was not found in the payment " + record.getPaymentId());
+		}
+		return null;
+	}
+
+	private static PaymentException ledgerException(String message) {
+		List<PaymentError> errors = new ArrayList<PaymentError>();
+		errors.add(new PaymentError(message, "", ""));
+		return new PaymentException(errors, message);
+	}
+
+	private Payment fetchPaymentIfExists(String paymentId) throws HttpCommunicationException {
+		try {
+			return fetchPayment(paymentId);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return null;
+		}
+	}
+
+	private void setPaymentIfLoaded(AbstractTransaction<Payment> transaction, boolean loadPayment)
+			throws HttpCommunicationException {
+		if (loadPayment) {
+			transaction.setPayment(fetchPayment(transaction.getPaymentId()));
+		} else {
+			transaction.setUnresolvedPayment(new AbstractTransaction.PaymentFetcher<Payment>() {
+				@Override
+				public Payment fetchPayment(String paymentId) throws HttpCommunicationException {
+					return PaymentService.this.fetchPayment(paymentId);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Maps the response of an authorization, charge or payout, including the
+	 * invoiceId of a charge.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends AbstractTransaction<Payment>> T readTransaction(String response, T transaction,
+			Class<? extends JsonInitPayment> clazz) {
+		if (directMapping) {
+			return (T) jsonParser.fromJson(response, jsonToBusinessClassReader.transaction(transaction));
+		}
+		return mapTransaction(transaction, jsonParser.fromJson(response, clazz));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends AbstractTransaction<Payment>> T getTransaction(String url, T transaction,
+			Class<? extends JsonInitPayment> clazz) throws HttpCommunicationException {
+		if (directMapping) {
+			return (T) httpGet(url, jsonToBusinessClassReader.transaction(transaction));
+		}
+		return mapTransaction(transaction, httpGet(url, clazz));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends AbstractTransaction<Payment>> T mapTransaction(T transaction, JsonInitPayment json) {
+		transaction = (T) jsonToBusinessClassMapper.mapToBusinessObject(transaction, json);
+		if (json instanceof JsonCharge) {
+			((Charge) transaction).setInvoiceId(((JsonCharge) json).getInvoiceId());
+		}
+		return transaction;
+	}
+
+	/**
+	 * Maps the response of a cancel, including the paymentId of its resources.
+	 */
+	private Cancel readCancel(String response, Cancel cancel) {
+		if (directMapping) {
+			return (Cancel) jsonParser.fromJson(response, jsonToBusinessClassReader.cancel(cancel));
+		}
+		return mapCancel(cancel, jsonParser.fromJson(response, JsonCancel.class));
+	}
+
+	private Cancel getCancel(String url, Cancel cancel) throws HttpCommunicationException {
+		if (directMapping) {
+			return (Cancel) httpGet(url, jsonToBusinessClassReader.cancel(cancel));
+		}
+		return mapCancel(cancel, httpGet(url, JsonCancel.class));
+	}
+
+	private Cancel mapCancel(Cancel cancel, JsonCancel json) {
+		cancel = (Cancel) jsonToBusinessClassMapper.mapToBusinessObject(cancel, json);
+		if (json.getResources() != null) {
+			cancel.setPaymentId(json.getResources().getPaymentId());
+		}
+		return cancel;
+	}
+
 	public Recurring recurring(Recurring recurring) throws HttpCommunicationException {
 		String url = urlUtil.getRecurringUrl(recurring);
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(),
@@ -386,27 +793,101 @@ public class PaymentService {
 		return restCommunication.httpGet(urlUtil.getHttpGetUrl(payment, payment.getId()), heidelpay.getPrivateKey());
 	}
 
+	/**
+	 * Executes a GET request and maps the json response. A
+	 * {@code HeidelpayStreamingRestCommunication} parses the response straight
+	 * from the http stream, any other communication returns it as a String first.
+	 * 
+	 * @param <T> type of the json object
+	 * @param url - the url to be called
+	 * @param clazz - class of the json object
+	 * @return the json object
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	protected <T> T httpGet(String url, Class<T> clazz) throws HttpCommunicationException {
+		if (restCommunication instanceof HeidelpayStreamingRestCommunication) {
+			return ((HeidelpayStreamingRestCommunication) restCommunication).httpGet(url, heidelpay.getPrivateKey(), clazz);
+		}
+		return jsonParser.fromJson(restCommunication.httpGet(url, heidelpay.getPrivateKey()), clazz);
+	}
+
+	/**
+	 * Executes a GET request and reads the json response with the given adapter,
+	 * straight from the http stream in case of a
+	 * {@code HeidelpayStreamingRestCommunication}.
+	 * 
+	 * @param <T> type of the object read by the adapter
+	 * @param url - the url to be called
+	 * @param adapter - the adapter reading the json
+	 * @return the object read by the adapter
+	 * @throws HttpCommunicationException in case communication to Heidelpay didn't work
+	 */
+	protected <T> T httpGet(String url, TypeAdapter<T> adapter) throws HttpCommunicationException {
+		if (restCommunication instanceof HeidelpayStreamingRestCommunication) {
+			return ((HeidelpayStreamingRestCommunication) restCommunication).httpGet(url, heidelpay.getPrivateKey(), adapter);
+		}
+		return jsonParser.fromJson(restCommunication.httpGet(url, heidelpay.getPrivateKey()), adapter);
+	}
+
 	private Payment fetchPayment(Payment payment, String paymentId) throws HttpCommunicationException {
 		payment.setId(paymentId);
 
-		String response = getPayment(payment);
-		JsonPayment jsonPayment = jsonParser.fromJson(response, JsonPayment.class);
-		payment = jsonToBusinessClassMapper.mapToBusinessObject(payment, jsonPayment);
-		payment.setCancelList(fetchCancelList(payment, getCancelsFromTransactions(jsonPayment.getTransactions())));
-		payment.setAuthorization(
-				fetchAuthorization(payment, getAuthorizationFromTransactions(jsonPayment.getTransactions())));
-		payment.setChargesList(fetchChargeList(payment, getChargesFromTransactions(jsonPayment.getTransactions())));
-		payment.setPayoutList(fetchPayoutList(payment, getPayoutFromTransactions(jsonPayment.getTransactions())));
+		String url = urlUtil.getHttpGetUrl(payment, payment.getId());
+		List<JsonTransaction> transactions;
+		if (directMapping) {
+			transactions = new ArrayList<JsonTransaction>();
+			payment = httpGet(url, jsonToBusinessClassReader.payment(payment, transactions));
+		} else {
+			JsonPayment jsonPayment = httpGet(url, JsonPayment.class);
+			payment = jsonToBusinessClassMapper.mapToBusinessObject(payment, jsonPayment);
+			transactions = jsonPayment.getTransactions();
+		}
+		if (lazyLoading) {
+			final Payment lazyPayment = payment;
+			payment.setUnresolvedTransactions(transactions, new AbstractPayment.TransactionFetcher() {
+				@Override
+				public void fetchTransactions(List<JsonTransaction> transactions) throws HttpCommunicationException {
+					PaymentService.this.fetchTransactions(lazyPayment, transactions);
+				}
+			});
+		} else {
+			fetchTransactions(payment, transactions);
+		}
 		return payment;
 	}
 
+	private void fetchTransactions(Payment payment, List<JsonTransaction> transactions) throws HttpCommunicationException {
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		Cancel[] cancels = addCancelTasks(tasks, payment, getCancelsFromTransactions(transactions));
+		Authorization[] authorizations = addAuthorizationTasks(tasks, payment,
+				toList(getAuthorizationFromTransactions(transactions)));
+		Charge[] charges = addChargeTasks(tasks, payment, getChargesFromTransactions(transactions));
+		Payout[] payouts = addPayoutTasks(tasks, payment, getPayoutFromTransactions(transactions));
+		parallelFetcher.runAll(tasks);
+
+		// the cancels are assigned to their authorization or charge once all transactions are fetched
+		List<Cancel> cancelList = new ArrayList<Cancel>(Arrays.asList(cancels));
+		payment.setCancelList(cancelList);
+		if (authorizations.length > 0) {
+			authorizations[0].setCancelList(getCancelListForAuthorization(cancelList));
+			payment.setAuthorization(authorizations[0]);
+		} else {
+			payment.setAuthorization(null);
+		}
+		for (Charge charge : charges) {
+			charge.setCancelList(getCancelListForCharge(charge.getId(), cancelList));
+		}
+		payment.setChargesList(new ArrayList<Charge>(Arrays.asList(charges)));
+		payment.setPayoutList(new ArrayList<Payout>(Arrays.asList(payouts)));
+	}
+
 	public String deleteCustomer(String customerId) throws HttpCommunicationException {
 		String response = restCommunication.httpDelete(urlUtil.getHttpGetUrl(new Customer("a", "b"), customerId),
 				heidelpay.getPrivateKey());
 		if (response == null || response.isEmpty()) {
 			throw new PaymentException("Customer '" + customerId + "' cannot be deleted");
 		}
-		JsonIdObject idResponse = new JsonParser().fromJson(response, JsonIdObject.class);
+		JsonIdObject idResponse = jsonParser.fromJson(response, JsonIdObject.class);
 		return idResponse.getId();
 	}
 
@@ -414,72 +895,203 @@ public class PaymentService {
 	public <T extends PaymentType> T fetchPaymentType(String typeId) throws HttpCommunicationException {
 		AbstractPaymentType paymentType = getPaymentTypeFromTypeId(typeId);
 		paymentType.setHeidelpay(heidelpay);
-		String response = restCommunication.httpGet(urlUtil.getHttpGetUrl(paymentType, typeId),
-				heidelpay.getPrivateKey());
+		String url = urlUtil.getHttpGetUrl(paymentType, typeId);
+		if (directMapping && jsonToBusinessClassReader.isSupported(paymentType)) {
+			return (T) httpGet(url, jsonToBusinessClassReader.paymentType(paymentType));
+		}
 		// workaround for Bug AHC-265
-		JsonIdObject jsonPaymentType = jsonParser.fromJson(response, getJsonObjectFromTypeId(typeId).getClass());
+		JsonIdObject jsonPaymentType = httpGet(url, getJsonObjectFromTypeId(typeId).getClass());
 		return (T) jsonToBusinessClassMapper.mapToBusinessObject(paymentType, jsonPaymentType);
 	}
 
+	/**
+	 * Fetches the authorization of a payment with a single request, its payment
+	 * and cancels are fetched on first access.
+	 * 
+	 * @param paymentId - id or orderId of the payment
+	 * @return the authorization or null in case the payment has no authorization
+	 * @throws HttpCommunicationException
+	 */
 	public Authorization fetchAuthorization(String paymentId) throws HttpCommunicationException {
-		return fetchPayment(paymentId).getAuthorization();
+		Authorization authorization = new Authorization(heidelpay);
+		String url = urlUtil.getPaymentUrl(authorization, paymentId, getIdPrefix(paymentId) + AUTHORIZATION_ID);
+		try {
+			authorization = getTransaction(url, authorization, JsonAuthorization.class);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return fetchPayment(paymentId).getAuthorization();
+		}
+		setFetchedTransaction(authorization, paymentId, TRANSACTION_TYPE_AUTHORIZATION, url);
+		return authorization;
 	}
 
+	/**
+	 * @return the prefix of the environment of the payment id, of the private key
+	 *         in case the payment is identified by its orderId
+	 */
+	private String getIdPrefix(String paymentId) {
+		if (paymentId.startsWith(SANDBOX_PREFIX) || paymentId.startsWith(PRODUCTION_PREFIX)) {
+			return paymentId.substring(0, SANDBOX_PREFIX.length());
+		}
+		String privateKey = heidelpay == null ? null : heidelpay.getPrivateKey();
+		return privateKey != null && privateKey.startsWith(PRODUCTION_PREFIX) ? PRODUCTION_PREFIX : SANDBOX_PREFIX;
+	}
+
+	/**
+	 * Fetches a charge with a single request, its payment and cancels are fetched on first access.
+	 * 
+	 * @param paymentId - id or orderId of the payment
+	 * @param chargeId - id of the charge
+	 * @return the charge or null in case the payment has no such charge
+	 * @throws HttpCommunicationException
+	 */
 	public Charge fetchCharge(String paymentId, String chargeId) throws HttpCommunicationException {
-		return fetchPayment(paymentId).getCharge(chargeId);
+		Charge charge = new Charge(heidelpay);
+		String url = urlUtil.getPaymentUrl(charge, paymentId, chargeId);
+		try {
+			charge = getTransaction(url, charge, JsonCharge.class);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return fetchPayment(paymentId).getCharge(chargeId);
+		}
+		charge.setCancelList(null);
+		setFetchedTransaction(charge, paymentId, TRANSACTION_TYPE_CHARGE, url);
+		return charge;
 	}
 
+	/**
+	 * Fetches a payout with a single request, its payment is fetched on first access.
+	 * 
+	 * @param paymentId - id or orderId of the payment
+	 * @param payoutId - id of the payout
+	 * @return the payout or null in case the payment has no such payout
+	 * @throws HttpCommunicationException
+	 */
 	public Payout fetchPayout(String paymentId, String payoutId) throws HttpCommunicationException {
-		return fetchPayment(paymentId).getPayout(payoutId);
+		Payout payout = new Payout(heidelpay);
+		String url = urlUtil.getPaymentUrl(payout, paymentId, payoutId);
+		try {
+			payout = getTransaction(url, payout, JsonPayout.class);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return fetchPayment(paymentId).getPayout(payoutId);
+		}
+		setFetchedTransaction(payout, paymentId, TRANSACTION_TYPE_PAYOUT, url);
+		return payout;
 	}
 
+	/**
+	 * Fetches a cancel of the authorization with a single request, its payment is
+	 * fetched on first access. Cancels of charges are looked up in the payment.
+	 * 
+	 * @param paymentId - id or orderId of the payment
+	 * @param cancelId - id of the cancel
+	 * @return the cancel or null in case the payment has no such cancel
+	 * @throws HttpCommunicationException
+	 */
 	public Cancel fetchCancel(String paymentId, String cancelId) throws HttpCommunicationException {
-		return fetchPayment(paymentId).getCancel(cancelId);
+		Cancel cancel = new Cancel(heidelpay);
+		String url = urlUtil.getPaymentUrl(cancel, paymentId, cancelId);
+		try {
+			return fetchCancel(cancel, paymentId, TRANSACTION_TYPE_CANCEL_AUTHORIZE, url);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return fetchPayment(paymentId).getCancel(cancelId);
+		}
 	}
 
+	/**
+	 * Fetches a cancel of a charge with a single request, its payment is fetched on first access.
+	 * 
+	 * @param paymentId - id or orderId of the payment
+	 * @param chargeId - id of the charge
+	 * @param cancelId - id of the cancel
+	 * @return the cancel or null in case the charge has no such cancel
+	 * @throws HttpCommunicationException
+	 */
 	public Cancel fetchCancel(String paymentId, String chargeId, String cancelId) throws HttpCommunicationException {
-		return fetchPayment(paymentId).getCharge(chargeId).getCancel(cancelId);
+		String url = urlUtil.getRefundUrl(paymentId, chargeId) + "/" + cancelId;
+		try {
+			return fetchCancel(new Cancel(heidelpay), paymentId, TRANSACTION_TYPE_CANCEL_CHARGE, url);
+		} catch (PaymentException e) {
+			rethrowUnlessNotFound(e);
+			return fetchPayment(paymentId).getCharge(chargeId).getCancel(cancelId);
+		}
+	}
+
+	private Cancel fetchCancel(Cancel cancel, String paymentId, String type, String url) throws HttpCommunicationException {
+		cancel = getCancel(url, cancel);
+		setFetchedTransaction(cancel, paymentId, type, url);
+		return cancel;
+	}
+
+	private void setFetchedTransaction(AbstractTransaction<Payment> transaction, String paymentId, String type, String url)
+			throws HttpCommunicationException {
+		if (transaction.getPaymentId() == null) {
+			transaction.setPaymentId(paymentId);
+		}
+		transaction.setType(type);
+		transaction.setResourceUrl(urlUtil.getUrl(url));
+		transaction.setHeidelpay(heidelpay);
+		setPaymentIfLoaded(transaction, false);
+	}
+
+	/**
+	 * A transaction that is not found directly is looked up in its payment, which
+	 * keeps the former behaviour: null for an unknown transaction and an exception
+	 * for an unknown payment.
+	 */
+	private void rethrowUnlessNotFound(PaymentException e) {
+		if (e.getStatusCode() == null || e.getStatusCode() != HTTP_STATUS_NOT_FOUND) {
+			throw e;
+		}
 	}
 
 	private Authorization fetchAuthorization(Payment payment, Authorization authorization, URL url)
 			throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonAuthorization jsonAuthorization = jsonParser.fromJson(response, JsonAuthorization.class);
-		authorization = (Authorization) jsonToBusinessClassMapper.mapToBusinessObject(authorization, jsonAuthorization);
-		authorization.setCancelList(getCancelListForAuthorization(payment.getCancelList()));
+		authorization = getTransaction(url.toString(), authorization, JsonAuthorization.class);
 		authorization.setHeidelpay(heidelpay);
 		return authorization;
 	}
 
-	private List<Charge> fetchChargeList(Payment payment, List<JsonTransaction> jsonChargesTransactionList)
-			throws HttpCommunicationException {
-		if (jsonChargesTransactionList == null || jsonChargesTransactionList.isEmpty())
-			return new ArrayList<Charge>();
-		List<Charge> chargesList = new ArrayList<Charge>();
-		for (JsonTransaction jsonTransaction : jsonChargesTransactionList) {
-			Charge charge = fetchCharge(payment, new Charge(heidelpay), jsonTransaction.getUrl());
-			charge.setCancelList(getCancelListForCharge(charge.getId(), payment.getCancelList()));
-			charge.setType(jsonTransaction.getType());
-			charge.setBasketId(payment.getBasketId());
-			charge.setCustomerId(payment.getCustomerId());
-			charge.setMetadataId(payment.getMetadataId());
-			chargesList.add(charge);
+	private Charge[] addChargeTasks(List<ParallelFetcher.Task> tasks, final Payment payment,
+			List<JsonTransaction> jsonTransactionList) {
+		final Charge[] charges = new Charge[jsonTransactionList.size()];
+		for (int i = 0; i < charges.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					Charge charge = fetchCharge(payment, new Charge(heidelpay), jsonTransaction.getUrl());
+					charge.setType(jsonTransaction.getType());
+					charge.setBasketId(payment.getBasketId());
+					charge.setCustomerId(payment.getCustomerId());
+					charge.setMetadataId(payment.getMetadataId());
+					charges[index] = charge;
+				}
+			});
 		}
-		return chargesList;
+		return charges;
 	}
 
-	private List<Payout> fetchPayoutList(Payment payment, List<JsonTransaction> jsonTransactionList)
-			throws HttpCommunicationException {
-		if (jsonTransactionList == null || jsonTransactionList.isEmpty())
-			return new ArrayList<Payout>();
-		List<Payout> payoutList = new ArrayList<Payout>();
-		for (JsonTransaction jsonTransaction : jsonTransactionList) {
-			Payout payout = fetchPayout(payment, new Payout(heidelpay), jsonTransaction.getUrl());
-			payout.setType(jsonTransaction.getType());
-			payout.setBasketId(payment.getBasketId());
-			payoutList.add(payout);
+	private Payout[] addPayoutTasks(List<ParallelFetcher.Task> tasks, final Payment payment,
+			List<JsonTransaction> jsonTransactionList) {
+		final Payout[] payouts = new Payout[jsonTransactionList.size()];
+		for (int i = 0; i < payouts.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					Payout payout = fetchPayout(payment, new Payout(heidelpay), jsonTransaction.getUrl());
+					payout.setType(jsonTransaction.getType());
+					payout.setBasketId(payment.getBasketId());
+					payouts[index] = payout;
+				}
+			});
 		}
-		return payoutList;
+		return payouts;
 	}
 
 	private List<Cancel> getCancelListForAuthorization(List<Cancel> cancelList) {
@@ -513,42 +1125,39 @@ public class PaymentService {
 	}
 
 	private Charge fetchCharge(Payment payment, Charge charge, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
-		charge = (Charge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
-		charge.setInvoiceId(jsonCharge.getInvoiceId());
+		charge = getTransaction(url.toString(), charge, JsonCharge.class);
 		charge.setPayment(payment);
 		charge.setResourceUrl(url);
 		return charge;
 	}
 
 	private Payout fetchPayout(Payment payment, Payout payout, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonPayout jsonPayout = jsonParser.fromJson(response, JsonPayout.class);
-		payout = (Payout) jsonToBusinessClassMapper.mapToBusinessObject(payout, jsonPayout);
+		payout = getTransaction(url.toString(), payout, JsonPayout.class);
 		payout.setPayment(payment);
 		payout.setResourceUrl(url);
 		return payout;
 	}
 
-	private List<Cancel> fetchCancelList(Payment payment, List<JsonTransaction> jsonChargesTransactionList)
-			throws HttpCommunicationException {
-		List<Cancel> cancelList = new ArrayList<Cancel>();
-
-		if (jsonChargesTransactionList != null && !jsonChargesTransactionList.isEmpty()) {
-			for (JsonTransaction jsonTransaction : jsonChargesTransactionList) {
-				Cancel cancel = fetchCancel(payment, new Cancel(heidelpay), jsonTransaction.getUrl());
-				cancel.setType(jsonTransaction.getType());
-				cancelList.add(cancel);
-			}
+	private Cancel[] addCancelTasks(List<ParallelFetcher.Task> tasks, final Payment payment,
+			List<JsonTransaction> jsonTransactionList) {
+		final Cancel[] cancels = new Cancel[jsonTransactionList.size()];
+		for (int i = 0; i < cancels.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					Cancel cancel = fetchCancel(payment, new Cancel(heidelpay), jsonTransaction.getUrl());
+					cancel.setType(jsonTransaction.getType());
+					cancels[index] = cancel;
+				}
+			});
 		}
-		return cancelList;
+		return cancels;
 	}
 
 	private Cancel fetchCancel(Payment payment, Cancel cancel, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonCancel jsonCancel = jsonParser.fromJson(response, JsonCancel.class);
-		cancel = (Cancel) jsonToBusinessClassMapper.mapToBusinessObject(cancel, jsonCancel);
+		cancel = getCancel(url.toString(), cancel);
 		cancel.setPayment(payment);
 		cancel.setResourceUrl(url);
 		return cancel;
@@ -600,17 +1209,34 @@ public class PaymentService {
 		return cancelsList;
 	}
 
-	private Authorization fetchAuthorization(Payment payment, JsonTransaction jsonTransaction)
-			throws HttpCommunicationException {
-		if (jsonTransaction == null)
-			return null;
-		Authorization authorization = fetchAuthorization(payment, new Authorization(), jsonTransaction.getUrl());
-		authorization.setPayment(payment);
-		authorization.setResourceUrl(jsonTransaction.getUrl());
-		authorization.setType(jsonTransaction.getType());
-		authorization.setCancelList(getCancelListForAuthorization(payment.getCancelList()));
-		authorization.setBasketId(payment.getBasketId());
-		return authorization;
+	private Authorization[] addAuthorizationTasks(List<ParallelFetcher.Task> tasks, final Payment payment,
+			List<JsonTransaction> jsonTransactionList) {
+		final Authorization[] authorizations = new Authorization[jsonTransactionList.size()];
+		for (int i = 0; i < authorizations.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					Authorization authorization = fetchAuthorization(payment, new Authorization(),
+							jsonTransaction.getUrl());
+					authorization.setPayment(payment);
+					authorization.setResourceUrl(jsonTransaction.getUrl());
+					authorization.setType(jsonTransaction.getType());
+					authorization.setBasketId(payment.getBasketId());
+					authorizations[index] = authorization;
+				}
+			});
+		}
+		return authorizations;
+	}
+
+	private List<JsonTransaction> toList(JsonTransaction jsonTransaction) {
+		List<JsonTransaction> list = new ArrayList<JsonTransaction>();
+		if (jsonTransaction != null) {
+			list.add(jsonTransaction);
+		}
+		return list;
 	}
 
 	private JsonIdObject getJsonObjectFromTypeId(String typeId) {
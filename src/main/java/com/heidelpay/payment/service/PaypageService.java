@@ -27,13 +27,17 @@ import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.JsonParser;
 import com.heidelpay.payment.communication.json.JsonPaypage;
 import com.heidelpay.payment.communication.mapper.JsonToBusinessClassMapper;
+import com.heidelpay.payment.communication.mapper.JsonToBusinessClassReader;
 
 public class PaypageService {
 	private HeidelpayRestCommunication restCommunication;
 
 	private UrlUtil urlUtil;
 	private JsonToBusinessClassMapper jsonToBusinessClassMapper = new JsonToBusinessClassMapper();
+	private JsonParser jsonParser;
+	private JsonToBusinessClassReader jsonToBusinessClassReader;
 	private Heidelpay heidelpay;
+	private boolean directMapping;
 
 	/**
 	 * Creates the {@code PaymentService} with the given {@code Heidelpay} facade,
@@ -48,6 +52,8 @@ public class PaypageService {
 		this.heidelpay = heidelpay;
 		this.urlUtil = new UrlUtil(heidelpay.getEndPoint());
 		this.restCommunication = restCommunication;
+		this.jsonParser = heidelpay.getJsonParser();
+		this.jsonToBusinessClassReader = new JsonToBusinessClassReader(jsonParser);
 	}
 
 	public Paypage initialize(Paypage paypage) throws HttpCommunicationException {
@@ -56,10 +62,20 @@ public class PaypageService {
 	
 	public Paypage initialize(Paypage paypage, String url) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(paypage));
-		JsonPaypage jsonPaypage = new JsonParser().fromJson(response, JsonPaypage.class);
+		if (directMapping) {
+			return jsonParser.fromJson(response, jsonToBusinessClassReader.paypage(paypage));
+		}
+		JsonPaypage jsonPaypage = jsonParser.fromJson(response, JsonPaypage.class);
 		paypage = jsonToBusinessClassMapper.mapToBusinessObject(paypage, jsonPaypage);
 		return paypage;
 	}
 
+	/**
+	 * @param directMapping - true to read the response straight into the {@code Paypage}
+	 */
+	public void setDirectMapping(boolean directMapping) {
+		this.directMapping = directMapping;
+	}
+
 
 }
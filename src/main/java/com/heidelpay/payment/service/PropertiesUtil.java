@@ -39,29 +39,28 @@ public class PropertiesUtil {
     public static final String PRIVATE_KEY3 = "privatekey3";
     public static final String MARKETPLACE_PRIVATE_KEY = "marketplacePrivatekey";
 
-    private Properties properties;
+    private volatile Properties properties;
 
     private void loadProperties() {
         try {
             Properties loadedProperties = new Properties();
             loadedProperties.load(this.getClass().getResourceAsStream("/heidelpay.properties"));
-            this.properties = loadedProperties;
-
             if (System.getProperty(PUBLIC_KEY1) != null) {
-                this.properties.put(PUBLIC_KEY1, System.getProperty(PUBLIC_KEY1));
+                loadedProperties.put(PUBLIC_KEY1, System.getProperty(PUBLIC_KEY1));
             }
             if (System.getProperty(PRIVATE_KEY1) != null) {
-                this.properties.put(PRIVATE_KEY1, System.getProperty(PRIVATE_KEY1));
+                loadedProperties.put(PRIVATE_KEY1, System.getProperty(PRIVATE_KEY1));
             }
             if (System.getProperty(PRIVATE_KEY2) != null) {
-                this.properties.put(PRIVATE_KEY2, System.getProperty(PRIVATE_KEY2));
+                loadedProperties.put(PRIVATE_KEY2, System.getProperty(PRIVATE_KEY2));
             }
             if (System.getProperty(PRIVATE_KEY3) != null) {
-                this.properties.put(PRIVATE_KEY3, System.getProperty(PRIVATE_KEY3));
+                loadedProperties.put(PRIVATE_KEY3, System.getProperty(PRIVATE_KEY3));
             }
             if (System.getProperty(MARKETPLACE_PRIVATE_KEY) != null) {
-                this.properties.put(MARKETPLACE_PRIVATE_KEY, System.getProperty(MARKETPLACE_PRIVATE_KEY));
+                loadedProperties.put(MARKETPLACE_PRIVATE_KEY, System.getProperty(MARKETPLACE_PRIVATE_KEY));
             }
+            this.properties = loadedProperties;
         } catch (IOException e) {
             logger.error("Error loading heidelpay.properties from Classpath: %s", e.getMessage());
             throw new PropertiesException("Error loading heidelpay.properties from Classpath: " + e.getMessage());
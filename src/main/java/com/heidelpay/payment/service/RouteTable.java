@@ -0,0 +1,178 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.heidelpay.payment.exceptions.PropertiesException;
+
+/**
+ * The urls of an endpoint, compiled once and shared by the {@code UrlUtil}s of the
+ * endpoint. The routes of the payment types are compiled on their first use.
+ */
+final class RouteTable {
+
+	private static final String PLACEHOLDER_PAYMENT_ID = "<paymentId>";
+	private static final String PLACEHOLDER_ID = "<id>";
+
+	private static final String REFUND_URL = "payments/<paymentId>/charges/<chargeId>/cancels";
+	private static final String RECURRING_URL = "types/<typeId>/recurring";
+	private static final String HIRE_PURCHASE_RATE_URL = "types/hire-purchase-direct-debit/plans?"
+			+ "amount=<amount>&currency=<currency>&effectiveInterest=<effectiveInterest>&orderDate=<orderDate>";
+
+	private static final PropertiesUtil properties = new PropertiesUtil();
+	private static final ConcurrentMap<String, RouteTable> tables = new ConcurrentHashMap<String, RouteTable>();
+
+	private final String restUrl;
+	private final String baseUrl;
+	private final UrlTemplate refundUrl;
+	private final UrlTemplate recurringUrl;
+	private final UrlTemplate hirePurchaseRateUrl;
+	private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<String, Route>();
+
+	/**
+	 * The urls of a payment type, respectively of its type url. Type urls without
+	 * paymentId, e.g. of baskets, ignore the paymentId.
+	 */
+	static final class Route {
+		private final String restUrl;
+		private final String httpGetUrl;
+		private final UrlTemplate paymentUrl;
+		private final UrlTemplate paymentIdUrl;
+
+		private Route(String baseUrl, String typeUrl) {
+			this.restUrl = baseUrl + typeUrl.replace(PLACEHOLDER_PAYMENT_ID + "/", "");
+			this.httpGetUrl = withSlash(restUrl);
+			String paymentUrl = withSlash(baseUrl + typeUrl);
+			this.paymentUrl = new UrlTemplate(paymentUrl, PLACEHOLDER_PAYMENT_ID);
+			this.paymentIdUrl = new UrlTemplate(paymentUrl + PLACEHOLDER_ID, PLACEHOLDER_PAYMENT_ID, PLACEHOLDER_ID);
+		}
+
+		String getRestUrl() {
+			return restUrl;
+		}
+
+		String getHttpGetUrl(String id) {
+			return httpGetUrl.concat(String.valueOf(id));
+		}
+
+		String getPaymentUrl(String paymentId) {
+			return paymentUrl.expand(values(paymentUrl.getPlaceholderCount(), paymentId));
+		}
+
+		String getPaymentUrl(String paymentId, String id) {
+			String[] values = values(paymentIdUrl.getPlaceholderCount(), paymentId);
+			values[values.length - 1] = id;
+			return paymentIdUrl.expand(values);
+		}
+
+		private static String[] values(int count, String paymentId) {
+			String[] values = new String[count];
+			for (int i = 0; i < count; i++) {
+				values[i] = paymentId;
+			}
+			return values;
+		}
+	}
+
+	private RouteTable(String restUrl) {
+		this.restUrl = restUrl;
+		this.baseUrl = withSlash(restUrl);
+		this.refundUrl = new UrlTemplate(baseUrl + REFUND_URL, PLACEHOLDER_PAYMENT_ID, "<chargeId>");
+		this.recurringUrl = new UrlTemplate(baseUrl + RECURRING_URL, "<typeId>");
+		this.hirePurchaseRateUrl = new UrlTemplate(baseUrl + HIRE_PURCHASE_RATE_URL,
+				"<amount>", "<currency>", "<effectiveInterest>", "<orderDate>");
+	}
+
+	/**
+	 * Returns the table of the given endpoint, compiled on the first call for the endpoint.
+	 * 
+	 * @param endPoint - the endpoint, in case of null or empty the value of heidelpay.properties will be considered
+	 * @return the table of the endpoint
+	 */
+	static RouteTable forEndPoint(String endPoint) {
+		String key = endPoint == null ? "" : endPoint;
+		RouteTable table = tables.get(key);
+		if (table == null) {
+			table = new RouteTable(key.isEmpty() ? getPropertiesRestUrl() : key);
+			RouteTable existing = tables.putIfAbsent(key, table);
+			if (existing != null) {
+				table = existing;
+			}
+		}
+		return table;
+	}
+
+	private static String getPropertiesRestUrl() {
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(properties.getString(PropertiesUtil.REST_ENDPOINT));
+		if (stringBuilder.length() == 0) {
+			throw new PropertiesException("Properties file heidelpay.properties is empty");
+		}
+		appendSlashIfNeeded(stringBuilder);
+		stringBuilder.append(properties.getString(PropertiesUtil.REST_VERSION));
+		appendSlashIfNeeded(stringBuilder);
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * @return the endpoint as configured, the url of heidelpay.properties ends with a slash
+	 */
+	String getRestUrl() {
+		return restUrl;
+	}
+
+	UrlTemplate getRefundUrl() {
+		return refundUrl;
+	}
+
+	UrlTemplate getRecurringUrl() {
+		return recurringUrl;
+	}
+
+	UrlTemplate getHirePurchaseRateUrl() {
+		return hirePurchaseRateUrl;
+	}
+
+	Route getRoute(String typeUrl) {
+		Route route = routes.get(typeUrl);
+		if (route == null) {
+			route = new Route(baseUrl, typeUrl);
+			Route existing = routes.putIfAbsent(typeUrl, route);
+			if (existing != null) {
+				route = existing;
+			}
+		}
+		return route;
+	}
+
+	private static String withSlash(String url) {
+		return url.endsWith("/") ? url : url + "/";
+	}
+
+	private static void appendSlashIfNeeded(StringBuilder stringBuilder) {
+		if (stringBuilder.charAt(stringBuilder.length() - 1) != '/') {
+			stringBuilder.append("/");
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Path of a route with placeholders, e.g. {@code payments/<paymentId>/charges/<chargeId>/cancels},
+ * split once into its literal parts. A url is rendered in a single pass into a
+ * buffer of its final length, without searching and replacing the placeholders.
+ * Text in angle brackets which is not one of the given placeholders is kept as it is.
+ * 
+ * <pre>
+ * UrlTemplate refund = new UrlTemplate("payments/&lt;paymentId&gt;/charges/&lt;chargeId&gt;/cancels", "&lt;paymentId&gt;", "&lt;chargeId&gt;");
+ * refund.expand("s-pay-1", "s-chg-1"); // payments/s-pay-1/charges/s-chg-1/cancels
+ * </pre>
+ * 
+ * Instances are immutable and thread-safe.
+ */
+public final class UrlTemplate {
+
+	private final String path;
+	private final String[] literals;
+	private final int literalLength;
+
+	/**
+	 * Creates a {@code UrlTemplate} of the given path.
+	 * 
+	 * @param path - the path of the route
+	 * @param placeholders - the placeholders in the path, e.g. {@code <paymentId>}. A placeholder
+	 *        may occur several times, the values are passed in order of the occurrences.
+	 */
+	public UrlTemplate(String path, String... placeholders) {
+		if (path == null) {
+			throw new IllegalArgumentException("Path must not be null");
+		}
+		for (String placeholder : placeholders) {
+			if (placeholder == null || placeholder.isEmpty()) {
+				throw new IllegalArgumentException("Placeholders must not be empty");
+			}
+		}
+		List<String> parts = new ArrayList<String>();
+		int length = 0;
+		int start = 0;
+		while (true) {
+			int next = -1;
+			String placeholder = null;
+			for (String candidate : placeholders) {
+				int index = path.indexOf(candidate, start);
+				if (index >= 0 && (next < 0 || index < next)) {
+					next = index;
+					placeholder = candidate;
+				}
+			}
+			String literal = next < 0 ? path.substring(start) : path.substring(start, next);
+			parts.add(literal);
+			length += literal.length();
+			if (next < 0) {
+				break;
+			}
+			start = next + placeholder.length();
+		}
+		this.path = path;
+		this.literals = parts.toArray(new String[parts.size()]);
+		this.literalLength = length;
+	}
+
+	/**
+	 * Renders the url with the given values in place of the placeholders.
+	 * 
+	 * @param values - one value per occurrence of a placeholder, in order of the path
+	 * @return the url
+	 */
+	public String expand(String... values) {
+		if (values.length != literals.length - 1) {
+			throw new IllegalArgumentException("Url template '" + path + "' takes " + (literals.length - 1)
+					+ " values, got " + values.length);
+		}
+		int length = literalLength;
+		for (String value : values) {
+			length += String.valueOf(value).length();
+		}
+		StringBuilder url = new StringBuilder(length);
+		url.append(literals[0]);
+		for (int i = 0; i < values.length; i++) {
+			url.append(values[i]).append(literals[i + 1]);
+		}
+		return url.toString();
+	}
+
+	/**
+	 * @return the number of values taken by {@link #expand(String...)}
+	 */
+	public int getPlaceholderCount() {
+		return literals.length - 1;
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+}
@@ -1,6 +1,7 @@
 package com.heidelpay.payment.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /*-
  * #%L
@@ -24,36 +25,23 @@ import java.math.BigDecimal;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.Currency;
 import java.util.Date;
-import java.util.Locale;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.heidelpay.payment.Recurring;
-import com.heidelpay.payment.exceptions.PropertiesException;
 import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.util.DateUtil;
 
 public class UrlUtil {
-	private static final String PLACEHOLDER_CHARGE_ID = "<chargeId>";
-
-	private static final String PLACEHOLDER_PAYMENT_ID = "<paymentId>";
-
-	private static final String PLACEHOLDER_TYPE_ID = "<typeId>";
-
-	private static final String REFUND_URL = "payments/<paymentId>/charges/<chargeId>/cancels";
-
-	private static final String RECURRING_URL = "types/<typeId>/recurring";
-
 	public static final Logger logger = LogManager.getLogger(UrlUtil.class);
 
-	private final PropertiesUtil properties = new PropertiesUtil();
-
 	private String endPoint;
 
+	private volatile RouteTable routeTable;
+
 	public UrlUtil (String endPoint) {
 		this.endPoint = endPoint;
 	}
@@ -68,98 +56,64 @@ public class UrlUtil {
 	}
 	
 	public String getRefundUrl(String paymentId, String chargeId) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrl());
-		appendSlashIfNeeded(stringBuilder);
-		stringBuilder.append(REFUND_URL);
-		String result = stringBuilder.toString();
-		result = result.replace(PLACEHOLDER_PAYMENT_ID, paymentId);
-		return result.replace(PLACEHOLDER_CHARGE_ID, chargeId);
+		return getRouteTable().getRefundUrl().expand(paymentId, chargeId);
 	}
 	public String getPaymentUrl(PaymentType paymentType, String paymentId) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrlInternal(paymentType));
-		appendSlashIfNeeded(stringBuilder);
-		String result = stringBuilder.toString();
-		return result.replace(PLACEHOLDER_PAYMENT_ID, paymentId);
+		return getRoute(paymentType).getPaymentUrl(paymentId);
 	}
 	public String getPaymentUrl(PaymentType paymentType, String paymentId, String id) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrlInternal(paymentType));
-		appendSlashIfNeeded(stringBuilder);
-		stringBuilder.append(id);
-		String result = stringBuilder.toString();
-		return result.replace(PLACEHOLDER_PAYMENT_ID, paymentId);
+		return getRoute(paymentType).getPaymentUrl(paymentId, id);
 	}
 	public String getHttpGetUrl(PaymentType paymentType, String id) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrl(paymentType));
-		appendSlashIfNeeded(stringBuilder);
-		stringBuilder.append(id);
-		return  stringBuilder.toString();
+		return getRoute(paymentType).getHttpGetUrl(id);
 	}
 	public String getRecurringUrl(Recurring recurring) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrl());
-		appendSlashIfNeeded(stringBuilder);
-		stringBuilder.append(RECURRING_URL);
-		String result = stringBuilder.toString();
-		result = result.replace(PLACEHOLDER_TYPE_ID, recurring.getTypeId());
-		return result;
+		return getRouteTable().getRecurringUrl().expand(recurring.getTypeId());
 	}
 	public String getRestUrl(PaymentType paymentType) {
-		return getRestUrlInternal(paymentType).replace("<paymentId>/", "");
-	}
-	private String getRestUrlInternal(PaymentType paymentType) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrl());
-		appendSlashIfNeeded(stringBuilder);
-		stringBuilder.append(paymentType.getTypeUrl());
-		return stringBuilder.toString();
+		return getRoute(paymentType).getRestUrl();
 	}
 	public String getRestUrl() {
-		if(endPoint != null && !endPoint.isEmpty()) {
-			return endPoint;
-		} else {
-			StringBuilder stringBuilder = new StringBuilder();
-			stringBuilder.append(properties.getString(PropertiesUtil.REST_ENDPOINT));
-			if (stringBuilder.length() == 0) {
-				throw new PropertiesException("Properties file heidelpay.properties is empty");
-			}
-			appendSlashIfNeeded(stringBuilder);
-			stringBuilder.append(properties.getString(PropertiesUtil.REST_VERSION));
-			appendSlashIfNeeded(stringBuilder);
-			return stringBuilder.toString();
-		}
+		return getRouteTable().getRestUrl();
 	}
 
-	private void appendSlashIfNeeded(StringBuilder stringBuilder) {
-		if (stringBuilder.charAt(stringBuilder.length()-1) != '/') {
-			stringBuilder.append("/");
-		}
+	public String getHirePurchaseRateUrl(BigDecimal amount, Currency currency, BigDecimal effectiveInterestRate, Date orderDate) {
+		return getRouteTable().getHirePurchaseRateUrl().expand(getBigDecimal(amount), currency.getCurrencyCode(),
+				getBigDecimal(effectiveInterestRate), getDate(orderDate));
 	}
 
-	public String getHirePurchaseRateUrl(BigDecimal amount, Currency currency, BigDecimal effectiveInterestRate, Date orderDate) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(getRestUrl());
-		stringBuilder.append("types/hire-purchase-direct-debit/plans?");
-		stringBuilder.append("amount=").append(getBigDecimal(amount)).append("&");
-		stringBuilder.append("currency=").append(currency.getCurrencyCode()).append("&");
-		stringBuilder.append("effectiveInterest=").append(getBigDecimal(effectiveInterestRate)).append("&");
-		stringBuilder.append("orderDate=").append(getDate(orderDate));
-		return stringBuilder.toString();
+	private RouteTable.Route getRoute(PaymentType paymentType) {
+		return getRouteTable().getRoute(paymentType.getTypeUrl());
+	}
+
+	/**
+	 * The table is looked up on first use, so a missing heidelpay.properties is
+	 * reported by the call of the url instead of the creation of the service.
+	 */
+	private RouteTable getRouteTable() {
+		RouteTable table = routeTable;
+		if (table == null) {
+			table = RouteTable.forEndPoint(endPoint);
+			routeTable = table;
+		}
+		return table;
 	}
 
 	private String getDate(Date date) {
-		return new SimpleDateFormat("yyyy-MM-dd").format(date);
+		return DateUtil.formatDate(date);
 	}
 
+	/**
+	 * Same as a {@code NumberFormat} with english symbols, up to four fraction
+	 * digits and no grouping.
+	 */
 	private String getBigDecimal(BigDecimal decimal) {
-		NumberFormat df = NumberFormat.getNumberInstance(Locale.ENGLISH);
-		df.setMaximumFractionDigits(4);
-		df.setMinimumFractionDigits(0);
-		df.setGroupingUsed(false);
-		return df.format(decimal);
+		BigDecimal rounded = decimal.setScale(4, RoundingMode.HALF_EVEN);
+		if (rounded.signum() == 0) {
+			// NumberFormat keeps the sign of negative numbers rounded to zero
+			return decimal.signum() < 0 ? "-0" : "0";
+		}
+		return rounded.stripTrailingZeros().toPlainString();
 	}
 
 }
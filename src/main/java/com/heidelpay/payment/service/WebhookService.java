@@ -39,7 +39,7 @@ public class WebhookService {
 		this.heidelpay = heidelpay;
 		this.urlUtil = new UrlUtil(heidelpay.getEndPoint());
 		this.restCommunication = restCommunication;
-		this.jsonParser = new JsonParser();
+		this.jsonParser = heidelpay.getJsonParser();
 	}
 	
 	/**
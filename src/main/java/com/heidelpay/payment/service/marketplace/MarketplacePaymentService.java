@@ -22,8 +22,11 @@ package com.heidelpay.payment.service.marketplace;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import com.heidelpay.payment.AbstractPayment;
+import com.heidelpay.payment.AbstractTransaction;
 import com.heidelpay.payment.Heidelpay;
 import com.heidelpay.payment.communication.HeidelpayRestCommunication;
 import com.heidelpay.payment.communication.HttpCommunicationException;
@@ -36,6 +39,7 @@ import com.heidelpay.payment.marketplace.MarketplaceAuthorization;
 import com.heidelpay.payment.marketplace.MarketplaceCancel;
 import com.heidelpay.payment.marketplace.MarketplaceCharge;
 import com.heidelpay.payment.marketplace.MarketplacePayment;
+import com.heidelpay.payment.service.ParallelFetcher;
 import com.heidelpay.payment.service.PaymentService;
 
 public class MarketplacePaymentService extends PaymentService {
@@ -52,10 +56,22 @@ public class MarketplacePaymentService extends PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public MarketplaceAuthorization marketplaceAuthorize(MarketplaceAuthorization authorization) throws HttpCommunicationException {
+		return marketplaceAuthorize(authorization, !shallowResponses);
+	}
+	
+	/**
+	 * Execute a marketplace authorization.
+	 * 
+	 * @param authorization refers to normal authorization request.
+	 * @param loadPayment - if false, the payment is not fetched after the authorization but on the first call to getPayment().
+	 * @return MarketplaceAuthorization refers to an authorization response with id, paymentId, etc.
+	 * @throws HttpCommunicationException
+	 */
+	public MarketplaceAuthorization marketplaceAuthorize(MarketplaceAuthorization authorization, boolean loadPayment) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(urlUtil.getRestUrl(authorization), heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(authorization));
 		JsonAuthorization jsonAuthorization = jsonParser.fromJson(response, JsonAuthorization.class);
 		authorization = (MarketplaceAuthorization) jsonToBusinessClassMapper.mapToBusinessObject(authorization, jsonAuthorization);
-		authorization.setPayment(fetchMarketplacePayment(jsonAuthorization.getResources().getPaymentId()));
+		setMarketplacePayment(authorization, jsonAuthorization.getResources().getPaymentId(), loadPayment);
 		authorization.setHeidelpay(heidelpay);
 		return authorization;
 	}
@@ -68,12 +84,23 @@ public class MarketplacePaymentService extends PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public MarketplaceCharge marketplaceCharge(MarketplaceCharge charge) throws HttpCommunicationException {
+		return marketplaceCharge(charge, !shallowResponses);
+	}
+	
+	/**
+	 * Execute a marketplace charge.
+	 * 
+	 * @param charge refers to normal charge request.
+	 * @param loadPayment - if false, the payment is not fetched after the charge but on the first call to getPayment().
+	 * @return MarketplaceCharge
+	 * @throws HttpCommunicationException
+	 */
+	public MarketplaceCharge marketplaceCharge(MarketplaceCharge charge, boolean loadPayment) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(urlUtil.getRestUrl(charge), heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(charge));
 		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
 		charge = (MarketplaceCharge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
 		charge.setInvoiceId(jsonCharge.getInvoiceId());
-		charge.setPayment(fetchMarketplacePayment(jsonCharge.getResources().getPaymentId()));
-		charge.setPaymentId(jsonCharge.getResources().getPaymentId());
+		setMarketplacePayment(charge, jsonCharge.getResources().getPaymentId(), loadPayment);
 		charge.setHeidelpay(heidelpay);
 		return charge;
 	}
@@ -87,13 +114,25 @@ public class MarketplacePaymentService extends PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public MarketplaceCharge marketplaceChargeAuthorization(String paymentId, String authorizeId, MarketplaceCharge charge) throws HttpCommunicationException {
+		return marketplaceChargeAuthorization(paymentId, authorizeId, charge, !shallowResponses);
+	}
+	
+	/**
+	 * Execute a marketplace charge for one authorization.
+	 * @param paymentId refers to marketplace payment.
+	 * @param authorizeId refers to marketplace authorization to be charged.
+	 * @param charge refers to charge request with amount, payment reference, etc.
+	 * @param loadPayment - if false, the payment is not fetched after the charge but on the first call to getPayment().
+	 * @return MarketplaceCharge
+	 * @throws HttpCommunicationException
+	 */
+	public MarketplaceCharge marketplaceChargeAuthorization(String paymentId, String authorizeId, MarketplaceCharge charge, boolean loadPayment) throws HttpCommunicationException {
 		String url = urlUtil.getRestUrl().concat("/").concat(charge.getChargeAuthorizationUrl(paymentId, authorizeId));
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(charge));
 		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
 		charge = (MarketplaceCharge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
 		charge.setInvoiceId(jsonCharge.getInvoiceId());
-		charge.setPayment(fetchMarketplacePayment(jsonCharge.getResources().getPaymentId()));
-		charge.setPaymentId(jsonCharge.getResources().getPaymentId());
+		setMarketplacePayment(charge, jsonCharge.getResources().getPaymentId(), loadPayment);
 		charge.setHeidelpay(heidelpay);
 		return charge;
 	}
@@ -116,9 +155,7 @@ public class MarketplacePaymentService extends PaymentService {
 		MarketplacePayment paymentResponse = new MarketplacePayment(this.heidelpay);
 		paymentResponse.setId(paymentId);
 		paymentResponse = jsonToBusinessClassMapper.mapToBusinessObject(paymentResponse, jsonPayment);
-		paymentResponse.setCancelList(fetchCancelList(paymentResponse, getCancelsFromTransactions(jsonPayment.getTransactions())));
-		paymentResponse.setAuthorizationsList(fetchAuthorizationList(paymentResponse, getAuthorizationsFromTransactions(jsonPayment.getTransactions())));
-		paymentResponse.setChargesList(fetchChargeList(paymentResponse, getChargesFromTransactions(jsonPayment.getTransactions())));
+		loadTransactions(paymentResponse, jsonPayment.getTransactions(), lazyLoading || shallowResponses);
 		return paymentResponse;
 	}
 	
@@ -132,30 +169,63 @@ public class MarketplacePaymentService extends PaymentService {
 	public MarketplacePayment fetchMarketplacePayment(String paymentId) throws HttpCommunicationException {
 		MarketplacePayment payment = new MarketplacePayment(heidelpay);
 		payment.setId(paymentId);
-		String response = getPayment(payment);		
-		JsonPayment jsonPayment = jsonParser.fromJson(response, JsonPayment.class);
+		JsonPayment jsonPayment = httpGet(urlUtil.getHttpGetUrl(payment, payment.getId()), JsonPayment.class);
 		payment = jsonToBusinessClassMapper.mapToBusinessObject(payment, jsonPayment);
-		payment.setCancelList(fetchCancelList(payment, getCancelsFromTransactions(jsonPayment.getTransactions())));
-		payment.setAuthorizationsList(fetchAuthorizationList(payment, getAuthorizationsFromTransactions(jsonPayment.getTransactions())));
-		payment.setChargesList(fetchChargeList(payment, getChargesFromTransactions(jsonPayment.getTransactions())));
+		loadTransactions(payment, jsonPayment.getTransactions(), lazyLoading);
 		return payment;
 	}
 	
-	private List<MarketplaceCharge> fetchChargeList(MarketplacePayment payment, List<JsonTransaction> jsonChargesTransactionList) throws HttpCommunicationException {
-		List<MarketplaceCharge> chargesList = new ArrayList<MarketplaceCharge>();
+	private void loadTransactions(final MarketplacePayment payment, List<JsonTransaction> transactions, boolean deferred) throws HttpCommunicationException {
+		if (deferred) {
+			payment.setUnresolvedTransactions(transactions, new AbstractPayment.TransactionFetcher() {
+				@Override
+				public void fetchTransactions(List<JsonTransaction> transactions) throws HttpCommunicationException {
+					MarketplacePaymentService.this.fetchTransactions(payment, transactions);
+				}
+			});
+		} else {
+			fetchTransactions(payment, transactions);
+		}
+	}
+	
+	private void fetchTransactions(MarketplacePayment payment, List<JsonTransaction> transactions) throws HttpCommunicationException {
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		MarketplaceCancel[] cancels = addCancelTasks(tasks, payment, getCancelsFromTransactions(transactions));
+		MarketplaceAuthorization[] authorizations = addAuthorizationTasks(tasks, payment, getAuthorizationsFromTransactions(transactions));
+		MarketplaceCharge[] charges = addChargeTasks(tasks, payment, getChargesFromTransactions(transactions));
+		parallelFetcher.runAll(tasks);
 		
-		if (jsonChargesTransactionList != null && !jsonChargesTransactionList.isEmpty()) {
-			for (JsonTransaction jsonTransaction : jsonChargesTransactionList) {
-				MarketplaceCharge charge = fetchCharge(payment, new MarketplaceCharge(heidelpay), jsonTransaction.getUrl());
-				charge.setCancelList(getCancelListByParentId(payment.getCancelList(), TRANSACTION_TYPE_CANCEL_CHARGE, charge.getId()));
-				charge.setType(jsonTransaction.getType());
-				charge.setBasketId(payment.getBasketId());
-				charge.setCustomerId(payment.getCustomerId());
-				charge.setMetadataId(payment.getMetadataId());
-				chargesList.add(charge);
-			}
+		// the cancels are assigned to their authorization or charge once all transactions are fetched
+		List<MarketplaceCancel> cancelList = new ArrayList<MarketplaceCancel>(Arrays.asList(cancels));
+		payment.setCancelList(cancelList);
+		for (MarketplaceAuthorization authorization : authorizations) {
+			authorization.setCancelList(getCancelListByParentId(cancelList, TRANSACTION_TYPE_CANCEL_AUTHORIZE, authorization.getId()));
+		}
+		for (MarketplaceCharge charge : charges) {
+			charge.setCancelList(getCancelListByParentId(cancelList, TRANSACTION_TYPE_CANCEL_CHARGE, charge.getId()));
+		}
+		payment.setAuthorizationsList(new ArrayList<MarketplaceAuthorization>(Arrays.asList(authorizations)));
+		payment.setChargesList(new ArrayList<MarketplaceCharge>(Arrays.asList(charges)));
+	}
+	
+	private MarketplaceCharge[] addChargeTasks(List<ParallelFetcher.Task> tasks, final MarketplacePayment payment, List<JsonTransaction> jsonTransactionList) {
+		final MarketplaceCharge[] charges = new MarketplaceCharge[jsonTransactionList.size()];
+		for (int i = 0; i < charges.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					MarketplaceCharge charge = fetchCharge(payment, new MarketplaceCharge(heidelpay), jsonTransaction.getUrl());
+					charge.setType(jsonTransaction.getType());
+					charge.setBasketId(payment.getBasketId());
+					charge.setCustomerId(payment.getCustomerId());
+					charge.setMetadataId(payment.getMetadataId());
+					charges[index] = charge;
+				}
+			});
 		}
-		return chargesList;
+		return charges;
 	}
 	
 	/**
@@ -169,10 +239,9 @@ public class MarketplacePaymentService extends PaymentService {
 	public MarketplaceCharge fetchMarketplaceCharge(String paymentId, String chargeId) throws HttpCommunicationException {
 		MarketplaceCharge charge = new MarketplaceCharge(heidelpay);
 		charge.setId(chargeId);
-		String response = restCommunication.httpGet(urlUtil.getPaymentUrl(charge, paymentId, chargeId), heidelpay.getPrivateKey());
-		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
+		JsonCharge jsonCharge = httpGet(urlUtil.getPaymentUrl(charge, paymentId, chargeId), JsonCharge.class);
 		charge = (MarketplaceCharge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
-		charge.setPayment(fetchMarketplacePayment(jsonCharge.getResources().getPaymentId()));
+		setMarketplacePayment(charge, jsonCharge.getResources().getPaymentId(), false);
 		return charge;
 	}
 	
@@ -187,10 +256,9 @@ public class MarketplacePaymentService extends PaymentService {
 	public MarketplaceAuthorization fetchMarketplaceAuthorization(String paymentId, String authorizeId) throws HttpCommunicationException {
 		MarketplaceAuthorization authorization = new MarketplaceAuthorization(heidelpay);
 		authorization.setId(authorizeId);
-		String response = restCommunication.httpGet(urlUtil.getPaymentUrl(authorization, paymentId, authorizeId), heidelpay.getPrivateKey());
-		JsonAuthorization jsonAuthorization = jsonParser.fromJson(response, JsonAuthorization.class);
+		JsonAuthorization jsonAuthorization = httpGet(urlUtil.getPaymentUrl(authorization, paymentId, authorizeId), JsonAuthorization.class);
 		authorization = (MarketplaceAuthorization) jsonToBusinessClassMapper.mapToBusinessObject(authorization, jsonAuthorization);
-		authorization.setPayment(fetchMarketplacePayment(jsonAuthorization.getResources().getPaymentId()));
+		setMarketplacePayment(authorization, jsonAuthorization.getResources().getPaymentId(), false);
 		return authorization;
 	}
 	
@@ -227,8 +295,21 @@ public class MarketplacePaymentService extends PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public MarketplaceCancel marketplaceAuthorizationCancel(String paymentId, String authorizeId, MarketplaceCancel cancel) throws HttpCommunicationException {
+		return marketplaceAuthorizationCancel(paymentId, authorizeId, cancel, !shallowResponses);
+	}
+	
+	/**
+	 * Execute a marketplace cancel for one authorization.
+	 * @param paymentId refers to payment to be cancelled.
+	 * @param authorizeId refers to authorization to be cancelled.
+	 * @param cancel refers to cancel request.
+	 * @param loadPayment - if false, the payment is not fetched after the cancel but on the first call to getPayment().
+	 * @return MarketplaceCancel
+	 * @throws HttpCommunicationException
+	 */
+	public MarketplaceCancel marketplaceAuthorizationCancel(String paymentId, String authorizeId, MarketplaceCancel cancel, boolean loadPayment) throws HttpCommunicationException {
 		String url = urlUtil.getRestUrl().concat(cancel.getPartialAuthorizeCancelUrl(paymentId, authorizeId));
-		return marketplaceCancel(paymentId, url, cancel);
+		return marketplaceCancel(paymentId, url, cancel, loadPayment);
 	}
 	
 	/**
@@ -240,8 +321,21 @@ public class MarketplacePaymentService extends PaymentService {
 	 * @throws HttpCommunicationException
 	 */
 	public MarketplaceCancel marketplaceChargeCancel(String paymentId, String chargeId, MarketplaceCancel cancel) throws HttpCommunicationException {
+		return marketplaceChargeCancel(paymentId, chargeId, cancel, !shallowResponses);
+	}
+	
+	/**
+	 * Execute a marketplace cancel for one charge.
+	 * @param paymentId refers to payment to be cancelled.
+	 * @param chargeId refers to charge to be cancelled.
+	 * @param cancel refers to cancel request.
+	 * @param loadPayment - if false, the payment is not fetched after the cancel but on the first call to getPayment().
+	 * @return MarketplaceCancel
+	 * @throws HttpCommunicationException
+	 */
+	public MarketplaceCancel marketplaceChargeCancel(String paymentId, String chargeId, MarketplaceCancel cancel, boolean loadPayment) throws HttpCommunicationException {
 		String url = urlUtil.getRestUrl().concat(cancel.getPartialChargeCancelUrl(paymentId, chargeId));
-		return marketplaceCancel(paymentId, url, cancel);
+		return marketplaceCancel(paymentId, url, cancel, loadPayment);
 	}
 	
 	private MarketplacePayment marketplaceFullCancel(String paymentId, String url, MarketplaceCancel cancel) throws HttpCommunicationException {
@@ -250,54 +344,72 @@ public class MarketplacePaymentService extends PaymentService {
 		MarketplacePayment paymentResponse = new MarketplacePayment(this.heidelpay);
 		paymentResponse.setId(paymentId);
 		paymentResponse = jsonToBusinessClassMapper.mapToBusinessObject(paymentResponse, jsonPayment);
-		paymentResponse.setCancelList(fetchCancelList(paymentResponse, getCancelsFromTransactions(jsonPayment.getTransactions())));
-		paymentResponse.setAuthorizationsList(fetchAuthorizationList(paymentResponse, getAuthorizationsFromTransactions(jsonPayment.getTransactions())));
-		paymentResponse.setChargesList(fetchChargeList(paymentResponse, getChargesFromTransactions(jsonPayment.getTransactions())));
+		loadTransactions(paymentResponse, jsonPayment.getTransactions(), lazyLoading || shallowResponses);
 		return paymentResponse;
 	}
 	
-	private MarketplaceCancel marketplaceCancel(String paymentId, String url, MarketplaceCancel cancel) throws HttpCommunicationException {
+	private MarketplaceCancel marketplaceCancel(String paymentId, String url, MarketplaceCancel cancel, boolean loadPayment) throws HttpCommunicationException {
 		String response = restCommunication.httpPost(url, heidelpay.getPrivateKey(), jsonToBusinessClassMapper.map(cancel));
 		JsonCancel jsonCancel = jsonParser.fromJson(response, JsonCancel.class);
 		cancel = (MarketplaceCancel)jsonToBusinessClassMapper.mapToBusinessObject(cancel, jsonCancel);
-		cancel.setPayment(fetchMarketplacePayment(paymentId));
+		setMarketplacePayment(cancel, paymentId, loadPayment);
 		cancel.setHeidelpay(heidelpay);
 		return cancel;
 	}
 	
-	private List<MarketplaceAuthorization> fetchAuthorizationList(MarketplacePayment payment, List<JsonTransaction> jsonTransaction) throws HttpCommunicationException {
-		List<MarketplaceAuthorization> authorizationsList = new ArrayList<MarketplaceAuthorization>(jsonTransaction.size());
-		if(!jsonTransaction.isEmpty()) {
-			for(JsonTransaction json : jsonTransaction) {
-				MarketplaceAuthorization authorization = fetchAuthorization(payment, new MarketplaceAuthorization(heidelpay), json.getUrl());
-				authorization.setCancelList(getCancelListByParentId(payment.getCancelList(), TRANSACTION_TYPE_CANCEL_AUTHORIZE, authorization.getId()));
-				authorization.setType(json.getType());
-				authorization.setBasketId(payment.getBasketId());
-				authorization.setCustomerId(payment.getCustomerId());
-				authorization.setMetadataId(payment.getMetadataId());
-				authorizationsList.add(authorization);
-			}
+	private void setMarketplacePayment(AbstractTransaction<MarketplacePayment> transaction, String paymentId, boolean loadPayment) throws HttpCommunicationException {
+		transaction.setPaymentId(paymentId);
+		if (loadPayment) {
+			transaction.setPayment(fetchMarketplacePayment(paymentId));
+		} else {
+			transaction.setUnresolvedPayment(new AbstractTransaction.PaymentFetcher<MarketplacePayment>() {
+				@Override
+				public MarketplacePayment fetchPayment(String paymentId) throws HttpCommunicationException {
+					return fetchMarketplacePayment(paymentId);
+				}
+			});
 		}
-		
-		return authorizationsList;
 	}
 	
-	private List<MarketplaceCancel> fetchCancelList(MarketplacePayment payment, List<JsonTransaction> jsonChargesTransactionList) throws HttpCommunicationException {
-		List<MarketplaceCancel> cancelList = new ArrayList<MarketplaceCancel>();
-		
-		if (jsonChargesTransactionList != null && !jsonChargesTransactionList.isEmpty()) {
-			for (JsonTransaction jsonTransaction : jsonChargesTransactionList) {
-				MarketplaceCancel cancel = fetchCancel(payment, new MarketplaceCancel(heidelpay), jsonTransaction.getUrl());
-				cancel.setType(jsonTransaction.getType());
-				cancelList.add(cancel);
-			}
+	private MarketplaceAuthorization[] addAuthorizationTasks(List<ParallelFetcher.Task> tasks, final MarketplacePayment payment, List<JsonTransaction> jsonTransactionList) {
+		final MarketplaceAuthorization[] authorizations = new MarketplaceAuthorization[jsonTransactionList.size()];
+		for (int i = 0; i < authorizations.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					MarketplaceAuthorization authorization = fetchAuthorization(payment, new MarketplaceAuthorization(heidelpay), jsonTransaction.getUrl());
+					authorization.setType(jsonTransaction.getType());
+					authorization.setBasketId(payment.getBasketId());
+					authorization.setCustomerId(payment.getCustomerId());
+					authorization.setMetadataId(payment.getMetadataId());
+					authorizations[index] = authorization;
+				}
+			});
 		}
-		return cancelList;
+		return authorizations;
+	}
+	
+	private MarketplaceCancel[] addCancelTasks(List<ParallelFetcher.Task> tasks, final MarketplacePayment payment, List<JsonTransaction> jsonTransactionList) {
+		final MarketplaceCancel[] cancels = new MarketplaceCancel[jsonTransactionList.size()];
+		for (int i = 0; i < cancels.length; i++) {
+			final int index = i;
+			final JsonTransaction jsonTransaction = jsonTransactionList.get(i);
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					MarketplaceCancel cancel = fetchCancel(payment, new MarketplaceCancel(heidelpay), jsonTransaction.getUrl());
+					cancel.setType(jsonTransaction.getType());
+					cancels[index] = cancel;
+				}
+			});
+		}
+		return cancels;
 	}
 	
 	private MarketplaceCancel fetchCancel(MarketplacePayment payment, MarketplaceCancel cancel, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonCancel jsonCancel = jsonParser.fromJson(response, JsonCancel.class);
+		JsonCancel jsonCancel = httpGet(url.toString(), JsonCancel.class);
 		cancel = (MarketplaceCancel)jsonToBusinessClassMapper.mapToBusinessObject(cancel, jsonCancel);
 		cancel.setPayment(payment);
 		cancel.setResourceUrl(url);
@@ -305,18 +417,14 @@ public class MarketplacePaymentService extends PaymentService {
 	}
 	
 	private MarketplaceAuthorization fetchAuthorization(MarketplacePayment payment, MarketplaceAuthorization authorization, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonAuthorization jsonAuthorization = jsonParser.fromJson(response,
-				JsonAuthorization.class);
+		JsonAuthorization jsonAuthorization = httpGet(url.toString(), JsonAuthorization.class);
 		authorization = (MarketplaceAuthorization) jsonToBusinessClassMapper.mapToBusinessObject(authorization, jsonAuthorization);
-		authorization.setCancelList(getCancelListByParentId(payment.getCancelList(), TRANSACTION_TYPE_CANCEL_AUTHORIZE, authorization.getId()));
 		authorization.setHeidelpay(heidelpay);
 		return authorization;
 	}
 	
 	private MarketplaceCharge fetchCharge(MarketplacePayment payment, MarketplaceCharge charge, URL url) throws HttpCommunicationException {
-		String response = restCommunication.httpGet(url.toString(), heidelpay.getPrivateKey());
-		JsonCharge jsonCharge = jsonParser.fromJson(response, JsonCharge.class);
+		JsonCharge jsonCharge = httpGet(url.toString(), JsonCharge.class);
 		charge = (MarketplaceCharge) jsonToBusinessClassMapper.mapToBusinessObject(charge, jsonCharge);
 		charge.setInvoiceId(jsonCharge.getInvoiceId());
 		charge.setPayment(payment);
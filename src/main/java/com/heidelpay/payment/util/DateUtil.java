@@ -0,0 +1,208 @@
+package com.heidelpay.payment.util;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats and parses the dates of the api, 'yyyy-MM-dd' and 'yyyy-MM-dd HH:mm:ss'
+ * in the default time zone. The results are the same as of a
+ * {@code SimpleDateFormat} with these patterns, but neither a formatter nor a
+ * calendar is created per call: every thread keeps its own calendar, which is
+ * adjusted once the default time zone or locale change. Dates a plain
+ * {@code GregorianCalendar} with ascii digits cannot handle, e.g. years beyond
+ * 9999, are passed on to a cached {@code SimpleDateFormat}.
+ */
+public final class DateUtil {
+
+	public static final String DATE_PATTERN = "yyyy-MM-dd";
+	public static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+	private static final ThreadLocal<Formats> FORMATS = new ThreadLocal<Formats>();
+
+	private DateUtil() {
+	}
+
+	/**
+	 * @param date - the date to be formatted
+	 * @return the date as 'yyyy-MM-dd'
+	 */
+	public static String formatDate(Date date) {
+		return getFormats().format(date, false);
+	}
+
+	/**
+	 * @param date - the date to be formatted
+	 * @return the date as 'yyyy-MM-dd HH:mm:ss'
+	 */
+	public static String formatDateTime(Date date) {
+		return getFormats().format(date, true);
+	}
+
+	/**
+	 * Parses a date given as 'yyyy-MM-dd', if it has 10 characters, or as
+	 * 'yyyy-MM-dd HH:mm:ss' otherwise.
+	 * 
+	 * @param value - the date to be parsed
+	 * @return the parsed date
+	 * @throws ParseException if the value is not a valid date
+	 */
+	public static Date parse(String value) throws ParseException {
+		return getFormats().parse(value);
+	}
+
+	private static Formats getFormats() {
+		TimeZone zone = TimeZone.getDefault();
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		Formats formats = FORMATS.get();
+		if (formats == null || formats.locale != locale) {
+			formats = new Formats(zone, locale);
+			FORMATS.set(formats);
+		} else if (!zone.equals(formats.calendar.getTimeZone())) {
+			formats.setTimeZone(zone);
+		}
+		return formats;
+	}
+
+	private static final class Formats {
+		private final Locale locale;
+		private final Calendar calendar;
+		private final boolean fastPath;
+		private final char[] buffer = new char[DATE_TIME_PATTERN.length()];
+		private SimpleDateFormat dateFormat;
+		private SimpleDateFormat dateTimeFormat;
+
+		Formats(TimeZone zone, Locale locale) {
+			this.locale = locale;
+			this.calendar = Calendar.getInstance(zone, locale);
+			// the same calendar and digits a SimpleDateFormat would use for this locale
+			this.fastPath = calendar.getClass() == GregorianCalendar.class
+					&& DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+		}
+
+		void setTimeZone(TimeZone zone) {
+			calendar.setTimeZone(zone);
+			if (dateFormat != null) {
+				dateFormat.setTimeZone(zone);
+			}
+			if (dateTimeFormat != null) {
+				dateTimeFormat.setTimeZone(zone);
+			}
+		}
+
+		String format(Date date, boolean withTime) {
+			if (fastPath) {
+				calendar.setTime(date);
+				int year = calendar.get(Calendar.YEAR);
+				if (calendar.get(Calendar.ERA) == GregorianCalendar.AD && year <= 9999) {
+					append(year, 4, 0);
+					buffer[4] = '-';
+					append(calendar.get(Calendar.MONTH) + 1, 2, 5);
+					buffer[7] = '-';
+					append(calendar.get(Calendar.DAY_OF_MONTH), 2, 8);
+					if (!withTime) {
+						return new String(buffer, 0, DATE_PATTERN.length());
+					}
+					buffer[10] = ' ';
+					append(calendar.get(Calendar.HOUR_OF_DAY), 2, 11);
+					buffer[13] = ':';
+					append(calendar.get(Calendar.MINUTE), 2, 14);
+					buffer[16] = ':';
+					append(calendar.get(Calendar.SECOND), 2, 17);
+					return new String(buffer);
+				}
+			}
+			return getFormat(withTime).format(date);
+		}
+
+		Date parse(String value) throws ParseException {
+			boolean withTime = value.length() != DATE_PATTERN.length();
+			if (fastPath && isCanonical(value, withTime)) {
+				calendar.clear();
+				calendar.set(Calendar.YEAR, digits(value, 0, 4));
+				calendar.set(Calendar.MONTH, digits(value, 5, 2) - 1);
+				calendar.set(Calendar.DAY_OF_MONTH, digits(value, 8, 2));
+				if (withTime) {
+					calendar.set(Calendar.HOUR_OF_DAY, digits(value, 11, 2));
+					calendar.set(Calendar.MINUTE, digits(value, 14, 2));
+					calendar.set(Calendar.SECOND, digits(value, 17, 2));
+				}
+				return calendar.getTime();
+			}
+			return getFormat(withTime).parse(value);
+		}
+
+		private SimpleDateFormat getFormat(boolean withTime) {
+			if (withTime) {
+				if (dateTimeFormat == null) {
+					dateTimeFormat = createFormat(DATE_TIME_PATTERN);
+				}
+				return dateTimeFormat;
+			}
+			if (dateFormat == null) {
+				dateFormat = createFormat(DATE_PATTERN);
+			}
+			return dateFormat;
+		}
+
+		private SimpleDateFormat createFormat(String pattern) {
+			SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+			format.setTimeZone(calendar.getTimeZone());
+			return format;
+		}
+
+		private void append(int value, int length, int offset) {
+			for (int i = offset + length - 1; i >= offset; i--) {
+				buffer[i] = (char) ('0' + value % 10);
+				value /= 10;
+			}
+		}
+
+		private static boolean isCanonical(String value, boolean withTime) {
+			String pattern = withTime ? DATE_TIME_PATTERN : DATE_PATTERN;
+			if (value.length() != pattern.length()) {
+				return false;
+			}
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = value.charAt(i);
+				if (Character.isLetter(pattern.charAt(i)) ? c < '0' || c > '9' : c != pattern.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int digits(String value, int offset, int length) {
+			int result = 0;
+			for (int i = offset; i < offset + length; i++) {
+				result = result * 10 + value.charAt(i) - '0';
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.heidelpay.payment;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.communication.HttpCommunicationMockUtils;
+import com.heidelpay.payment.communication.MockHeidelpayRestCommunication;
+
+public class HeidelpayAsyncTest {
+
+	private ExecutorService executor;
+	private MockHeidelpayRestCommunication rest;
+	private HeidelpayAsync heidelpay;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(2);
+		rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		heidelpay = new HeidelpayAsync(new Heidelpay(rest, "s-priv-test"), executor);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testChargeComposesFetchPayment() throws Exception {
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1")));
+		rest.addResponse("/payments/s-pay-1/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+
+		Charge charge = heidelpay.charge(BigDecimal.TEN, Currency.getInstance("EUR"), "s-crd-1", null)
+				.get(5, TimeUnit.SECONDS);
+
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals("s-pay-1", charge.getPaymentId());
+		assertEquals("s-pay-1", charge.getPayment().getId());
+		assertEquals(1, charge.getPayment().getChargesList().size());
+		assertEquals("POST https://api.heidelpay.com/v1/payments/charges", rest.getRequestedUrls().get(0));
+		assertEquals("GET https://api.heidelpay.com/v1/payments/s-pay-1", rest.getRequestedUrls().get(1));
+	}
+
+	@Test
+	public void testCancelChargeComposesFetchPayment() throws Exception {
+		rest.addResponse("/payments/s-pay-1/charges/s-chg-1/cancels", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1"));
+
+		Cancel cancel = heidelpay.cancelCharge("s-pay-1", "s-chg-1").get(5, TimeUnit.SECONDS);
+
+		assertEquals("s-cnl-1", cancel.getId());
+		assertEquals("s-pay-1", cancel.getPayment().getId());
+	}
+
+	@Test
+	public void testShallowResponsesSkipFetchPayment() throws Exception {
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		heidelpay.getHeidelpay().setShallowResponses(true);
+
+		Charge charge = heidelpay.charge(BigDecimal.TEN, Currency.getInstance("EUR"), "s-crd-1", null)
+				.get(5, TimeUnit.SECONDS);
+
+		assertEquals("s-chg-1", charge.getId());
+		assertFalse(charge.isPaymentResolved());
+		assertEquals(1, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testApiErrorCompletesExceptionally() throws Exception {
+		CompletableFuture<Payment> future = heidelpay.fetchPayment("s-pay-unknown");
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Expected a PaymentException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof PaymentException);
+			assertEquals("COR.400.100.101", ((PaymentException) e.getCause()).getPaymentErrorList().get(0).getCode());
+		}
+	}
+
+	@Test
+	public void testFailedFetchPaymentFailsTheTransaction() throws Exception {
+		rest.addResponse("/payments/s-pay-1/charges/", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+
+		try {
+			heidelpay.chargeAuthorization("s-pay-1").get(5, TimeUnit.SECONDS);
+			fail("Expected a PaymentException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof PaymentException);
+		}
+		assertEquals("GET https://api.heidelpay.com/v1/payments/s-pay-1", rest.getRequestedUrls().get(1));
+	}
+
+	@Test
+	public void testCallsRunOnTheGivenExecutor() throws Exception {
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1"));
+		final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+		HeidelpayAsync recording = new HeidelpayAsync(new Heidelpay(rest, "s-priv-test"), new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						executingThread.set(Thread.currentThread());
+						command.run();
+					}
+				});
+			}
+		});
+		recording.fetchPayment("s-pay-1").get(5, TimeUnit.SECONDS);
+		assertNotNull(executingThread.get());
+		assertTrue(Thread.currentThread() != executingThread.get());
+	}
+
+	@Test
+	public void testRejectedExecutionCompletesExceptionally() throws Exception {
+		executor.shutdownNow();
+		CompletableFuture<Payment> future = heidelpay.fetchPayment("s-pay-1");
+		assertTrue(future.isCompletedExceptionally());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExecutorIsMandatory() {
+		new HeidelpayAsync(new Heidelpay(rest, "s-priv-test"), null);
+	}
+
+	@Test
+	public void testPaymentServiceWithoutLoadPaymentDefersPaymentFetch() throws Exception {
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+
+		Charge charge = heidelpay.getHeidelpay().getPaymentService().charge(new Charge(), false);
+
+		assertEquals("s-pay-1", charge.getPaymentId());
+		assertFalse(charge.isPaymentResolved());
+		assertEquals(1, rest.getRequestedUrls().size());
+	}
+}
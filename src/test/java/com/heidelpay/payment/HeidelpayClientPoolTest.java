@@ -0,0 +1,181 @@
+package com.heidelpay.payment;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.JsonParser;
+
+public class HeidelpayClientPoolTest {
+
+	private static final String NOISY_KEY = "s-priv-noisy";
+	private static final String QUIET_KEY = "s-priv-quiet";
+
+	private BlockingRestCommunication rest;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		rest = new BlockingRestCommunication();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		rest.release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testFacadeIsCreatedOncePerKey() {
+		HeidelpayClientPool pool = new HeidelpayClientPool(rest);
+		Heidelpay noisy = pool.get(NOISY_KEY);
+		assertSame(noisy, pool.get(NOISY_KEY));
+		assertEquals(NOISY_KEY, noisy.getPrivateKey());
+
+		Heidelpay quiet = pool.get(QUIET_KEY);
+		assertNotSame(noisy, quiet);
+		assertSame(noisy.getJsonParser(), quiet.getJsonParser());
+		assertEquals(2, pool.size());
+
+		assertTrue(pool.remove(NOISY_KEY));
+		assertFalse(pool.remove(NOISY_KEY));
+		assertEquals(1, pool.size());
+		assertNotSame(noisy, pool.get(NOISY_KEY));
+	}
+
+	@Test
+	public void testRequestsOfAllKeysUseTheSharedCommunication() throws HttpCommunicationException {
+		rest.release.countDown();
+		HeidelpayClientPool pool = new HeidelpayClientPool(rest, "https://api.heidelpay.com/v1/", JsonParser.getInstance(), 2);
+		assertEquals("s-cst-1", pool.get(NOISY_KEY).deleteCustomer("s-cst-1"));
+		assertEquals("s-cst-1", pool.get(QUIET_KEY).deleteCustomer("s-cst-1"));
+
+		assertEquals("[" + NOISY_KEY + ", " + QUIET_KEY + "]", rest.keys.toString());
+		assertEquals(0, pool.getActiveRequests(NOISY_KEY));
+	}
+
+	@Test
+	public void testNoisyKeyCannotTakeTheSlotsOfOtherKeys() throws Exception {
+		final HeidelpayClientPool pool = new HeidelpayClientPool(rest, null, JsonParser.getInstance(), 2).setMaxWait(50);
+		for (int i = 0; i < 2; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						pool.get(NOISY_KEY).deleteCustomer("s-cst-1");
+					} catch (HttpCommunicationException e) {
+						// not expected, asserted by the active requests
+					}
+				}
+			});
+		}
+		assertTrue(rest.started.await(5, TimeUnit.SECONDS));
+		assertEquals(2, pool.getActiveRequests(NOISY_KEY));
+
+		try {
+			pool.get(NOISY_KEY).deleteCustomer("s-cst-1");
+			fail("Expected an HttpCommunicationException");
+		} catch (HttpCommunicationException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("no slot got free within 50 ms"));
+		}
+
+		rest.quietKeyPasses = true;
+		assertEquals("s-cst-1", pool.get(QUIET_KEY).deleteCustomer("s-cst-1"));
+		assertEquals(0, pool.getActiveRequests(QUIET_KEY));
+		assertEquals(2, pool.getActiveRequests(NOISY_KEY));
+
+		rest.release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(0, pool.getActiveRequests(NOISY_KEY));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaxConcurrentPerKeyMustBePositive() {
+		new HeidelpayClientPool(rest, null, JsonParser.getInstance(), 0);
+	}
+
+	/**
+	 * Answers every request with the id of a customer, the requests wait for
+	 * the release unless the quiet key may pass.
+	 */
+	private static class BlockingRestCommunication implements HeidelpayRestCommunication {
+
+		private final CountDownLatch started = new CountDownLatch(2);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<String> keys = new CopyOnWriteArrayList<String>();
+		private volatile boolean quietKeyPasses;
+
+		@Override
+		public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+			return respond(privateKey);
+		}
+
+		@Override
+		public String httpPost(String url, String privateKey, Object data) throws HttpCommunicationException {
+			return respond(privateKey);
+		}
+
+		@Override
+		public String httpPut(String url, String privateKey, Object data) throws HttpCommunicationException {
+			return respond(privateKey);
+		}
+
+		@Override
+		public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
+			return respond(privateKey);
+		}
+
+		private String respond(String privateKey) throws HttpCommunicationException {
+			keys.add(privateKey);
+			started.countDown();
+			if (!(quietKeyPasses && QUIET_KEY.equals(privateKey))) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new HttpCommunicationException("interrupted");
+				}
+			}
+			return "{\"id\":\"s-cst-1\"}";
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.heidelpay.payment;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.communication.HeidelpayHttpRequest;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+import com.heidelpay.payment.communication.HeidelpayHttpResponse;
+import com.heidelpay.payment.communication.MockHeidelpayRestCommunication;
+import com.heidelpay.payment.paymenttypes.Sofort;
+
+public class HeidelpayPrerequisitesTest {
+
+	private ExecutorService executor;
+	private CountDownLatch creations;
+	private List<String> bodies;
+	private MockHeidelpayRestCommunication rest;
+	private Heidelpay heidelpay;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		bodies = new CopyOnWriteArrayList<String>();
+		rest = new MockHeidelpayRestCommunication() {
+			@Override
+			protected HeidelpayHttpResponse doExecute(HeidelpayHttpRequest request) {
+				if (creations != null && HeidelpayHttpMethod.POST.equals(request.getMethod())
+						&& !request.getURI().toString().contains("/payments/")) {
+					creations.countDown();
+					try {
+						creations.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				HeidelpayHttpResponse response = super.doExecute(request);
+				return response.getStatusCode() == 0 ? new HeidelpayHttpResponse(TestData.errorJson(), 404) : response;
+			}
+
+			@Override
+			protected void logRequestBody(String body) {
+				bodies.add(body);
+			}
+		};
+		heidelpay = new Heidelpay(rest, "s-priv-test");
+		heidelpay.setShallowResponses(true);
+		rest.addResponse("/types/sofort", "{\"id\":\"s-sft-1\"}");
+		rest.addResponse("/s-sft-1", "{\"id\":\"s-sft-1\",\"method\":\"sofort\",\"geoLocation\":{\"clientIp\":\"127.0.0.1\",\"countryIsoA2\":\"DE\"}}");
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/payments/authorize", TestData.transactionResponseJson("s-pay-1", "s-aut-1"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testPrerequisitesAreCreatedConcurrently() throws Exception {
+		rest.addResponse("/customers", "{\"id\":\"s-cst-1\"}");
+		rest.addResponse("/customers/s-cst-1", "{\"id\":\"s-cst-1\",\"firstname\":\"Max\",\"lastname\":\"Mustermann\"}");
+		Metadata metadata = new Metadata();
+		metadata.setId("s-mtd-1");
+		heidelpay.setParallelFetch(executor, 4);
+		creations = new CountDownLatch(2);
+
+		Charge charge = heidelpay.charge(BigDecimal.TEN, Currency.getInstance("EUR"), new Sofort(),
+				new URL("https://www.heidelpay.com"), new Customer("Max", "Mustermann"), new Basket().setId("s-bsk-1"),
+				metadata);
+
+		assertEquals(0, creations.getCount());
+		assertEquals("s-chg-1", charge.getId());
+		List<String> urls = rest.getRequestedUrls();
+		assertEquals("POST https://api.heidelpay.com/v1/payments/charges", urls.get(urls.size() - 1));
+		String chargeBody = bodies.get(bodies.size() - 1);
+		assertTrue(chargeBody, chargeBody.contains("s-sft-1"));
+		assertTrue(chargeBody, chargeBody.contains("s-cst-1"));
+		assertTrue(chargeBody, chargeBody.contains("s-bsk-1"));
+		assertTrue(chargeBody, chargeBody.contains("s-mtd-1"));
+	}
+
+	@Test
+	public void testFailedCreationsAreReportedTogether() throws Exception {
+		heidelpay.setParallelFetch(executor, 4);
+		creations = new CountDownLatch(3);
+
+		try {
+			heidelpay.authorize(BigDecimal.TEN, Currency.getInstance("EUR"), new Sofort(),
+					new URL("https://www.heidelpay.com"), new Customer("Max", "Mustermann"), null,
+					new Metadata().addMetadata("invoice", "4711"));
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(1, e.getSuppressed().length);
+			assertTrue(e.getSuppressed()[0] instanceof PaymentException);
+		}
+		for (String url : rest.getRequestedUrls()) {
+			assertFalse(url, url.contains("/payments/"));
+		}
+	}
+
+	@Test
+	public void testPrerequisitesWithIdAreNotCreatedAgain() throws Exception {
+		Metadata metadata = new Metadata();
+		metadata.setId("s-mtd-2");
+
+		heidelpay.authorize(BigDecimal.TEN, Currency.getInstance("EUR"), new Sofort(),
+				new URL("https://www.heidelpay.com"), null, new Basket().setId("s-bsk-2"), metadata);
+
+		assertEquals(3, rest.getRequestedUrls().size());
+		assertEquals("POST https://api.heidelpay.com/v1/types/sofort", rest.getRequestedUrls().get(0));
+		String authorizeBody = bodies.get(bodies.size() - 1);
+		assertTrue(authorizeBody, authorizeBody.contains("s-bsk-2"));
+		assertTrue(authorizeBody, authorizeBody.contains("s-mtd-2"));
+	}
+}
@@ -40,5 +40,42 @@ public class TestData {
 				"  } ]" + 
 				"}";
 	}
-	
+
+	public static final String API_URL = "https://api.heidelpay.com/v1/payments/";
+
+	public static String paymentJson(String paymentId, String... transactions) {
+		StringBuilder transactionList = new StringBuilder();
+		for (String transaction : transactions) {
+			if (transactionList.length() > 0) {
+				transactionList.append(",");
+			}
+			transactionList.append(transaction);
+		}
+		return "{" +
+				"  \"id\" : \"" + paymentId + "\"," +
+				"  \"state\" : { \"id\" : 1, \"name\" : \"completed\" }," +
+				"  \"amount\" : { \"total\" : 10.0, \"charged\" : 10.0, \"canceled\" : 0.0, \"remaining\" : 0.0 }," +
+				"  \"currency\" : \"EUR\"," +
+				"  \"resources\" : { \"paymentId\" : \"" + paymentId + "\", \"typeId\" : \"s-crd-1\" }," +
+				"  \"transactions\" : [" + transactionList + "]" +
+				"}";
+	}
+
+	public static String transactionJson(String type, String paymentId, String path) {
+		return "{ \"type\" : \"" + type + "\", \"url\" : \"" + API_URL + paymentId + "/" + path + "\", \"amount\" : \"10.0000\" }";
+	}
+
+	public static String transactionResponseJson(String paymentId, String id) {
+		return "{" +
+				"  \"id\" : \"" + id + "\"," +
+				"  \"isSuccess\" : true," +
+				"  \"isPending\" : false," +
+				"  \"isError\" : false," +
+				"  \"amount\" : \"10.0000\"," +
+				"  \"currency\" : \"EUR\"," +
+				"  \"resources\" : { \"paymentId\" : \"" + paymentId + "\", \"typeId\" : \"s-crd-1\" }," +
+				"  \"processing\" : { \"uniqueId\" : \"31HA07BC81\", \"shortId\" : \"4255.2\" }" +
+				"}";
+	}
+
 }
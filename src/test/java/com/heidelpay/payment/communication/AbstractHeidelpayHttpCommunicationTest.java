@@ -21,10 +21,16 @@ package com.heidelpay.payment.communication;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import org.junit.Test;
@@ -96,6 +102,18 @@ public class AbstractHeidelpayHttpCommunicationTest {
 		assertLoggingHooks(rest, 200);
 	}
 
+	@Test
+	public void testRequestBodyIsCompactUnlessPrettyPrinting() throws PaymentException, HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = setupRest(validJsonResponse(), 200);
+		rest.httpPost("https://heidelpay.com", privateKey, sampleData());
+		assertFalse(rest.loggedBody.contains("\n"));
+		assertFalse(rest.loggedBody.contains(" \""));
+
+		rest.setPrettyPrinting(true);
+		rest.httpPost("https://heidelpay.com", privateKey, sampleData());
+		assertTrue(rest.loggedBody.contains("\n  \""));
+	}
+
 	private void assertLoggingHooks(MockHeidelpayRestCommunication rest, int expectedStatus) {
 		assertEquals(rest.request, rest.loggedRequest);
 		assertEquals(rest.responseMockContent.trim(), rest.loggedResponse.getContent());
@@ -154,6 +172,45 @@ public class AbstractHeidelpayHttpCommunicationTest {
 		assertContentTypeHeader(rest.request);
 	}
 
+	@Test
+	public void testAuthHeaderMatchesTheKeyOfEachRequest() throws PaymentException, HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = setupRest(validJsonResponse(), 200);
+
+		for (int i = 0; i < 3; i++) {
+			for (String key : new String[] {"s-priv-merchant1", "s-priv-merchant2", "s-priv-merchant3:"}) {
+				rest.httpGet("http://heidelpay.com", key);
+				String expected = key.endsWith(":") ? key : key + ":";
+				assertEquals("Basic " + new String(Base64.getEncoder().encode(expected.getBytes())), rest.request.headerMap.get("Authorization"));
+			}
+		}
+	}
+
+	@Test
+	public void testRequestTemplateIsCreatedOncePerKey() throws PaymentException, HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = setupRest(validJsonResponse(), 200);
+
+		RequestTemplate template = rest.getRequestTemplate(privateKey);
+		assertSame(template, rest.getRequestTemplate(privateKey));
+		assertNotSame(template, rest.getRequestTemplate("s-priv-other"));
+		assertEquals(3, template.getHeaders().size());
+		assertEquals("application/json; charset=UTF-8", template.getHeader("content-type"));
+		assertNull(template.getHeader("Accept-Language"));
+	}
+
+	@Test
+	public void testAcceptLanguageHeaderOfLocale() throws PaymentException, HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = new MockHeidelpayRestCommunication(Locale.GERMANY);
+		rest.responseMockStatus = 200;
+		rest.responseMockContent = validJsonResponse();
+
+		rest.httpGet("http://heidelpay.com", privateKey);
+
+		assertEquals("de", rest.request.headerMap.get("Accept-Language"));
+		assertUserAgentHeader(rest.request);
+		assertAuthorizationHeader(rest.request);
+		assertContentTypeHeader(rest.request);
+	}
+
 	private void assertUserAgentHeader(MockHeidelpayHttpRequest request) {
 		assertEquals(AbstractHeidelpayRestCommunication.USER_AGENT_PREFIX + " - " + SDKInfo.getVersion(), request.headerMap.get("User-Agent"));
 	}
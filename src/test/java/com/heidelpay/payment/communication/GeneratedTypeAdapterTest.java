@@ -0,0 +1,85 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.json.JsonCharge;
+import com.heidelpay.payment.communication.json.JsonErrorObject;
+import com.heidelpay.payment.communication.json.JsonPayment;
+import com.heidelpay.payment.communication.json.JsonState;
+
+/**
+ * Compares the generated TypeAdapters with the reflection based adapters of
+ * Gson, for all classes of the json package filled with random values.
+ */
+public class GeneratedTypeAdapterTest {
+
+	private final Gson reflective = GsonJsonEngine.newGsonBuilder(false).create();
+	private final Gson generated = GsonJsonEngine.newGsonBuilder(true).create();
+	private final RandomJsonObjects randomObjects = new RandomJsonObjects(42);
+
+	@Test
+	public void testAdaptersAreGeneratedForAllJsonClasses() throws Exception {
+		List<Class<?>> classes = RandomJsonObjects.getJsonClasses();
+		assertTrue(classes.size() > 30);
+		for (Class<?> clazz : classes) {
+			assertEquals(clazz.getSimpleName() + "TypeAdapter", generated.getAdapter(clazz).getClass().getSimpleName());
+		}
+	}
+
+	@Test
+	public void testSameJsonAsReflection() throws Exception {
+		for (Class<?> clazz : RandomJsonObjects.getJsonClasses()) {
+			for (int i = 0; i < 20; i++) {
+				Object value = randomObjects.create(clazz);
+				String json = reflective.toJson(value);
+				assertEquals(clazz.getName(), json, generated.toJson(value));
+				String read = reflective.toJson(reflective.fromJson(json, clazz));
+				assertEquals(clazz.getName(), read, reflective.toJson(generated.fromJson(json, clazz)));
+				assertEquals(clazz.getName(), read, generated.toJson(generated.fromJson(json, clazz)));
+			}
+		}
+	}
+
+	@Test
+	public void testApiResponsesAreReadAsByReflection() {
+		assertSameRead(TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"),
+				TestData.transactionJson("cancel-authorize", "s-pay-1", "authorize/s-aut-1/cancels/s-cnl-1")), JsonPayment.class);
+		assertSameRead(TestData.transactionResponseJson("s-pay-1", "s-chg-1"), JsonCharge.class);
+		assertSameRead(TestData.errorJson(), JsonErrorObject.class);
+		assertSameRead("{\"id\":null,\"unknown\":{\"a\":[1,2]},\"amount\":\"1.5\",\"date\":\"2019-01-01 10:00:00\",\"returnUrl\":\"\"}", JsonCharge.class);
+		assertSameRead("{\"id\":1,\"description\":\"PENDING\"}", JsonState.class);
+		assertSameRead("{\"id\":null}", JsonState.class);
+	}
+
+	private void assertSameRead(String json, Class<?> clazz) {
+		assertEquals(reflective.toJson(reflective.fromJson(json, clazz)), reflective.toJson(generated.fromJson(json, clazz)));
+	}
+}
@@ -0,0 +1,91 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.heidelpay.payment.service.UrlUtil;
+
+public class JsonBigDecimalConverterTest {
+
+	@Test
+	public void testSerializeIsSameAsDecimalFormat() {
+		JsonBigDecimalConverter converter = new JsonBigDecimalConverter();
+		for (BigDecimal value : getValues()) {
+			assertEquals(value.toString(), formatLikeDecimalFormat(value), converter.serialize(value, null, null).getAsString());
+		}
+	}
+
+	@Test
+	public void testUrlAmountsAreSameAsNumberFormat() {
+		UrlUtil urlUtil = new UrlUtil("https://api.heidelpay.com/v1/");
+		for (BigDecimal value : getValues()) {
+			String url = urlUtil.getHirePurchaseRateUrl(value, Currency.getInstance("EUR"), value, new Date(0));
+			String amount = formatLikeNumberFormat(value);
+			assertEquals(value.toString(), "amount=" + amount + "&currency=EUR&effectiveInterest=" + amount,
+					url.substring(url.indexOf("amount="), url.indexOf("&orderDate")));
+		}
+	}
+
+	private BigDecimal[] getValues() {
+		Random random = new Random(42);
+		BigDecimal[] values = new BigDecimal[2000];
+		String[] fixed = { "0", "0.00", "-0.00001", "-0.00005", "0.00005", "0.00015", "0.00025", "1", "100", "100.10",
+				"1E+3", "12345678901234567890.123456", "-12.34565", "5.5E-7", "-1.99995" };
+		for (int i = 0; i < fixed.length; i++) {
+			values[i] = new BigDecimal(fixed[i]);
+		}
+		for (int i = fixed.length; i < values.length; i++) {
+			values[i] = BigDecimal.valueOf(random.nextLong() % 100000000L, random.nextInt(10) - 2);
+		}
+		return values;
+	}
+
+	private String formatLikeDecimalFormat(BigDecimal value) {
+		DecimalFormat df = new DecimalFormat();
+		df.setMaximumFractionDigits(4);
+		df.setMinimumFractionDigits(4);
+		DecimalFormatSymbols decimalFormatSymbols = new DecimalFormatSymbols(Locale.ENGLISH);
+		decimalFormatSymbols.setDecimalSeparator('.');
+		df.setDecimalFormatSymbols(decimalFormatSymbols);
+		df.setGroupingUsed(false);
+		return df.format(value.setScale(4, BigDecimal.ROUND_HALF_UP));
+	}
+
+	private String formatLikeNumberFormat(BigDecimal value) {
+		NumberFormat df = NumberFormat.getNumberInstance(Locale.ENGLISH);
+		df.setMaximumFractionDigits(4);
+		df.setMinimumFractionDigits(0);
+		df.setGroupingUsed(false);
+		return df.format(value);
+	}
+}
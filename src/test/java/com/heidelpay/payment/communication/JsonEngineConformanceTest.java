@@ -0,0 +1,199 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.Customer;
+import com.heidelpay.payment.Customer.Salutation;
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.communication.json.JsonCharge;
+import com.heidelpay.payment.communication.json.JsonIdObject;
+import com.heidelpay.payment.communication.mapper.JsonToBusinessClassMapper;
+import com.heidelpay.payment.paymenttypes.Card;
+import com.heidelpay.payment.webhook.Webhook;
+import com.heidelpay.payment.webhook.WebhookEventEnum;
+
+/**
+ * Conformance of the {@code JsonEngine} implementations: the built-in Gson
+ * engines and every engine registered on the test classpath must read and write
+ * the api payloads of the test resources, the request bodies and random objects
+ * of the json classes like reflection based Gson does. The json is compared as
+ * tree, the order of the members and the escaping may differ.
+ */
+@RunWith(Parameterized.class)
+public class JsonEngineConformanceTest {
+
+	private final JsonEngine reference = new GsonJsonEngine(GsonJsonEngine.newGsonBuilder(false).create());
+	private final JsonEngine engine;
+
+	public JsonEngineConformanceTest(String name, JsonEngine engine) {
+		this.engine = engine;
+	}
+
+	@Parameters(name = "{0}")
+	public static List<Object[]> engines() {
+		List<Object[]> engines = new ArrayList<Object[]>();
+		engines.add(new Object[] { "GsonJsonEngine", new GsonJsonEngine() });
+		engines.add(new Object[] { "GsonJsonEngine without generated TypeAdapters",
+				new GsonJsonEngine(GsonJsonEngine.newGsonBuilder(false).create()) });
+		for (JsonEngine registered : ServiceLoader.load(JsonEngine.class)) {
+			engines.add(new Object[] { registered.getClass().getName(), registered });
+		}
+		return engines;
+	}
+
+	@Test
+	public void testReadsEveryPayload() throws Exception {
+		for (JsonPayload payload : JsonPayload.loadAll()) {
+			Object expected = reference.fromJson(payload.getJson(), payload.getType());
+			assertSameJson(payload.getName(), reference.toJson(expected),
+					reference.toJson(engine.fromJson(payload.getJson(), payload.getType())));
+			assertSameJson(payload.getName(), reference.toJson(expected),
+					reference.toJson(engine.fromJson(new StringReader(payload.getJson()), payload.getType())));
+		}
+	}
+
+	@Test
+	public void testWritesEveryPayload() throws Exception {
+		for (JsonPayload payload : JsonPayload.loadAll()) {
+			assertWritesLikeReference(payload.getName(), reference.fromJson(payload.getJson(), payload.getType()));
+		}
+	}
+
+	@Test
+	public void testWritesRequestBodies() throws Exception {
+		JsonToBusinessClassMapper mapper = new JsonToBusinessClassMapper();
+		Charge charge = new Charge();
+		charge.setAmount(new BigDecimal("49.99"))
+				.setCurrency(Currency.getInstance("EUR"))
+				.setTypeId("s-crd-fm7tifzkqewy")
+				.setOrderId("order-4711")
+				.setReturnUrl(new URL("https://www.heidelpay.com/return?a=1&b=<2>"));
+		assertWritesLikeReference("charge", mapper.map(charge));
+
+		Customer customer = new Customer("Rene", "Müller");
+		customer.setSalutation(Salutation.MR).setBirthDate(new Date(330480000000L)).setEmail("info@heidelpay.com");
+		assertWritesLikeReference("customer", mapper.map(customer));
+
+		assertWritesLikeReference("card", new Card("4444333322221111", "03/30", "123"));
+
+		Map<String, String> metadata = new LinkedHashMap<String, String>();
+		metadata.put("invoice-nr", "Rg-2018-11-1");
+		metadata.put("note", "\"quoted\" ä \n");
+		assertWritesLikeReference("metadata", metadata);
+
+		assertWritesLikeReference("webhook", new Webhook("https://domain.com/webhooks", WebhookEventEnum.CHARGE_SUCCEEDED));
+		assertWritesLikeReference("webhooks", new Webhook("https://domain.com/webhooks",
+				Arrays.asList(WebhookEventEnum.CHARGE, WebhookEventEnum.PAYOUT)));
+	}
+
+	@Test
+	public void testReadsAndWritesRandomJsonObjects() throws Exception {
+		RandomJsonObjects randomObjects = new RandomJsonObjects(42);
+		for (Class<?> clazz : RandomJsonObjects.getJsonClasses()) {
+			for (int i = 0; i < 10; i++) {
+				Object value = randomObjects.create(clazz);
+				assertWritesLikeReference(clazz.getName(), value);
+				String json = reference.toJson(value);
+				assertSameJson(clazz.getName(), reference.toJson(reference.fromJson(json, clazz)),
+						reference.toJson(engine.fromJson(json, clazz)));
+			}
+		}
+	}
+
+	@Test
+	public void testPrettyPrintingWritesTheSameJson() throws Exception {
+		JsonEngine prettyPrinting = engine.withPrettyPrinting();
+		for (JsonPayload payload : JsonPayload.loadAll()) {
+			Object value = reference.fromJson(payload.getJson(), payload.getType());
+			assertSameJson(payload.getName(), reference.toJson(value), prettyPrinting.toJson(value));
+		}
+	}
+
+	@Test
+	public void testMalformedJsonIsThrownAsJsonParseException() {
+		for (String json : new String[] { "{\"id\":", "{\"id\" \"s-pay-1\"}", "[1,2]" }) {
+			try {
+				engine.fromJson(json, JsonIdObject.class);
+				fail("Expected a JsonParseException for " + json);
+			} catch (JsonParseException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testParserThrowsApiErrorsAsPaymentException() throws Exception {
+		JsonParser parser = new JsonParser(engine);
+		for (JsonPayload payload : JsonPayload.loadAll()) {
+			if ("error.json".equals(payload.getName())) {
+				try {
+					parser.fromJson(payload.getJson(), JsonCharge.class);
+					fail("Expected a PaymentException");
+				} catch (PaymentException e) {
+					assertEquals("COR.400.100.101", e.getPaymentErrorList().get(0).getCode());
+					assertEquals(2, e.getPaymentErrorList().size());
+				}
+			}
+		}
+	}
+
+	private void assertWritesLikeReference(String name, Object value) {
+		String expected = reference.toJson(value);
+		String json = engine.toJson(value);
+		assertSameJson(name, expected, json);
+		StringWriter writer = new StringWriter();
+		engine.toJson(value, writer);
+		assertEquals(name, json, writer.toString());
+	}
+
+	private static void assertSameJson(String name, String expected, String actual) {
+		assertEquals(name, tree(expected), tree(actual));
+	}
+
+	private static JsonElement tree(String json) {
+		return com.google.gson.JsonParser.parseString(json);
+	}
+}
@@ -22,10 +22,21 @@ package com.heidelpay.payment.communication;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.Heidelpay;
 import com.heidelpay.payment.PaymentError;
 import com.heidelpay.payment.PaymentException;
 import com.heidelpay.payment.TestData;
@@ -37,7 +48,7 @@ public class JsonParserTest {
 	@Test
 	public void given_an_error_message_then_payment_exception_is_thrown() {
 		try {
-			JsonParser parser = new JsonParser();
+			JsonParser parser = JsonParser.getInstance();
 			parser.fromJson(TestData.errorJson(), JsonCharge.class);
 
 			fail("Expected PaymentException");
@@ -49,7 +60,49 @@ public class JsonParserTest {
 
 	@Test
 	public void given_an_error_json_then_fromJson_returnes_jsonerrorobject() {
-		assertJsonError(new JsonParser().fromJson(TestData.errorJson(), JsonErrorObject.class));
+		assertJsonError(JsonParser.getInstance().fromJson(TestData.errorJson(), JsonErrorObject.class));
+	}
+
+	@Test
+	public void testFacadePassesTheParserToTheServices() throws Exception {
+		final AtomicInteger reads = new AtomicInteger();
+		JsonParser parser = new JsonParser(new GsonJsonEngine() {
+			@Override
+			public <T> T fromJson(String json, Class<T> clazz) {
+				reads.incrementAndGet();
+				return super.fromJson(json, clazz);
+			}
+		});
+		Heidelpay heidelpay = new Heidelpay(HttpCommunicationMockUtils.withFixedResponse(
+				TestData.transactionResponseJson("s-pay-1", "s-chg-1"), 200), "anykey", null, parser);
+		assertSame(parser, heidelpay.getJsonParser());
+
+		Charge charge = heidelpay.fetchCharge("s-pay-1", "s-chg-1");
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals(1, reads.get());
+	}
+
+	@Test
+	public void testSharedParserIsThreadSafe() throws Exception {
+		final JsonParser parser = JsonParser.getInstance();
+		assertSame(parser, JsonParser.getInstance());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<JsonErrorObject>> results = new ArrayList<Future<JsonErrorObject>>();
+			for (int i = 0; i < 200; i++) {
+				results.add(executor.submit(new Callable<JsonErrorObject>() {
+					@Override
+					public JsonErrorObject call() {
+						return parser.fromJson(parser.toJson(parser.fromJson(TestData.errorJson(), JsonErrorObject.class)), JsonErrorObject.class);
+					}
+				}));
+			}
+			for (Future<JsonErrorObject> result : results) {
+				assertJsonError(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 
 	private void assertJsonError(JsonErrorObject expectedError) {
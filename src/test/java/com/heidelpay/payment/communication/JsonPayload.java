@@ -0,0 +1,104 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * An api payload of the test resources, as listed in
+ * {@code json/payloads.properties} with the class it is parsed into.
+ */
+public class JsonPayload {
+
+	private static final String DIRECTORY = "json/";
+
+	private final String name;
+	private final Class<?> type;
+	private final String json;
+
+	private JsonPayload(String name, Class<?> type, String json) {
+		this.name = name;
+		this.type = type;
+		this.json = json;
+	}
+
+	public static List<JsonPayload> loadAll() throws IOException, ClassNotFoundException {
+		Properties index = new Properties();
+		InputStream stream = open("payloads.properties");
+		try {
+			index.load(stream);
+		} finally {
+			stream.close();
+		}
+		List<JsonPayload> payloads = new ArrayList<JsonPayload>();
+		for (String name : new TreeSet<String>(index.stringPropertyNames())) {
+			payloads.add(new JsonPayload(name, Class.forName(index.getProperty(name)), read(name)));
+		}
+		return payloads;
+	}
+
+	private static InputStream open(String name) throws IOException {
+		InputStream stream = JsonPayload.class.getClassLoader().getResourceAsStream(DIRECTORY + name);
+		if (stream == null) {
+			throw new IOException("Missing test resource " + DIRECTORY + name);
+		}
+		return stream;
+	}
+
+	private static String read(String name) throws IOException {
+		Reader reader = new InputStreamReader(open(name), "UTF-8");
+		try {
+			StringBuilder json = new StringBuilder();
+			char[] buffer = new char[4096];
+			for (int read = reader.read(buffer); read != -1; read = reader.read(buffer)) {
+				json.append(buffer, 0, read);
+			}
+			return json.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public String getJson() {
+		return json;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -22,7 +22,11 @@ package com.heidelpay.payment.communication;
 
 import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MockHeidelpayRestCommunication extends AbstractHeidelpayRestCommunication {
 
@@ -35,6 +39,9 @@ public class MockHeidelpayRestCommunication extends AbstractHeidelpayRestCommuni
 	HeidelpayHttpRequest loggedRequest;
 	String loggedBody;
 
+	Map<String, String> responseMockContentByUrl = new ConcurrentHashMap<String, String>();
+	List<String> requestedUrls = new CopyOnWriteArrayList<String>();
+
 	public MockHeidelpayRestCommunication() {
 		super(null);
 	}
@@ -51,9 +58,34 @@ public class MockHeidelpayRestCommunication extends AbstractHeidelpayRestCommuni
 	@Override
 	protected HeidelpayHttpResponse doExecute(HeidelpayHttpRequest request) {
 		this.request = (MockHeidelpayHttpRequest) request;
+		String url = request.getURI().toString();
+		requestedUrls.add(request.getMethod() + " " + url);
+		for (Map.Entry<String, String> response : responseMockContentByUrl.entrySet()) {
+			if (url.endsWith(response.getKey())) {
+				return new HeidelpayHttpResponse(response.getValue(), 200);
+			}
+		}
 		return new HeidelpayHttpResponse(responseMockContent, responseMockStatus);
 	}
 
+	/**
+	 * Answers all requests to urls ending with the given suffix with the given content and status 200.
+	 * @param urlSuffix - the end of the url, e.g. /payments/s-pay-1
+	 * @param content - the json response
+	 * @return this mock
+	 */
+	public MockHeidelpayRestCommunication addResponse(String urlSuffix, String content) {
+		responseMockContentByUrl.put(urlSuffix, content);
+		return this;
+	}
+
+	/**
+	 * @return all requests executed so far as "METHOD url"
+	 */
+	public List<String> getRequestedUrls() {
+		return requestedUrls;
+	}
+
 	@Override
 	protected void logRequest(HeidelpayHttpRequest request) {
 		this.loggedRequest = request;
@@ -0,0 +1,132 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Creates objects of the json classes with random values, every field is left
+ * out with a probability of 1 in 5.
+ */
+public class RandomJsonObjects {
+
+	private static final String JSON_PACKAGE = "com.heidelpay.payment.communication.json";
+
+	private final Random random;
+
+	public RandomJsonObjects(long seed) {
+		this.random = new Random(seed);
+	}
+
+	public <T> T create(Class<T> clazz) throws Exception {
+		return clazz.cast(fill(clazz, 0));
+	}
+
+	/**
+	 * @return the classes of the json package, without the generated TypeAdapters
+	 */
+	public static List<Class<?>> getJsonClasses() throws Exception {
+		File directory = new File(RandomJsonObjects.class.getClassLoader().getResource(JSON_PACKAGE.replace('.', '/')).toURI());
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		for (String file : directory.list()) {
+			if (!file.endsWith(".class") || file.contains("$") || file.contains("TypeAdapter")) {
+				continue;
+			}
+			Class<?> clazz = Class.forName(JSON_PACKAGE + "." + file.substring(0, file.length() - ".class".length()));
+			if (!clazz.isInterface()) {
+				classes.add(clazz);
+			}
+		}
+		return classes;
+	}
+
+	private Object fill(Class<?> clazz, int depth) throws Exception {
+		Object value = clazz.getDeclaredConstructor().newInstance();
+		for (Class<?> current = clazz; current != Object.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || random.nextInt(5) == 0) {
+					continue;
+				}
+				field.setAccessible(true);
+				field.set(value, createValue(field.getType(), field.getGenericType(), depth));
+			}
+		}
+		return value;
+	}
+
+	private Object createValue(Class<?> type, Type genericType, int depth) throws Exception {
+		if (type == String.class) {
+			return random.nextInt(10) == 0 ? "" : "value ä\"" + random.nextInt(1000);
+		} else if (type == BigDecimal.class) {
+			return BigDecimal.valueOf(random.nextInt(1000000), random.nextInt(5));
+		} else if (type == Date.class) {
+			return new Date(random.nextInt(Integer.MAX_VALUE) * 1000L);
+		} else if (type == URL.class) {
+			return new URL("https://www.heidelpay.com/" + random.nextInt(100));
+		} else if (type == Currency.class) {
+			return Currency.getInstance(random.nextBoolean() ? "EUR" : "CHF");
+		} else if (type == Boolean.class || type == boolean.class) {
+			return random.nextBoolean();
+		} else if (type == int.class || type == Integer.class) {
+			return random.nextInt(100);
+		} else if (type.isEnum()) {
+			return type.getEnumConstants()[random.nextInt(type.getEnumConstants().length)];
+		} else if (type == String[].class) {
+			return new String[] { "a" + random.nextInt(10), "b" };
+		} else if (type == Map.class) {
+			Map<String, String> map = new HashMap<String, String>();
+			map.put("key" + random.nextInt(10), "value");
+			return map;
+		} else if (type == List.class && depth < 2) {
+			Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+			List<Object> list = new ArrayList<Object>();
+			for (int i = random.nextInt(3); i >= 0; i--) {
+				list.add(createValue((Class<?>) elementType, elementType, depth + 1));
+			}
+			return list;
+		} else if (type.getName().startsWith("com.heidelpay.payment") && depth < 2 && hasNoArgsConstructor(type)) {
+			return fill(type, depth + 1);
+		}
+		return null;
+	}
+
+	private boolean hasNoArgsConstructor(Class<?> type) {
+		try {
+			type.getDeclaredConstructor();
+			return !Modifier.isAbstract(type.getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.TestData;
+
+public class RateLimiterTest {
+
+	private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void testBurstIsAvailableAtOnce() {
+		ClockedRateLimiter limiter = new ClockedRateLimiter(10, 3);
+		assertTrue(limiter.tryAcquire("s-priv-1"));
+		assertTrue(limiter.tryAcquire("s-priv-1"));
+		assertTrue(limiter.tryAcquire("s-priv-1"));
+		assertFalse(limiter.tryAcquire("s-priv-1"));
+		assertTrue("Keys have buckets of their own", limiter.tryAcquire("s-priv-2"));
+
+		limiter.now += 100 * MILLI;
+		assertTrue(limiter.tryAcquire("s-priv-1"));
+		assertFalse(limiter.tryAcquire("s-priv-1"));
+	}
+
+	@Test
+	public void testBlockingAcquireWaitsInOrderOfReservation() throws InterruptedException {
+		ClockedRateLimiter limiter = new ClockedRateLimiter(10, 1);
+		limiter.acquire("s-priv-1");
+		assertEquals(0, limiter.slept);
+		limiter.acquire("s-priv-1");
+		assertEquals(100 * MILLI, limiter.slept);
+		limiter.acquire("s-priv-1");
+		assertEquals(300 * MILLI, limiter.slept);
+	}
+
+	@Test
+	public void testTryAcquireWithTimeoutReservesOnlyWhatItGets() throws InterruptedException {
+		ClockedRateLimiter limiter = new ClockedRateLimiter(10, 1);
+		assertTrue(limiter.tryAcquire("s-priv-1", 0));
+		assertFalse(limiter.tryAcquire("s-priv-1", 50));
+		assertEquals(0, limiter.slept);
+		assertTrue(limiter.tryAcquire("s-priv-1", 100));
+		assertEquals(100 * MILLI, limiter.slept);
+	}
+
+	@Test
+	public void testThrottlingHalvesTheRateAndWaitsForRetryAfter() throws InterruptedException {
+		ClockedRateLimiter limiter = new ClockedRateLimiter(10, 5);
+		limiter.onThrottled("s-priv-1", 2000);
+		assertEquals(5, limiter.getRate("s-priv-1"), 0.001);
+		assertFalse(limiter.tryAcquire("s-priv-1", 1000));
+		limiter.acquire("s-priv-1");
+		assertEquals(2200 * MILLI, limiter.slept);
+
+		for (int i = 0; i < 10; i++) {
+			limiter.onSuccess("s-priv-1");
+		}
+		assertEquals(6, limiter.getRate("s-priv-1"), 0.001);
+		for (int i = 0; i < 100; i++) {
+			limiter.onSuccess("s-priv-1");
+		}
+		assertEquals(10, limiter.getRate("s-priv-1"), 0.001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRateMustBePositive() {
+		new RateLimiter(0, 1);
+	}
+
+	@Test
+	public void testCommunicationFailsWithoutPermit() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.paymentJson("s-pay-1"), 200);
+		rest.setRateLimiter(new ClockedRateLimiter(1, 1).setMaxWait(0));
+		rest.httpGet(TestData.API_URL + "s-pay-1", "s-priv-1");
+		try {
+			rest.httpGet(TestData.API_URL + "s-pay-1", "s-priv-1");
+			fail("Expected a RateLimitExceededException");
+		} catch (RateLimitExceededException e) {
+			assertEquals(1, rest.getRequestedUrls().size());
+		}
+	}
+
+	@Test
+	public void testCommunicationSlowsDownOnTooManyRequests() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 429);
+		rest.setRetryPolicy(RetryPolicy.none());
+		ClockedRateLimiter limiter = new ClockedRateLimiter(8, 4);
+		rest.setRateLimiter(limiter);
+		try {
+			rest.httpGet(TestData.API_URL + "s-pay-1", "s-priv-1");
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(429), e.getStatusCode());
+		}
+		assertEquals(4, limiter.getRate("s-priv-1"), 0.001);
+		assertEquals(8, limiter.getRate("s-priv-2"), 0.001);
+	}
+
+	/**
+	 * Advances its clock instead of sleeping.
+	 */
+	private static class ClockedRateLimiter extends RateLimiter {
+
+		private long now;
+		private long slept;
+
+		ClockedRateLimiter(double permitsPerSecond, int burst) {
+			super(permitsPerSecond, burst);
+		}
+
+		@Override
+		long nanoTime() {
+			return now;
+		}
+
+		@Override
+		void sleep(long nanos) {
+			slept += nanos;
+		}
+	}
+}
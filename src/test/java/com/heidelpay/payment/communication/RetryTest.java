@@ -0,0 +1,281 @@
+package com.heidelpay.payment.communication;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.http.client.utils.DateUtils;
+import org.junit.Test;
+
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+
+public class RetryTest {
+
+	private static final String URL = "https://api.heidelpay.com/v1/payments/s-pay-1";
+
+	@Test
+	public void testGetIsRetriedUntilSuccess() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, null)
+				.respond(502, null)
+				.respond(200, null);
+
+		assertEquals(TestData.paymentJson("s-pay-1"), rest.httpGet(URL, "s-priv-test"));
+		assertEquals(3, rest.attempts);
+		assertEquals(2, rest.waits.size());
+		assertEquals(1, rest.getRetryStats().getRequestCount());
+		assertEquals(2, rest.getRetryStats().getRetryCount());
+		assertEquals(0, rest.getRetryStats().getExhaustedCount());
+	}
+
+	@Test
+	public void testLastResponseIsHandledWhenAttemptsAreExhausted() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, null)
+				.respond(503, null)
+				.respond(503, null);
+		try {
+			rest.httpDelete(URL, "s-priv-test");
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(503), e.getStatusCode());
+		}
+		assertEquals(3, rest.attempts);
+		assertEquals(1, rest.getRetryStats().getExhaustedCount());
+	}
+
+	@Test
+	public void testPostIsNotRetriedByDefault() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, null)
+				.respond(200, null);
+		try {
+			rest.httpPost(URL, "s-priv-test", new Object());
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(503), e.getStatusCode());
+		}
+		assertEquals(1, rest.attempts);
+	}
+
+	@Test
+	public void testPostIsRetriedWhenEnabled() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, null)
+				.respond(200, null);
+		rest.setRetryPolicy(new RetryPolicy().setRetryableMethods(HeidelpayHttpMethod.GET, HeidelpayHttpMethod.POST));
+
+		assertEquals(TestData.paymentJson("s-pay-1"), rest.httpPost(URL, "s-priv-test", new Object()));
+		assertEquals(2, rest.attempts);
+	}
+
+	@Test
+	public void testClientErrorsAreNotRetried() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(404, null)
+				.respond(200, null);
+		try {
+			rest.httpGet(URL, "s-priv-test");
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(404), e.getStatusCode());
+		}
+		assertEquals(1, rest.attempts);
+		assertEquals(0, rest.getRetryStats().getRetryCount());
+	}
+
+	@Test
+	public void testCommunicationErrorsAreRetried() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(-1, null)
+				.respond(200, null);
+
+		assertEquals(TestData.paymentJson("s-pay-1"), rest.httpGet(URL, "s-priv-test"));
+		assertEquals(2, rest.attempts);
+	}
+
+	@Test
+	public void testRetryAfterInSecondsReplacesTheBackoff() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(429, "2")
+				.respond(200, null);
+
+		rest.httpGet(URL, "s-priv-test");
+		assertEquals(Collections.singletonList(2000L), rest.waits);
+	}
+
+	@Test
+	public void testRetryAfterAsHttpDateReplacesTheBackoff() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, DateUtils.formatDate(new Date(System.currentTimeMillis() + 5000)))
+				.respond(200, null);
+
+		rest.httpGet(URL, "s-priv-test");
+		long wait = rest.waits.get(0);
+		assertTrue("Unexpected wait " + wait, wait > 3000 && wait <= 5000);
+	}
+
+	@Test
+	public void testRetryAfterAboveTheMaximumIsNotAwaited() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, "60")
+				.respond(200, null);
+		try {
+			rest.httpGet(URL, "s-priv-test");
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(503), e.getStatusCode());
+		}
+		assertTrue(rest.waits.isEmpty());
+	}
+
+	@Test
+	public void testRetriesAreLimitedByTheBudget() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest();
+		rest.setRetryPolicy(new RetryPolicy().setMaxAttempts(2).setBudgetBurst(2).setBudgetRatio(0));
+		for (int i = 0; i < 4; i++) {
+			rest.respond(503, null).respond(503, null);
+		}
+		for (int i = 0; i < 4; i++) {
+			try {
+				rest.httpGet(URL, "s-priv-test");
+				fail("Expected a PaymentException");
+			} catch (PaymentException e) {
+				assertEquals(Integer.valueOf(503), e.getStatusCode());
+			}
+		}
+		RetryStats stats = rest.getRetryStats();
+		assertEquals(4, stats.getRequestCount());
+		assertEquals(2, stats.getRetryCount());
+		assertEquals(2, stats.getBudgetRejectedCount());
+		assertEquals(0.5, stats.getRetryRate(), 0.001);
+	}
+
+	@Test
+	public void testNoneDisablesRetries() throws HttpCommunicationException {
+		RetryingRest rest = new RetryingRest()
+				.respond(503, null)
+				.respond(200, null);
+		rest.setRetryPolicy(RetryPolicy.none());
+		try {
+			rest.httpGet(URL, "s-priv-test");
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(503), e.getStatusCode());
+		}
+		assertEquals(1, rest.attempts);
+	}
+
+	@Test
+	public void testBackoffGrowsExponentiallyUpToTheMaximum() {
+		RetryPolicy policy = new RetryPolicy().setInitialBackoff(100).setMaxBackoff(1000);
+		assertEquals(50, policy.getBackoff(1, 0.5));
+		assertEquals(100, policy.getBackoff(2, 0.5));
+		assertEquals(200, policy.getBackoff(3, 0.5));
+		assertEquals(500, policy.getBackoff(5, 0.5));
+		assertEquals(500, policy.getBackoff(50, 0.5));
+		assertEquals(0, policy.getBackoff(3, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaxAttemptsMustBePositive() {
+		new RetryPolicy().setMaxAttempts(0);
+	}
+
+	@Test
+	public void testBudgetIsRefilledByRequests() {
+		RetryBudget budget = new RetryBudget(0.5, 1);
+		assertTrue(budget.withdraw());
+		assertFalse(budget.withdraw());
+		budget.deposit();
+		assertFalse(budget.withdraw());
+		budget.deposit();
+		assertTrue(budget.withdraw());
+	}
+
+	/**
+	 * Answers the requests with the queued status codes, -1 fails with an
+	 * {@code HttpCommunicationException}, and records the waits instead of sleeping.
+	 */
+	private static class RetryingRest extends AbstractHeidelpayRestCommunication {
+
+		private final LinkedList<HeidelpayHttpResponse> responses = new LinkedList<HeidelpayHttpResponse>();
+		private final List<Long> waits = new ArrayList<Long>();
+		private int attempts;
+
+		RetryingRest() {
+			super(null);
+		}
+
+		RetryingRest respond(int status, String retryAfter) {
+			responses.add(new HeidelpayHttpResponse(status == 200 ? TestData.paymentJson("s-pay-1") : TestData.errorJson(), status,
+					retryAfter == null ? Collections.<String, String>emptyMap() : Collections.singletonMap("retry-after", retryAfter)));
+			return this;
+		}
+
+		@Override
+		protected HeidelpayHttpResponse doExecute(HeidelpayHttpRequest request) throws HttpCommunicationException {
+			attempts++;
+			HeidelpayHttpResponse response = responses.removeFirst();
+			if (response.getStatusCode() == -1) {
+				throw new HttpCommunicationException("Connection reset");
+			}
+			return response;
+		}
+
+		@Override
+		protected void waitBeforeRetry(long millis) {
+			waits.add(millis);
+		}
+
+		@Override
+		protected HeidelpayHttpRequest createRequest(String url, HeidelpayHttpMethod method) {
+			return new MockHeidelpayHttpRequest(url, method);
+		}
+
+		@Override
+		protected void logRequest(HeidelpayHttpRequest request) {
+			// not needed
+		}
+
+		@Override
+		protected void logRequestBody(String body) {
+			// not needed
+		}
+
+		@Override
+		protected void logResponse(HeidelpayHttpResponse response) {
+			// not needed
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.Cancel;
+import com.heidelpay.payment.Heidelpay;
+import com.heidelpay.payment.Payment;
+import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.HttpCommunicationMockUtils;
+import com.heidelpay.payment.communication.MockHeidelpayRestCommunication;
+import com.heidelpay.payment.webhook.WebhookEventEnum;
+
+public class CachingRestCommunicationTest {
+
+	private static final String PAYMENT_URL = TestData.API_URL + "s-pay-1";
+	private static final String CHARGE_URL = TestData.API_URL + "s-pay-1/charges/s-chg-1";
+	private static final String CUSTOMER_URL = "https://api.heidelpay.com/v1/customers/s-cst-1";
+
+	private MockHeidelpayRestCommunication rest;
+	private long now;
+
+	@Before
+	public void createMock() {
+		rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/charges/s-chg-1/cancels", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		rest.addResponse("/customers/s-cst-1", "{\"id\":\"s-cst-1\",\"lastname\":\"Mustermann\"}");
+		rest.addResponse("/webhooks", "{\"events\":[]}");
+	}
+
+	@Test
+	public void testRepeatedGetIsAnsweredFromCache() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest);
+		String response = cache.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(response, cache.httpGet(PAYMENT_URL, "s-priv-1"));
+		assertEquals(1, rest.getRequestedUrls().size());
+
+		CacheStats stats = cache.getStats();
+		assertEquals(1, stats.getHitCount());
+		assertEquals(1, stats.getMissCount());
+		assertEquals(1, stats.getSize());
+		assertEquals(0.5, stats.getHitRate(), 0.001);
+	}
+
+	@Test
+	public void testFetchPaymentTwiceIsOneRoundTrip() throws HttpCommunicationException {
+		Heidelpay heidelpay = new Heidelpay(new CachingRestCommunication(rest), "s-priv-1");
+		Payment first = heidelpay.fetchPayment("s-pay-1");
+		Payment second = heidelpay.fetchPayment("s-pay-1");
+		assertEquals(2, rest.getRequestedUrls().size());
+		assertEquals("s-chg-1", second.getCharge("s-chg-1").getId());
+		assertEquals(first.getAmountTotal(), second.getAmountTotal());
+	}
+
+	@Test
+	public void testResponsesAreCachedPerPrivateKey() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest);
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		cache.httpGet(PAYMENT_URL, "s-priv-2");
+		assertEquals(2, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testExpiredResponseIsFetchedAgain() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest, new CacheConfiguration().setPaymentTtl(1000)) {
+			@Override
+			long currentTimeMillis() {
+				return now;
+			}
+		};
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		now = 999;
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(1, rest.getRequestedUrls().size());
+		now = 1000;
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(2, rest.getRequestedUrls().size());
+		assertEquals(1, cache.getStats().getEvictionCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedResponseIsEvicted() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest, new CacheConfiguration().setMaxSize(2));
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		cache.httpGet(CUSTOMER_URL, "s-priv-1");
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		cache.httpGet(CHARGE_URL, "s-priv-1");
+		assertEquals(2, cache.getStats().getSize());
+		assertEquals(1, cache.getStats().getEvictionCount());
+
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(3, rest.getRequestedUrls().size());
+		cache.httpGet(CUSTOMER_URL, "s-priv-1");
+		assertEquals(4, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testWriteInvalidatesItsResource() throws HttpCommunicationException {
+		Heidelpay heidelpay = new Heidelpay(new CachingRestCommunication(rest), "s-priv-1");
+		heidelpay.fetchCustomer("s-cst-1");
+		heidelpay.fetchPayment("s-pay-1");
+		assertEquals(3, rest.getRequestedUrls().size());
+
+		Cancel cancel = new Cancel();
+		cancel.setAmount(BigDecimal.ONE);
+		heidelpay.cancelCharge("s-pay-1", "s-chg-1", cancel, false);
+		heidelpay.fetchPayment("s-pay-1");
+		heidelpay.fetchCustomer("s-cst-1");
+		assertEquals(6, rest.getRequestedUrls().size());
+		assertEquals("POST " + CHARGE_URL + "/cancels", rest.getRequestedUrls().get(3));
+		assertEquals("GET " + PAYMENT_URL, rest.getRequestedUrls().get(4));
+		assertEquals("GET " + CHARGE_URL, rest.getRequestedUrls().get(5));
+	}
+
+	@Test
+	public void testWebhookEventInvalidatesRetrievedResource() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest);
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		cache.httpGet(CHARGE_URL, "s-priv-1");
+		cache.httpGet(CUSTOMER_URL, "s-priv-1");
+
+		cache.invalidate(WebhookEventEnum.CHARGE_SUCCEEDED, CHARGE_URL);
+		assertEquals(1, cache.getStats().getSize());
+		assertEquals(2, cache.getStats().getInvalidationCount());
+
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		cache.invalidate(WebhookEventEnum.CUSTOMER_UPDATED, null);
+		assertEquals(1, cache.getStats().getSize());
+		cache.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(4, rest.getRequestedUrls().size());
+
+		cache.invalidate(WebhookEventEnum.ALL, null);
+		assertEquals(0, cache.getStats().getSize());
+	}
+
+	@Test
+	public void testUncachedResourcesArePassedThrough() throws HttpCommunicationException {
+		CachingRestCommunication cache = new CachingRestCommunication(rest, new CacheConfiguration().setCustomerTtl(0));
+		cache.httpGet(CUSTOMER_URL, "s-priv-1");
+		cache.httpGet(CUSTOMER_URL, "s-priv-1");
+		cache.httpGet("https://api.heidelpay.com/v1/webhooks", "s-priv-1");
+		cache.httpGet("https://api.heidelpay.com/v1/webhooks", "s-priv-1");
+		assertEquals(4, rest.getRequestedUrls().size());
+		assertEquals(0, cache.getStats().getMissCount());
+	}
+}
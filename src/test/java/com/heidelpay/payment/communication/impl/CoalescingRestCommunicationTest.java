@@ -0,0 +1,203 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+public class CoalescingRestCommunicationTest {
+
+	private static final String URL = "https://api.heidelpay.com/v1/payments/s-pay-1";
+
+	private ExecutorService executor;
+	private BlockingRestCommunication rest;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		rest = new BlockingRestCommunication();
+	}
+
+	@After
+	public void tearDown() {
+		rest.release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentGetsShareOneRequest() throws Exception {
+		CoalescingRestCommunication coalescing = new CoalescingRestCommunication(rest);
+		List<Future<String>> responses = startGets(coalescing, 4);
+		awaitCoalesced(coalescing, 3);
+		rest.release.countDown();
+
+		for (Future<String> response : responses) {
+			assertEquals("{\"id\":\"s-pay-1\"}", response.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, rest.getCount.get());
+		assertEquals(3, coalescing.getCoalescedCount());
+	}
+
+	@Test
+	public void testFailureIsThrownToAllWaitingCallers() throws Exception {
+		rest.failure = new HttpCommunicationException("connection reset");
+		CoalescingRestCommunication coalescing = new CoalescingRestCommunication(rest);
+		List<Future<String>> responses = startGets(coalescing, 3);
+		awaitCoalesced(coalescing, 2);
+		rest.release.countDown();
+
+		for (Future<String> response : responses) {
+			try {
+				response.get(5, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof HttpCommunicationException);
+				assertEquals("connection reset", e.getCause().getMessage());
+			}
+		}
+		assertEquals(1, rest.getCount.get());
+	}
+
+	@Test
+	public void testCompletedRequestIsNotReused() throws HttpCommunicationException {
+		rest.release.countDown();
+		CoalescingRestCommunication coalescing = new CoalescingRestCommunication(rest);
+		coalescing.httpGet(URL, "s-priv-1");
+		coalescing.httpGet(URL, "s-priv-1");
+		assertEquals(2, rest.getCount.get());
+		assertEquals(0, coalescing.getCoalescedCount());
+	}
+
+	@Test
+	public void testGetAfterWriteIsNotCoalescedWithEarlierGet() throws Exception {
+		CoalescingRestCommunication coalescing = new CoalescingRestCommunication(rest);
+		List<Future<String>> first = startGets(coalescing, 1);
+		awaitGetCount(1);
+
+		coalescing.httpPost(URL + "/charges", "s-priv-1", null);
+		List<Future<String>> second = startGets(coalescing, 1);
+		awaitGetCount(2);
+		rest.release.countDown();
+
+		assertEquals("{\"id\":\"s-pay-1\"}", first.get(0).get(5, TimeUnit.SECONDS));
+		assertEquals("{\"id\":\"s-pay-1\"}", second.get(0).get(5, TimeUnit.SECONDS));
+		assertEquals(0, coalescing.getCoalescedCount());
+	}
+
+	@Test
+	public void testWriteToOtherResourceKeepsGetCoalesced() throws Exception {
+		CoalescingRestCommunication coalescing = new CoalescingRestCommunication(rest);
+		List<Future<String>> responses = startGets(coalescing, 1);
+		awaitGetCount(1);
+
+		coalescing.httpPost("https://api.heidelpay.com/v1/payments/s-pay-2/charges", "s-priv-1", null);
+		responses.addAll(startGets(coalescing, 1));
+		awaitCoalesced(coalescing, 1);
+		rest.release.countDown();
+
+		for (Future<String> response : responses) {
+			assertEquals("{\"id\":\"s-pay-1\"}", response.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, rest.getCount.get());
+	}
+
+	private List<Future<String>> startGets(final CoalescingRestCommunication coalescing, int count) {
+		List<Future<String>> responses = new ArrayList<Future<String>>();
+		for (int i = 0; i < count; i++) {
+			responses.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return coalescing.httpGet(URL, "s-priv-1");
+				}
+			}));
+		}
+		return responses;
+	}
+
+	private void awaitCoalesced(CoalescingRestCommunication coalescing, int count) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 5000;
+		while (coalescing.getCoalescedCount() < count && System.currentTimeMillis() < timeout) {
+			Thread.sleep(5);
+		}
+		assertEquals(count, coalescing.getCoalescedCount());
+	}
+
+	private void awaitGetCount(int count) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 5000;
+		while (rest.getCount.get() < count && System.currentTimeMillis() < timeout) {
+			Thread.sleep(5);
+		}
+		assertEquals(count, rest.getCount.get());
+	}
+
+	private static class BlockingRestCommunication implements HeidelpayRestCommunication {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger getCount = new AtomicInteger();
+		HttpCommunicationException failure;
+
+		@Override
+		public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+			getCount.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return "{\"id\":\"s-pay-1\"}";
+		}
+
+		@Override
+		public String httpPost(String url, String privateKey, Object data) {
+			return null;
+		}
+
+		@Override
+		public String httpPut(String url, String privateKey, Object data) {
+			return null;
+		}
+
+		@Override
+		public String httpDelete(String url, String privateKey) {
+			return null;
+		}
+	}
+}
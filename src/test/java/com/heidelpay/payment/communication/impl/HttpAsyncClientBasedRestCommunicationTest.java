@@ -0,0 +1,167 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.communication.AbstractHeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+public class HttpAsyncClientBasedRestCommunicationTest {
+
+	private static final String PRIVATE_KEY = "s-priv-test";
+
+	private TestHttpServer server;
+	private HttpAsyncClientBasedRestCommunication rest;
+
+	@Before
+	public void setUp() throws IOException {
+		server = new TestHttpServer();
+		rest = new HttpAsyncClientBasedRestCommunication(null,
+				new HttpClientConfiguration().setIoThreadCount(1).setMaxPerRoute(50));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		rest.close();
+		server.stop();
+	}
+
+	@Test
+	public void testManyInFlightRequestsOnOneIoThread() throws Exception {
+		server.delayResponses(200);
+		List<CompletableFuture<String>> futures = new ArrayList<CompletableFuture<String>>();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 40; i++) {
+			futures.add(rest.httpGetAsync(server.getUrl(), PRIVATE_KEY));
+		}
+
+		for (CompletableFuture<String> future : futures) {
+			assertEquals("{\"id\":\"s-pay-1\"}", future.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(40, server.getRequestCount());
+		assertTrue("requests must run concurrently", System.currentTimeMillis() - start < 10 * 200);
+	}
+
+	@Test
+	public void testAuthenticationHeaderAndBodyAreSent() throws Exception {
+		rest.httpPostAsync(server.getUrl(), PRIVATE_KEY, new SampleData("s-crd-1")).get(5, TimeUnit.SECONDS);
+
+		assertEquals(AbstractHeidelpayRestCommunication.BASIC + AbstractHeidelpayRestCommunication.addAuthentication(PRIVATE_KEY),
+				server.getLastAuthorization());
+		assertTrue(server.getLastBody().contains("\"typeId\":\"s-crd-1\""));
+	}
+
+	@Test
+	public void testApiErrorsCompleteWithPaymentException() throws Exception {
+		server.respondWith("{\"url\" : \"https://heidelpay.com\", \"timestamp\" : \"2018-09-13 22:47:35\", "
+				+ "\"errors\" : [{\"code\" : \"API.410.200.010\", \"merchantMessage\" : \"Message for the merchant.\", "
+				+ "\"customerMessage\" : \"Message for the customer.\"}]}", 409);
+		try {
+			rest.httpDeleteAsync(server.getUrl(), PRIVATE_KEY).get(5, TimeUnit.SECONDS);
+			fail("Expected a PaymentException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof PaymentException);
+			PaymentException paymentException = (PaymentException) e.getCause();
+			assertEquals(Integer.valueOf(409), paymentException.getStatusCode());
+			assertEquals("API.410.200.010", paymentException.getPaymentErrorList().get(0).getCode());
+		}
+	}
+
+	@Test
+	public void testBlockingCallsAreSupported() throws Exception {
+		assertEquals("{\"id\":\"s-pay-1\"}", rest.httpGet(server.getUrl(), PRIVATE_KEY));
+		assertEquals("{\"id\":\"s-pay-1\"}", rest.httpPut(server.getUrl(), PRIVATE_KEY, new SampleData("s-crd-1")));
+	}
+
+	@Test
+	public void testCommunicationErrorsCompleteWithHttpCommunicationException() throws Exception {
+		server.stop();
+		try {
+			rest.httpGetAsync(server.getUrl(), PRIVATE_KEY).get(5, TimeUnit.SECONDS);
+			fail("Expected a HttpCommunicationException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof HttpCommunicationException);
+		}
+	}
+
+	@Test
+	public void testResponsesAboveTheMaximumSizeAreAborted() throws Exception {
+		StringBuilder content = new StringBuilder("{\"id\":\"");
+		for (int i = 0; i < 200; i++) {
+			content.append("s-pay-1");
+		}
+		server.respondWith(content.append("\"}").toString(), 200);
+		HttpAsyncClientBasedRestCommunication limited = new HttpAsyncClientBasedRestCommunication(null,
+				new HttpClientConfiguration().setIoThreadCount(1).setMaxResponseSize(1024));
+		try {
+			assertResponseTooLarge(limited.httpGetAsync(server.getUrl(), PRIVATE_KEY));
+			server.chunkResponses();
+			assertResponseTooLarge(limited.httpGetAsync(server.getUrl(), PRIVATE_KEY));
+			server.respondWith("{\"id\":\"s-pay-1\"}", 200);
+			assertEquals("{\"id\":\"s-pay-1\"}", limited.httpGetAsync(server.getUrl(), PRIVATE_KEY).get(5, TimeUnit.SECONDS));
+		} finally {
+			limited.close();
+		}
+	}
+
+	private void assertResponseTooLarge(CompletableFuture<String> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Expected an HttpCommunicationException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof HttpCommunicationException);
+			assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("maximum response size of 1024 bytes"));
+		}
+	}
+
+	@Test
+	public void testInvalidArgumentsCompleteExceptionally() {
+		CompletableFuture<String> future = rest.httpPostAsync(server.getUrl(), PRIVATE_KEY, null);
+		assertTrue(future.isCompletedExceptionally());
+	}
+
+	static class SampleData {
+		private String typeId;
+
+		SampleData(String typeId) {
+			this.typeId = typeId;
+		}
+
+		public String getTypeId() {
+			return typeId;
+		}
+	}
+}
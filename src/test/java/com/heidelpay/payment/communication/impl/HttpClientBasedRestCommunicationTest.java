@@ -0,0 +1,325 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+import com.heidelpay.payment.communication.HeidelpayHttpResponse;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.RequestTemplate;
+import com.heidelpay.payment.communication.RetryPolicy;
+import com.heidelpay.payment.communication.RetryStats;
+import com.heidelpay.payment.communication.json.JsonIdObject;
+
+public class HttpClientBasedRestCommunicationTest {
+
+	private TestHttpServer server;
+
+	@Before
+	public void startServer() throws IOException {
+		server = new TestHttpServer();
+	}
+
+	@After
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void testConnectionIsReusedBetweenRequests() throws Exception {
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication();
+		try {
+			for (int i = 0; i < 5; i++) {
+				assertEquals("{\"id\":\"s-pay-1\"}", rest.httpGet(server.getUrl(), "s-priv-test"));
+			}
+			assertEquals(1, server.getConnectionCount());
+
+			PoolStats stats = rest.getPoolStats();
+			assertEquals(0, stats.getLeased());
+			assertEquals(1, stats.getAvailable());
+			assertEquals(0, stats.getPending());
+			assertEquals(HttpClientConfiguration.DEFAULT_MAX_TOTAL, stats.getMax());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testPoolLimitsAreConfigurable() throws IOException {
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication(null,
+				new HttpClientConfiguration().setMaxTotal(7).setMaxPerRoute(3));
+		try {
+			assertEquals(7, rest.getPoolStats().getMax());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testClosedCommunicationCannotBeUsed() throws IOException {
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication();
+		rest.close();
+		try {
+			rest.httpGet(server.getUrl(), "s-priv-test");
+			fail("Expected an exception using a closed communication");
+		} catch (HttpCommunicationException e) {
+			// expected
+		} catch (IllegalStateException e) {
+			// expected, depending on the state of the pool
+		}
+	}
+
+	@Test
+	public void testRequestBodyIsSentWithContentLength() throws Exception {
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication() {
+			@Override
+			protected boolean isRequestBodyLogged() {
+				return false;
+			}
+		};
+		try {
+			JsonIdObject data = new JsonIdObject();
+			data.setId("s-bsk-\u00e4");
+			HttpClientBasedHttpRequest request = new HttpClientBasedHttpRequest(server.getUrl(), HeidelpayHttpMethod.POST);
+			request.setContent(data, JsonParser.getInstance());
+			HttpEntity entity = ((HttpEntityEnclosingRequest) request.getRequest()).getEntity();
+			assertFalse(entity.isChunked());
+			assertEquals(17, entity.getContentLength());
+			assertEquals("{\"id\":\"s-bsk-\u00e4\"}", EntityUtils.toString(entity, "UTF-8"));
+
+			assertEquals("{\"id\":\"s-pay-1\"}", rest.httpPost(server.getUrl(), "s-priv-test", data));
+			assertEquals("{\"id\":\"s-bsk-\u00e4\"}", server.getLastBody());
+			assertEquals("17", server.getLastContentLength());
+			assertNull(server.getLastTransferEncoding());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testRequestBodyIsWrittenStraightIntoTheConnection() throws Exception {
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication(null,
+				new HttpClientConfiguration().setChunkedRequests(true)) {
+			@Override
+			protected boolean isRequestBodyLogged() {
+				return false;
+			}
+		};
+		try {
+			JsonIdObject data = new JsonIdObject();
+			data.setId("s-bsk-\u00e4");
+			HttpClientBasedHttpRequest request = new HttpClientBasedHttpRequest(server.getUrl(), HeidelpayHttpMethod.POST, true);
+			request.setContent(data, JsonParser.getInstance());
+			HttpEntity entity = ((HttpEntityEnclosingRequest) request.getRequest()).getEntity();
+			assertTrue(entity instanceof JsonEntity);
+			assertTrue(entity.isRepeatable());
+			assertTrue(entity.isChunked());
+			assertEquals("{\"id\":\"s-bsk-\u00e4\"}", EntityUtils.toString(entity, "UTF-8"));
+
+			assertEquals("{\"id\":\"s-pay-1\"}", rest.httpPost(server.getUrl(), "s-priv-test", data));
+			assertEquals("{\"id\":\"s-bsk-\u00e4\"}", server.getLastBody());
+			assertEquals("chunked", server.getLastTransferEncoding());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testRequestsShareTheHeadersOfTheTemplate() throws Exception {
+		final List<Header[]> sentHeaders = new ArrayList<Header[]>();
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication(Locale.GERMANY) {
+			@Override
+			protected void applyRequestTemplate(HeidelpayHttpRequest request, RequestTemplate template) {
+				super.applyRequestTemplate(request, template);
+				sentHeaders.add(((HttpClientBasedHttpRequest) request).getRequest().getAllHeaders());
+			}
+		};
+		try {
+			assertEquals("{\"id\":\"s-pay-1\"}", rest.httpGet(server.getUrl(), "s-priv-test"));
+			assertEquals("{\"id\":\"s-pay-1\"}", rest.httpGet(server.getUrl(), "s-priv-test"));
+		} finally {
+			rest.close();
+		}
+		assertEquals(2, sentHeaders.size());
+		Header[] first = sentHeaders.get(0);
+		assertEquals(4, first.length);
+		for (int i = 0; i < first.length; i++) {
+			assertSame(first[i], sentHeaders.get(1)[i]);
+		}
+		assertEquals("Accept-Language", first[2].getName());
+		assertEquals("de", first[2].getValue());
+	}
+
+	@Test
+	public void testStreamingGetMapsTheResponse() throws Exception {
+		server.respondWith("{\"id\":\"s-pay-2\"}", 200);
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication();
+		try {
+			JsonIdObject json = rest.httpGet(server.getUrl(), "s-priv-test", JsonIdObject.class);
+			assertEquals("s-pay-2", json.getId());
+			assertEquals(0, rest.getPoolStats().getLeased());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testStreamingGetWithTypeAdapterReturnsTheConnectionToThePool() throws Exception {
+		// the adapter stops at the end of the json, the whitespace after it is left in the stream
+		StringBuilder json = new StringBuilder("{\"id\":\"s-pay-2\"}");
+		for (int i = 0; i < 16384; i++) {
+			json.append(' ');
+		}
+		server.respondWith(json.toString(), 200);
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication() {
+			@Override
+			protected boolean isResponseBodyLogged() {
+				return false;
+			}
+		};
+		try {
+			TypeAdapter<JsonIdObject> adapter = new Gson().getAdapter(JsonIdObject.class);
+			for (int i = 0; i < 3; i++) {
+				assertEquals("s-pay-2", rest.httpGet(server.getUrl(), "s-priv-test", adapter).getId());
+				assertEquals(0, rest.getPoolStats().getLeased());
+				assertEquals(1, rest.getPoolStats().getAvailable());
+			}
+			assertEquals(1, server.getConnectionCount());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testStreamingGetLogsTheResponseBody() throws Exception {
+		server.respondWith("{\"id\":\"s-pay-2\"}", 200);
+		final List<HeidelpayHttpResponse> loggedResponses = new ArrayList<HeidelpayHttpResponse>();
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication() {
+			@Override
+			protected boolean isResponseBodyLogged() {
+				return true;
+			}
+
+			@Override
+			protected void logResponse(HeidelpayHttpResponse response) {
+				loggedResponses.add(response);
+			}
+		};
+		try {
+			JsonIdObject json = rest.httpGet(server.getUrl(), "s-priv-test", JsonIdObject.class);
+			assertEquals("s-pay-2", json.getId());
+		} finally {
+			rest.close();
+		}
+		assertEquals(1, loggedResponses.size());
+		assertEquals(200, loggedResponses.get(0).getStatusCode());
+		assertEquals("{\"id\":\"s-pay-2\"}", loggedResponses.get(0).getContent());
+	}
+
+	@Test
+	public void testStreamingGetThrowsPaymentExceptionOnErrorStatus() throws Exception {
+		server.respondWith("{\"url\":\"https://api.heidelpay.com/v1/payments/s-pay-1\",\"timestamp\":\"2019-01-01 00:00:00\","
+				+ "\"errors\":[{\"code\":\"API.310.100.003\",\"merchantMessage\":\"Payment not found\"}]}", 404);
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication();
+		try {
+			rest.httpGet(server.getUrl(), "s-priv-test", JsonIdObject.class);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(404), e.getStatusCode());
+			assertEquals("API.310.100.003", e.getPaymentErrorList().get(0).getCode());
+		} finally {
+			rest.close();
+		}
+	}
+
+	@Test
+	public void testStreamingGetRetriesUnavailableResponses() throws Exception {
+		server.respondWith("{\"url\":\"https://api.heidelpay.com/v1/payments/s-pay-1\",\"timestamp\":\"2019-01-01 00:00:00\","
+				+ "\"errors\":[{\"code\":\"API.000.000.999\",\"merchantMessage\":\"Service unavailable\"}]}", 503);
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication();
+		rest.setRetryPolicy(new RetryPolicy().setInitialBackoff(1));
+		try {
+			rest.httpGet(server.getUrl(), "s-priv-test", JsonIdObject.class);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(503), e.getStatusCode());
+		} finally {
+			rest.close();
+		}
+		RetryStats stats = rest.getRetryStats();
+		assertEquals(1, stats.getRequestCount());
+		assertEquals(2, stats.getRetryCount());
+		assertEquals(1, stats.getExhaustedCount());
+		assertEquals(0, rest.getPoolStats().getLeased());
+	}
+
+	@Test
+	public void testResponsesAboveTheMaximumSizeAreRejected() throws Exception {
+		StringBuilder content = new StringBuilder("{\"id\":\"");
+		for (int i = 0; i < 200; i++) {
+			content.append("s-pay-1");
+		}
+		server.respondWith(content.append("\"}").toString(), 200);
+		HttpClientBasedRestCommunication rest = new HttpClientBasedRestCommunication(null,
+				new HttpClientConfiguration().setMaxResponseSize(1024));
+		try {
+			try {
+				rest.httpGet(server.getUrl(), "s-priv-test", JsonIdObject.class);
+				fail("Expected an HttpCommunicationException");
+			} catch (HttpCommunicationException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("maximum response size of 1024 bytes"));
+			}
+			try {
+				rest.httpGet(server.getUrl(), "s-priv-test");
+				fail("Expected an HttpCommunicationException");
+			} catch (HttpCommunicationException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("maximum response size of 1024 bytes"));
+			}
+		} finally {
+			rest.close();
+		}
+	}
+}
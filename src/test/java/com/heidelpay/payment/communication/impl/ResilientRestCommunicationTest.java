@@ -0,0 +1,351 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.PaymentException;
+import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.HeidelpayRestCommunication;
+import com.heidelpay.payment.communication.HttpCommunicationException;
+import com.heidelpay.payment.communication.HttpCommunicationMockUtils;
+import com.heidelpay.payment.communication.MockHeidelpayRestCommunication;
+import com.heidelpay.payment.communication.RateLimitExceededException;
+import com.heidelpay.payment.communication.RateLimiter;
+import com.heidelpay.payment.communication.impl.ResilientRestCommunication.CircuitState;
+import com.heidelpay.payment.communication.impl.ResilientRestCommunication.Endpoint;
+import com.heidelpay.payment.communication.impl.ResilientRestCommunication.Rejection;
+
+public class ResilientRestCommunicationTest {
+
+	private static final String PAYMENT_URL = TestData.API_URL + "s-pay-1";
+	private static final String CUSTOMER_URL = "https://api.heidelpay.com/v1/customers/s-cst-1";
+
+	private volatile long now;
+	private volatile int status;
+	private volatile long duration;
+	private volatile CountDownLatch blocked;
+	private int calls;
+	private List<String> events;
+	private ResilientRestCommunication rest;
+
+	@Before
+	public void createCommunication() {
+		status = 200;
+		events = Collections.synchronizedList(new ArrayList<String>());
+		rest = createCommunication(new ResilienceConfiguration().setWindowSize(4).setMinimumCalls(4)
+				.setOpenDuration(1000).setHalfOpenCalls(2).setSlowCallDuration(500));
+	}
+
+	@Test
+	public void testCircuitOpensAtTheFailureRate() throws HttpCommunicationException {
+		status = -1;
+		for (int i = 0; i < 4; i++) {
+			expectFailure(PAYMENT_URL);
+		}
+		assertEquals(CircuitState.OPEN, rest.getState(Endpoint.PAYMENTS));
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.CUSTOMERS));
+
+		expectRejection(PAYMENT_URL, Rejection.CIRCUIT_OPEN);
+		assertEquals(4, calls);
+		status = 200;
+		rest.httpGet(CUSTOMER_URL, "s-priv-1");
+
+		ResilienceStats stats = rest.getStats();
+		assertEquals(5, stats.getCallCount());
+		assertEquals(4, stats.getFailureCount());
+		assertEquals(1, stats.getCircuitRejectedCount());
+		assertEquals("[PAYMENTS: CLOSED -> OPEN, PAYMENTS rejected: CIRCUIT_OPEN]", events.toString());
+	}
+
+	@Test
+	public void testClientErrorsDoNotOpenTheCircuit() throws HttpCommunicationException {
+		status = 404;
+		for (int i = 0; i < 8; i++) {
+			try {
+				rest.httpGet(PAYMENT_URL, "s-priv-1");
+				fail("Expected a PaymentException");
+			} catch (PaymentException e) {
+				assertEquals(Integer.valueOf(404), e.getStatusCode());
+			}
+		}
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+	}
+
+	@Test
+	public void testServerErrorsOpenTheCircuit() throws HttpCommunicationException {
+		status = 503;
+		for (int i = 0; i < 4; i++) {
+			expectFailure(PAYMENT_URL);
+		}
+		assertEquals(CircuitState.OPEN, rest.getState(Endpoint.PAYMENTS));
+	}
+
+	@Test
+	public void testRateLimitedCallsDoNotOpenTheCircuit() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication limited = HttpCommunicationMockUtils.withFixedResponse("{}", 200);
+		limited.setRateLimiter(new RateLimiter(0.001, 1).setMaxWait(0));
+		rest = new ResilientRestCommunication(limited, new ResilienceConfiguration().setWindowSize(4).setMinimumCalls(4));
+		rest.httpGet(PAYMENT_URL, "s-priv-1");
+		for (int i = 0; i < 8; i++) {
+			try {
+				rest.httpGet(PAYMENT_URL, "s-priv-1");
+				fail("Expected a RateLimitExceededException");
+			} catch (RateLimitExceededException e) {
+				// expected
+			}
+		}
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+		assertEquals(0, rest.getStats().getFailureCount());
+	}
+
+	@Test
+	public void testRateLimitedTrialCallsLeaveTheirPermit() throws HttpCommunicationException {
+		openPaymentCircuit();
+		now += 1000;
+		status = 429;
+		for (int i = 0; i < 3; i++) {
+			try {
+				rest.httpGet(PAYMENT_URL, "s-priv-1");
+				fail("Expected a RateLimitExceededException");
+			} catch (RateLimitExceededException e) {
+				// expected
+			}
+		}
+		assertEquals(CircuitState.HALF_OPEN, rest.getState(Endpoint.PAYMENTS));
+		status = 200;
+		rest.httpGet(PAYMENT_URL, "s-priv-1");
+		rest.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+	}
+
+	@Test
+	public void testCircuitOpensAtTheSlowCallRate() throws HttpCommunicationException {
+		duration = 500;
+		for (int i = 0; i < 4; i++) {
+			rest.httpGet(CUSTOMER_URL, "s-priv-1");
+		}
+		assertEquals(CircuitState.OPEN, rest.getState(Endpoint.CUSTOMERS));
+		assertEquals(4, rest.getStats().getSlowCallCount());
+	}
+
+	@Test
+	public void testSuccessfulTrialCallsCloseTheCircuit() throws HttpCommunicationException {
+		openPaymentCircuit();
+		now += 1000;
+		rest.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(CircuitState.HALF_OPEN, rest.getState(Endpoint.PAYMENTS));
+		rest.httpGet(PAYMENT_URL, "s-priv-1");
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+		assertEquals("[PAYMENTS: CLOSED -> OPEN, PAYMENTS: OPEN -> HALF_OPEN, PAYMENTS: HALF_OPEN -> CLOSED]",
+				events.toString());
+	}
+
+	@Test
+	public void testFailedTrialCallsOpenTheCircuitAgain() throws HttpCommunicationException {
+		openPaymentCircuit();
+		now += 1000;
+		status = -1;
+		expectFailure(PAYMENT_URL);
+		expectFailure(PAYMENT_URL);
+		assertEquals(CircuitState.OPEN, rest.getState(Endpoint.PAYMENTS));
+		expectRejection(PAYMENT_URL, Rejection.CIRCUIT_OPEN);
+	}
+
+	@Test
+	public void testHalfOpenCircuitLimitsTheTrialCalls() throws Exception {
+		openPaymentCircuit();
+		now += 1000;
+		blocked = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 2; i++) {
+			threads.add(startGet(PAYMENT_URL));
+		}
+		waitForCalls(6);
+		expectRejection(PAYMENT_URL, Rejection.CIRCUIT_OPEN);
+		blocked.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+	}
+
+	@Test
+	public void testFullBulkheadRejectsImmediately() throws Exception {
+		rest = createCommunication(new ResilienceConfiguration().setMaxConcurrentCalls(1));
+		blocked = new CountDownLatch(1);
+		Thread thread = startGet(PAYMENT_URL);
+		waitForCalls(1);
+		assertEquals(0, rest.getAvailableCalls(Endpoint.PAYMENTS));
+
+		expectRejection(PAYMENT_URL, Rejection.BULKHEAD_FULL);
+		rest.httpGet(CUSTOMER_URL, "s-priv-1");
+		blocked.countDown();
+		thread.join();
+		assertEquals(1, rest.getAvailableCalls(Endpoint.PAYMENTS));
+		assertEquals(1, rest.getStats().getBulkheadRejectedCount());
+		assertEquals(CircuitState.CLOSED, rest.getState(Endpoint.PAYMENTS));
+	}
+
+	@Test
+	public void testEndpointFamiliesAreDerivedFromTheUrl() {
+		assertEquals(Endpoint.PAYMENTS, ResilientRestCommunication.getEndpoint(PAYMENT_URL + "/charges/s-chg-1"));
+		assertEquals(Endpoint.TYPES, ResilientRestCommunication.getEndpoint("https://api.heidelpay.com/v1/types/card"));
+		assertEquals(Endpoint.CUSTOMERS, ResilientRestCommunication.getEndpoint(CUSTOMER_URL));
+		assertEquals(Endpoint.WEBHOOKS, ResilientRestCommunication.getEndpoint("https://api.heidelpay.com/v1/webhooks"));
+		assertEquals(Endpoint.OTHER, ResilientRestCommunication.getEndpoint("https://api.heidelpay.com/v1/baskets/s-bsk-1"));
+		assertEquals(Endpoint.OTHER, ResilientRestCommunication.getEndpoint("https://api.heidelpay.com/v1/keypair?payments"));
+	}
+
+	private void openPaymentCircuit() throws HttpCommunicationException {
+		status = -1;
+		for (int i = 0; i < 4; i++) {
+			expectFailure(PAYMENT_URL);
+		}
+		assertEquals(CircuitState.OPEN, rest.getState(Endpoint.PAYMENTS));
+		status = 200;
+	}
+
+	private void expectFailure(String url) {
+		try {
+			rest.httpGet(url, "s-priv-1");
+			fail("Expected a failure");
+		} catch (RejectedCallException e) {
+			fail("Unexpected rejection " + e.getMessage());
+		} catch (HttpCommunicationException e) {
+			// expected
+		} catch (PaymentException e) {
+			// expected
+		}
+	}
+
+	private void expectRejection(String url, Rejection rejection) {
+		try {
+			rest.httpGet(url, "s-priv-1");
+			fail("Expected a RejectedCallException");
+		} catch (RejectedCallException e) {
+			assertEquals(rejection, e.getRejection());
+		} catch (HttpCommunicationException e) {
+			fail("Unexpected exception " + e.getMessage());
+		}
+	}
+
+	private Thread startGet(final String url) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					rest.httpGet(url, "s-priv-1");
+				} catch (HttpCommunicationException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	private synchronized void waitForCalls(int count) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (calls < count && System.currentTimeMillis() < end) {
+			wait(10);
+		}
+		assertEquals(count, calls);
+	}
+
+	private synchronized void called() {
+		calls++;
+		notifyAll();
+	}
+
+	private ResilientRestCommunication createCommunication(ResilienceConfiguration configuration) {
+		HeidelpayRestCommunication delegate = new HeidelpayRestCommunication() {
+			@Override
+			public String httpGet(String url, String privateKey) throws HttpCommunicationException {
+				called();
+				now += duration;
+				CountDownLatch latch = blocked;
+				if (latch != null && url.equals(PAYMENT_URL)) {
+					try {
+						latch.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				if (status == -1) {
+					throw new HttpCommunicationException("Read timed out");
+				}
+				if (status == 429) {
+					// held back by the RateLimiter of the communication
+					throw new RateLimitExceededException("No permit for " + url);
+				}
+				if (status >= 400) {
+					throw new PaymentException(url, status, "", "", new ArrayList<com.heidelpay.payment.PaymentError>(), "failed");
+				}
+				return "{}";
+			}
+
+			@Override
+			public String httpPost(String url, String privateKey, Object data) throws HttpCommunicationException {
+				return httpGet(url, privateKey);
+			}
+
+			@Override
+			public String httpPut(String url, String privateKey, Object data) throws HttpCommunicationException {
+				return httpGet(url, privateKey);
+			}
+
+			@Override
+			public String httpDelete(String url, String privateKey) throws HttpCommunicationException {
+				return httpGet(url, privateKey);
+			}
+		};
+		ResilientRestCommunication communication = new ResilientRestCommunication(delegate, configuration) {
+			@Override
+			long currentTimeMillis() {
+				return now;
+			}
+		};
+		communication.addListener(new ResilientRestCommunication.Listener() {
+			@Override
+			public void onStateTransition(Endpoint endpoint, CircuitState from, CircuitState to) {
+				events.add(endpoint + ": " + from + " -> " + to);
+			}
+
+			@Override
+			public void onRejected(Endpoint endpoint, Rejection rejection) {
+				events.add(endpoint + " rejected: " + rejection);
+			}
+		});
+		return communication;
+	}
+}
@@ -0,0 +1,147 @@
+package com.heidelpay.payment.communication.impl;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal local http server answering every request with a fixed response.
+ */
+class TestHttpServer {
+
+	private final HttpServer server;
+	private final Set<Integer> clientPorts = new HashSet<Integer>();
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private volatile String responseContent = "{\"id\":\"s-pay-1\"}";
+	private volatile int responseStatus = 200;
+	private volatile long responseDelay = 0;
+	private volatile boolean chunked;
+	private volatile String lastAuthorization;
+	private volatile String lastBody;
+	private volatile String lastContentLength;
+	private volatile String lastTransferEncoding;
+
+	TestHttpServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleExchange(exchange);
+			}
+		});
+		server.start();
+	}
+
+	private void handleExchange(HttpExchange exchange) throws IOException {
+		synchronized (clientPorts) {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+		}
+		requestCount.incrementAndGet();
+		lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+		lastContentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+		lastTransferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+		lastBody = new String(readFully(exchange), "UTF-8");
+		if (responseDelay > 0) {
+			try {
+				Thread.sleep(responseDelay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		byte[] body = responseContent.getBytes("UTF-8");
+		exchange.sendResponseHeaders(responseStatus, chunked ? 0 : body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	private byte[] readFully(HttpExchange exchange) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = exchange.getRequestBody().read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	TestHttpServer respondWith(String content, int status) {
+		this.responseContent = content;
+		this.responseStatus = status;
+		return this;
+	}
+
+	TestHttpServer chunkResponses() {
+		this.chunked = true;
+		return this;
+	}
+
+	TestHttpServer delayResponses(long millis) {
+		this.responseDelay = millis;
+		return this;
+	}
+
+	String getUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/payments/s-pay-1";
+	}
+
+	int getConnectionCount() {
+		synchronized (clientPorts) {
+			return clientPorts.size();
+		}
+	}
+
+	int getRequestCount() {
+		return requestCount.get();
+	}
+
+	String getLastAuthorization() {
+		return lastAuthorization;
+	}
+
+	String getLastBody() {
+		return lastBody;
+	}
+
+	String getLastContentLength() {
+		return lastContentLength;
+	}
+
+	String getLastTransferEncoding() {
+		return lastTransferEncoding;
+	}
+
+	void stop() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,280 @@
+package com.heidelpay.payment.communication.mapper;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.heidelpay.payment.AbstractTransaction;
+import com.heidelpay.payment.Authorization;
+import com.heidelpay.payment.Cancel;
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.GeoLocation;
+import com.heidelpay.payment.Linkpay;
+import com.heidelpay.payment.Payment;
+import com.heidelpay.payment.Payout;
+import com.heidelpay.payment.Paypage;
+import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.JsonParser;
+import com.heidelpay.payment.communication.RandomJsonObjects;
+import com.heidelpay.payment.communication.json.JsonAuthorization;
+import com.heidelpay.payment.communication.json.JsonCancel;
+import com.heidelpay.payment.communication.json.JsonCard;
+import com.heidelpay.payment.communication.json.JsonCharge;
+import com.heidelpay.payment.communication.json.JsonIdObject;
+import com.heidelpay.payment.communication.json.JsonLinkpay;
+import com.heidelpay.payment.communication.json.JsonPayment;
+import com.heidelpay.payment.communication.json.JsonPayout;
+import com.heidelpay.payment.communication.json.JsonPaypage;
+import com.heidelpay.payment.communication.json.JsonTransaction;
+import com.heidelpay.payment.paymenttypes.AbstractPaymentType;
+import com.heidelpay.payment.paymenttypes.Alipay;
+import com.heidelpay.payment.paymenttypes.Card;
+import com.heidelpay.payment.paymenttypes.Eps;
+import com.heidelpay.payment.paymenttypes.Giropay;
+import com.heidelpay.payment.paymenttypes.Invoice;
+import com.heidelpay.payment.paymenttypes.InvoiceFactoring;
+import com.heidelpay.payment.paymenttypes.InvoiceGuaranteed;
+import com.heidelpay.payment.paymenttypes.InvoiceSecured;
+import com.heidelpay.payment.paymenttypes.Paypal;
+import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.paymenttypes.PostFinanceCard;
+import com.heidelpay.payment.paymenttypes.PostFinanceEFinance;
+import com.heidelpay.payment.paymenttypes.Prepayment;
+import com.heidelpay.payment.paymenttypes.Przelewy24;
+import com.heidelpay.payment.paymenttypes.Sofort;
+import com.heidelpay.payment.paymenttypes.Wechatpay;
+
+/**
+ * Compares the business objects read by the {@code JsonToBusinessClassReader}
+ * with the ones of the {@code JsonToBusinessClassMapper}, for random responses.
+ */
+public class JsonToBusinessClassReaderTest {
+
+	private static final int RESPONSES = 50;
+
+	private final JsonParser jsonParser = JsonParser.getInstance();
+	private final JsonToBusinessClassMapper mapper = new JsonToBusinessClassMapper();
+	private final JsonToBusinessClassReader reader = new JsonToBusinessClassReader(jsonParser);
+	private final RandomJsonObjects randomObjects = new RandomJsonObjects(7);
+
+	@Test
+	public void testTransactionsAreReadAsMapped() throws Exception {
+		for (int i = 0; i < RESPONSES; i++) {
+			String json = json(randomObjects.create(JsonCharge.class), "isSuccess", "isPending", "isError");
+			JsonCharge jsonCharge = jsonParser.fromJson(json, JsonCharge.class);
+			Charge expected = (Charge) mapper.mapToBusinessObject(prefilled(new Charge()), jsonCharge);
+			expected.setInvoiceId(jsonCharge.getInvoiceId());
+			assertSameFields("charge", expected, jsonParser.fromJson(json, reader.transaction(prefilled(new Charge()))));
+
+			json = json(randomObjects.create(JsonAuthorization.class), "isSuccess", "isPending", "isError");
+			assertSameFields("authorization",
+					mapper.mapToBusinessObject(prefilled(new Authorization()), jsonParser.fromJson(json, JsonAuthorization.class)),
+					jsonParser.fromJson(json, reader.transaction(prefilled(new Authorization()))));
+
+			json = json(randomObjects.create(JsonPayout.class), "isSuccess", "isPending", "isError");
+			assertSameFields("payout",
+					mapper.mapToBusinessObject(prefilled(new Payout()), jsonParser.fromJson(json, JsonPayout.class)),
+					jsonParser.fromJson(json, reader.transaction(prefilled(new Payout()))));
+		}
+	}
+
+	@Test
+	public void testCancelsAreReadAsMapped() throws Exception {
+		for (int i = 0; i < RESPONSES; i++) {
+			String json = json(randomObjects.create(JsonCancel.class), "isSuccess", "isPending", "isError");
+			JsonCancel jsonCancel = jsonParser.fromJson(json, JsonCancel.class);
+			Cancel expected = (Cancel) mapper.mapToBusinessObject(prefilled(new Cancel()), jsonCancel);
+			if (jsonCancel.getResources() != null) {
+				expected.setPaymentId(jsonCancel.getResources().getPaymentId());
+			}
+			assertSameFields("cancel", expected, jsonParser.fromJson(json, reader.cancel(prefilled(new Cancel()))));
+		}
+	}
+
+	@Test
+	public void testPaymentsAreReadAsMapped() throws Exception {
+		for (int i = 0; i < RESPONSES; i++) {
+			String json = json(randomObjects.create(JsonPayment.class), "amount");
+			JsonPayment jsonPayment = jsonParser.fromJson(json, JsonPayment.class);
+			List<JsonTransaction> expectedTransactions = jsonPayment.getTransactions() == null
+					? new ArrayList<JsonTransaction>() : jsonPayment.getTransactions();
+			List<JsonTransaction> transactions = new ArrayList<JsonTransaction>();
+			Payment expected = mapper.mapToBusinessObject(prefilled(new Payment(null)), jsonPayment);
+			Payment actual = jsonParser.fromJson(json, reader.payment(prefilled(new Payment(null)), transactions));
+			assertSameFields("payment", expected, actual);
+			assertEquals(jsonParser.toJson(expectedTransactions), jsonParser.toJson(transactions));
+		}
+	}
+
+	@Test
+	public void testPaypagesAndLinkpaysAreReadAsMapped() throws Exception {
+		for (int i = 0; i < RESPONSES; i++) {
+			String json = json(randomObjects.create(JsonPaypage.class));
+			assertSameFields("paypage",
+					mapper.mapToBusinessObject(prefilled(new Paypage()), jsonParser.fromJson(json, JsonPaypage.class)),
+					jsonParser.fromJson(json, reader.paypage(prefilled(new Paypage()))));
+
+			json = json(randomObjects.create(JsonLinkpay.class));
+			assertSameFields("linkpay",
+					mapper.mapToBusinessObject(prefilled(new Linkpay()), jsonParser.fromJson(json, JsonLinkpay.class)),
+					jsonParser.fromJson(json, reader.linkpay(prefilled(new Linkpay()))));
+		}
+	}
+
+	@Test
+	public void testPaymentTypesAreReadAsMapped() throws Exception {
+		List<Class<? extends PaymentType>> types = Arrays.<Class<? extends PaymentType>>asList(Eps.class,
+				Giropay.class, Invoice.class, InvoiceFactoring.class, InvoiceGuaranteed.class, InvoiceSecured.class,
+				Prepayment.class, Przelewy24.class, Sofort.class, Alipay.class, Wechatpay.class, PostFinanceCard.class,
+				PostFinanceEFinance.class);
+		for (int i = 0; i < RESPONSES; i++) {
+			for (Class<? extends PaymentType> type : types) {
+				String json = json(randomObjects.create(JsonIdObject.class), "geoLocation");
+				assertSameFields(type.getSimpleName(),
+						mapper.mapToBusinessObject(prefilled(type.newInstance()), jsonParser.fromJson(json, JsonIdObject.class)),
+						jsonParser.fromJson(json, reader.paymentType(prefilled(type.newInstance()))));
+			}
+			String json = json(randomObjects.create(JsonCard.class), "geoLocation", "cardDetails");
+			assertSameFields("card",
+					mapper.mapToBusinessObject(prefilled(new Card("4711", "12/30")), jsonParser.fromJson(json, JsonCard.class)),
+					jsonParser.fromJson(json, reader.paymentType(prefilled(new Card("4711", "12/30")))));
+		}
+	}
+
+	@Test
+	public void testApiResponsesAreReadAsMapped() throws Exception {
+		String json = TestData.transactionResponseJson("s-pay-1", "s-chg-1");
+		Charge charge = (Charge) jsonParser.fromJson(json, reader.transaction(new Charge()));
+		assertSameFields("charge", mapper.mapToBusinessObject(new Charge(), jsonParser.fromJson(json, JsonCharge.class)), charge);
+		assertEquals("s-pay-1", charge.getPaymentId());
+		assertEquals(AbstractTransaction.Status.SUCCESS, charge.getStatus());
+		assertEquals("31HA07BC81", charge.getProcessing().getUniqueId());
+
+		json = TestData.paymentJson("s-pay-1", TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"));
+		List<JsonTransaction> transactions = new ArrayList<JsonTransaction>();
+		Payment payment = jsonParser.fromJson(json, reader.payment(new Payment(null), transactions));
+		assertSameFields("payment", mapper.mapToBusinessObject(new Payment(null), jsonParser.fromJson(json, JsonPayment.class)), payment);
+		assertEquals(1, transactions.size());
+	}
+
+	@Test
+	public void testPaymentTypesWithOwnFieldsAreNotSupported() {
+		assertTrue(reader.isSupported(new Card("4711", "12/30")));
+		assertTrue(reader.isSupported(new Sofort()));
+		assertFalse(reader.isSupported(new Paypal()));
+	}
+
+	private String json(Object value, String... required) {
+		JsonObject tree = com.google.gson.JsonParser.parseString(jsonParser.toJson(value)).getAsJsonObject();
+		for (String member : required) {
+			if (!tree.has(member) || tree.get(member).isJsonNull()) {
+				tree.add(member, requiredValue(member));
+			}
+		}
+		return tree.toString();
+	}
+
+	// the mapper fails with a NullPointerException without these members
+	private static JsonElement requiredValue(String member) {
+		if ("geoLocation".equals(member) || "cardDetails".equals(member) || "amount".equals(member)) {
+			return new JsonObject();
+		}
+		return new JsonPrimitive(false);
+	}
+
+	private static <T extends AbstractTransaction<?>> T prefilled(T transaction) {
+		transaction.setId("s-id-old");
+		transaction.setCustomerId("s-cst-old");
+		transaction.setPaymentId("s-pay-old");
+		transaction.setBasketId("s-bsk-old");
+		transaction.setOrderId("order-old");
+		transaction.setStatus(AbstractTransaction.Status.PENDING);
+		if (transaction instanceof Charge) {
+			((Charge) transaction).setInvoiceId("invoice-old");
+		}
+		return transaction;
+	}
+
+	private static Payment prefilled(Payment payment) {
+		payment.setId("s-pay-old");
+		payment.setCustomerId("s-cst-old");
+		payment.setBasketId("s-bsk-old");
+		payment.setAmountTotal(BigDecimal.TEN);
+		return payment;
+	}
+
+	private static Paypage prefilled(Paypage paypage) {
+		paypage.setShopName("shop-old");
+		paypage.setCustomerId("s-cst-old");
+		paypage.setBillingAddressRequired("true");
+		return paypage;
+	}
+
+	private static Linkpay prefilled(Linkpay linkpay) {
+		linkpay.setAlias("alias-old");
+		linkpay.setCustomerId("s-cst-old");
+		return linkpay;
+	}
+
+	private static <T extends PaymentType> T prefilled(T paymentType) {
+		AbstractPaymentType type = (AbstractPaymentType) paymentType;
+		type.setId("s-typ-old");
+		type.setRecurring(Boolean.TRUE);
+		type.setGeoLocation(new GeoLocation("127.0.0.1", "DE"));
+		return paymentType;
+	}
+
+	private static void assertSameFields(String path, Object expected, Object actual) throws IllegalAccessException {
+		if (expected == null || actual == null || !expected.getClass().getName().startsWith("com.heidelpay.payment")
+				|| expected.getClass().isEnum()) {
+			if (expected instanceof Object[] && actual instanceof Object[]) {
+				assertTrue(path, Arrays.deepEquals((Object[]) expected, (Object[]) actual));
+			} else {
+				assertEquals(path, expected, actual);
+			}
+			return;
+		}
+		assertEquals(path, expected.getClass(), actual.getClass());
+		for (Class<?> current = expected.getClass(); current != Object.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				field.setAccessible(true);
+				assertSameFields(path + "." + field.getName(), field.get(expected), field.get(actual));
+			}
+		}
+	}
+}
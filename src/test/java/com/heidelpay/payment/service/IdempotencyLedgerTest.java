@@ -0,0 +1,172 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.heidelpay.payment.service.IdempotencyRecord.State;
+
+public class IdempotencyLedgerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testBeginReturnsTheExistingRecord() {
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		assertNull(ledger.begin("charge:order-1"));
+		assertEquals(State.IN_FLIGHT, ledger.begin("charge:order-1").getState());
+
+		ledger.complete("charge:order-1", "s-pay-1", "s-chg-1");
+		IdempotencyRecord record = ledger.begin("charge:order-1");
+		assertEquals(State.COMPLETED, record.getState());
+		assertEquals("s-pay-1", record.getPaymentId());
+		assertEquals("s-chg-1", record.getTransactionId());
+
+		ledger.remove("charge:order-1");
+		assertNull(ledger.get("charge:order-1"));
+	}
+
+	@Test
+	public void testAbandonedKeyIsTakenOverOnce() {
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		ledger.begin("charge:order-1");
+		ledger.abandon("charge:order-1");
+		assertEquals(State.ABANDONED, ledger.get("charge:order-1").getState());
+
+		assertEquals(State.ABANDONED, ledger.begin("charge:order-1").getState());
+		assertEquals(State.IN_FLIGHT, ledger.begin("charge:order-1").getState());
+
+		ledger.complete("charge:order-1", "s-pay-1", "s-chg-1");
+		ledger.abandon("charge:order-1");
+		assertEquals(State.COMPLETED, ledger.get("charge:order-1").getState());
+	}
+
+	@Test
+	public void testRecordsExpireAfterTheTtl() {
+		final long[] now = { 1000 };
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger(100) {
+			@Override
+			long currentTimeMillis() {
+				return now[0];
+			}
+		};
+		ledger.begin("charge:order-1");
+		now[0] = 1050;
+		ledger.begin("charge:order-2");
+		ledger.complete("charge:order-1", "s-pay-1", "s-chg-1");
+		assertEquals(2, ledger.size());
+
+		now[0] = 1100;
+		assertNull(ledger.get("charge:order-1"));
+		assertEquals(State.IN_FLIGHT, ledger.get("charge:order-2").getState());
+		now[0] = 1150;
+		assertEquals(0, ledger.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTtlMustBePositive() {
+		new InMemoryIdempotencyLedger(0);
+	}
+
+	@Test
+	public void testFileLedgerRestoresTheRecords() throws IOException {
+		File file = new File(folder.getRoot(), "ledger.log");
+		FileIdempotencyLedger ledger = new FileIdempotencyLedger(file);
+		ledger.begin("charge:order\t1");
+		ledger.complete("charge:order\t1", "s-pay-1", "s-chg-1");
+		ledger.begin("authorize:order-2");
+		ledger.begin("payout:order-3");
+		ledger.remove("payout:order-3");
+		ledger.begin("charge:order-4");
+		ledger.abandon("charge:order-4");
+		ledger.begin("charge:order-4");
+		ledger.close();
+
+		ledger = new FileIdempotencyLedger(file);
+		try {
+			IdempotencyRecord record = ledger.get("charge:order\t1");
+			assertEquals(State.COMPLETED, record.getState());
+			assertEquals("s-pay-1", record.getPaymentId());
+			assertEquals("s-chg-1", record.getTransactionId());
+			// the keys in flight were abandoned by the closed ledger
+			assertEquals(State.ABANDONED, ledger.get("authorize:order-2").getState());
+			assertNull(ledger.get("authorize:order-2").getPaymentId());
+			assertNull(ledger.get("payout:order-3"));
+			assertEquals(State.ABANDONED, ledger.get("charge:order-4").getState());
+			assertEquals(3, ledger.size());
+		} finally {
+			ledger.close();
+		}
+	}
+
+	@Test
+	public void testFileLedgerIgnoresAnIncompleteLastLine() throws IOException {
+		File file = new File(folder.getRoot(), "ledger.log");
+		FileIdempotencyLedger ledger = new FileIdempotencyLedger(file);
+		ledger.begin("charge:order-1");
+		ledger.close();
+		OutputStream out = new FileOutputStream(file, true);
+		out.write("COMPLETED\tcharge%3Aorder-1\ts-pa".getBytes("UTF-8"));
+		out.close();
+
+		ledger = new FileIdempotencyLedger(file);
+		try {
+			assertEquals(State.ABANDONED, ledger.get("charge:order-1").getState());
+		} finally {
+			ledger.close();
+		}
+	}
+
+	@Test
+	public void testFileLedgerDropsExpiredRecordsWhenOpened() throws IOException {
+		File file = new File(folder.getRoot(), "ledger.log");
+		FileIdempotencyLedger ledger = new FileIdempotencyLedger(file);
+		ledger.begin("charge:order-1");
+		ledger.close();
+		long size = file.length();
+
+		ledger = new FileIdempotencyLedger(file, 1) {
+			@Override
+			long currentTimeMillis() {
+				return System.currentTimeMillis() + 10;
+			}
+		};
+		try {
+			assertNull(ledger.get("charge:order-1"));
+		} finally {
+			ledger.close();
+		}
+		assertEquals(0, file.length());
+		assertEquals(true, size > 0);
+	}
+}
@@ -0,0 +1,162 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.heidelpay.payment.communication.HttpCommunicationException;
+
+public class ParallelFetcherTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void startExecutor() {
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@After
+	public void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testWithoutExecutorTasksRunOnCallingThread() throws HttpCommunicationException {
+		final Thread caller = Thread.currentThread();
+		final List<Integer> order = new ArrayList<Integer>();
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		for (int i = 0; i < 5; i++) {
+			final int index = i;
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() {
+					assertEquals(caller, Thread.currentThread());
+					order.add(index);
+				}
+			});
+		}
+		new ParallelFetcher().runAll(tasks);
+		assertEquals("[0, 1, 2, 3, 4]", order.toString());
+	}
+
+	@Test
+	public void testConcurrencyIsLimitedToParallelism() throws HttpCommunicationException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final String[] results = new String[12];
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		for (int i = 0; i < results.length; i++) {
+			final int index = i;
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() {
+					int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					sleep(50);
+					results[index] = "result-" + index;
+					running.decrementAndGet();
+				}
+			});
+		}
+		long start = System.currentTimeMillis();
+		new ParallelFetcher(executor, 3).runAll(tasks);
+		long duration = System.currentTimeMillis() - start;
+
+		for (int i = 0; i < results.length; i++) {
+			assertEquals("result-" + i, results[i]);
+		}
+		assertTrue("More than 3 concurrent tasks: " + maxRunning.get(), maxRunning.get() <= 3);
+		assertTrue("Tasks did not run concurrently: " + duration + "ms", duration < 12 * 50);
+	}
+
+	@Test
+	public void testFirstFailureIsThrown() {
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		for (int i = 0; i < 4; i++) {
+			final int index = i;
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() throws HttpCommunicationException {
+					if (index == 2) {
+						throw new HttpCommunicationException("fetch " + index + " failed");
+					}
+				}
+			});
+		}
+		try {
+			new ParallelFetcher(executor, 4).runAll(tasks);
+			fail("Expected an HttpCommunicationException");
+		} catch (HttpCommunicationException e) {
+			assertEquals("fetch 2 failed", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testRejectingExecutorRunsTasksOnCallingThread() throws HttpCommunicationException {
+		Executor rejecting = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException("saturated");
+			}
+		};
+		final AtomicInteger count = new AtomicInteger();
+		List<ParallelFetcher.Task> tasks = new ArrayList<ParallelFetcher.Task>();
+		for (int i = 0; i < 5; i++) {
+			tasks.add(new ParallelFetcher.Task() {
+				@Override
+				public void run() {
+					count.incrementAndGet();
+				}
+			});
+		}
+		new ParallelFetcher(rejecting, 4).runAll(tasks);
+		assertEquals(5, count.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParallelismMustBePositive() {
+		new ParallelFetcher(executor, 0);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
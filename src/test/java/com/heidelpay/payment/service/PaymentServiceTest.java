@@ -22,18 +22,63 @@ package com.heidelpay.payment.service;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import com.heidelpay.payment.Basket;
+import com.heidelpay.payment.Cancel;
 import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.Customer;
 import com.heidelpay.payment.Heidelpay;
+import com.heidelpay.payment.Payment;
 import com.heidelpay.payment.PaymentError;
 import com.heidelpay.payment.PaymentException;
 import com.heidelpay.payment.TestData;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest;
+import com.heidelpay.payment.communication.HeidelpayHttpRequest.HeidelpayHttpMethod;
+import com.heidelpay.payment.communication.HeidelpayHttpResponse;
 import com.heidelpay.payment.communication.HeidelpayRestCommunication;
 import com.heidelpay.payment.communication.HttpCommunicationException;
 import com.heidelpay.payment.communication.HttpCommunicationMockUtils;
+import com.heidelpay.payment.communication.MockHeidelpayRestCommunication;
+import com.heidelpay.payment.paymenttypes.Alipay;
+import com.heidelpay.payment.paymenttypes.Bancontact;
+import com.heidelpay.payment.paymenttypes.Card;
+import com.heidelpay.payment.paymenttypes.Eps;
+import com.heidelpay.payment.paymenttypes.Giropay;
+import com.heidelpay.payment.paymenttypes.Ideal;
+import com.heidelpay.payment.paymenttypes.Invoice;
+import com.heidelpay.payment.paymenttypes.InvoiceFactoring;
+import com.heidelpay.payment.paymenttypes.InvoiceGuaranteed;
+import com.heidelpay.payment.paymenttypes.InvoiceSecured;
+import com.heidelpay.payment.paymenttypes.PaymentType;
+import com.heidelpay.payment.paymenttypes.PaymentTypeEnum;
+import com.heidelpay.payment.paymenttypes.Paypal;
+import com.heidelpay.payment.paymenttypes.Pis;
+import com.heidelpay.payment.paymenttypes.PostFinanceCard;
+import com.heidelpay.payment.paymenttypes.PostFinanceEFinance;
+import com.heidelpay.payment.paymenttypes.Prepayment;
+import com.heidelpay.payment.paymenttypes.Przelewy24;
+import com.heidelpay.payment.paymenttypes.SepaDirectDebit;
+import com.heidelpay.payment.paymenttypes.SepaDirectDebitGuaranteed;
+import com.heidelpay.payment.paymenttypes.SepaDirectDebitSecured;
+import com.heidelpay.payment.paymenttypes.Sofort;
+import com.heidelpay.payment.paymenttypes.Wechatpay;
 
 public class PaymentServiceTest {
 
@@ -80,5 +125,530 @@ public class PaymentServiceTest {
 		assertEquals("The provided address is invalid. Please check your input and try agian.", error.getCustomerMessage());
 	}
 	
+	@Test
+	public void testParallelFetchPaymentKeepsTransactionOrder() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("authorize", "s-pay-1", "authorize/s-aut-1"),
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"),
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-2"),
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-3"),
+				TestData.transactionJson("cancel-authorize", "s-pay-1", "authorize/s-aut-1/cancels/s-cnl-1"),
+				TestData.transactionJson("cancel-charge", "s-pay-1", "charges/s-chg-2/cancels/s-cnl-2")));
+		rest.addResponse("/authorize/s-aut-1", TestData.transactionResponseJson("s-pay-1", "s-aut-1"));
+		for (String chargeId : new String[] {"s-chg-1", "s-chg-2", "s-chg-3"}) {
+			rest.addResponse("/charges/" + chargeId, TestData.transactionResponseJson("s-pay-1", chargeId));
+		}
+		rest.addResponse("/cancels/s-cnl-1", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		rest.addResponse("/cancels/s-cnl-2", TestData.transactionResponseJson("s-pay-1", "s-cnl-2"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			heidelpay.setParallelFetch(executor, 4);
+			Payment payment = heidelpay.fetchPayment("s-pay-1");
+			
+			assertEquals(7, rest.getRequestedUrls().size());
+			assertEquals("s-aut-1", payment.getAuthorization().getId());
+			assertEquals(1, payment.getAuthorization().getCancelList().size());
+			assertEquals("s-cnl-1", payment.getAuthorization().getCancelList().get(0).getId());
+			assertEquals(3, payment.getChargesList().size());
+			assertEquals("s-chg-1", payment.getCharge(0).getId());
+			assertEquals("s-chg-2", payment.getCharge(1).getId());
+			assertEquals("s-chg-3", payment.getCharge(2).getId());
+			assertEquals(0, payment.getCharge(0).getCancelList().size());
+			assertEquals("s-cnl-2", payment.getCharge(1).getCancelList().get(0).getId());
+			assertEquals(2, payment.getCancelList().size());
+			assertEquals("s-cnl-1", payment.getCancelList().get(0).getId());
+			assertEquals("s-cnl-2", payment.getCancelList().get(1).getId());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testLazyFetchPaymentFetchesTransactionsOnFirstAccess() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"),
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-2"),
+				TestData.transactionJson("cancel-charge", "s-pay-1", "charges/s-chg-1/cancels/s-cnl-1")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/charges/s-chg-2", TestData.transactionResponseJson("s-pay-1", "s-chg-2"));
+		rest.addResponse("/cancels/s-cnl-1", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setLazyLoading(true);
+		
+		Payment payment = heidelpay.fetchPayment("s-pay-1");
+		assertEquals(Payment.State.COMPLETED, payment.getPaymentState());
+		assertEquals(1, rest.getRequestedUrls().size());
+		assertFalse(payment.isTransactionsResolved());
+		
+		assertEquals("s-chg-2", payment.getCharge("s-chg-2").getId());
+		assertEquals(4, rest.getRequestedUrls().size());
+		assertTrue(payment.isTransactionsResolved());
+		assertEquals("s-cnl-1", payment.getCharge(0).getCancelList().get(0).getId());
+		assertEquals(1, payment.getCancelList().size());
+		assertNull(payment.getAuthorization());
+		assertEquals(0, payment.getPayoutList().size());
+		assertEquals(4, rest.getRequestedUrls().size());
+	}
+	
+	@Test
+	public void testLazyFetchPaymentFailureIsThrownOnAccess() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1")));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setLazyLoading(true);
+		
+		Payment payment = heidelpay.fetchPayment("s-pay-1");
+		try {
+			payment.getChargesList();
+			fail("Expected a PaymentException for the unknown charge");
+		} catch (PaymentException e) {
+			assertEquals("COR.400.100.101", e.getPaymentErrorList().get(0).getCode());
+		}
+		assertFalse(payment.isTransactionsResolved());
+		
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		assertEquals("s-chg-1", payment.getCharge(0).getId());
+		assertTrue(payment.isTransactionsResolved());
+	}
+	
+	@Test
+	public void testShallowChargeFetchesPaymentOnFirstAccess() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1"));
+		rest.addResponse("/payments/s-pay-1/charges/s-chg-1/cancels", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setShallowResponses(true);
+		
+		Charge charge = heidelpay.charge(new Charge());
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals("s-pay-1", charge.getPaymentId());
+		assertFalse(charge.isPaymentResolved());
+		assertEquals(1, rest.getRequestedUrls().size());
+		
+		Cancel cancel = charge.cancel(BigDecimal.ONE);
+		assertEquals("s-cnl-1", cancel.getId());
+		assertEquals(2, rest.getRequestedUrls().size());
+		
+		assertEquals("s-pay-1", charge.getPayment().getId());
+		assertTrue(charge.isPaymentResolved());
+		assertEquals(3, rest.getRequestedUrls().size());
+	}
+	
+	@Test
+	public void testLoadPaymentOverridesShallowResponses() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		
+		Charge shallowCharge = heidelpay.charge(new Charge(), false);
+		assertFalse(shallowCharge.isPaymentResolved());
+		assertEquals(1, rest.getRequestedUrls().size());
+		
+		heidelpay.setShallowResponses(true);
+		Charge charge = heidelpay.charge(new Charge(), true);
+		assertTrue(charge.isPaymentResolved());
+		assertEquals("s-pay-1", charge.getPayment().getId());
+		assertEquals(3, rest.getRequestedUrls().size());
+	}
+	
+	@Test
+	public void testFetchChargeIsASingleRequest() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1/charges/s-chg-2", TestData.transactionResponseJson("s-pay-1", "s-chg-2"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-2"),
+				TestData.transactionJson("cancel-charge", "s-pay-1", "charges/s-chg-2/cancels/s-cnl-1")));
+		rest.addResponse("/cancels/s-cnl-1", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		
+		Charge charge = heidelpay.fetchCharge("s-pay-1", "s-chg-2");
+		assertEquals("s-chg-2", charge.getId());
+		assertEquals("s-pay-1", charge.getPaymentId());
+		assertEquals("charge", charge.getType());
+		assertEquals("GET " + TestData.API_URL + "s-pay-1/charges/s-chg-2", rest.getRequestedUrls().get(0));
+		assertEquals(1, rest.getRequestedUrls().size());
+		
+		assertEquals("s-cnl-1", charge.getCancel("s-cnl-1").getId());
+		assertTrue(charge.isPaymentResolved());
+		assertEquals(4, rest.getRequestedUrls().size());
+	}
+	
+	@Test
+	public void testFetchAuthorizationAndCancelAreSingleRequests() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1/authorize/s-aut-1", TestData.transactionResponseJson("s-pay-1", "s-aut-1"));
+		rest.addResponse("/payments/s-pay-1/authorize/cancels/s-cnl-1", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		rest.addResponse("/payments/s-pay-1/charges/s-chg-1/cancels/s-cnl-2", TestData.transactionResponseJson("s-pay-1", "s-cnl-2"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		
+		assertEquals("s-aut-1", heidelpay.fetchAuthorization("s-pay-1").getId());
+		Cancel reversal = heidelpay.fetchCancel("s-pay-1", "s-cnl-1");
+		assertEquals("s-cnl-1", reversal.getId());
+		assertEquals("cancel-authorize", reversal.getType());
+		Cancel refund = heidelpay.fetchCancel("s-pay-1", "s-chg-1", "s-cnl-2");
+		assertEquals("s-cnl-2", refund.getId());
+		assertEquals("s-pay-1", refund.getPaymentId());
+		assertEquals("cancel-charge", refund.getType());
+		assertEquals(3, rest.getRequestedUrls().size());
+	}
+	
+	@Test
+	public void testFetchProductionAuthorizationIsASingleRequest() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/p-pay-1/authorize/p-aut-1", TestData.transactionResponseJson("p-pay-1", "p-aut-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "s-priv-test");
+
+		assertEquals("p-aut-1", heidelpay.fetchAuthorization("p-pay-1").getId());
+		assertEquals(1, rest.getRequestedUrls().size());
+		assertEquals("GET " + TestData.API_URL + "p-pay-1/authorize/p-aut-1", rest.getRequestedUrls().get(0));
+	}
+
+	@Test
+	public void testFetchAuthorizationByOrderIdUsesThePrefixOfTheKey() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/order-1/authorize/p-aut-1", TestData.transactionResponseJson("p-pay-1", "p-aut-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "p-priv-test");
+
+		assertEquals("p-aut-1", heidelpay.fetchAuthorization("order-1").getId());
+		assertEquals(1, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testFetchUnknownChargeOfKnownPaymentIsNull() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		
+		assertNull(heidelpay.fetchCharge("s-pay-1", "s-chg-200"));
+	}
+	
+	@Test
+	public void testFetchChargeOfUnknownPaymentThrows() throws HttpCommunicationException {
+		Heidelpay heidelpay = new Heidelpay(HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404), "anykey");
+		try {
+			heidelpay.fetchCharge("s-pay-unknown", "s-chg-1");
+			fail("Expected a PaymentException for the unknown payment");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(404), e.getStatusCode());
+		}
+	}
 	
+	@Test
+	public void testParallelFetchPaymentFailsOnFailedTransactionFetch() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"),
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-2")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			heidelpay.setParallelFetch(executor, 2);
+			heidelpay.fetchPayment("s-pay-1");
+			fail("Expected a PaymentException for the unknown charge");
+		} catch (PaymentException e) {
+			assertEquals("COR.400.100.101", e.getPaymentErrorList().get(0).getCode());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testDirectMappingFetchesPaymentWithTransactions() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1"),
+				TestData.transactionJson("cancel-charge", "s-pay-1", "charges/s-chg-1/cancels/s-cnl-1")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/cancels/s-cnl-1", TestData.transactionResponseJson("s-pay-1", "s-cnl-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setDirectMapping(true);
+		Payment payment = heidelpay.fetchPayment("s-pay-1");
+
+		assertEquals(3, rest.getRequestedUrls().size());
+		assertEquals(Payment.State.COMPLETED, payment.getPaymentState());
+		assertEquals("s-crd-1", payment.getPaymentTypeId());
+		assertEquals(0, new BigDecimal("10").compareTo(payment.getAmountTotal()));
+		assertEquals("s-chg-1", payment.getCharge(0).getId());
+		assertEquals(Charge.Status.SUCCESS, payment.getCharge(0).getStatus());
+		assertEquals("4255.2", payment.getCharge(0).getProcessing().getShortId());
+		assertEquals("s-cnl-1", payment.getCharge(0).getCancelList().get(0).getId());
+	}
+
+	@Test
+	public void testDirectMappingThrowsPaymentExceptionForErrorJson() throws HttpCommunicationException {
+		Heidelpay heidelpay = new Heidelpay(HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 200), "anykey");
+		heidelpay.setDirectMapping(true);
+		try {
+			heidelpay.charge(new Charge(), false);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals("COR.400.100.101", e.getPaymentErrorList().get(0).getCode());
+		}
+	}
+
+	@Test
+	public void testRepeatedChargeReturnsTheRecordedCharge() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		rest.addResponse("/payments/s-pay-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		heidelpay.setIdempotencyLedger(ledger);
+
+		Charge charge = heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals(IdempotencyRecord.State.COMPLETED, ledger.get("charge:order-1").getState());
+
+		Charge repeated = heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+		assertEquals("s-chg-1", repeated.getId());
+		assertEquals("s-pay-1", repeated.getPaymentId());
+		assertEquals(1, countPosts(rest.getRequestedUrls()));
+	}
+
+	@Test
+	public void testAbandonedChargeIsFoundByItsOrderId() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/order-1", TestData.paymentJson("s-pay-1",
+				TestData.transactionJson("charge", "s-pay-1", "charges/s-chg-1")));
+		rest.addResponse("/charges/s-chg-1", TestData.transactionResponseJson("s-pay-1", "s-chg-1")
+				.replace("\"isSuccess\"", "\"orderId\" : \"order-1\", \"isSuccess\""));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		ledger.begin("charge:order-1");
+		ledger.abandon("charge:order-1");
+		heidelpay.setIdempotencyLedger(ledger);
+
+		Charge charge = heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals(0, countPosts(rest.getRequestedUrls()));
+		assertEquals("s-chg-1", ledger.get("charge:order-1").getTransactionId());
+	}
+
+	@Test
+	public void testAbandonedChargeIsSentAgainIfNotFound() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		ledger.begin("charge:order-1");
+		ledger.abandon("charge:order-1");
+		heidelpay.setIdempotencyLedger(ledger);
+
+		Charge charge = heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+		assertEquals("s-chg-1", charge.getId());
+		assertEquals(1, countPosts(rest.getRequestedUrls()));
+	}
+
+	@Test
+	public void testChargeInFlightIsNotSentAgain() throws Exception {
+		final CountDownLatch posting = new CountDownLatch(1);
+		final CountDownLatch respond = new CountDownLatch(1);
+		final MockHeidelpayRestCommunication rest = new MockHeidelpayRestCommunication() {
+			@Override
+			protected HeidelpayHttpResponse doExecute(HeidelpayHttpRequest request) {
+				if (request.getMethod() == HeidelpayHttpMethod.POST) {
+					posting.countDown();
+					try {
+						respond.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.doExecute(request);
+			}
+		};
+		rest.addResponse("/payments/charges", TestData.transactionResponseJson("s-pay-1", "s-chg-1"));
+		final Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		heidelpay.setIdempotencyLedger(ledger);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Charge> first = executor.submit(new Callable<Charge>() {
+				@Override
+				public Charge call() throws HttpCommunicationException {
+					return heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+				}
+			});
+			assertTrue(posting.await(5, TimeUnit.SECONDS));
+			try {
+				heidelpay.charge((Charge) new Charge().setOrderId("order-1"), false);
+				fail("Expected a PaymentException");
+			} catch (PaymentException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("charge:order-1"));
+			}
+			respond.countDown();
+
+			assertEquals("s-chg-1", first.get(5, TimeUnit.SECONDS).getId());
+			assertEquals(1, countPosts(rest.getRequestedUrls()));
+			assertEquals(IdempotencyRecord.State.COMPLETED, ledger.get("charge:order-1").getState());
+		} finally {
+			respond.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRejectedChargeIsRemovedFromTheLedger() throws HttpCommunicationException {
+		PaymentService paymentService = setUpPaymentService(TestData.errorJson(), 400);
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		paymentService.setIdempotencyLedger(ledger);
+		try {
+			paymentService.charge((Charge) new Charge().setOrderId("order-1"), false);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(400), e.getStatusCode());
+		}
+		assertNull(ledger.get("charge:order-1"));
+	}
+
+	@Test
+	public void testChargeWithServerErrorIsAbandoned() throws HttpCommunicationException {
+		PaymentService paymentService = setUpPaymentService(TestData.errorJson(), 500);
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		paymentService.setIdempotencyLedger(ledger);
+		Charge charge = new Charge();
+		try {
+			paymentService.charge(charge, false);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertEquals(Integer.valueOf(500), e.getStatusCode());
+		}
+		assertNotNull("A random orderId is expected", charge.getOrderId());
+		assertEquals(IdempotencyRecord.State.ABANDONED, ledger.get("charge:" + charge.getOrderId()).getState());
+	}
+
+	@Test
+	public void testAbandonedCancelIsNotSentAgain() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		InMemoryIdempotencyLedger ledger = new InMemoryIdempotencyLedger();
+		ledger.begin("cancel-charge:refund-1");
+		ledger.abandon("cancel-charge:refund-1");
+		heidelpay.setIdempotencyLedger(ledger);
+		try {
+			heidelpay.cancelCharge("s-pay-1", "s-chg-1", (Cancel) new Cancel().setOrderId("refund-1"), false);
+			fail("Expected a PaymentException");
+		} catch (PaymentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("cancel-charge:refund-1"));
+		}
+		assertEquals(0, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testShallowResourcesMapTheCreatedPaymentTypeOfEachType() throws HttpCommunicationException {
+		PaymentType[] paymentTypes = new PaymentType[] {new Card("4711100000000000", "03/20"), new Eps(),
+				new Giropay(), new Ideal(), new Invoice(), new InvoiceGuaranteed(), new InvoiceFactoring(),
+				new InvoiceSecured(), new Paypal(), new Prepayment(), new Przelewy24(),
+				new SepaDirectDebit("DE89370400440532013000"), new SepaDirectDebitGuaranteed("DE89370400440532013000"),
+				new SepaDirectDebitSecured("DE89370400440532013000"), new Sofort(), new Pis(), new Alipay(),
+				new Wechatpay(), new Bancontact(""), new PostFinanceCard(), new PostFinanceEFinance()};
+		PaymentTypeEnum[] typeEnums = new PaymentTypeEnum[] {PaymentTypeEnum.CARD, PaymentTypeEnum.EPS,
+				PaymentTypeEnum.GIROPAY, PaymentTypeEnum.IDEAL, PaymentTypeEnum.INVOICE,
+				PaymentTypeEnum.INVOICE_GUARANTEED, PaymentTypeEnum.INVOICE_FACTORING, PaymentTypeEnum.INVOICE_SECURED,
+				PaymentTypeEnum.PAYPAL, PaymentTypeEnum.PREPAYMENT, PaymentTypeEnum.PRZELEWY24,
+				PaymentTypeEnum.SEPA_DIRECT_DEBIT, PaymentTypeEnum.SEPA_DIRECT_DEBIT_GUARANTEED,
+				PaymentTypeEnum.SEPA_DIRECT_DEBIT_SECURED, PaymentTypeEnum.SOFORT, PaymentTypeEnum.PIS,
+				PaymentTypeEnum.ALIPAY, PaymentTypeEnum.WECHATPAY, PaymentTypeEnum.BANCONTACT,
+				PaymentTypeEnum.PF_CARD, PaymentTypeEnum.PF_EFINANCE};
+		for (int i = 0; i < paymentTypes.length; i++) {
+			PaymentType paymentType = paymentTypes[i];
+			MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+			String typeId = "s-" + typeEnums[i].getShortName() + "-1";
+			rest.addResponse(paymentType.getTypeUrl(), "{\"id\":\"" + typeId + "\",\"cardDetails\":{},\"geoLocation\":"
+					+ "{\"clientIp\":\"127.0.0.1\",\"countryIsoA2\":\"DE\"}}");
+			Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+			heidelpay.setShallowResources(true);
+
+			PaymentType created = heidelpay.createPaymentType(paymentType);
+
+			assertEquals(paymentType.getClass().getSimpleName(), 1, rest.getRequestedUrls().size());
+			assertEquals(paymentType.getClass(), created.getClass());
+			assertEquals(typeId, created.getId());
+		}
+	}
+
+	@Test
+	public void testShallowResourcesFetchPaymentTypeOfIncompleteResponse() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/types/sofort", "{\"id\":\"s-sft-1\"}");
+		rest.addResponse("/s-sft-1", "{\"id\":\"s-sft-1\",\"geoLocation\":"
+				+ "{\"clientIp\":\"127.0.0.1\",\"countryIsoA2\":\"DE\"}}");
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setShallowResources(true);
+
+		Sofort sofort = heidelpay.createPaymentType(new Sofort());
+
+		assertEquals("s-sft-1", sofort.getId());
+		assertEquals("127.0.0.1", sofort.getGeoLocation().getClientIp());
+		assertEquals(2, rest.getRequestedUrls().size());
+		assertTrue(rest.getRequestedUrls().get(1).startsWith("GET "));
+	}
+
+	@Test
+	public void testShallowResourcesMergeCustomerWithTheReturnedId() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/customers", "{\"id\":\"s-cst-1\"}");
+		rest.addResponse("/customers/s-cst-2", "{\"id\":\"s-cst-2\",\"firstname\":\"Max\",\"lastname\":\"Mustermann\"}");
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setShallowResources(true);
+
+		Customer customer = new Customer("Max", "Mustermann");
+		assertSame(customer, heidelpay.createCustomer(customer));
+		assertEquals("s-cst-1", customer.getId());
+
+		Customer updated = heidelpay.updateCustomer("s-cst-2", new Customer("Maxi", "Mustermann"));
+		assertEquals("s-cst-2", updated.getId());
+		assertEquals("Max", updated.getFirstname());
+
+		assertEquals(2, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testShallowResourcesSkipFetchBasketAfterUpdate() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse("{\"id\":\"s-bsk-1\"}", 200);
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+		heidelpay.setShallowResources(true);
+		Basket basket = new Basket().setOrderId("order-1");
+
+		Basket updated = heidelpay.updateBasket(basket, "s-bsk-1");
+
+		assertSame(basket, updated);
+		assertEquals("s-bsk-1", updated.getId());
+		assertEquals(1, rest.getRequestedUrls().size());
+	}
+
+	@Test
+	public void testCreatedCustomerIsFetchedByDefault() throws HttpCommunicationException {
+		MockHeidelpayRestCommunication rest = HttpCommunicationMockUtils.withFixedResponse(TestData.errorJson(), 404);
+		rest.addResponse("/customers", "{\"id\":\"s-cst-1\"}");
+		rest.addResponse("/customers/s-cst-1", "{\"id\":\"s-cst-1\",\"firstname\":\"Max\",\"lastname\":\"Mustermann\"}");
+		Heidelpay heidelpay = new Heidelpay(rest, "anykey");
+
+		Customer customer = new Customer("Max", "Mustermann");
+		Customer created = heidelpay.createCustomer(customer);
+
+		assertEquals("s-cst-1", created.getId());
+		assertNull(customer.getId());
+		assertEquals(2, rest.getRequestedUrls().size());
+	}
+
+	private static int countPosts(List<String> requestedUrls) {
+		int posts = 0;
+		for (String url : requestedUrls) {
+			if (url.startsWith("POST ")) {
+				posts++;
+			}
+		}
+		return posts;
+	}
+
 }
@@ -0,0 +1,128 @@
+package com.heidelpay.payment.service;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.heidelpay.payment.Authorization;
+import com.heidelpay.payment.Basket;
+import com.heidelpay.payment.Charge;
+import com.heidelpay.payment.Recurring;
+import com.heidelpay.payment.Shipment;
+import com.heidelpay.payment.marketplace.MarketplaceCancel;
+import com.heidelpay.payment.marketplace.MarketplaceCharge;
+import com.heidelpay.payment.paymenttypes.Card;
+
+public class UrlUtilTest {
+
+	private static final String API = "https://api.heidelpay.com/v1/";
+
+	@Test
+	public void testTypeRoutes() {
+		UrlUtil urlUtil = new UrlUtil(API);
+		Charge charge = new Charge();
+		assertEquals(API + "payments/charges", urlUtil.getRestUrl(charge));
+		assertEquals(API + "payments/s-pay-1/charges/", urlUtil.getPaymentUrl(charge, "s-pay-1"));
+		assertEquals(API + "payments/s-pay-1/charges/s-chg-1", urlUtil.getPaymentUrl(charge, "s-pay-1", "s-chg-1"));
+		assertEquals(API + "payments/charges/s-chg-1", urlUtil.getHttpGetUrl(charge, "s-chg-1"));
+		assertEquals(API + "payments/s-pay-1/authorize/s-aut-1", urlUtil.getPaymentUrl(new Authorization(), "s-pay-1", "s-aut-1"));
+		assertEquals(API + "payments/s-pay-1/shipments/", urlUtil.getPaymentUrl(new Shipment(), "s-pay-1"));
+		assertEquals(API + "types/card", urlUtil.getRestUrl(new Card("4444333322221111", "03/20")));
+		assertEquals(API + "types/card/s-crd-1", urlUtil.getHttpGetUrl(new Card("4444333322221111", "03/20"), "s-crd-1"));
+	}
+
+	@Test
+	public void testTypeRoutesWithoutPaymentIdIgnoreIt() {
+		UrlUtil urlUtil = new UrlUtil(API);
+		assertEquals(API + "baskets/", urlUtil.getPaymentUrl(new Basket(), "s-pay-1"));
+		assertEquals(API + "baskets/s-bsk-1", urlUtil.getPaymentUrl(new Basket(), "s-pay-1", "s-bsk-1"));
+	}
+
+	@Test
+	public void testFixedRoutes() {
+		UrlUtil urlUtil = new UrlUtil(API);
+		assertEquals(API + "payments/s-pay-1/charges/s-chg-1/cancels", urlUtil.getRefundUrl("s-pay-1", "s-chg-1"));
+		Recurring recurring = new Recurring();
+		recurring.setTypeId("s-crd-1");
+		assertEquals(API + "types/s-crd-1/recurring", urlUtil.getRecurringUrl(recurring));
+		assertEquals(API + "types/hire-purchase-direct-debit/plans?amount=100.5&currency=EUR&effectiveInterest=5.99&orderDate=1970-01-01",
+				urlUtil.getHirePurchaseRateUrl(new BigDecimal("100.50"), Currency.getInstance("EUR"), new BigDecimal("5.99"), new Date(0)));
+	}
+
+	@Test
+	public void testEndPointWithoutSlash() {
+		UrlUtil urlUtil = new UrlUtil("https://sbx-api.heidelpay.com/v1");
+		assertEquals("https://sbx-api.heidelpay.com/v1", urlUtil.getRestUrl());
+		assertEquals("https://sbx-api.heidelpay.com/v1/payments/charges", urlUtil.getRestUrl(new Charge()));
+		assertEquals("https://sbx-api.heidelpay.com/v1/payments/s-pay-1/charges/s-chg-1/cancels", urlUtil.getRefundUrl("s-pay-1", "s-chg-1"));
+		assertEquals("https://sbx-api.heidelpay.com/v1/types/hire-purchase-direct-debit/plans?amount=1&currency=EUR&effectiveInterest=0&orderDate=1970-01-01",
+				urlUtil.getHirePurchaseRateUrl(BigDecimal.ONE, Currency.getInstance("EUR"), BigDecimal.ZERO, new Date(0)));
+	}
+
+	@Test
+	public void testEndPointOfPropertiesWithoutEndPoint() {
+		assertEquals(new UrlUtil("").getRestUrl(), new UrlUtil(null).getRestUrl());
+		assertEquals(new UrlUtil(null).getRestUrl() + "payments/charges", new UrlUtil(null).getRestUrl(new Charge()));
+	}
+
+	@Test
+	public void testRouteTableIsSharedPerEndPoint() {
+		assertSame(RouteTable.forEndPoint(API), RouteTable.forEndPoint(API));
+		assertSame(RouteTable.forEndPoint(API).getRoute("payments/<paymentId>/charges"), RouteTable.forEndPoint(API).getRoute("payments/<paymentId>/charges"));
+		assertSame(new UrlUtil(API).getRestUrl(new Charge()), new UrlUtil(API).getRestUrl(new Charge()));
+	}
+
+	@Test
+	public void testMarketplaceRoutes() {
+		MarketplaceCancel cancel = new MarketplaceCancel();
+		assertEquals("marketplace/payments/s-pay-1/authorize/cancels", cancel.getFullAuthorizeCancelUrl("s-pay-1"));
+		assertEquals("marketplace/payments/s-pay-1/charges/cancels", cancel.getFullChargesCancelUrl("s-pay-1"));
+		assertEquals("marketplace/payments/s-pay-1/authorize/s-aut-1/cancels", cancel.getPartialAuthorizeCancelUrl("s-pay-1", "s-aut-1"));
+		assertEquals("marketplace/payments/s-pay-1/charges/s-chg-1/cancels", cancel.getPartialChargeCancelUrl("s-pay-1", "s-chg-1"));
+		MarketplaceCharge charge = new MarketplaceCharge();
+		assertEquals("marketplace/payments/s-pay-1/authorize/charges", charge.getFullChargeAuthorizationsUrl("s-pay-1"));
+		assertEquals("marketplace/payments/s-pay-1/authorize/s-aut-1/charges", charge.getChargeAuthorizationUrl("s-pay-1", "s-aut-1"));
+	}
+
+	@Test
+	public void testTemplate() {
+		UrlTemplate template = new UrlTemplate("payments/<paymentId>/charges/<chargeId>/<unknown>", "<chargeId>", "<paymentId>");
+		assertEquals(2, template.getPlaceholderCount());
+		assertEquals("payments/s-pay-1/charges/s-chg-1/<unknown>", template.expand("s-pay-1", "s-chg-1"));
+		assertEquals("<id>", new UrlTemplate("<id>", "<id>").expand("<id>"));
+		assertEquals("baskets", new UrlTemplate("baskets", "<paymentId>").expand());
+		try {
+			template.expand("s-pay-1");
+			fail("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Url template 'payments/<paymentId>/charges/<chargeId>/<unknown>' takes 2 values, got 1", e.getMessage());
+		}
+	}
+}
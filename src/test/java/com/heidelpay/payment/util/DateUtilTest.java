@@ -0,0 +1,134 @@
+package com.heidelpay.payment.util;
+
+/*-
+ * #%L
+ * Heidelpay Java SDK
+ * %%
+ * Copyright (C) 2018 Heidelpay GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DateUtilTest {
+
+	private TimeZone defaultZone;
+	private Locale defaultLocale;
+
+	@Before
+	public void rememberDefaults() {
+		defaultZone = TimeZone.getDefault();
+		defaultLocale = Locale.getDefault();
+	}
+
+	@After
+	public void restoreDefaults() {
+		TimeZone.setDefault(defaultZone);
+		Locale.setDefault(defaultLocale);
+	}
+
+	@Test
+	public void testFormatIsSameAsSimpleDateFormat() {
+		for (String zone : new String[] { "UTC", "Europe/Berlin", "America/New_York", "Asia/Kolkata" }) {
+			TimeZone.setDefault(TimeZone.getTimeZone(zone));
+			Random random = new Random(zone.hashCode());
+			for (int i = 0; i < 2000; i++) {
+				// years 1 to 12000, including the julian calendar before 1582
+				Date date = new Date(-62135596800000L + (long) (random.nextDouble() * 12000 * 365.25 * 24 * 3600 * 1000));
+				assertFormat(date);
+			}
+			assertFormat(new Date(0));
+			assertFormat(new Date(-62135596800001L));
+		}
+	}
+
+	@Test
+	public void testParseIsSameAsSimpleDateFormat() throws ParseException {
+		for (String zone : new String[] { "UTC", "Europe/Berlin" }) {
+			TimeZone.setDefault(TimeZone.getTimeZone(zone));
+			for (String value : new String[] { "2019-01-31", "2019-03-31 02:30:00", "2019-10-27 02:30:00", "0999-12-31 23:59:59",
+					"2019-13-45", "2019-02-30 24:61:61", "2019-01-0x", "2019-01-05 10:00:00.123" }) {
+				assertEquals(value, new SimpleDateFormat(value.length() == 10 ? "yyyy-MM-dd" : "yyyy-MM-dd HH:mm:ss").parse(value),
+						DateUtil.parse(value));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidDatesAreNotParsed() {
+		for (String value : new String[] { "2019/01/05 10:00:00", "2019-1-5", "2019-01-05 10:00", "" }) {
+			try {
+				DateUtil.parse(value);
+				fail("Expected a ParseException for " + value);
+			} catch (ParseException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testChangesOfTheDefaultTimeZoneAndLocaleAreApplied() throws ParseException {
+		Date date = new Date(1546300800000L);
+		TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+		assertEquals("2019-01-01 00:00:00", DateUtil.formatDateTime(date));
+		TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+		assertEquals("2019-01-01 01:00:00", DateUtil.formatDateTime(date));
+		assertEquals(date, DateUtil.parse("2019-01-01 01:00:00"));
+
+		Locale.setDefault(new Locale("th", "TH", "TH"));
+		assertFormat(date);
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd").parse("2562-01-01"), DateUtil.parse("2562-01-01"));
+	}
+
+	@Test
+	public void testFormatAllocatesLessThanSimpleDateFormat() throws ParseException {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		Date date = new Date();
+		for (int i = 0; i < 10000; i++) {
+			DateUtil.parse(DateUtil.formatDateTime(date));
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10000; i++) {
+			DateUtil.parse(DateUtil.formatDateTime(date));
+		}
+		long bytesPerCall = (threads.getThreadAllocatedBytes(threadId) - before) / 10000;
+		// a SimpleDateFormat alone allocates a few kilobytes
+		assertTrue("Allocated " + bytesPerCall + " bytes per format and parse", bytesPerCall < 600);
+	}
+
+	private void assertFormat(Date date) {
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd").format(date), DateUtil.formatDate(date));
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date), DateUtil.formatDateTime(date));
+	}
+}